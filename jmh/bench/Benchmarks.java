@@ -0,0 +1,96 @@
+package bench;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * benchmarks.jar 的入口：在 JMH 命令行的基础上默认开启 GC 剖析器（-prof gc），结果保存为 CSV，并可以与基线比较
+ *
+ *      java -jar target/benchmarks.jar [JMH 参数] [--baseline 旧结果.csv] [--tolerance 0.2]
+ *
+ *      -prof            指定了其他剖析器时不再自动加 gc
+ *      -rf / -rff       默认 -rf csv -rff jmh-result.csv
+ *      --baseline       与之前保存的 CSV 比较（见 ResultTable），有回归时输出回归项并以状态码 1 退出
+ *
+ * 其余参数原样交给 JMH，例如 -l 列出全部测试，-p size=1000 只跑部分参数。
+ */
+public class Benchmarks {
+
+    static final String DEFAULT_RESULT = "jmh-result.csv";
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException, IOException {
+        Path baseline = null;
+        double tolerance = 0.2;
+        List<String> jmhArgs = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--baseline":
+                    baseline = Paths.get(value(args, ++i));
+                    break;
+                case "--tolerance":
+                    try {
+                        tolerance = Double.parseDouble(value(args, ++i));
+                    } catch (NumberFormatException e) {
+                        throw new IllegalArgumentException("--tolerance needs a number, got " + args[i]);
+                    }
+                    if (!(tolerance >= 0)) {
+                        throw new IllegalArgumentException("--tolerance must not be negative: " + args[i]);
+                    }
+                    break;
+                default:
+                    jmhArgs.add(args[i]);
+            }
+        }
+        CommandLineOptions cli = new CommandLineOptions(jmhArgs.toArray(new String[0]));
+        if (cli.shouldHelp() || cli.shouldList() || cli.shouldListWithParams() || cli.shouldListProfilers() || cli.shouldListResultFormats()) {
+            org.openjdk.jmh.Main.main(jmhArgs.toArray(new String[0]));
+            return;
+        }
+        ChainedOptionsBuilder builder = new OptionsBuilder().parent(cli);
+        if (cli.getProfilers().isEmpty()) {
+            builder.addProfiler(GCProfiler.class);
+        }
+        if (!cli.getResultFormat().hasValue()) {
+            builder.resultFormat(ResultFormatType.CSV);
+        } else if (baseline != null && cli.getResultFormat().get() != ResultFormatType.CSV) {
+            throw new IllegalArgumentException("--baseline needs CSV results, got -rf " + cli.getResultFormat().get());
+        }
+        if (!cli.getResult().hasValue()) {
+            builder.result(DEFAULT_RESULT);
+        }
+        //先读基线，文件有问题时不必等全部测试跑完才报错
+        ResultTable base = baseline == null ? null : ResultTable.read(baseline);
+        Options options = builder.build();
+        new Runner(options).run();
+
+        if (base != null) {
+            Path result = Paths.get(options.getResult().orElse(DEFAULT_RESULT));
+            List<String> regressions = base.regressions(ResultTable.read(result), tolerance);
+            regressions.forEach(System.out::println);
+            if (!regressions.isEmpty()) {
+                System.exit(1);
+            }
+            System.out.println("与基线 " + baseline + " 相比没有回归");
+        }
+    }
+
+    private static String value(String[] args, int i) {
+        if (i >= args.length) {
+            throw new IllegalArgumentException(args[i - 1] + " needs a value");
+        }
+        return args[i];
+    }
+}
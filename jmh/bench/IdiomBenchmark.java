@@ -0,0 +1,222 @@
+package bench;
+
+import domain.Apple;
+import domain.Dish;
+import domain.Transaction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import util.LambdaUtils;
+
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+/**
+ * 在生成的数据集上重跑 StreamDemo、LambdaDemo 中各个写法的性能结论
+ *
+ *      mvn package
+ *      java -jar target/benchmarks.jar IdiomBenchmark                      全部规模（1e3 ~ 1e8），顺序流和并行流
+ *      java -jar target/benchmarks.jar IdiomBenchmark -p size=1000,1000000  只跑部分规模
+ *      java -jar target/benchmarks.jar IdiomBenchmark -jvmArgsAppend -Xmx12g
+ *
+ * 每个结果是完整执行一次流水线的平均耗时，gc.alloc.rate.norm 是每次执行分配的字节数（GC 剖析器默认开启，见 Benchmarks）。
+ * 每个测试只生成自己用到的数据集；1e8 个元素的数据集约需要 4GB 堆（LinkedList 再加 3GB），堆不够时该组合报错跳过。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IdiomBenchmark {
+
+    /**
+     * 元素个数
+     */
+    @State(Scope.Benchmark)
+    public static class Sized {
+        @Param({"1000", "100000", "1000000", "10000000", "100000000"})
+        public int size;
+
+        /**
+         * 数据集放不进堆时直接报错，而不是在生成到一半时 OutOfMemoryError
+         */
+        void require(long bytesPerElement) {
+            long needed = size * bytesPerElement;
+            if (needed > Runtime.getRuntime().maxMemory() * 3 / 4) {
+                throw new IllegalStateException(size + " elements need about " + (needed >> 20) + " MB of heap, run with -jvmArgsAppend -Xmx"
+                        + ((needed * 4 / 3 >> 30) + 1) + "g");
+            }
+        }
+    }
+
+    /**
+     * 顺序流还是并行流
+     */
+    @State(Scope.Benchmark)
+    public static class Execution {
+        @Param({"false", "true"})
+        public boolean parallel;
+
+        <T> Stream<T> stream(List<T> list) {
+            return parallel ? list.parallelStream() : list.stream();
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Dishes extends Sized {
+        List<Dish> list;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            require(40);
+            list = Datasets.dishes(size, 42);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class LinkedDishes extends Sized {
+        List<Dish> list;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            require(40 + 24);
+            list = new LinkedList<>(Datasets.dishes(size, 42));
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Transactions extends Sized {
+        List<Transaction> list;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            require(32);
+            list = Datasets.transactions(size, 42);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Apples extends Sized {
+        List<Apple> list;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            require(32);
+            list = Datasets.apples(size, 42);
+        }
+    }
+
+    // ---------------------------------------------------------------- 第 4 章：filter -> map -> collect
+
+    @Benchmark
+    public List<String> filterMapCollect(Dishes dishes, Execution execution) {
+        return execution.stream(dishes.list)
+                .filter(Dish::isVegetarian)
+                .map(Dish::getName)
+                .collect(Collectors.toList());
+    }
+
+    // ---------------------------------------------------------------- 第 5 章：装箱的 reduce 与 mapToInt 特化流
+
+    @Benchmark
+    public int boxedReduce(Dishes dishes, Execution execution) {
+        return execution.stream(dishes.list)
+                .map(Dish::getCalories)
+                .reduce(0, Integer::sum);
+    }
+
+    @Benchmark
+    public int mapToIntSum(Dishes dishes, Execution execution) {
+        return execution.stream(dishes.list)
+                .mapToInt(Dish::getCalories)
+                .sum();
+    }
+
+    // ---------------------------------------------------------------- 第 5 章、第 7 章：findFirst 与 findAny，匹配的元素大约每 400 个出现一次
+
+    @Benchmark
+    public int findFirst(Dishes dishes, Execution execution) {
+        return execution.stream(dishes.list)
+                .filter(dish -> dish.getCalories() > 897)
+                .findFirst()
+                .map(Dish::getCalories)
+                .orElse(0);
+    }
+
+    @Benchmark
+    public int findAny(Dishes dishes, Execution execution) {
+        return execution.stream(dishes.list)
+                .filter(dish -> dish.getCalories() > 897)
+                .findAny()
+                .map(Dish::getCalories)
+                .orElse(0);
+    }
+
+    // ---------------------------------------------------------------- 第 7 章：数据源的可分解性
+
+    @Benchmark
+    public int arrayListSum(Dishes dishes, Execution execution) {
+        return execution.stream(dishes.list).mapToInt(Dish::getCalories).sum();
+    }
+
+    @Benchmark
+    public int linkedListSum(LinkedDishes dishes, Execution execution) {
+        return execution.stream(dishes.list).mapToInt(Dish::getCalories).sum();
+    }
+
+    // ---------------------------------------------------------------- 第 7 章：Stream.iterate 无法有效拆分，LongStream.rangeClosed 可以
+
+    @Benchmark
+    public long iterateReduce(Sized n, Execution execution) {
+        Stream<Long> s = Stream.iterate(1L, i -> i + 1).limit(n.size);
+        return (execution.parallel ? s.parallel() : s).reduce(0L, Long::sum);
+    }
+
+    @Benchmark
+    public long rangeClosedSum(Sized n, Execution execution) {
+        LongStream s = LongStream.rangeClosed(1, n.size);
+        return (execution.parallel ? s.parallel() : s).sum();
+    }
+
+    // ---------------------------------------------------------------- 第 6 章：按年份分组求和
+
+    @Benchmark
+    public Map<Integer, Integer> groupingBy(Transactions transactions, Execution execution) {
+        return execution.stream(transactions.list)
+                .collect(Collectors.groupingBy(Transaction::getYear, Collectors.summingInt(Transaction::getValue)));
+    }
+
+    @Benchmark
+    public Map<Integer, Integer> groupingByConcurrent(Transactions transactions, Execution execution) {
+        return execution.stream(transactions.list)
+                .collect(Collectors.groupingByConcurrent(Transaction::getYear, Collectors.summingInt(Transaction::getValue)));
+    }
+
+    // ---------------------------------------------------------------- LambdaDemo：LambdaUtils.filter 与 Stream.filter
+
+    @Benchmark
+    public int lambdaUtilsFilter(Apples apples) {
+        return LambdaUtils.filter(apples.list, apple -> "red".equals(apple.getColor()) && apple.getHeight() > 50).size();
+    }
+
+    @Benchmark
+    public long streamFilter(Apples apples, Execution execution) {
+        return execution.stream(apples.list)
+                .filter(apple -> "red".equals(apple.getColor()) && apple.getHeight() > 50)
+                .count();
+    }
+}
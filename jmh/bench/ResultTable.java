@@ -0,0 +1,192 @@
+package bench;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * JMH 的 CSV 结果（-rf csv），用于不同版本之间的回归检查
+ *
+ * 每一行以 测试名 + 全部参数 为键；GC 剖析器的 gc.alloc.rate.norm 行（每次操作分配的字节数）并入对应测试的结果。
+ * 回归的判断：
+ *      耗时      avgt / sample / ss 模式下分数超过基线 (1 + tolerance) 倍，thrpt 模式下低于基线的 1 / (1 + tolerance)
+ *      分配      每次操作的分配超过基线 (1 + tolerance) 倍且多出 16 字节以上
+ * 基线中没有的测试（新加的）忽略；基线中有、本次却没有结果的测试也算回归（例如 Setup 失败或 fork 崩溃时 JMH 只是跳过它），
+ * 所以只跑部分测试时，要与同样范围的基线比较。
+ */
+public class ResultTable {
+
+    private static final String ALLOC_SUFFIX = ":gc.alloc.rate.norm";
+
+    private final Map<String, Row> rows = new LinkedHashMap<>();
+
+    private ResultTable() {
+    }
+
+    public static ResultTable read(Path csv) {
+        List<String> lines;
+        try {
+            lines = Files.readAllLines(csv, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (lines.isEmpty()) {
+            throw new IllegalArgumentException("empty result file: " + csv);
+        }
+        List<String> header = split(lines.get(0));
+        int benchmark = column(header, "Benchmark", csv);
+        int mode = column(header, "Mode", csv);
+        int score = column(header, "Score", csv);
+        int unit = column(header, "Unit", csv);
+        ResultTable table = new ResultTable();
+        for (int i = 1; i < lines.size(); i++) {
+            if (lines.get(i).isEmpty()) {
+                continue;
+            }
+            List<String> columns = split(lines.get(i));
+            if (columns.size() != header.size()) {
+                throw new IllegalArgumentException(csv + " line " + (i + 1) + ": expected " + header.size() + " columns but found " + columns.size());
+            }
+            String name = columns.get(benchmark);
+            boolean alloc = name.endsWith(ALLOC_SUFFIX);
+            if (alloc) {
+                name = name.substring(0, name.length() - ALLOC_SUFFIX.length());
+            } else if (name.indexOf(':') >= 0) {
+                //其他剖析器的次要结果
+                continue;
+            }
+            StringBuilder key = new StringBuilder(name);
+            for (int c = 0; c < header.size(); c++) {
+                if (header.get(c).startsWith("Param: ")) {
+                    key.append(' ').append(header.get(c).substring(7)).append('=').append(columns.get(c));
+                }
+            }
+            Row row = table.rows.computeIfAbsent(key.toString(), Row::new);
+            double value = Double.parseDouble(columns.get(score));
+            if (alloc) {
+                row.allocBytes = value;
+            } else {
+                row.mode = columns.get(mode);
+                row.score = value;
+                row.unit = columns.get(unit);
+            }
+        }
+        return table;
+    }
+
+    private static int column(List<String> header, String name, Path csv) {
+        int index = header.indexOf(name);
+        if (index < 0) {
+            throw new IllegalArgumentException(csv + " is not a JMH CSV result: no \"" + name + "\" column");
+        }
+        return index;
+    }
+
+    /**
+     * 逗号分隔，字段可以用双引号括起来（JMH 只给字符串加引号，不会出现转义的引号）
+     */
+    private static List<String> split(String line) {
+        List<String> columns = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '"') {
+                quoted = !quoted;
+            } else if (c == ',' && !quoted) {
+                columns.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        columns.add(current.toString());
+        return columns;
+    }
+
+    public Map<String, Row> rows() {
+        return rows;
+    }
+
+    /**
+     * 以当前对象为基线
+     *
+     * @return 回归项的说明，没有回归时为空
+     */
+    public List<String> regressions(ResultTable current, double tolerance) {
+        if (tolerance < 0) {
+            throw new IllegalArgumentException("tolerance must not be negative: " + tolerance);
+        }
+        List<String> regressions = new ArrayList<>();
+        for (Row base : rows.values()) {
+            Row now = current.rows.get(base.key);
+            if (now == null || (base.mode != null && now.mode == null)) {
+                regressions.add(base.key + ": missing from the current run");
+            }
+        }
+        for (Row now : current.rows.values()) {
+            Row base = rows.get(now.key);
+            if (base == null) {
+                continue;
+            }
+            if (base.mode != null && base.mode.equals(now.mode) && base.unit.equals(now.unit)) {
+                boolean throughput = "thrpt".equals(now.mode);
+                boolean slower = throughput ? now.score * (1 + tolerance) < base.score : now.score > base.score * (1 + tolerance);
+                if (slower) {
+                    regressions.add(String.format(Locale.ROOT, "%s: %.3f %s -> %.3f %s (%+.1f%%)",
+                            now.key, base.score, base.unit, now.score, now.unit, (now.score / base.score - 1) * 100));
+                }
+            }
+            if (!Double.isNaN(base.allocBytes) && !Double.isNaN(now.allocBytes)
+                    && now.allocBytes > base.allocBytes * (1 + tolerance) && now.allocBytes - base.allocBytes > 16) {
+                regressions.add(String.format(Locale.ROOT, "%s: %.1f B/op -> %.1f B/op", now.key, base.allocBytes, now.allocBytes));
+            }
+        }
+        return regressions;
+    }
+
+    public static class Row {
+        private final String key;
+        private String mode;
+        private double score = Double.NaN;
+        private String unit;
+        private double allocBytes = Double.NaN;
+
+        Row(String key) {
+            this.key = key;
+        }
+
+        /**
+         * 测试名 + 参数，例如 bench.IdiomBenchmark.findAny parallel=true size=1000
+         */
+        public String getKey() {
+            return key;
+        }
+
+        public String getMode() {
+            return mode;
+        }
+
+        public double getScore() {
+            return score;
+        }
+
+        public String getUnit() {
+            return unit;
+        }
+
+        /**
+         * 每次操作分配的字节数，没有开启 GC 剖析器时为 NaN
+         */
+        public double getAllocBytes() {
+            return allocBytes;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package bitmap;
+
+import bench.Datasets;
+import domain.Dish;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 位图索引与 filter 谓词的对比（BitmapDemo 中的三个查询）
+ *
+ *      java -jar target/benchmarks.jar BitmapBenchmark
+ *
+ * Setup 时先校验两种写法的结果一致。卡路里区间的查询分两种：320 ~ 650 的边界桶要回到卡路里列逐行判断，
+ * 300 ~ 699 与 100 卡路里的桶对齐，只做位运算。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BitmapBenchmark {
+
+    @Param({"100000", "1000000"})
+    public int size;
+
+    private List<Dish> dishes;
+    private DishIndex index;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        dishes = Datasets.dishes(size, 42);
+        index = DishIndex.of(dishes);
+        check(streamMeat(), bitmapMeat());
+        check(streamCompound(), bitmapCompound());
+        check(dishes.stream().filter(d -> (d.isVegetarian() || d.getType() == Dish.Type.FISH) && d.getCalories() >= 300 && d.getCalories() <= 699).count(),
+                bitmapCompoundAligned());
+        check(streamNegation(), bitmapNegation());
+    }
+
+    private static void check(long expected, long actual) {
+        if (expected != actual) {
+            throw new IllegalStateException("index mismatch: expected " + expected + " but was " + actual);
+        }
+    }
+
+    // ---------------------------------------------------------------- type == MEAT && calories > 500
+
+    @Benchmark
+    public long streamMeat() {
+        return dishes.stream()
+                .filter(d -> d.getType() == Dish.Type.MEAT && d.getCalories() > 500)
+                .count();
+    }
+
+    @Benchmark
+    public long bitmapMeat() {
+        return index.type(Dish.Type.MEAT).andCardinality(index.caloriesAbove(500));
+    }
+
+    // ---------------------------------------------------------------- (vegetarian || FISH) && 卡路里区间
+
+    @Benchmark
+    public long streamCompound() {
+        return dishes.stream()
+                .filter(d -> (d.isVegetarian() || d.getType() == Dish.Type.FISH) && d.getCalories() >= 320 && d.getCalories() <= 650)
+                .count();
+    }
+
+    @Benchmark
+    public long bitmapCompound() {
+        return index.vegetarian().or(index.type(Dish.Type.FISH)).andCardinality(index.caloriesBetween(320, 650));
+    }
+
+    @Benchmark
+    public long bitmapCompoundAligned() {
+        return index.vegetarian().or(index.type(Dish.Type.FISH)).andCardinality(index.caloriesBetween(300, 699));
+    }
+
+    // ---------------------------------------------------------------- !vegetarian && type != MEAT
+
+    @Benchmark
+    public long streamNegation() {
+        return dishes.stream()
+                .filter(d -> !d.isVegetarian() && d.getType() != Dish.Type.MEAT)
+                .count();
+    }
+
+    @Benchmark
+    public long bitmapNegation() {
+        return index.all().andNot(index.vegetarian()).andNot(index.type(Dish.Type.MEAT)).cardinality();
+    }
+}
@@ -0,0 +1,174 @@
+package text;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import test.TestMain;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * isBlank / trim / 批量字段检查的对比
+ *      1.TestMain.isBlank               逐字符 Character.isWhitespace
+ *      2.BulkStrings.isBlank(byte[])        SWAR，每次判断 8 个字节
+ *      3.String.split + trim + isBlank      逐字段分配 String
+ *      4.RecordFields.scan                  一次扫描整行，在读缓冲区中原地进行，不分配
+ *
+ *      java -jar target/benchmarks.jar StringBenchmark
+ *
+ * 每次调用遍历全部 1024 个字段（64 行），结果按单个字段（单行）折算。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StringBenchmark {
+
+    private static final int FIELDS = 1024;
+    private static final int LINES = FIELDS / 16;
+
+    private String[] fields;
+    private byte[][] fieldBytes;
+    private String[] lines;
+    //所有行首尾相接放在一个数组中（与 ingest.RecordReader 的读缓冲区相同），lineStarts[i] ~ lineEnds[i] 是第 i 行
+    private byte[] text;
+    private int[] lineStarts;
+    private int[] lineEnds;
+    private String padded;
+    private byte[] paddedBytes;
+    private final RecordFields record = new RecordFields(16);
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Random random = new Random(42);
+        fields = new String[FIELDS];
+        fieldBytes = new byte[FIELDS][];
+        for (int i = 0; i < FIELDS; i++) {
+            fields[i] = field(random);
+            fieldBytes[i] = fields[i].getBytes(StandardCharsets.ISO_8859_1);
+            if (TestMain.isBlank(fields[i]) != BulkStrings.isBlank(fields[i])
+                    || TestMain.isBlank(fields[i]) != BulkStrings.isBlank(fieldBytes[i])) {
+                throw new IllegalStateException("mismatch on \"" + fields[i] + "\"");
+            }
+        }
+        lines = new String[LINES];
+        lineStarts = new int[LINES];
+        lineEnds = new int[LINES];
+        StringBuilder all = new StringBuilder();
+        for (int i = 0; i < LINES; i++) {
+            lines[i] = String.join(",", Arrays.copyOfRange(fields, i * 16, i * 16 + 16));
+            lineStarts[i] = all.length();
+            all.append(lines[i]);
+            lineEnds[i] = all.length();
+            all.append('\n');
+        }
+        text = all.toString().getBytes(StandardCharsets.ISO_8859_1);
+        //短字段上两者差不多；定长格式导出的文件中，空字段通常被空格填满，字段越长 SWAR 的优势越明显
+        padded = repeat(' ', 256);
+        paddedBytes = padded.getBytes(StandardCharsets.ISO_8859_1);
+    }
+
+    // ---------------------------------------------------------------- isBlank（每个字段）
+
+    @Benchmark
+    @OperationsPerInvocation(FIELDS)
+    public int testMainIsBlank() {
+        int blank = 0;
+        for (String field : fields) {
+            if (TestMain.isBlank(field)) {
+                blank++;
+            }
+        }
+        return blank;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(FIELDS)
+    public int bulkIsBlank() {
+        int blank = 0;
+        for (byte[] field : fieldBytes) {
+            if (BulkStrings.isBlank(field)) {
+                blank++;
+            }
+        }
+        return blank;
+    }
+
+    // ---------------------------------------------------------------- isBlank（256 个空格的定长字段）
+
+    @Benchmark
+    public boolean testMainIsBlankPadded() {
+        return TestMain.isBlank(padded);
+    }
+
+    @Benchmark
+    public boolean bulkIsBlankPadded() {
+        return BulkStrings.isBlank(paddedBytes);
+    }
+
+    // ---------------------------------------------------------------- 16 个字段的记录（每行）
+
+    @Benchmark
+    @OperationsPerInvocation(LINES)
+    public long splitTrimIsBlank() {
+        long blank = 0;
+        for (String line : lines) {
+            String[] parts = line.split(",", -1);
+            for (int f = 0; f < parts.length; f++) {
+                if (TestMain.isBlank(parts[f].trim())) {
+                    blank ^= 1L << f;
+                }
+            }
+        }
+        return blank;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LINES)
+    public long recordFieldsScan() {
+        long blank = 0;
+        for (int i = 0; i < LINES; i++) {
+            record.scan(text, lineStarts[i], lineEnds[i], (byte) ',');
+            blank ^= record.blankMask();
+        }
+        return blank;
+    }
+
+    /**
+     * 空字段、纯空白、两端带空白的值和长文本各占一部分
+     */
+    static String field(Random random) {
+        switch (random.nextInt(5)) {
+            case 0:
+                return "";
+            case 1:
+                return repeat(' ', 1 + random.nextInt(24));
+            case 2:
+                return "  " + random.nextInt(100000) + " \t";
+            case 3:
+                return repeat(' ', random.nextInt(8)) + "\t\r" + repeat(' ', random.nextInt(8));
+            default:
+                return "Description of dish #" + random.nextInt(1000) + " with some words";
+        }
+    }
+
+    private static String repeat(char c, int n) {
+        char[] chars = new char[n];
+        Arrays.fill(chars, c);
+        return new String(chars);
+    }
+}
@@ -0,0 +1,126 @@
+package validation;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * 0 ~ 100 两位小数校验的三种实现对比：
+ *      1.Pattern.matches          每次调用都编译正则（TestMain 中的写法，正则原样照搬）
+ *      2.PatternCache             同一个正则只编译一次，每次调用仍要创建 Matcher
+ *      3.DecimalRange.PERCENT     手写扫描器，不分配对象
+ *
+ *      java -jar target/benchmarks.jar ValidationBenchmark
+ *
+ * TestMain 的正则有优先级问题：| 把 ^ 和 $ 分给了第一个和最后一个分支，100.00 中的 . 也没有转义，
+ * 所以它接受 "100x00"、拒绝 "100.0"，与 DecimalRange 的语义不同。计时用的是它的原样，
+ * Setup 时改用修正后的 REGEX 校验 DecimalRange 的结果。每次调用校验全部 4096 个输入，结果按单次校验折算。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidationBenchmark {
+
+    /**
+     * 与 TestMain 中的写法完全相同
+     */
+    static final String TEST_MAIN_REGEX = "^([0-9]|[1-9][0-9])(\\.\\d{1,2})|[0-9]|[1-9][0-9]|100|100.00|0|0.00?$";
+    /**
+     * 修正后的写法，与 DecimalRange.PERCENT 等价
+     */
+    static final String REGEX = "^((\\d|[1-9]\\d)(\\.\\d{1,2})?|100(\\.0{1,2})?)$";
+    private static final int INPUTS = 4096;
+
+    private String[] inputs;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        inputs = inputs(INPUTS, 42);
+        Pattern pattern = PatternCache.getDefault().get(REGEX);
+        for (String s : inputs) {
+            if (pattern.matcher(s).matches() != DecimalRange.PERCENT.test(s)) {
+                throw new IllegalStateException("mismatch on \"" + s + "\"");
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(INPUTS)
+    public int patternMatches() {
+        int valid = 0;
+        for (String s : inputs) {
+            if (Pattern.matches(TEST_MAIN_REGEX, s)) {
+                valid++;
+            }
+        }
+        return valid;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(INPUTS)
+    public int patternCache() {
+        int valid = 0;
+        for (String s : inputs) {
+            if (PatternCache.matchesCached(TEST_MAIN_REGEX, s)) {
+                valid++;
+            }
+        }
+        return valid;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(INPUTS)
+    public int decimalRange() {
+        int valid = 0;
+        for (String s : inputs) {
+            if (DecimalRange.PERCENT.test(s)) {
+                valid++;
+            }
+        }
+        return valid;
+    }
+
+    /**
+     * 生成一半合法一半非法的输入
+     */
+    static String[] inputs(int n, long seed) {
+        Random random = new Random(seed);
+        String[] bad = {"", "007", "100.01", "101", "1.234", "abc", "12.", ".5", "-1", "99.9x"};
+        String[] inputs = new String[n];
+        for (int i = 0; i < n; i++) {
+            if ((i & 1) == 0) {
+                int whole = random.nextInt(101);
+                switch (random.nextInt(3)) {
+                    case 0:
+                        inputs[i] = Integer.toString(whole);
+                        break;
+                    case 1:
+                        inputs[i] = whole == 100 ? "100.0" : whole + "." + random.nextInt(10);
+                        break;
+                    default:
+                        inputs[i] = whole == 100 ? "100.00" : whole + "." + (10 + random.nextInt(90));
+                        break;
+                }
+            } else {
+                inputs[i] = bad[random.nextInt(bad.length)];
+            }
+        }
+        return inputs;
+    }
+}
@@ -0,0 +1,76 @@
+package bench;
+
+import domain.Apple;
+import domain.Dish;
+import domain.Trader;
+import domain.Transaction;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 按固定种子生成的测试数据，分布参考 StreamDemo 中的 menuList、transactions 和 LambdaDemo 中的 appleList
+ */
+public final class Datasets {
+
+    private static final String[] CITIES = {"Cambridge", "Milan", "Beijing", "Shanghai"};
+    private static final String[] COLORS = {"red", "green", "yellow", "blue"};
+    private static final Dish.Type[] TYPES = Dish.Type.values();
+    /**
+     * 菜名循环使用这 1024 个字符串：每个元素一个新字符串时，1e8 个元素的数据集大半是菜名
+     */
+    private static final String[] DISH_NAMES = new String[1024];
+
+    static {
+        for (int i = 0; i < DISH_NAMES.length; i++) {
+            DISH_NAMES[i] = "dish" + i;
+        }
+    }
+
+    private Datasets() {
+    }
+
+    /**
+     * 卡路里 100 ~ 899，约三分之一是素菜（素菜的类型总是 OTHER），菜名 dish0 ~ dish1023 循环出现
+     */
+    public static List<Dish> dishes(int n, long seed) {
+        Random random = new Random(seed);
+        List<Dish> dishes = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            boolean vegetarian = random.nextInt(3) == 0;
+            Dish.Type type = vegetarian ? Dish.Type.OTHER : TYPES[random.nextInt(TYPES.length)];
+            dishes.add(new Dish(DISH_NAMES[i & (DISH_NAMES.length - 1)], vegetarian, 100 + random.nextInt(800), type));
+        }
+        return dishes;
+    }
+
+    /**
+     * 64 个交易员分布在 4 个城市，年份 2011 ~ 2020，金额 1 ~ 1000
+     */
+    public static List<Transaction> transactions(int n, long seed) {
+        Random random = new Random(seed);
+        Trader[] traders = new Trader[64];
+        for (int i = 0; i < traders.length; i++) {
+            traders[i] = new Trader("trader" + i, CITIES[i % CITIES.length]);
+        }
+        List<Transaction> transactions = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            transactions.add(new Transaction(traders[random.nextInt(traders.length)], 2011 + random.nextInt(10), 1 + random.nextInt(1000)));
+        }
+        return transactions;
+    }
+
+    /**
+     * 颜色取 red / green / yellow / blue，重量 1 ~ 200
+     */
+    public static List<Apple> apples(int n, long seed) {
+        Random random = new Random(seed);
+        List<Apple> apples = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            //颜色取常量池中的字符串，与 LambdaDemo 中字面量的情况一致
+            apples.add(new Apple(COLORS[random.nextInt(COLORS.length)], 1 + random.nextInt(200)));
+        }
+        return apples;
+    }
+}
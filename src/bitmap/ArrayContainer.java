@@ -0,0 +1,170 @@
+package bitmap;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * 稀疏容器：有序的 char[]
+ */
+final class ArrayContainer extends Container {
+
+    final char[] content;
+    final int cardinality;
+
+    ArrayContainer(char[] content, int cardinality) {
+        this.content = content;
+        this.cardinality = cardinality;
+    }
+
+    @Override
+    int cardinality() {
+        return cardinality;
+    }
+
+    @Override
+    boolean contains(char low) {
+        return Arrays.binarySearch(content, 0, cardinality, low) >= 0;
+    }
+
+    @Override
+    Container and(Container other) {
+        if (other instanceof BitmapContainer) {
+            return other.and(this);
+        }
+        ArrayContainer that = (ArrayContainer) other;
+        char[] out = new char[Math.min(cardinality, that.cardinality)];
+        int n = 0;
+        int i = 0;
+        int j = 0;
+        while (i < cardinality && j < that.cardinality) {
+            char a = content[i];
+            char b = that.content[j];
+            if (a < b) {
+                i++;
+            } else if (a > b) {
+                j++;
+            } else {
+                out[n++] = a;
+                i++;
+                j++;
+            }
+        }
+        return n == 0 ? null : new ArrayContainer(out, n);
+    }
+
+    @Override
+    int andCardinality(Container other) {
+        if (other instanceof BitmapContainer) {
+            return other.andCardinality(this);
+        }
+        ArrayContainer that = (ArrayContainer) other;
+        int n = 0;
+        int i = 0;
+        int j = 0;
+        while (i < cardinality && j < that.cardinality) {
+            char a = content[i];
+            char b = that.content[j];
+            if (a < b) {
+                i++;
+            } else if (a > b) {
+                j++;
+            } else {
+                n++;
+                i++;
+                j++;
+            }
+        }
+        return n;
+    }
+
+    @Override
+    Container or(Container other) {
+        if (other instanceof BitmapContainer) {
+            return other.or(this);
+        }
+        ArrayContainer that = (ArrayContainer) other;
+        //两边有重复时并集可能不超过 4096，先按数组合并，超过了再转成位图
+        char[] out = new char[cardinality + that.cardinality];
+        int n = 0;
+        int i = 0;
+        int j = 0;
+        while (i < cardinality && j < that.cardinality) {
+            char a = content[i];
+            char b = that.content[j];
+            if (a < b) {
+                out[n++] = a;
+                i++;
+            } else if (a > b) {
+                out[n++] = b;
+                j++;
+            } else {
+                out[n++] = a;
+                i++;
+                j++;
+            }
+        }
+        while (i < cardinality) {
+            out[n++] = content[i++];
+        }
+        while (j < that.cardinality) {
+            out[n++] = that.content[j++];
+        }
+        if (n > MAX_ARRAY_SIZE) {
+            BitmapContainer bitmap = new BitmapContainer();
+            for (int k = 0; k < n; k++) {
+                bitmap.add(out[k]);
+            }
+            return bitmap;
+        }
+        return new ArrayContainer(n == out.length ? out : Arrays.copyOf(out, n), n);
+    }
+
+    @Override
+    Container andNot(Container other) {
+        char[] out = new char[cardinality];
+        int n = 0;
+        if (other instanceof BitmapContainer) {
+            BitmapContainer that = (BitmapContainer) other;
+            for (int i = 0; i < cardinality; i++) {
+                if (!that.contains(content[i])) {
+                    out[n++] = content[i];
+                }
+            }
+        } else {
+            ArrayContainer that = (ArrayContainer) other;
+            int j = 0;
+            for (int i = 0; i < cardinality; i++) {
+                char a = content[i];
+                while (j < that.cardinality && that.content[j] < a) {
+                    j++;
+                }
+                if (j == that.cardinality || that.content[j] != a) {
+                    out[n++] = a;
+                }
+            }
+        }
+        return n == 0 ? null : new ArrayContainer(out, n);
+    }
+
+    @Override
+    void forEach(int high, IntConsumer consumer) {
+        int base = high << 16;
+        for (int i = 0; i < cardinality; i++) {
+            consumer.accept(base | content[i]);
+        }
+    }
+
+    @Override
+    int fill(int high, int[] out, int offset) {
+        int base = high << 16;
+        for (int i = 0; i < cardinality; i++) {
+            out[offset + i] = base | content[i];
+        }
+        return cardinality;
+    }
+
+    @Override
+    int sizeInBytes() {
+        return 16 + 2 * content.length;
+    }
+}
@@ -0,0 +1,188 @@
+package bitmap;
+
+import java.util.function.IntConsumer;
+
+/**
+ * 稠密容器：65536 位的位图，交、并、差按 long 逐字计算
+ */
+final class BitmapContainer extends Container {
+
+    private static final int WORDS = 1024;
+
+    final long[] words;
+    int cardinality;
+
+    BitmapContainer() {
+        this(new long[WORDS], 0);
+    }
+
+    private BitmapContainer(long[] words, int cardinality) {
+        this.words = words;
+        this.cardinality = cardinality;
+    }
+
+    /**
+     * 只在构造期间调用
+     */
+    void add(char low) {
+        long before = words[low >>> 6];
+        long after = before | (1L << low);
+        words[low >>> 6] = after;
+        if (before != after) {
+            cardinality++;
+        }
+    }
+
+    @Override
+    int cardinality() {
+        return cardinality;
+    }
+
+    @Override
+    boolean contains(char low) {
+        return (words[low >>> 6] & (1L << low)) != 0;
+    }
+
+    @Override
+    Container and(Container other) {
+        if (other instanceof ArrayContainer) {
+            ArrayContainer that = (ArrayContainer) other;
+            char[] out = new char[that.cardinality];
+            int n = 0;
+            for (int i = 0; i < that.cardinality; i++) {
+                char low = that.content[i];
+                if (contains(low)) {
+                    out[n++] = low;
+                }
+            }
+            return n == 0 ? null : new ArrayContainer(out, n);
+        }
+        long[] thatWords = ((BitmapContainer) other).words;
+        long[] out = new long[WORDS];
+        int n = 0;
+        for (int i = 0; i < WORDS; i++) {
+            out[i] = words[i] & thatWords[i];
+            n += Long.bitCount(out[i]);
+        }
+        return shrink(out, n);
+    }
+
+    @Override
+    int andCardinality(Container other) {
+        if (other instanceof ArrayContainer) {
+            ArrayContainer that = (ArrayContainer) other;
+            int n = 0;
+            for (int i = 0; i < that.cardinality; i++) {
+                if (contains(that.content[i])) {
+                    n++;
+                }
+            }
+            return n;
+        }
+        long[] thatWords = ((BitmapContainer) other).words;
+        int n = 0;
+        for (int i = 0; i < WORDS; i++) {
+            n += Long.bitCount(words[i] & thatWords[i]);
+        }
+        return n;
+    }
+
+    @Override
+    Container or(Container other) {
+        long[] out = words.clone();
+        if (other instanceof ArrayContainer) {
+            ArrayContainer that = (ArrayContainer) other;
+            BitmapContainer result = new BitmapContainer(out, cardinality);
+            for (int i = 0; i < that.cardinality; i++) {
+                result.add(that.content[i]);
+            }
+            return result;
+        }
+        long[] thatWords = ((BitmapContainer) other).words;
+        int n = 0;
+        for (int i = 0; i < WORDS; i++) {
+            out[i] |= thatWords[i];
+            n += Long.bitCount(out[i]);
+        }
+        return new BitmapContainer(out, n);
+    }
+
+    @Override
+    Container andNot(Container other) {
+        long[] out = words.clone();
+        int n;
+        if (other instanceof ArrayContainer) {
+            ArrayContainer that = (ArrayContainer) other;
+            n = cardinality;
+            for (int i = 0; i < that.cardinality; i++) {
+                char low = that.content[i];
+                long bit = 1L << low;
+                if ((out[low >>> 6] & bit) != 0) {
+                    out[low >>> 6] &= ~bit;
+                    n--;
+                }
+            }
+        } else {
+            long[] thatWords = ((BitmapContainer) other).words;
+            n = 0;
+            for (int i = 0; i < WORDS; i++) {
+                out[i] &= ~thatWords[i];
+                n += Long.bitCount(out[i]);
+            }
+        }
+        return shrink(out, n);
+    }
+
+    /**
+     * 基数降到 4096 以下时转回数组表示
+     */
+    private static Container shrink(long[] words, int cardinality) {
+        if (cardinality == 0) {
+            return null;
+        }
+        if (cardinality > MAX_ARRAY_SIZE) {
+            return new BitmapContainer(words, cardinality);
+        }
+        char[] content = new char[cardinality];
+        int n = 0;
+        for (int i = 0; i < WORDS; i++) {
+            long word = words[i];
+            while (word != 0) {
+                content[n++] = (char) ((i << 6) + Long.numberOfTrailingZeros(word));
+                word &= word - 1;
+            }
+        }
+        return new ArrayContainer(content, cardinality);
+    }
+
+    @Override
+    void forEach(int high, IntConsumer consumer) {
+        int base = high << 16;
+        for (int i = 0; i < WORDS; i++) {
+            long word = words[i];
+            while (word != 0) {
+                consumer.accept(base | (i << 6) + Long.numberOfTrailingZeros(word));
+                word &= word - 1;
+            }
+        }
+    }
+
+    @Override
+    int fill(int high, int[] out, int offset) {
+        int base = high << 16;
+        int n = offset;
+        for (int i = 0; i < WORDS; i++) {
+            long word = words[i];
+            while (word != 0) {
+                out[n++] = base | (i << 6) + Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+            }
+        }
+        return n - offset;
+    }
+
+    @Override
+    int sizeInBytes() {
+        return 16 + 8 * WORDS;
+    }
+}
@@ -0,0 +1,49 @@
+package bitmap;
+
+import bench.Datasets;
+import domain.Dish;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 位图索引与 filter 谓词的对比，耗时的对比见 jmh/bitmap/BitmapBenchmark
+ */
+public class BitmapDemo {
+
+    public static void main(String[] args) {
+        //StreamDemo 中的菜单
+        List<Dish> menuList = Arrays.asList(
+                new Dish("pork", false, 800, Dish.Type.MEAT),
+                new Dish("beef", false, 700, Dish.Type.MEAT),
+                new Dish("chicken", false, 400, Dish.Type.MEAT),
+                new Dish("french fries", true, 530, Dish.Type.OTHER),
+                new Dish("rice", true, 350, Dish.Type.OTHER),
+                new Dish("season fruit", true, 120, Dish.Type.OTHER),
+                new Dish("pizza", true, 550, Dish.Type.OTHER),
+                new Dish("prawns", false, 300, Dish.Type.FISH),
+                new Dish("salmon", false, 450, Dish.Type.FISH));
+        DishIndex menu = DishIndex.of(menuList);
+        System.out.println("肉类且卡路里 > 500：" + menu.select(menu.type(Dish.Type.MEAT).and(menu.caloriesAbove(500))));
+        System.out.println("素菜或鱼，且卡路里在 300 ~ 500：" + menu.select(menu.vegetarian().or(menu.type(Dish.Type.FISH)).and(menu.caloriesBetween(300, 500))));
+        System.out.println("非素菜且不是肉类的个数：" + menu.all().andNot(menu.vegetarian()).andNot(menu.type(Dish.Type.MEAT)).cardinality());
+
+        int n = 1_000_000;
+        List<Dish> dishes = Datasets.dishes(n, 42);
+        DishIndex index = DishIndex.of(dishes);
+        System.out.println(n + " 道菜的索引大约占用 " + (index.sizeInBytes() >> 10) + " KB");
+
+        check(dishes.stream().filter(d -> d.getType() == Dish.Type.MEAT && d.getCalories() > 500).count(),
+                index.type(Dish.Type.MEAT).andCardinality(index.caloriesAbove(500)));
+        check(dishes.stream().filter(d -> (d.isVegetarian() || d.getType() == Dish.Type.FISH) && d.getCalories() >= 320 && d.getCalories() <= 650).count(),
+                index.vegetarian().or(index.type(Dish.Type.FISH)).andCardinality(index.caloriesBetween(320, 650)));
+        check(dishes.stream().filter(d -> !d.isVegetarian() && d.getType() != Dish.Type.MEAT).count(),
+                index.all().andNot(index.vegetarian()).andNot(index.type(Dish.Type.MEAT)).cardinality());
+    }
+
+    private static void check(long expected, long actual) {
+        if (expected != actual) {
+            throw new IllegalStateException("index mismatch: expected " + expected + " but was " + actual);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package bitmap;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * RoaringBitmap 中一个 2^16 区间（高 16 位相同）的低 16 位集合
+ *
+ *      ArrayContainer   元素不超过 4096 个：有序 char[]，每个元素 2 字节
+ *      BitmapContainer  元素超过 4096 个：1024 个 long 的位图，固定 8KB
+ *
+ * 4096 是两种表示占用相同（8KB）的分界点。运算结果总是按基数重新选择表示，空结果返回 null。
+ */
+abstract class Container {
+
+    static final int MAX_ARRAY_SIZE = 4096;
+
+    abstract int cardinality();
+
+    abstract boolean contains(char low);
+
+    abstract Container and(Container other);
+
+    abstract Container or(Container other);
+
+    abstract Container andNot(Container other);
+
+    /**
+     * 交集的基数，不生成结果容器
+     */
+    abstract int andCardinality(Container other);
+
+    /**
+     * 依次输出 (high << 16) | low
+     */
+    abstract void forEach(int high, IntConsumer consumer);
+
+    /**
+     * 把 (high << 16) | low 依次写入 out[offset...]，返回写入的个数
+     */
+    abstract int fill(int high, int[] out, int offset);
+
+    abstract int sizeInBytes();
+
+    /**
+     * [from, to) 区间，0 <= from < to <= 65536
+     */
+    static Container range(int from, int to) {
+        if (to - from <= MAX_ARRAY_SIZE) {
+            char[] content = new char[to - from];
+            for (int i = 0; i < content.length; i++) {
+                content[i] = (char) (from + i);
+            }
+            return new ArrayContainer(content, content.length);
+        }
+        BitmapContainer bitmap = new BitmapContainer();
+        for (int i = from; i < to; i++) {
+            bitmap.add((char) i);
+        }
+        return bitmap;
+    }
+
+    /**
+     * 有序、不重复的低 16 位数组按基数选择表示，sorted 会被复制
+     */
+    static Container of(char[] sorted, int cardinality) {
+        if (cardinality == 0) {
+            return null;
+        }
+        if (cardinality <= MAX_ARRAY_SIZE) {
+            return new ArrayContainer(Arrays.copyOf(sorted, cardinality), cardinality);
+        }
+        BitmapContainer bitmap = new BitmapContainer();
+        for (int i = 0; i < cardinality; i++) {
+            bitmap.add(sorted[i]);
+        }
+        return bitmap;
+    }
+}
@@ -0,0 +1,248 @@
+package bitmap;
+
+import domain.Dish;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Dish 目录上的位图索引：行号即 Dish 在目录中的下标
+ *
+ *      type          每种类型一张位图
+ *      vegetarian    素菜一张位图
+ *      calories      按 bucketWidth 的整数倍分桶（默认 [0, 100)、[100, 200) ...），范围编码：atLeast[b] 是桶号 >= b 的行
+ *
+ * 组合条件在位图上做 and / or / andNot，计数只需 cardinality，不访问 Dish 对象：
+ *
+ *      DishIndex index = DishIndex.of(menu);
+ *      int meatOver500 = index.type(Dish.Type.MEAT).andCardinality(index.caloriesAbove(500));
+ *      List<Dish> light = index.select(index.vegetarian().and(index.caloriesBetween(100, 400)));
+ *
+ * 卡路里条件的边界落在桶中间时，边界桶内的行用 calories 列（int[]）逐行判断，同样不访问对象。
+ * 桶最多 MAX_BUCKETS 个：取值范围更大时（例如个别 5000 万卡路里的异常值），只保留中位数附近的 MAX_BUCKETS 个桶，
+ * 两端的桶不设上下界，收纳范围外的所有行，查询落到这两个桶时同样逐行判断。
+ * 索引建立后目录不能再修改。
+ */
+public class DishIndex {
+
+    //atLeast 是范围编码，每个桶的位图最多覆盖全部行，桶数决定了索引大小的上限
+    static final int MAX_BUCKETS = 256;
+
+    private final List<Dish> dishes;
+    private final RoaringBitmap all;
+    private final Map<Dish.Type, RoaringBitmap> types = new EnumMap<>(Dish.Type.class);
+    private final RoaringBitmap vegetarian;
+    private final int[] calories;
+    //第一个桶的桶号，桶 b 覆盖 [(firstBucket + b) * bucketWidth, (firstBucket + b + 1) * bucketWidth)，两端的桶见 openLow / openHigh
+    private final long firstBucket;
+    private final int bucketWidth;
+    private final int buckets;
+    //第一个桶收纳所有更小的值、最后一个桶收纳所有更大的值
+    private final boolean openLow;
+    private final boolean openHigh;
+    //atLeast[b]：桶号 >= b 的行，atLeast[buckets] 为空
+    private final RoaringBitmap[] atLeast;
+
+    private DishIndex(List<Dish> dishes, int bucketWidth) {
+        this.dishes = dishes;
+        this.bucketWidth = bucketWidth;
+        int n = dishes.size();
+        this.all = RoaringBitmap.range(0, n);
+        this.calories = new int[n];
+        int min = Integer.MAX_VALUE;
+        int max = Integer.MIN_VALUE;
+        Map<Dish.Type, RoaringBitmap.Builder> typeBuilders = new EnumMap<>(Dish.Type.class);
+        for (Dish.Type type : Dish.Type.values()) {
+            typeBuilders.put(type, new RoaringBitmap.Builder());
+        }
+        RoaringBitmap.Builder vegetarianBuilder = new RoaringBitmap.Builder();
+        for (int row = 0; row < n; row++) {
+            Dish dish = dishes.get(row);
+            typeBuilders.get(dish.getType()).add(row);
+            if (dish.isVegetarian()) {
+                vegetarianBuilder.add(row);
+            }
+            calories[row] = dish.getCalories();
+            min = Math.min(min, calories[row]);
+            max = Math.max(max, calories[row]);
+        }
+        typeBuilders.forEach((type, builder) -> types.put(type, builder.build()));
+        this.vegetarian = vegetarianBuilder.build();
+        long lowest = n == 0 ? 0 : Math.floorDiv((long) min, (long) bucketWidth);
+        long highest = n == 0 ? -1 : Math.floorDiv((long) max, (long) bucketWidth);
+        if (highest - lowest < MAX_BUCKETS) {
+            this.firstBucket = lowest;
+            this.buckets = (int) (highest - lowest + 1);
+        } else {
+            int[] sorted = calories.clone();
+            Arrays.sort(sorted);
+            long median = Math.floorDiv((long) sorted[n / 2], (long) bucketWidth);
+            this.firstBucket = Math.max(lowest, Math.min(median - MAX_BUCKETS / 2, highest - MAX_BUCKETS + 1));
+            this.buckets = MAX_BUCKETS;
+        }
+        this.openLow = firstBucket > lowest;
+        this.openHigh = firstBucket + buckets - 1 < highest;
+        RoaringBitmap.Builder[] bucketBuilders = new RoaringBitmap.Builder[buckets];
+        for (int b = 0; b < buckets; b++) {
+            bucketBuilders[b] = new RoaringBitmap.Builder();
+        }
+        for (int row = 0; row < n; row++) {
+            bucketBuilders[Math.max(0, Math.min(bucketOf(calories[row]), buckets - 1))].add(row);
+        }
+        this.atLeast = new RoaringBitmap[buckets + 1];
+        atLeast[buckets] = RoaringBitmap.empty();
+        for (int b = buckets - 1; b >= 0; b--) {
+            atLeast[b] = atLeast[b + 1].or(bucketBuilders[b].build());
+        }
+    }
+
+    public static DishIndex of(List<Dish> dishes) {
+        return of(dishes, 100);
+    }
+
+    /**
+     * @param bucketWidth 卡路里分桶宽度；与常用阈值对齐时，范围查询不需要逐行判断
+     */
+    public static DishIndex of(List<Dish> dishes, int bucketWidth) {
+        if (bucketWidth <= 0) {
+            throw new IllegalArgumentException("bucketWidth must be positive: " + bucketWidth);
+        }
+        return new DishIndex(Collections.unmodifiableList(new ArrayList<>(dishes)), bucketWidth);
+    }
+
+    public int size() {
+        return dishes.size();
+    }
+
+    public RoaringBitmap all() {
+        return all;
+    }
+
+    public RoaringBitmap type(Dish.Type type) {
+        return types.get(type);
+    }
+
+    public RoaringBitmap vegetarian() {
+        return vegetarian;
+    }
+
+    /**
+     * calories > threshold
+     */
+    public RoaringBitmap caloriesAbove(int threshold) {
+        return threshold == Integer.MAX_VALUE ? RoaringBitmap.empty() : caloriesBetween(threshold + 1, Integer.MAX_VALUE);
+    }
+
+    /**
+     * calories < threshold
+     */
+    public RoaringBitmap caloriesBelow(int threshold) {
+        return threshold == Integer.MIN_VALUE ? RoaringBitmap.empty() : caloriesBetween(Integer.MIN_VALUE, threshold - 1);
+    }
+
+    /**
+     * from <= calories <= to
+     */
+    public RoaringBitmap caloriesBetween(int from, int to) {
+        if (buckets == 0 || from > to) {
+            return RoaringBitmap.empty();
+        }
+        int low = bucketOf(from);
+        int high = bucketOf(to);
+        if ((low >= buckets && !openHigh) || (high < 0 && !openLow)) {
+            return RoaringBitmap.empty();
+        }
+        low = Math.max(0, Math.min(low, buckets - 1));
+        high = Math.max(0, Math.min(high, buckets - 1));
+        //只有边界落在桶中间时才需要逐行判断
+        boolean exactLow = from <= bucketStart(low);
+        boolean exactHigh = to >= bucketEnd(high);
+        if (low == high) {
+            RoaringBitmap bucket = atLeast[low].andNot(atLeast[low + 1]);
+            return exactLow && exactHigh ? bucket : refine(bucket, from, to);
+        }
+        RoaringBitmap result = atLeast[exactLow ? low : low + 1].andNot(atLeast[exactHigh ? high + 1 : high]);
+        if (!exactLow) {
+            result = result.or(refine(atLeast[low].andNot(atLeast[low + 1]), from, to));
+        }
+        if (!exactHigh) {
+            result = result.or(refine(atLeast[high].andNot(atLeast[high + 1]), from, to));
+        }
+        return result;
+    }
+
+    private RoaringBitmap refine(RoaringBitmap rows, int from, int to) {
+        RoaringBitmap.Builder builder = new RoaringBitmap.Builder();
+        for (int row : rows.toArray()) {
+            int value = calories[row];
+            if (value >= from && value <= to) {
+                builder.add(row);
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * 超出范围时返回 -1 或 buckets
+     */
+    private int bucketOf(int value) {
+        long bucket = Math.floorDiv((long) value, (long) bucketWidth) - firstBucket;
+        return (int) Math.max(-1, Math.min(bucket, buckets));
+    }
+
+    private long bucketStart(int bucket) {
+        return bucket == 0 && openLow ? Integer.MIN_VALUE : (firstBucket + bucket) * bucketWidth;
+    }
+
+    private long bucketEnd(int bucket) {
+        return bucket == buckets - 1 && openHigh ? Integer.MAX_VALUE : (firstBucket + bucket + 1) * bucketWidth - 1;
+    }
+
+    public Dish get(int row) {
+        return dishes.get(row);
+    }
+
+    /**
+     * 按行号升序取出对象
+     */
+    public List<Dish> select(RoaringBitmap rows) {
+        int[] ids = rows.toArray();
+        List<Dish> result = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            result.add(dishes.get(id));
+        }
+        return result;
+    }
+
+    public Stream<Dish> stream(RoaringBitmap rows) {
+        return rows.stream().mapToObj(dishes::get);
+    }
+
+    /**
+     * rows 中各行的卡路里之和，只读 calories 列
+     */
+    public long sumCalories(RoaringBitmap rows) {
+        long[] sum = {0};
+        rows.forEach(row -> sum[0] += calories[row]);
+        return sum[0];
+    }
+
+    /**
+     * 估算的索引内存占用（不含 Dish 对象）
+     */
+    public long sizeInBytes() {
+        long bytes = all.sizeInBytes() + vegetarian.sizeInBytes() + 4L * calories.length;
+        for (RoaringBitmap bitmap : types.values()) {
+            bytes += bitmap.sizeInBytes();
+        }
+        for (RoaringBitmap bitmap : atLeast) {
+            bytes += bitmap.sizeInBytes();
+        }
+        return bytes;
+    }
+}
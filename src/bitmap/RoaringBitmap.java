@@ -0,0 +1,323 @@
+package bitmap;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * 不可变的压缩位图（Roaring 格式），元素为非负 int（通常是行号）
+ *
+ * 按高 16 位分成若干块，每块按元素个数选择数组或位图表示（见 Container）。
+ * 稀疏时每个元素约 2 字节，稠密时每个元素约 1 位；交、并、差按块对齐后逐块计算，不存在的块直接跳过。
+ *
+ *      RoaringBitmap meatOver500 = index.type(Dish.Type.MEAT).and(index.caloriesAbove(500));
+ *      int count = meatOver500.cardinality();
+ *
+ * 没有实现 run 容器：按行号建立的标志位、分桶位图很少出现长的连续段。
+ */
+public final class RoaringBitmap {
+
+    private static final RoaringBitmap EMPTY = new RoaringBitmap(new char[0], new Container[0], 0);
+
+    //高 16 位，升序
+    private final char[] keys;
+    private final Container[] containers;
+    private final int size;
+
+    private RoaringBitmap(char[] keys, Container[] containers, int size) {
+        this.keys = keys;
+        this.containers = containers;
+        this.size = size;
+    }
+
+    public static RoaringBitmap empty() {
+        return EMPTY;
+    }
+
+    public static RoaringBitmap of(int... values) {
+        int[] sorted = values.clone();
+        Arrays.sort(sorted);
+        Builder builder = new Builder();
+        for (int value : sorted) {
+            builder.add(value);
+        }
+        return builder.build();
+    }
+
+    /**
+     * [from, to) 中的所有整数
+     */
+    public static RoaringBitmap range(int from, int to) {
+        if (from < 0 || from > to) {
+            throw new IllegalArgumentException("invalid range: [" + from + ", " + to + ")");
+        }
+        if (from == to) {
+            return EMPTY;
+        }
+        int firstKey = from >>> 16;
+        int lastKey = (to - 1) >>> 16;
+        int n = lastKey - firstKey + 1;
+        char[] keys = new char[n];
+        Container[] containers = new Container[n];
+        for (int i = 0; i < n; i++) {
+            int key = firstKey + i;
+            int start = key == firstKey ? from & 0xFFFF : 0;
+            int end = key == lastKey ? ((to - 1) & 0xFFFF) + 1 : 1 << 16;
+            keys[i] = (char) key;
+            containers[i] = Container.range(start, end);
+        }
+        return new RoaringBitmap(keys, containers, n);
+    }
+
+    /**
+     * 多个位图的并集
+     */
+    public static RoaringBitmap or(RoaringBitmap... bitmaps) {
+        RoaringBitmap result = EMPTY;
+        for (RoaringBitmap bitmap : bitmaps) {
+            result = result.or(bitmap);
+        }
+        return result;
+    }
+
+    public boolean contains(int value) {
+        if (value < 0) {
+            return false;
+        }
+        int i = Arrays.binarySearch(keys, 0, size, (char) (value >>> 16));
+        return i >= 0 && containers[i].contains((char) value);
+    }
+
+    public int cardinality() {
+        int n = 0;
+        for (int i = 0; i < size; i++) {
+            n += containers[i].cardinality();
+        }
+        return n;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public RoaringBitmap and(RoaringBitmap other) {
+        char[] outKeys = new char[Math.min(size, other.size)];
+        Container[] out = new Container[outKeys.length];
+        int n = 0;
+        int i = 0;
+        int j = 0;
+        while (i < size && j < other.size) {
+            if (keys[i] < other.keys[j]) {
+                i++;
+            } else if (keys[i] > other.keys[j]) {
+                j++;
+            } else {
+                Container c = containers[i].and(other.containers[j]);
+                if (c != null) {
+                    outKeys[n] = keys[i];
+                    out[n++] = c;
+                }
+                i++;
+                j++;
+            }
+        }
+        return n == 0 ? EMPTY : new RoaringBitmap(outKeys, out, n);
+    }
+
+    /**
+     * and(other).cardinality()，不生成中间位图
+     */
+    public int andCardinality(RoaringBitmap other) {
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < size && j < other.size) {
+            if (keys[i] < other.keys[j]) {
+                i++;
+            } else if (keys[i] > other.keys[j]) {
+                j++;
+            } else {
+                count += containers[i].andCardinality(other.containers[j]);
+                i++;
+                j++;
+            }
+        }
+        return count;
+    }
+
+    public RoaringBitmap or(RoaringBitmap other) {
+        if (other.size == 0) {
+            return this;
+        }
+        if (size == 0) {
+            return other;
+        }
+        char[] outKeys = new char[size + other.size];
+        Container[] out = new Container[outKeys.length];
+        int n = 0;
+        int i = 0;
+        int j = 0;
+        while (i < size || j < other.size) {
+            if (j == other.size || i < size && keys[i] < other.keys[j]) {
+                outKeys[n] = keys[i];
+                out[n++] = containers[i++];
+            } else if (i == size || keys[i] > other.keys[j]) {
+                outKeys[n] = other.keys[j];
+                out[n++] = other.containers[j++];
+            } else {
+                outKeys[n] = keys[i];
+                out[n++] = containers[i++].or(other.containers[j++]);
+            }
+        }
+        return new RoaringBitmap(outKeys, out, n);
+    }
+
+    /**
+     * 在当前位图中、不在 other 中的元素
+     */
+    public RoaringBitmap andNot(RoaringBitmap other) {
+        if (size == 0 || other.size == 0) {
+            return this;
+        }
+        char[] outKeys = new char[size];
+        Container[] out = new Container[size];
+        int n = 0;
+        int j = 0;
+        for (int i = 0; i < size; i++) {
+            while (j < other.size && other.keys[j] < keys[i]) {
+                j++;
+            }
+            Container c = j < other.size && other.keys[j] == keys[i] ? containers[i].andNot(other.containers[j]) : containers[i];
+            if (c != null) {
+                outKeys[n] = keys[i];
+                out[n++] = c;
+            }
+        }
+        return n == 0 ? EMPTY : new RoaringBitmap(outKeys, out, n);
+    }
+
+    /**
+     * 按升序输出所有元素
+     */
+    public void forEach(IntConsumer consumer) {
+        for (int i = 0; i < size; i++) {
+            containers[i].forEach(keys[i], consumer);
+        }
+    }
+
+    public int[] toArray() {
+        int[] out = new int[cardinality()];
+        int n = 0;
+        for (int i = 0; i < size; i++) {
+            n += containers[i].fill(keys[i], out, n);
+        }
+        return out;
+    }
+
+    public IntStream stream() {
+        return IntStream.of(toArray());
+    }
+
+    /**
+     * 估算的内存占用
+     */
+    public long sizeInBytes() {
+        long bytes = 32 + 2L * keys.length + 4L * containers.length;
+        for (int i = 0; i < size; i++) {
+            bytes += containers[i].sizeInBytes();
+        }
+        return bytes;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof RoaringBitmap)) {
+            return false;
+        }
+        RoaringBitmap that = (RoaringBitmap) obj;
+        return cardinality() == that.cardinality() && andCardinality(that) == cardinality();
+    }
+
+    @Override
+    public int hashCode() {
+        int[] hash = {1};
+        forEach(value -> hash[0] = 31 * hash[0] + value);
+        return hash[0];
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("{");
+        int[] values = toArray();
+        for (int i = 0; i < values.length && i < 32; i++) {
+            sb.append(i == 0 ? "" : ",").append(values[i]);
+        }
+        if (values.length > 32) {
+            sb.append(",...(").append(values.length).append(" values)");
+        }
+        return sb.append('}').toString();
+    }
+
+    /**
+     * 按升序逐个添加元素构造位图，重复的元素忽略
+     */
+    public static final class Builder {
+        private char[] keys = new char[4];
+        private Container[] containers = new Container[4];
+        private int size;
+        private int currentKey = -1;
+        private char[] lows = new char[64];
+        private int count;
+        private int last = -1;
+
+        public Builder add(int value) {
+            if (value < 0) {
+                throw new IllegalArgumentException("negative value: " + value);
+            }
+            if (value < last) {
+                throw new IllegalArgumentException("values must be added in ascending order: " + value + " after " + last);
+            }
+            if (value == last) {
+                return this;
+            }
+            last = value;
+            int key = value >>> 16;
+            if (key != currentKey) {
+                flush();
+                currentKey = key;
+            }
+            if (count == lows.length) {
+                lows = Arrays.copyOf(lows, Math.min(1 << 16, count * 2));
+            }
+            lows[count++] = (char) value;
+            return this;
+        }
+
+        private void flush() {
+            if (count == 0) {
+                return;
+            }
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+                containers = Arrays.copyOf(containers, size * 2);
+            }
+            keys[size] = (char) currentKey;
+            containers[size++] = Container.of(lows, count);
+            count = 0;
+        }
+
+        public RoaringBitmap build() {
+            flush();
+            RoaringBitmap bitmap = size == 0 ? EMPTY : new RoaringBitmap(Arrays.copyOf(keys, size), Arrays.copyOf(containers, size), size);
+            keys = new char[4];
+            containers = new Container[4];
+            size = 0;
+            currentKey = -1;
+            last = -1;
+            return bitmap;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package cache;
+
+import domain.Dish;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * StreamDemo 中菜单的分组、分区查询，数据不变时重复调用直接返回缓存的结果
+ */
+public class CacheDemo {
+
+    static final Query<Dish, Map<Dish.Type, List<Dish>>> GROUP_BY_TYPE = Query.of("groupByType",
+            menu -> Collections.unmodifiableMap(menu.stream().collect(Collectors.groupingBy(Dish::getType))));
+
+    static final Query<Dish, Map<Dish.Type, Optional<Dish>>> MAX_CALORIES_BY_TYPE = Query.of("maxCaloriesByType",
+            menu -> Collections.unmodifiableMap(menu.stream().collect(
+                    Collectors.groupingBy(Dish::getType, Collectors.maxBy(Comparator.comparingInt(Dish::getCalories))))));
+
+    static final Query<Dish, Map<Dish.Type, Integer>> CALORIES_BY_TYPE = Query.of("caloriesByType",
+            menu -> Collections.unmodifiableMap(menu.stream().collect(
+                    Collectors.groupingBy(Dish::getType, Collectors.summingInt(Dish::getCalories)))));
+
+    static final Query<Dish, Map<Boolean, List<Dish>>> PARTITION_BY_VEGETARIAN = Query.of("partitionByVegetarian",
+            menu -> Collections.unmodifiableMap(menu.stream().collect(Collectors.partitioningBy(Dish::isVegetarian))));
+
+    /**
+     * 带参数的查询：参数不同的结果分别缓存
+     */
+    static Query<Dish, List<String>> caloriesAbove(int calories) {
+        return Query.of("caloriesAbove", new Object[]{calories},
+                menu -> Collections.unmodifiableList(menu.stream()
+                        .filter(d -> d.getCalories() > calories)
+                        .map(Dish::getName)
+                        .collect(Collectors.toList())));
+    }
+
+    public static void main(String[] args) {
+        QueryCache cache = new QueryCache(256);
+        Dataset<Dish> menu = cache.register(Dataset.of("menu", Arrays.asList(
+                new Dish("pork", false, 800, Dish.Type.MEAT),
+                new Dish("beef", false, 700, Dish.Type.MEAT),
+                new Dish("chicken", false, 400, Dish.Type.MEAT),
+                new Dish("french fries", true, 530, Dish.Type.OTHER),
+                new Dish("rice", true, 350, Dish.Type.OTHER),
+                new Dish("season fruit", true, 120, Dish.Type.OTHER),
+                new Dish("pizza", true, 550, Dish.Type.OTHER),
+                new Dish("prawns", false, 300, Dish.Type.FISH),
+                new Dish("salmon", false, 450, Dish.Type.FISH))));
+
+        for (int i = 0; i < 1000; i++) {
+            cache.get(menu, GROUP_BY_TYPE);
+            cache.get(menu, MAX_CALORIES_BY_TYPE);
+            cache.get(menu, CALORIES_BY_TYPE);
+            cache.get(menu, PARTITION_BY_VEGETARIAN);
+            cache.get(menu, caloriesAbove(500));
+        }
+        System.out.println("各类型总热量 : " + cache.get(menu, CALORIES_BY_TYPE));
+        System.out.println("热量大于500 : " + cache.get(menu, caloriesAbove(500)));
+        System.out.println(cache);//5 次计算，其余全部命中
+
+        //数据变化后旧结果失效，下次查询重新计算
+        menu.replace(Arrays.asList(
+                new Dish("pork", false, 800, Dish.Type.MEAT),
+                new Dish("salmon", false, 450, Dish.Type.FISH)));
+        System.out.println("替换后缓存条目 : " + cache.size());//0
+        System.out.println("各类型总热量 : " + cache.get(menu, CALORIES_BY_TYPE));
+    }
+}
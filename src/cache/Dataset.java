@@ -0,0 +1,99 @@
+package cache;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * 带版本号的不可变数据集
+ *
+ * 数据本身不可修改，只能用 replace 整体替换；每次替换版本号加一，并通知监听者（QueryCache 借此让旧结果失效）。
+ * 查询结果按 (数据集编号, 版本号, 查询) 缓存，版本号不同的结果永远不会被取到。
+ */
+public class Dataset<T> {
+
+    private static final AtomicLong IDS = new AtomicLong();
+
+    private final long id = IDS.incrementAndGet();
+    private final String name;
+    private volatile Snapshot<T> snapshot;
+    private final List<Consumer<Dataset<T>>> listeners = new CopyOnWriteArrayList<>();
+
+    private Dataset(String name, List<T> items) {
+        this.name = name;
+        this.snapshot = new Snapshot<>(0, copy(items));
+    }
+
+    public static <T> Dataset<T> of(String name, List<T> items) {
+        return new Dataset<>(name, items);
+    }
+
+    private static <T> List<T> copy(List<T> items) {
+        return Collections.unmodifiableList(new ArrayList<>(items));
+    }
+
+    /**
+     * 替换全部数据，版本号加一
+     */
+    public void replace(List<T> items) {
+        synchronized (this) {
+            snapshot = new Snapshot<>(snapshot.version + 1, copy(items));
+        }
+        for (Consumer<Dataset<T>> listener : listeners) {
+            listener.accept(this);
+        }
+    }
+
+    /**
+     * 当前版本的数据与版本号（两者总是一致的）
+     */
+    public Snapshot<T> snapshot() {
+        return snapshot;
+    }
+
+    public List<T> items() {
+        return snapshot.items;
+    }
+
+    public long version() {
+        return snapshot.version;
+    }
+
+    public long id() {
+        return id;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    void addListener(Consumer<Dataset<T>> listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public String toString() {
+        return name + "@" + snapshot.version;
+    }
+
+    public static class Snapshot<T> {
+        private final long version;
+        private final List<T> items;
+
+        Snapshot(long version, List<T> items) {
+            this.version = version;
+            this.items = items;
+        }
+
+        public long getVersion() {
+            return version;
+        }
+
+        public List<T> getItems() {
+            return items;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * 按访问顺序淘汰的定长缓存（LinkedHashMap 的 accessOrder 模式），所有方法都加锁
+ *
+ * get 命中时把条目移到链表尾部，put 之后超过容量就删除链表头部（最久没有访问的条目），都是 O(1)。
+ */
+public class LruCache<K, V> {
+
+    private final int capacity;
+    private final LinkedHashMap<K, V> map;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public LruCache(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+        this.map = new LinkedHashMap<K, V>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                if (size() > LruCache.this.capacity) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public synchronized V get(K key) {
+        V value = map.get(key);
+        if (value == null) {
+            misses++;
+        } else {
+            hits++;
+        }
+        return value;
+    }
+
+    public synchronized void put(K key, V value) {
+        map.put(key, value);
+    }
+
+    /**
+     * 只有当前值仍然是 expected 时才删除
+     */
+    public synchronized boolean remove(K key, V expected) {
+        return map.remove(key, expected);
+    }
+
+    public synchronized int removeIf(Predicate<? super K> predicate) {
+        int removed = 0;
+        for (Iterator<K> it = map.keySet().iterator(); it.hasNext(); ) {
+            if (predicate.test(it.next())) {
+                it.remove();
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    public synchronized void clear() {
+        map.clear();
+    }
+
+    public synchronized int size() {
+        return map.size();
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public synchronized long hits() {
+        return hits;
+    }
+
+    public synchronized long misses() {
+        return misses;
+    }
+
+    public synchronized long evictions() {
+        return evictions;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "LruCache[size=" + map.size() + "/" + capacity + ", hits=" + hits + ", misses=" + misses + ", evictions=" + evictions + "]";
+    }
+}
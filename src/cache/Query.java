@@ -0,0 +1,67 @@
+package cache;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * 查询描述：名称 + 参数决定缓存键，函数负责计算
+ *
+ * 两个查询名称和参数都相同时视为同一个查询，函数不参与比较。
+ * 计算结果会被多个调用者共享，应当是不可变的（例如 Collections.unmodifiableMap 包装后的 Map）。
+ *
+ *      Query<Dish, Map<Dish.Type, Integer>> caloriesByType = Query.of("caloriesByType",
+ *              menu -> menu.stream().collect(groupingBy(Dish::getType, summingInt(Dish::getCalories))));
+ *      Query<Dish, List<Dish>> highCalories = Query.of("caloriesAbove", new Object[]{500},
+ *              menu -> menu.stream().filter(d -> d.getCalories() > 500).collect(toList()));
+ */
+public class Query<T, R> {
+
+    private final String name;
+    private final Object[] params;
+    private final Function<? super List<T>, ? extends R> function;
+
+    private Query(String name, Object[] params, Function<? super List<T>, ? extends R> function) {
+        this.name = name;
+        this.params = params;
+        this.function = function;
+    }
+
+    public static <T, R> Query<T, R> of(String name, Function<? super List<T>, ? extends R> function) {
+        return new Query<>(name, new Object[0], function);
+    }
+
+    public static <T, R> Query<T, R> of(String name, Object[] params, Function<? super List<T>, ? extends R> function) {
+        return new Query<>(name, params.clone(), function);
+    }
+
+    R compute(List<T> items) {
+        return function.apply(items);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof Query)) {
+            return false;
+        }
+        Query<?, ?> other = (Query<?, ?>) obj;
+        return name.equals(other.name) && Arrays.equals(params, other.params);
+    }
+
+    @Override
+    public int hashCode() {
+        return name.hashCode() * 31 + Arrays.hashCode(params);
+    }
+
+    @Override
+    public String toString() {
+        return params.length == 0 ? name : name + Arrays.toString(params);
+    }
+}
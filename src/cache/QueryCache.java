@@ -0,0 +1,136 @@
+package cache;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * 查询结果缓存：键为 (数据集编号, 数据集版本, 查询)，LRU 淘汰
+ *
+ *      QueryCache cache = new QueryCache(1024);
+ *      Dataset<Dish> menu = cache.register(Dataset.of("menu", menuList));
+ *      Map<Dish.Type, Integer> byType = cache.get(menu, caloriesByType);    第一次计算，之后 O(1)
+ *      menu.replace(newMenu);                                               旧版本的结果立即被删除
+ *
+ * 同一个键只计算一次：并发的多个调用者中只有第一个计算，其他的等待同一个 CompletableFuture。
+ * 计算抛出异常时删除该条目，下次调用会重新计算。
+ * 与 replace 并发时，读到旧快照的调用者仍然返回旧版本的结果，但不会把它留在缓存里。
+ */
+public class QueryCache {
+
+    private final LruCache<Key, CompletableFuture<Object>> cache;
+
+    public QueryCache(int capacity) {
+        this.cache = new LruCache<>(capacity);
+    }
+
+    /**
+     * 登记数据集：数据集被替换时删除它所有旧版本的结果
+     *
+     * 不登记也能正确工作（版本号不同的键永远不会命中），只是旧结果要等 LRU 淘汰。
+     */
+    public <T> Dataset<T> register(Dataset<T> dataset) {
+        dataset.addListener(this::invalidate);
+        return dataset;
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T, R> R get(Dataset<T> dataset, Query<T, R> query) {
+        Dataset.Snapshot<T> snapshot = dataset.snapshot();
+        Key key = new Key(dataset.id(), snapshot.getVersion(), query);
+        CompletableFuture<Object> future;
+        boolean owner = false;
+        synchronized (cache) {
+            future = cache.get(key);
+            if (future == null) {
+                future = new CompletableFuture<>();
+                cache.put(key, future);
+                owner = true;
+            }
+        }
+        if (owner && dataset.version() != snapshot.getVersion()) {
+            //读快照之后、插入之前数据集被替换，invalidate 可能已经先执行完，旧版本的条目要自己删掉；
+            //replace 先换快照再通知，所以这里没看到新版本时，invalidate 一定在插入之后执行
+            cache.remove(key, future);
+        }
+        if (owner) {
+            //在锁外计算，避免一个慢查询阻塞其他查询
+            try {
+                future.complete(query.compute(snapshot.getItems()));
+            } catch (RuntimeException | Error e) {
+                cache.remove(key, future);
+                future.completeExceptionally(e);
+                throw e;
+            }
+        }
+        try {
+            return (R) future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * 删除数据集当前版本之前的所有结果
+     */
+    public int invalidate(Dataset<?> dataset) {
+        long id = dataset.id();
+        long version = dataset.version();
+        return cache.removeIf(key -> key.datasetId == id && key.version < version);
+    }
+
+    public void clear() {
+        cache.clear();
+    }
+
+    public int size() {
+        return cache.size();
+    }
+
+    public long hits() {
+        return cache.hits();
+    }
+
+    public long misses() {
+        return cache.misses();
+    }
+
+    @Override
+    public String toString() {
+        return cache.toString();
+    }
+
+    private static final class Key {
+        private final long datasetId;
+        private final long version;
+        private final Query<?, ?> query;
+        private final int hash;
+
+        Key(long datasetId, long version, Query<?, ?> query) {
+            this.datasetId = datasetId;
+            this.version = version;
+            this.query = query;
+            this.hash = (Long.hashCode(datasetId) * 31 + Long.hashCode(version)) * 31 + query.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return datasetId == other.datasetId && version == other.version && query.equals(other.query);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
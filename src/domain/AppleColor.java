@@ -0,0 +1,119 @@
+package domain;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 苹果颜色：登记过的颜色只有一个实例，并带有从 0 开始连续的编号
+ *
+ * 常用颜色预先定义成常量；其他颜色（例如 LambdaDemo 中改出来的 "ggg"）第一次出现时登记。
+ * Apple 允许颜色为 null（无参构造），对应 UNKNOWN，其 getName() 为 null。
+ *
+ * 登记表是全局的，最多 MAX_COLORS 种颜色（编号可以放进一个字节），避免把任意输入字符串都当作颜色登记导致内存无限增长。
+ * 登记满之后新出现的颜色不再登记，每次返回新的实例，其 ordinal() 为 NONE；
+ * 因此比较颜色要用 equals（两边都是登记过的颜色时等价于 ==）。
+ */
+public final class AppleColor {
+
+	public static final int MAX_COLORS = 256;
+	//没有登记的颜色的编号
+	public static final int NONE = -1;
+
+	private static final Map<String, AppleColor> BY_NAME = new ConcurrentHashMap<>();
+	private static final List<AppleColor> BY_ORDINAL = new ArrayList<>();
+
+	//未设置颜色，不在 BY_NAME 中（ConcurrentHashMap 不允许 null 键）
+	public static final AppleColor UNKNOWN = register(null);
+	public static final AppleColor RED = of("red");
+	public static final AppleColor YELLOW = of("yellow");
+	public static final AppleColor GREEN = of("green");
+	public static final AppleColor BLUE = of("blue");
+
+	private final String name;
+	private final int ordinal;
+
+	private AppleColor(String name, int ordinal) {
+		this.name = name;
+		this.ordinal = ordinal;
+	}
+
+	/**
+	 * 返回颜色的唯一实例，不存在时登记；name 为 null 时返回 UNKNOWN。
+	 * 已登记的颜色达到 MAX_COLORS 时，新颜色返回一个没有登记的实例（ordinal() 为 NONE）
+	 */
+	public static AppleColor of(String name) {
+		if (name == null) {
+			return UNKNOWN;
+		}
+		AppleColor color = BY_NAME.get(name);
+		if (color == null) {
+			//register 返回 null 时 computeIfAbsent 不登记
+			color = BY_NAME.computeIfAbsent(name, AppleColor::register);
+		}
+		return color != null ? color : new AppleColor(name, NONE);
+	}
+
+	/**
+	 * 登记表已满时返回 null
+	 */
+	private static AppleColor register(String name) {
+		synchronized (BY_ORDINAL) {
+			if (BY_ORDINAL.size() >= MAX_COLORS) {
+				return null;
+			}
+			AppleColor color = new AppleColor(name, BY_ORDINAL.size());
+			BY_ORDINAL.add(color);
+			return color;
+		}
+	}
+
+	public static AppleColor byOrdinal(int ordinal) {
+		synchronized (BY_ORDINAL) {
+			return BY_ORDINAL.get(ordinal);
+		}
+	}
+
+	/**
+	 * UNKNOWN 返回 null
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * 没有登记的颜色返回 NONE
+	 */
+	public int ordinal() {
+		return ordinal;
+	}
+
+	public boolean isRegistered() {
+		return ordinal != NONE;
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hashCode(name);
+	}
+
+	/**
+	 * 登记过的颜色每种只有一个实例，== 即可判断；没有登记的颜色按名字比较
+	 */
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (!(obj instanceof AppleColor))
+			return false;
+		AppleColor other = (AppleColor) obj;
+		return ordinal == NONE && other.ordinal == NONE && Objects.equals(name, other.name);
+	}
+
+	@Override
+	public String toString() {
+		return String.valueOf(name);
+	}
+}
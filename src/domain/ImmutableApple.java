@@ -0,0 +1,130 @@
+package domain;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * 不可变的 Apple：可以在多个线程之间共享，也可以放心地作为 HashSet / HashMap 的键
+ *
+ * 1.颜色是 AppleColor，登记过的颜色是唯一实例，equals 中先用 == 比较
+ * 2.hashCode 在构造时计算一次，与 Apple.hashCode 算法一致
+ * 3.修改通过 withXxx 返回新对象，原对象不变
+ *
+ * 与 Apple 互相转换：ImmutableApple.from(apple)、immutableApple.toApple()
+ * Apple 的颜色为 null 时转换为 AppleColor.UNKNOWN，toApple 时再转回 null；直接传入 null 的 AppleColor 仍然抛出 NullPointerException
+ */
+public final class ImmutableApple {
+
+	private final AppleColor color;
+	private final int height;
+	private final int hash;
+
+	private ImmutableApple(AppleColor color, int height) {
+		if (color == null) {
+			throw new NullPointerException("color");
+		}
+		this.color = color;
+		this.height = height;
+		this.hash = 31 * (31 + Objects.hashCode(color.getName())) + height;
+	}
+
+	public static ImmutableApple of(AppleColor color, int height) {
+		return new ImmutableApple(color, height);
+	}
+
+	public static ImmutableApple of(String color, int height) {
+		return new ImmutableApple(AppleColor.of(color), height);
+	}
+
+	public static ImmutableApple from(Apple apple) {
+		return of(apple.getColor(), apple.getHeight());
+	}
+
+	public static List<ImmutableApple> fromAll(List<Apple> apples) {
+		List<ImmutableApple> result = new ArrayList<>(apples.size());
+		for (Apple a : apples) {
+			result.add(from(a));
+		}
+		return result;
+	}
+
+	public Apple toApple() {
+		return new Apple(color.getName(), height);
+	}
+
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	public Builder toBuilder() {
+		return new Builder().color(color).height(height);
+	}
+
+	public AppleColor getColor() {
+		return color;
+	}
+
+	public int getHeight() {
+		return height;
+	}
+
+	public ImmutableApple withColor(AppleColor color) {
+		return this.color.equals(color) ? this : new ImmutableApple(color, height);
+	}
+
+	public ImmutableApple withColor(String color) {
+		return withColor(AppleColor.of(color));
+	}
+
+	public ImmutableApple withHeight(int height) {
+		return height == this.height ? this : new ImmutableApple(color, height);
+	}
+
+	@Override
+	public int hashCode() {
+		return hash;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (!(obj instanceof ImmutableApple))
+			return false;
+		ImmutableApple other = (ImmutableApple) obj;
+		return hash == other.hash && height == other.height && color.equals(other.color);
+	}
+
+	@Override
+	public String toString() {
+		return "Apple [color=" + color + ", height=" + height + "]";
+	}
+
+	public static final class Builder {
+		private AppleColor color;
+		private int height;
+
+		private Builder() {
+		}
+
+		public Builder color(AppleColor color) {
+			this.color = color;
+			return this;
+		}
+
+		public Builder color(String color) {
+			this.color = AppleColor.of(color);
+			return this;
+		}
+
+		public Builder height(int height) {
+			this.height = height;
+			return this;
+		}
+
+		public ImmutableApple build() {
+			return new ImmutableApple(color, height);
+		}
+	}
+}
@@ -4,9 +4,15 @@ public class Trader {
 	
 	private final String name;
 	private final String city;
+	//TraderRegistry 分配的编号，未登记的交易员为 -1
+	private final int id;
 	public Trader(String n, String c){
+		this(n, c, -1);
+	}
+	Trader(String n, String c, int id){
 		this.name = n;
 		this.city = c;
+		this.id = id;
 	}
 	public String getName(){
 		return this.name;
@@ -14,8 +20,41 @@ public class Trader {
 	public String getCity(){
 		return this.city;
 	}
+	public int getId(){
+		return this.id;
+	}
 	public String toString(){
 		return "Trader:" + this.name + " in " + this.city;
 	}
+	//按 (name, city) 判等，未登记的实例也能正确参与 groupingBy、distinct
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + ((city == null) ? 0 : city.hashCode());
+		result = prime * result + ((name == null) ? 0 : name.hashCode());
+		return result;
+	}
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		Trader other = (Trader) obj;
+		if (city == null) {
+			if (other.city != null)
+				return false;
+		} else if (!city.equals(other.city))
+			return false;
+		if (name == null) {
+			if (other.name != null)
+				return false;
+		} else if (!name.equals(other.name))
+			return false;
+		return true;
+	}
 
 }
@@ -0,0 +1,127 @@
+package domain;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collector;
+import java.util.stream.Collectors;
+
+/**
+ * 交易员登记表：按 (name, city) 把交易员驻留为唯一的实例，并分配从 0 开始连续的 int 编号
+ *
+ * 每笔交易都 new Trader("Raoul", "Cambridge") 会产生大量重复对象；登记后同一个交易员只有一个实例，
+ * 既可以用 == 比较、用 IdentityHashMap 分组，也可以直接用编号做数组下标。
+ *
+ * 线程安全：intern 可以在并行流中调用。
+ */
+public class TraderRegistry {
+
+    private static final TraderRegistry DEFAULT = new TraderRegistry();
+
+    private final Map<Key, Trader> traders = new ConcurrentHashMap<>();
+    //按编号存放，只在登记新交易员时加锁扩容
+    private volatile Trader[] byId = new Trader[16];
+    private int size;
+
+    public static TraderRegistry getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * 返回 (name, city) 对应的唯一实例，不存在时登记
+     */
+    public Trader intern(String name, String city) {
+        Trader trader = traders.get(new Key(name, city));
+        return trader != null ? trader : traders.computeIfAbsent(new Key(name, city), this::register);
+    }
+
+    /**
+     * 返回与 trader 相等的唯一实例
+     */
+    public Trader intern(Trader trader) {
+        if (trader.getId() >= 0 && lookup(trader.getId()) == trader) {
+            return trader;
+        }
+        return intern(trader.getName(), trader.getCity());
+    }
+
+    private synchronized Trader register(Key key) {
+        Trader trader = new Trader(key.name, key.city, size);
+        Trader[] array = byId;
+        if (size == array.length) {
+            array = Arrays.copyOf(array, size * 2);
+        }
+        array[size++] = trader;
+        byId = array;
+        return trader;
+    }
+
+    private Trader lookup(int id) {
+        Trader[] array = byId;
+        return id < array.length ? array[id] : null;
+    }
+
+    /**
+     * 按编号获取交易员
+     */
+    public Trader get(int id) {
+        Trader trader = id >= 0 ? lookup(id) : null;
+        if (trader == null) {
+            throw new IllegalArgumentException("unknown trader id: " + id);
+        }
+        return trader;
+    }
+
+    public int size() {
+        return traders.size();
+    }
+
+    /**
+     * 按交易员分组，key 为登记后的唯一实例，使用 IdentityHashMap 避免每次都调用 equals
+     */
+    public Collector<Transaction, ?, Map<Trader, List<Transaction>>> groupingByTrader() {
+        return Collectors.groupingBy(t -> intern(t.getTrader()), IdentityHashMap::new, Collectors.toList());
+    }
+
+    /**
+     * 每个交易员的交易额合计，数组下标为交易员编号
+     */
+    public long[] sumValueById(List<Transaction> transactions) {
+        long[] sums = new long[0];
+        for (Transaction t : transactions) {
+            int id = intern(t.getTrader()).getId();
+            if (id >= sums.length) {
+                sums = Arrays.copyOf(sums, Math.max(id + 1, size()));
+            }
+            sums[id] += t.getValue();
+        }
+        return sums;
+    }
+
+    private static class Key {
+        final String name;
+        final String city;
+
+        Key(String name, String city) {
+            this.name = name;
+            this.city = city;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * Objects.hashCode(name) + Objects.hashCode(city);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return Objects.equals(name, other.name) && Objects.equals(city, other.city);
+        }
+    }
+}
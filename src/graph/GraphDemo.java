@@ -0,0 +1,81 @@
+package graph;
+
+import domain.Female;
+import domain.Male;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+
+/**
+ * PartnerGraph / RelationGraph 示例：用 int 数组代替 Optional 链做批量关系查询
+ */
+public class GraphDemo {
+
+    public static void main(String[] args) {
+        //少量对象：与 OptionalDemo 中的写法对照
+        Female liYi = new Female("LiYi");
+        Male rt = new Male("Rt", Optional.of(liYi));
+        liYi.setBoyfriend(Optional.of(rt));
+        Male single = new Male("Single");
+        PartnerGraph small = PartnerGraph.builder().add(rt).add(single).build();
+        //rt.getGirlfriend().map(Female::getName).orElse("nobody")
+        System.out.println("Rt 的女朋友 : " + small.partnerNameOrElse(small.indexOf(rt), "nobody"));
+        System.out.println("Single 的女朋友 : " + small.partnerNameOrElse(small.indexOf(single), "nobody"));
+        //LiYi 没有单独添加，按她自己的 Optional 确定恋人
+        System.out.println("LiYi 的男朋友 : " + small.partnerNameOrElse(small.indexOf(liYi), "nobody"));
+
+        //大量对象：约一半成对，其中一部分只有单向关系
+        int n = 200_000;
+        Random random = new Random(42);
+        List<Object> people = new ArrayList<>(2 * n);
+        for (int i = 0; i < n; i++) {
+            Male m = new Male("m" + i);
+            Female f = new Female("f" + i);
+            int kind = random.nextInt(4);
+            if (kind <= 1) {
+                m.setGirlfriend(Optional.of(f));
+                f.setBoyfriend(Optional.of(m));
+            } else if (kind == 2) {
+                m.setGirlfriend(Optional.of(f));
+            }
+            people.add(m);
+            people.add(f);
+        }
+
+        //后面不再用对象查编号，不保留查找表，图不引用 people 中的对象
+        PartnerGraph.Builder builder = PartnerGraph.builder().withoutLookup();
+        for (Object p : people) {
+            if (p instanceof Male) {
+                builder.add((Male) p);
+            } else {
+                builder.add((Female) p);
+            }
+        }
+        PartnerGraph partners = builder.build();
+        long optionalCount = people.stream()
+                .filter(p -> p instanceof Male)
+                .map(p -> ((Male) p).getGirlfriend())
+                .filter(g -> g != null && g.map(Female::getName).filter(name -> name.endsWith("7")).isPresent())
+                .count();
+        long graphCount = Arrays.stream(partners.whosePartnerMatches(name -> name != null && name.endsWith("7")))
+                .filter(partners::isMale)
+                .count();
+        System.out.println("女朋友名字以 7 结尾的人数 : Optional 链 " + optionalCount + "，PartnerGraph " + graphCount);
+
+        //并行收集：每个分段各自构建，合并时重新映射编号，同一个人的边只保留一份
+        RelationGraph graph = RelationGraph.from(people.parallelStream());
+        RelationGraph sequential = RelationGraph.from(people.stream(), false);
+        RelationGraph.Partition partition = graph.partition();
+        System.out.println("人数 " + graph.size() + "，边数 " + graph.edgeCount() + "（顺序构建 " + sequential.edgeCount() + "）");
+        System.out.println("有恋人 " + partition.getPaired().length + "，没有恋人 " + partition.getUnpaired().length);
+        System.out.println("单向关系 " + graph.nonMutualLinks().length);
+        int m0 = graph.indexOf(people.get(0));
+        System.out.println("m0 两跳以内 : " + Arrays.toString(Arrays.stream(graph.kHop(m0, 2)).mapToObj(graph::nameOf).toArray()));
+        int[] sources = new int[1000];
+        Arrays.setAll(sources, i -> i * 7);
+        System.out.println("1000 个起点的两跳邻域总大小 : " + Arrays.stream(graph.kHopSizes(sources, 2)).sum());
+    }
+}
@@ -0,0 +1,177 @@
+package graph;
+
+import domain.Female;
+import domain.Male;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+import java.util.function.Predicate;
+
+/**
+ * 紧凑的恋人关系图
+ *
+ * Male.getGirlfriend() / Female.getBoyfriend() 每一跳都是一个 Optional 对象，
+ * OptionalDemo 中的 map / flatMap 链每一步又会创建新的 Optional。
+ * 这里把所有人编号为 0 ~ n-1，关系存成 int 数组：
+ *      names[i]    姓名（编号、姓名、性别由 PersonIndex 维护）
+ *      male        第 i 位是否为男性
+ *      partner[i]  恋人编号，没有为 NONE (-1)
+ * 遍历只是数组下标访问，不分配任何对象。
+ *
+ *      male.getGirlfriend().map(Female::getName).orElse("nobody")
+ *  ==> graph.partnerNameOrElse(graph.indexOf(male), "nobody")
+ *
+ * 图不引用 Male / Female 对象，只有 indexOf 用的查找表引用它们；
+ * 用 builder().withoutLookup() 构建时不保留查找表，领域对象可以在构建之后被回收。
+ */
+public class PartnerGraph {
+
+    public static final int NONE = PersonIndex.NONE;
+
+    //编号、姓名、性别，以及（可选的）构建时的对象 -> 编号
+    private final PersonIndex people;
+    private final int[] partner;
+
+    private PartnerGraph(PersonIndex people, int[] partner) {
+        this.people = people;
+        this.partner = partner;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public int size() {
+        return people.size();
+    }
+
+    /**
+     * 领域对象对应的编号，不在图中返回 NONE
+     *
+     * @throws IllegalStateException 构建时用了 withoutLookup()
+     */
+    public int indexOf(Object person) {
+        return people.indexOf(person);
+    }
+
+    public String nameOf(int person) {
+        return people.nameOf(person);
+    }
+
+    public boolean isMale(int person) {
+        return people.isMale(person);
+    }
+
+    public int partnerOf(int person) {
+        return partner[person];
+    }
+
+    public boolean hasPartner(int person) {
+        return partner[person] != NONE;
+    }
+
+    /**
+     * 恋人的名字，没有恋人或恋人没有名字时返回 other
+     */
+    public String partnerNameOrElse(int person, String other) {
+        int p = partner[person];
+        if (p == NONE) {
+            return other;
+        }
+        String name = people.nameOf(p);
+        return name != null ? name : other;
+    }
+
+    /**
+     * 恋人的恋人（通常是自己，关系不对称时可能不是）
+     */
+    public int partnerOfPartner(int person) {
+        int p = partner[person];
+        return p == NONE ? NONE : partner[p];
+    }
+
+    /**
+     * 批量查询：恋人满足条件的人，依次回调其编号
+     * @param partnerName 对恋人姓名的条件
+     */
+    public void forEachWhosePartnerMatches(Predicate<String> partnerName, IntConsumer action) {
+        for (int i = 0; i < partner.length; i++) {
+            int p = partner[i];
+            if (p != NONE && partnerName.test(people.nameOf(p))) {
+                action.accept(i);
+            }
+        }
+    }
+
+    public int countWhosePartnerMatches(Predicate<String> partnerName) {
+        int count = 0;
+        for (int i = 0; i < partner.length; i++) {
+            int p = partner[i];
+            if (p != NONE && partnerName.test(people.nameOf(p))) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public int[] whosePartnerMatches(Predicate<String> partnerName) {
+        int[] result = new int[countWhosePartnerMatches(partnerName)];
+        int n = 0;
+        for (int i = 0; i < partner.length && n < result.length; i++) {
+            int p = partner[i];
+            if (p != NONE && partnerName.test(people.nameOf(p))) {
+                result[n++] = i;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 从 Male / Female 对象构建。恋人对象即使没有单独添加也会被收录，
+     * 并且同样按其自己的 Optional 确定恋人（关系可以不对称），而不是默认为 NONE
+     */
+    public static class Builder {
+        private final PersonIndex people = new PersonIndex();
+        private int[] partner = new int[0];
+        private boolean lookup = true;
+
+        /**
+         * 构建的图不保留对象 -> 编号的查找表（indexOf 不可用），不再引用任何领域对象
+         */
+        public Builder withoutLookup() {
+            lookup = false;
+            return this;
+        }
+
+        public Builder add(Male m) {
+            people.resolve(people.id(m), this::link);
+            return this;
+        }
+
+        public Builder add(Female f) {
+            people.resolve(people.id(f), this::link);
+            return this;
+        }
+
+        private void link(int from, int to) {
+            if (from >= partner.length) {
+                int old = partner.length;
+                partner = Arrays.copyOf(partner, Math.max(16, Math.max(from + 1, old * 2)));
+                Arrays.fill(partner, old, partner.length, NONE);
+            }
+            partner[from] = to;
+        }
+
+        /**
+         * 复制当前状态，之后继续 add 不影响已经构建的图
+         */
+        public PartnerGraph build() {
+            int n = people.size();
+            int[] result = Arrays.copyOf(partner, n);
+            if (partner.length < n) {
+                Arrays.fill(result, partner.length, n, NONE);
+            }
+            return new PartnerGraph(people.snapshot(lookup), result);
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package graph;
+
+import domain.Female;
+import domain.Male;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Male / Female 对象的编号表：按出现顺序编号为 0 ~ n-1（按引用区分同一个人），并记录姓名和性别
+ *
+ * PartnerGraph、RelationGraph 的构建器共用。恋人关系由 resolve 确定：
+ * 每个人按自己的 Optional 确定一次，恋人是第一次出现的人时继续确定其恋人，直到没有新的人加入。
+ * 图持有的是 snapshot() 的副本，构建器之后的修改不影响已经构建的图。
+ *
+ * 副本只保留姓名和性别两列，不保留 Male / Female 对象本身；对象 -> 编号的查找表（indexOf 用）是可选的：
+ * 它以对象为键，会让整个对象图（连同每个 Optional）随图一直存活，不需要 indexOf 时构建时去掉即可。
+ */
+final class PersonIndex {
+
+    static final int NONE = -1;
+
+    /**
+     * 确定的一条关系：from 的恋人是 to
+     */
+    @FunctionalInterface
+    interface Link {
+        void accept(int from, int to);
+    }
+
+    //对象 -> 编号，副本中可以为 null（不支持 indexOf）
+    private final Map<Object, Integer> index;
+    //编号 -> 对象，只有构建器需要（resolve、merge），副本中为 null
+    private Object[] people;
+    private String[] names;
+    private long[] male;
+    private int size;
+    //已经按自己的 Optional 确定过恋人的人
+    private final BitSet resolved = new BitSet();
+
+    PersonIndex() {
+        this(new IdentityHashMap<>(), new Object[16], new String[16], new long[1], 0);
+    }
+
+    private PersonIndex(Map<Object, Integer> index, Object[] people, String[] names, long[] male, int size) {
+        this.index = index;
+        this.people = people;
+        this.names = names;
+        this.male = male;
+        this.size = size;
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean hasLookup() {
+        return index != null;
+    }
+
+    /**
+     * 不在表中返回 NONE
+     *
+     * @throws IllegalStateException 副本没有保留查找表
+     */
+    int indexOf(Object person) {
+        if (index == null) {
+            throw new IllegalStateException("graph was built without the object lookup, indexOf is not available");
+        }
+        Integer i = index.get(person);
+        return i == null ? NONE : i;
+    }
+
+    String nameOf(int person) {
+        if (person < 0 || person >= size) {
+            throw new IndexOutOfBoundsException("person: " + person + ", size: " + size);
+        }
+        return names[person];
+    }
+
+    boolean isMale(int person) {
+        if (person < 0 || person >= size) {
+            throw new IndexOutOfBoundsException("person: " + person + ", size: " + size);
+        }
+        return (male[person >>> 6] & (1L << person)) != 0;
+    }
+
+    /**
+     * 编号，第一次出现时登记
+     */
+    int id(Object person) {
+        Integer existing = index.get(person);
+        if (existing != null) {
+            return existing;
+        }
+        boolean isMale;
+        String name;
+        if (person instanceof Male) {
+            isMale = true;
+            name = ((Male) person).getName();
+        } else if (person instanceof Female) {
+            isMale = false;
+            name = ((Female) person).getName();
+        } else {
+            throw new IllegalArgumentException("not a Male or Female: " + person);
+        }
+        int i = size++;
+        if (i == names.length) {
+            names = Arrays.copyOf(names, i * 2);
+            people = Arrays.copyOf(people, i * 2);
+        }
+        if ((i >>> 6) == male.length) {
+            male = Arrays.copyOf(male, male.length * 2);
+        }
+        names[i] = name;
+        people[i] = person;
+        if (isMale) {
+            male[i >>> 6] |= 1L << i;
+        }
+        index.put(person, i);
+        return i;
+    }
+
+    /**
+     * 确定 first 以及由它新引入的人的恋人，每个人只确定一次，有恋人时回调 link
+     */
+    void resolve(int first, Link link) {
+        int[] pending = {first};
+        int top = 1;
+        while (top > 0) {
+            int i = pending[--top];
+            if (!markResolved(i)) {
+                continue;
+            }
+            Object person = people[i];
+            Object partner = person instanceof Male
+                    ? unwrap(((Male) person).getGirlfriend())
+                    : unwrap(((Female) person).getBoyfriend());
+            if (partner == null) {
+                continue;
+            }
+            int j = id(partner);
+            link.accept(i, j);
+            if (!resolved.get(j)) {
+                if (top == pending.length) {
+                    pending = Arrays.copyOf(pending, top * 2);
+                }
+                pending[top++] = j;
+            }
+        }
+    }
+
+    boolean isResolved(int person) {
+        return resolved.get(person);
+    }
+
+    /**
+     * @return 此前是否未确定
+     */
+    boolean markResolved(int person) {
+        if (resolved.get(person)) {
+            return false;
+        }
+        resolved.set(person);
+        return true;
+    }
+
+    /**
+     * 把 other 中的人登记到本表，返回 other 编号 -> 本表编号
+     */
+    int[] merge(PersonIndex other) {
+        int[] remap = new int[other.size];
+        for (int i = 0; i < other.size; i++) {
+            remap[i] = id(other.people[i]);
+        }
+        return remap;
+    }
+
+    /**
+     * 不再变化的副本，只能用于查询（size、nameOf、isMale，以及 lookup 为 true 时的 indexOf）
+     *
+     * @param lookup 是否保留对象 -> 编号的查找表
+     */
+    PersonIndex snapshot(boolean lookup) {
+        return new PersonIndex(lookup ? new IdentityHashMap<>(index) : null, null, Arrays.copyOf(names, size),
+                Arrays.copyOf(male, (size + 63) >>> 6), size);
+    }
+
+    private static <T> T unwrap(Optional<T> optional) {
+        return optional == null ? null : optional.orElse(null);
+    }
+}
@@ -0,0 +1,392 @@
+package graph;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.Collector;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * 关系图批量查询（CSR 压缩稀疏行存储）
+ *
+ *      outOffsets[i] ~ outOffsets[i + 1]   第 i 个人指向的人在 outTargets 中的区间（男 -> 女朋友，女 -> 男朋友）
+ *      inOffsets / inSources                反向边，被谁指向
+ *
+ * 所有查询都在 int 数组上进行，并用 fork/join 并行：
+ *      partition()               有恋人 / 没有恋人
+ *      nonMutualLinks()          单向关系：a 指向 b，但 b 没有指回 a
+ *      kHop(source, k)           k 跳以内能到达的人（边按无向处理）
+ *      kHopSizes(sources, k)     批量计算多个人的 k 跳邻域大小
+ *
+ * 构建：RelationGraph.from(stream)，对 Male / Female 流只遍历一次，流可以是并行的。
+ * 图不引用 Male / Female 对象，只有 indexOf 用的查找表引用它们；from(stream, false) 不保留查找表。
+ */
+public class RelationGraph {
+
+    //编号、姓名、性别，以及（可选的）构建时的对象 -> 编号
+    private final PersonIndex people;
+    private final int[] outOffsets;
+    private final int[] outTargets;
+    private final int[] inOffsets;
+    private final int[] inSources;
+    private final ForkJoinPool pool;
+
+    private RelationGraph(PersonIndex people, int[] edgeFrom, int[] edgeTo, int edges) {
+        this.people = people;
+        this.pool = ForkJoinPool.commonPool();
+        int n = people.size();
+        this.outOffsets = new int[n + 1];
+        this.outTargets = new int[edges];
+        this.inOffsets = new int[n + 1];
+        this.inSources = new int[edges];
+        csr(edgeFrom, edgeTo, edges, outOffsets, outTargets);
+        csr(edgeTo, edgeFrom, edges, inOffsets, inSources);
+    }
+
+    /**
+     * 计数排序把边表转成 CSR
+     */
+    private static void csr(int[] from, int[] to, int edges, int[] offsets, int[] targets) {
+        for (int e = 0; e < edges; e++) {
+            offsets[from[e] + 1]++;
+        }
+        for (int i = 1; i < offsets.length; i++) {
+            offsets[i] += offsets[i - 1];
+        }
+        int[] cursor = Arrays.copyOf(offsets, offsets.length - 1);
+        for (int e = 0; e < edges; e++) {
+            targets[cursor[from[e]]++] = to[e];
+        }
+    }
+
+    /**
+     * 从 Male / Female 流构建，流中元素必须是 Male 或 Female
+     */
+    public static RelationGraph from(Stream<?> people) {
+        return from(people, true);
+    }
+
+    /**
+     * @param lookup 是否保留对象 -> 编号的查找表；为 false 时 indexOf 不可用，图也不再引用任何领域对象
+     */
+    public static RelationGraph from(Stream<?> people, boolean lookup) {
+        return people.collect(collector(lookup));
+    }
+
+    public static Collector<Object, Builder, RelationGraph> collector() {
+        return collector(true);
+    }
+
+    public static Collector<Object, Builder, RelationGraph> collector(boolean lookup) {
+        return Collector.of(() -> new Builder(lookup), Builder::accept, Builder::merge, Builder::build);
+    }
+
+    public int size() {
+        return people.size();
+    }
+
+    public int edgeCount() {
+        return outTargets.length;
+    }
+
+    /**
+     * 不在图中返回 -1
+     *
+     * @throws IllegalStateException 构建时没有保留查找表
+     */
+    public int indexOf(Object person) {
+        return people.indexOf(person);
+    }
+
+    public String nameOf(int person) {
+        return people.nameOf(person);
+    }
+
+    public boolean isMale(int person) {
+        return people.isMale(person);
+    }
+
+    public int outDegree(int person) {
+        return outOffsets[person + 1] - outOffsets[person];
+    }
+
+    public boolean linksTo(int a, int b) {
+        for (int e = outOffsets[a]; e < outOffsets[a + 1]; e++) {
+            if (outTargets[e] == b) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 有恋人 / 没有恋人的划分
+     */
+    public Partition partition() {
+        int[] paired = IntStream.range(0, size()).parallel().filter(i -> outDegree(i) > 0).toArray();
+        int[] unpaired = IntStream.range(0, size()).parallel().filter(i -> outDegree(i) == 0).toArray();
+        return new Partition(paired, unpaired);
+    }
+
+    /**
+     * 关系不对称的人：他指向的某个人没有指回他
+     */
+    public int[] nonMutualLinks() {
+        return IntStream.range(0, size()).parallel().filter(a -> {
+            for (int e = outOffsets[a]; e < outOffsets[a + 1]; e++) {
+                if (!linksTo(outTargets[e], a)) {
+                    return true;
+                }
+            }
+            return false;
+        }).toArray();
+    }
+
+    /**
+     * k 跳以内能到达的人（包括自己），按层并行扩展
+     */
+    public int[] kHop(int source, int k) {
+        AtomicLongArray visited = new AtomicLongArray((size() + 63) >>> 6);
+        mark(visited, source);
+        int[] frontier = {source};
+        int[] all = {source};
+        for (int hop = 0; hop < k && frontier.length > 0; hop++) {
+            frontier = pool.invoke(new ExpandTask(frontier, 0, frontier.length, visited));
+            int[] merged = Arrays.copyOf(all, all.length + frontier.length);
+            System.arraycopy(frontier, 0, merged, all.length, frontier.length);
+            all = merged;
+        }
+        return all;
+    }
+
+    /**
+     * 批量计算 k 跳邻域大小：每个起点一次顺序 BFS，不同起点之间并行
+     */
+    public int[] kHopSizes(int[] sources, int k) {
+        return Arrays.stream(sources).parallel().map(s -> sequentialKHopSize(s, k)).toArray();
+    }
+
+    private int sequentialKHopSize(int source, int k) {
+        //邻域通常很小：queue 按访问顺序记录已访问的点，seen 是开放寻址的集合，避免为每个起点分配 n 位的位图
+        int[] queue = new int[16];
+        IntSet seen = new IntSet();
+        int size = 0;
+        queue[size++] = source;
+        seen.add(source);
+        int levelStart = 0;
+        for (int hop = 0; hop < k && levelStart < size; hop++) {
+            int levelEnd = size;
+            for (int q = levelStart; q < levelEnd; q++) {
+                int v = queue[q];
+                for (int pass = 0; pass < 2; pass++) {
+                    int[] offsets = pass == 0 ? outOffsets : inOffsets;
+                    int[] targets = pass == 0 ? outTargets : inSources;
+                    for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                        int w = targets[e];
+                        if (seen.add(w)) {
+                            if (size == queue.length) {
+                                queue = Arrays.copyOf(queue, size * 2);
+                            }
+                            queue[size++] = w;
+                        }
+                    }
+                }
+            }
+            levelStart = levelEnd;
+        }
+        return size;
+    }
+
+    /**
+     * 非负 int 的开放寻址集合，负载不超过 1/2
+     */
+    private static final class IntSet {
+        private int[] slots = new int[32];
+        private int size;
+
+        IntSet() {
+            Arrays.fill(slots, -1);
+        }
+
+        /**
+         * @return 此前是否不存在
+         */
+        boolean add(int v) {
+            if ((size + 1) * 2 > slots.length) {
+                grow();
+            }
+            int mask = slots.length - 1;
+            int h = v * 0x9E3779B9;
+            int slot = (h ^ (h >>> 16)) & mask;
+            while (slots[slot] != -1) {
+                if (slots[slot] == v) {
+                    return false;
+                }
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = v;
+            size++;
+            return true;
+        }
+
+        private void grow() {
+            int[] old = slots;
+            slots = new int[old.length * 2];
+            Arrays.fill(slots, -1);
+            size = 0;
+            for (int v : old) {
+                if (v != -1) {
+                    add(v);
+                }
+            }
+        }
+    }
+
+    private static boolean mark(AtomicLongArray visited, int v) {
+        int word = v >>> 6;
+        long bit = 1L << v;
+        while (true) {
+            long old = visited.get(word);
+            if ((old & bit) != 0) {
+                return false;
+            }
+            if (visited.compareAndSet(word, old, old | bit)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * 扩展一层：frontier[from, to) 的所有邻居中第一次被访问到的点
+     */
+    private class ExpandTask extends RecursiveTask<int[]> {
+        private static final long serialVersionUID = 1L;
+
+        private static final int THRESHOLD = 1024;
+        private final int[] frontier;
+        private final int from;
+        private final int to;
+        private final AtomicLongArray visited;
+
+        ExpandTask(int[] frontier, int from, int to, AtomicLongArray visited) {
+            this.frontier = frontier;
+            this.from = from;
+            this.to = to;
+            this.visited = visited;
+        }
+
+        @Override
+        protected int[] compute() {
+            if (to - from > THRESHOLD) {
+                int mid = (from + to) >>> 1;
+                ExpandTask left = new ExpandTask(frontier, from, mid, visited);
+                left.fork();
+                int[] right = new ExpandTask(frontier, mid, to, visited).compute();
+                int[] l = left.join();
+                int[] merged = Arrays.copyOf(l, l.length + right.length);
+                System.arraycopy(right, 0, merged, l.length, right.length);
+                return merged;
+            }
+            int[] next = new int[16];
+            int size = 0;
+            for (int q = from; q < to; q++) {
+                int v = frontier[q];
+                for (int pass = 0; pass < 2; pass++) {
+                    int[] offsets = pass == 0 ? outOffsets : inOffsets;
+                    int[] targets = pass == 0 ? outTargets : inSources;
+                    for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                        int w = targets[e];
+                        if (mark(visited, w)) {
+                            if (size == next.length) {
+                                next = Arrays.copyOf(next, size * 2);
+                            }
+                            next[size++] = w;
+                        }
+                    }
+                }
+            }
+            return Arrays.copyOf(next, size);
+        }
+    }
+
+    /**
+     * 有恋人 / 没有恋人
+     */
+    public static class Partition {
+        private final int[] paired;
+        private final int[] unpaired;
+
+        Partition(int[] paired, int[] unpaired) {
+            this.paired = paired;
+            this.unpaired = unpaired;
+        }
+
+        public int[] getPaired() {
+            return paired;
+        }
+
+        public int[] getUnpaired() {
+            return unpaired;
+        }
+    }
+
+    /**
+     * 边表构建器，支持并行收集（合并时对另一个构建器的编号重新映射）
+     *
+     * 每个人的出边只按其自己的 Optional 确定一次：同一个人出现多次、或在并行收集的多个分段中都出现，都不会产生重复的边；
+     * 只通过别人的 Optional 到达的人，同样按其自己的 Optional 确定出边。
+     */
+    public static class Builder {
+        private final PersonIndex people = new PersonIndex();
+        private final boolean lookup;
+        private int[] edgeFrom = new int[16];
+        private int[] edgeTo = new int[16];
+        private int edges;
+
+        public Builder() {
+            this(true);
+        }
+
+        /**
+         * @param lookup 构建的图是否保留对象 -> 编号的查找表
+         */
+        public Builder(boolean lookup) {
+            this.lookup = lookup;
+        }
+
+        public void accept(Object person) {
+            people.resolve(people.id(person), this::edge);
+        }
+
+        private void edge(int a, int b) {
+            if (edges == edgeFrom.length) {
+                edgeFrom = Arrays.copyOf(edgeFrom, edges * 2);
+                edgeTo = Arrays.copyOf(edgeTo, edges * 2);
+            }
+            edgeFrom[edges] = a;
+            edgeTo[edges] = b;
+            edges++;
+        }
+
+        Builder merge(Builder other) {
+            int[] remap = people.merge(other.people);
+            //只接收本构建器中还没有确定出边的人的边
+            boolean[] take = new boolean[remap.length];
+            for (int i = 0; i < remap.length; i++) {
+                take[i] = other.people.isResolved(i) && people.markResolved(remap[i]);
+            }
+            for (int e = 0; e < other.edges; e++) {
+                if (take[other.edgeFrom[e]]) {
+                    edge(remap[other.edgeFrom[e]], remap[other.edgeTo[e]]);
+                }
+            }
+            return this;
+        }
+
+        public RelationGraph build() {
+            return new RelationGraph(people.snapshot(lookup), edgeFrom, edgeTo, edges);
+        }
+    }
+}
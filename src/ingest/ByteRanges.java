@@ -0,0 +1,99 @@
+package ingest;
+
+import text.BulkStrings;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+/**
+ * 把文件按字节切成若干块，每个切分点向后对齐到下一行的开头，保证每条记录只属于一块
+ *
+ * 区间约定与 spliterator.LineSpliterator 相同：from 总是某一行的开头，to 是文件末尾或者某个 '\n' 的下一个字节。
+ */
+public class ByteRanges {
+
+    private ByteRanges() {
+    }
+
+    /**
+     * @return 长度为 块数 + 1 的边界数组，第 i 块是 [bounds[i], bounds[i + 1])；对齐后为空的块会被去掉
+     */
+    public static long[] split(FileChannel channel, long from, long to, int parts) {
+        if (parts <= 0) {
+            throw new IllegalArgumentException("parts must be positive: " + parts);
+        }
+        long[] bounds = new long[parts + 1];
+        int n = 0;
+        bounds[n++] = from;
+        for (int i = 1; i < parts; i++) {
+            long pos = alignToLineStart(channel, from + (to - from) * i / parts, to);
+            if (pos > bounds[n - 1] && pos < to) {
+                bounds[n++] = pos;
+            }
+        }
+        bounds[n++] = to;
+        return Arrays.copyOf(bounds, n);
+    }
+
+    /**
+     * pos 所在行的下一行开头；pos 本身是行首（前一个字节是 '\n'）时返回 pos
+     */
+    public static long alignToLineStart(FileChannel channel, long pos, long to) {
+        if (pos <= 0) {
+            return 0;
+        }
+        ByteBuffer probe = ByteBuffer.allocate(4096);
+        try {
+            //从 pos - 1 开始找，这样 pos 恰好在行首时不会跳过一整行
+            long at = pos - 1;
+            while (at < to) {
+                probe.clear();
+                probe.limit((int) Math.min(probe.capacity(), to - at));
+                int n = channel.read(probe, at);
+                if (n <= 0) {
+                    return to;
+                }
+                for (int i = 0; i < n; i++) {
+                    if (probe.get(i) == '\n') {
+                        return at + i + 1;
+                    }
+                }
+                at += n;
+            }
+            return to;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * [from, to) 中 '\n' 的个数
+     */
+    public static long countLines(FileChannel channel, long from, long to) {
+        ByteBuffer chunk = ByteBuffer.allocate(64 * 1024);
+        byte[] bytes = chunk.array();
+        ByteBuffer words = BulkStrings.words(bytes);
+        long lines = 0;
+        try {
+            long at = from;
+            while (at < to) {
+                chunk.clear();
+                chunk.limit((int) Math.min(chunk.capacity(), to - at));
+                int n = channel.read(chunk, at);
+                if (n <= 0) {
+                    break;
+                }
+                for (int i = BulkStrings.indexOf(words, bytes, 0, n, (byte) '\n'); i >= 0; i = BulkStrings.indexOf(words, bytes, i + 1, n, (byte) '\n')) {
+                    lines++;
+                }
+                at += n;
+            }
+            return lines;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
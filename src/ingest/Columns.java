@@ -0,0 +1,18 @@
+package ingest;
+
+import text.RecordFields;
+
+/**
+ * 列式加载的目标：每条记录的字段直接追加到若干个基本类型数组中
+ */
+public interface Columns<C extends Columns<C>> {
+
+    void add(byte[] line, RecordFields fields);
+
+    /**
+     * 把 other 的所有行追加到末尾（用于按顺序合并并行分块）
+     */
+    void addAll(C other);
+
+    int size();
+}
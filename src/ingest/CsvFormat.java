@@ -0,0 +1,66 @@
+package ingest;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * 分隔符文本格式：分隔符 + 是否有表头 + 字符集
+ *
+ * 不处理引号和转义，字段中不能出现分隔符和换行；行尾可以是 \n 或 \r\n。
+ * 记录按字节切分，字符集必须兼容 ASCII，且多字节字符中不会出现 ASCII 字节（默认 UTF-8，也可以是 ISO-8859-1 等），
+ * 只有文本字段（菜名、交易员姓名和城市）才按字符集解码，纯 ASCII 的字段直接逐字节复制。
+ */
+public class CsvFormat {
+
+    public static final CsvFormat CSV = new CsvFormat((byte) ',', true);
+    public static final CsvFormat TSV = new CsvFormat((byte) '\t', true);
+
+    private final byte delimiter;
+    private final boolean header;
+    private final Charset charset;
+
+    public CsvFormat(byte delimiter, boolean header) {
+        this(delimiter, header, StandardCharsets.UTF_8);
+    }
+
+    public CsvFormat(byte delimiter, boolean header, Charset charset) {
+        if (delimiter == '\n' || delimiter == '\r') {
+            throw new IllegalArgumentException("line terminator cannot be a delimiter");
+        }
+        if (delimiter < 0) {
+            throw new IllegalArgumentException("delimiter must be an ASCII byte: " + delimiter);
+        }
+        if (!asciiCompatible(charset)) {
+            throw new IllegalArgumentException("charset not supported, it must encode ASCII as single bytes: " + charset);
+        }
+        this.delimiter = delimiter;
+        this.header = header;
+        this.charset = charset;
+    }
+
+    private static boolean asciiCompatible(Charset charset) {
+        String ascii = "\t\n\r ,;|0aZ";
+        return charset.canEncode() && Arrays.equals(ascii.getBytes(charset), ascii.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    public CsvFormat withoutHeader() {
+        return new CsvFormat(delimiter, false, charset);
+    }
+
+    public CsvFormat withCharset(Charset charset) {
+        return new CsvFormat(delimiter, header, charset);
+    }
+
+    public byte getDelimiter() {
+        return delimiter;
+    }
+
+    public boolean hasHeader() {
+        return header;
+    }
+
+    public Charset getCharset() {
+        return charset;
+    }
+}
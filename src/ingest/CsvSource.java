@@ -0,0 +1,121 @@
+package ingest;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * CSV / TSV 文件数据源
+ *
+ *      1.对象流：    source.stream(DishParser::new, true)              每行一个 Dish
+ *      2.列式加载：  source.load(DishColumns::new, true)               只保存 int / byte 列，不创建 Dish
+ *
+ * 并行时文件按字节切块，切分点对齐到行首，每块独立读取和解析，最后按块的顺序合并。
+ * 用完需要 close()，建议放在 try-with-resources 中。
+ */
+public class CsvSource implements Closeable {
+
+    private final FileChannel channel;
+    private final CsvFormat format;
+    private final int bufferSize;
+
+    private CsvSource(FileChannel channel, CsvFormat format, int bufferSize) {
+        this.channel = channel;
+        this.format = format;
+        this.bufferSize = bufferSize;
+    }
+
+    public static CsvSource open(Path path, CsvFormat format) {
+        return open(path, format, RecordReader.DEFAULT_BUFFER_SIZE);
+    }
+
+    public static CsvSource open(Path path, CsvFormat format, int bufferSize) {
+        try {
+            return new CsvSource(FileChannel.open(path, StandardOpenOption.READ), format, bufferSize);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    FileChannel channel() {
+        return channel;
+    }
+
+    public long size() {
+        try {
+            return channel.size();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * [from, to) 的记录读取器，from 为 0 且有表头时跳过第一行
+     */
+    public RecordReader reader(long from, long to) {
+        RecordReader reader = new RecordReader(channel, from, to, format.getDelimiter(), format.getCharset(), bufferSize);
+        if (from == 0 && format.hasHeader()) {
+            reader.next();
+        }
+        return reader;
+    }
+
+    public <T> CsvSpliterator<T> spliterator(Supplier<? extends RowParser<? extends T>> parsers) {
+        return new CsvSpliterator<>(this, parsers, 0, size());
+    }
+
+    /**
+     * @param parsers 每个并行分块调用一次，得到该分块自己的解析器
+     */
+    public <T> Stream<T> stream(Supplier<? extends RowParser<? extends T>> parsers, boolean parallel) {
+        return StreamSupport.stream(spliterator(parsers), parallel);
+    }
+
+    /**
+     * 列式加载：每块解析到一个 Columns 中，再按顺序合并
+     */
+    public <C extends Columns<C>> C load(Supplier<C> columns, boolean parallel) {
+        int parts = parallel ? ForkJoinPool.getCommonPoolParallelism() * 4 : 1;
+        long[] bounds = ByteRanges.split(channel, 0, size(), parts);
+        IntStream chunks = IntStream.range(0, bounds.length - 1);
+        List<C> parsed = (parallel ? chunks.parallel() : chunks)
+                .mapToObj(i -> {
+                    C chunk = columns.get();
+                    RecordReader reader = reader(bounds[i], bounds[i + 1]);
+                    while (reader.next()) {
+                        try {
+                            chunk.add(reader.buffer(), reader.fields());
+                        } catch (IllegalArgumentException e) {
+                            throw reader.malformed(e);
+                        }
+                    }
+                    return chunk;
+                })
+                .collect(Collectors.toCollection(ArrayList::new));
+        C result = parsed.get(0);
+        for (int i = 1; i < parsed.size(); i++) {
+            result.addAll(parsed.get(i));
+        }
+        return result;
+    }
+
+    @Override
+    public void close() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package ingest;
+
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * 按字节区间拆分的记录 Spliterator，每条记录用 RowParser 转换成对象
+ *
+ * 拆分方式与 spliterator.LineSpliterator 相同（对半切，切分点对齐到下一行开头），
+ * 区别是遍历时不为每行创建 String，而是直接在读缓冲区中解析字段。
+ * 每个子区间在第一次遍历时才创建自己的 RecordReader 和 RowParser。
+ */
+public class CsvSpliterator<T> implements Spliterator<T> {
+
+    private static final long MIN_SPLIT_BYTES = 1 << 20;
+    private static final int AVERAGE_RECORD_BYTES = 32;
+
+    private final CsvSource source;
+    private final Supplier<? extends RowParser<? extends T>> parsers;
+    private long from;
+    private final long to;
+
+    private RecordReader reader;
+    private RowParser<? extends T> parser;
+
+    CsvSpliterator(CsvSource source, Supplier<? extends RowParser<? extends T>> parsers, long from, long to) {
+        this.source = source;
+        this.parsers = parsers;
+        this.from = from;
+        this.to = to;
+    }
+
+    @Override
+    public Spliterator<T> trySplit() {
+        if (reader != null || to - from < MIN_SPLIT_BYTES * 2) {
+            return null;
+        }
+        long split = ByteRanges.alignToLineStart(source.channel(), from + (to - from) / 2, to);
+        if (split <= from || split >= to) {
+            return null;
+        }
+        CsvSpliterator<T> prefix = new CsvSpliterator<>(source, parsers, from, split);
+        from = split;
+        return prefix;
+    }
+
+    private void open() {
+        if (reader == null) {
+            reader = source.reader(from, to);
+            parser = parsers.get();
+        }
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super T> action) {
+        open();
+        if (reader.next()) {
+            action.accept(parse());
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super T> action) {
+        open();
+        while (reader.next()) {
+            action.accept(parse());
+        }
+    }
+
+    /**
+     * 只包装解析器抛出的异常，下游 action 的异常原样抛出
+     */
+    private T parse() {
+        try {
+            return parser.parse(reader.buffer(), reader.fields());
+        } catch (IllegalArgumentException e) {
+            throw reader.malformed(e);
+        }
+    }
+
+    @Override
+    public long estimateSize() {
+        return Math.max(1, (to - from) / AVERAGE_RECORD_BYTES);
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED | NONNULL | IMMUTABLE;
+    }
+}
@@ -0,0 +1,83 @@
+package ingest;
+
+import domain.Dish;
+import text.RecordFields;
+
+import java.util.Arrays;
+
+/**
+ * 菜单的列式存储：名称、是否素食、卡路里、类型各一列
+ */
+public class DishColumns implements Columns<DishColumns> {
+
+    private static final Dish.Type[] TYPES = Dish.Type.values();
+
+    private String[] names = new String[64];
+    private boolean[] vegetarian = new boolean[64];
+    private int[] calories = new int[64];
+    private byte[] types = new byte[64];
+    private int size;
+
+    @Override
+    public void add(byte[] line, RecordFields fields) {
+        fields.requireCount(4);
+        ensureCapacity(size + 1);
+        names[size] = fields.trimmed(line, 0);
+        vegetarian[size] = fields.booleanValue(line, 1);
+        calories[size] = fields.intValue(line, 2);
+        types[size] = (byte) DishParser.type(line, fields, 3).ordinal();
+        size++;
+    }
+
+    @Override
+    public void addAll(DishColumns other) {
+        ensureCapacity(size + other.size);
+        System.arraycopy(other.names, 0, names, size, other.size);
+        System.arraycopy(other.vegetarian, 0, vegetarian, size, other.size);
+        System.arraycopy(other.calories, 0, calories, size, other.size);
+        System.arraycopy(other.types, 0, types, size, other.size);
+        size += other.size;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > calories.length) {
+            int length = Math.max(capacity, calories.length * 2);
+            names = Arrays.copyOf(names, length);
+            vegetarian = Arrays.copyOf(vegetarian, length);
+            calories = Arrays.copyOf(calories, length);
+            types = Arrays.copyOf(types, length);
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    public String name(int row) {
+        return names[row];
+    }
+
+    public boolean isVegetarian(int row) {
+        return vegetarian[row];
+    }
+
+    public int calories(int row) {
+        return calories[row];
+    }
+
+    public Dish.Type type(int row) {
+        return TYPES[types[row]];
+    }
+
+    public Dish toDish(int row) {
+        return new Dish(names[row], vegetarian[row], calories[row], type(row));
+    }
+
+    /**
+     * 卡路里列（长度为 size()，用于在原始数组上做聚合）
+     */
+    public int[] caloriesColumn() {
+        return Arrays.copyOf(calories, size);
+    }
+}
@@ -0,0 +1,32 @@
+package ingest;
+
+import domain.Dish;
+import text.RecordFields;
+
+/**
+ * 菜单格式：name,vegetarian,calories,type
+ *
+ *      pork,false,800,MEAT
+ */
+public class DishParser implements RowParser<Dish> {
+
+    private static final Dish.Type[] TYPES = Dish.Type.values();
+
+    @Override
+    public Dish parse(byte[] line, RecordFields fields) {
+        fields.requireCount(4);
+        return new Dish(fields.trimmed(line, 0), fields.booleanValue(line, 1), fields.intValue(line, 2), type(line, fields, 3));
+    }
+
+    /**
+     * 与枚举名逐个比较，不创建 String
+     */
+    static Dish.Type type(byte[] line, RecordFields fields, int field) {
+        for (Dish.Type type : TYPES) {
+            if (fields.equalsIgnoreCase(line, field, type.name())) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("unknown dish type: \"" + fields.trimmed(line, field) + "\"");
+    }
+}
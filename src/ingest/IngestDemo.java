@@ -0,0 +1,77 @@
+package ingest;
+
+import domain.Dish;
+import domain.Transaction;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * 从 CSV / TSV 文件读取 StreamDemo 中写死在静态块里的数据
+ */
+public class IngestDemo {
+
+    public static void main(String[] args) throws IOException {
+        Path menuFile = Files.createTempFile("menu", ".csv");
+        Files.write(menuFile, Arrays.asList(
+                "name,vegetarian,calories,type",
+                "pork,false,800,MEAT",
+                "beef,false,700,MEAT",
+                "chicken,false,400,MEAT",
+                "french fries,true,530,OTHER",
+                "rice,true,350,OTHER",
+                "season fruit,true,120,OTHER",
+                "pizza,true,550,OTHER",
+                "prawns,false,300,FISH",
+                "salmon,false,450,FISH"), StandardCharsets.UTF_8);
+
+        try (CsvSource source = CsvSource.open(menuFile, CsvFormat.CSV)) {
+            //对象流
+            List<String> vegetarian = source.stream(DishParser::new, true)
+                    .filter(Dish::isVegetarian)
+                    .map(Dish::getName)
+                    .collect(Collectors.toList());
+            System.out.println("素菜 : " + vegetarian);
+
+            //列式加载，直接在 int 数组上聚合
+            DishColumns columns = source.load(DishColumns::new, true);
+            System.out.println("总卡路里 : " + Arrays.stream(columns.caloriesColumn()).sum());//4200
+        }
+
+        Path txnFile = Files.createTempFile("transactions", ".tsv");
+        Files.write(txnFile, Arrays.asList(
+                "trader\tcity\tyear\tvalue",
+                "Brian\tCambridge\t2011\t300",
+                "Raoul\tCambridge\t2012\t1000",
+                "Raoul\tCambridge\t2011\t400",
+                "Mario\tMilan\t2012\t710",
+                "Mario\tMilan\t2012\t700",
+                "Alan\tCambridge\t2012\t950"), StandardCharsets.UTF_8);
+
+        try (CsvSource source = CsvSource.open(txnFile, CsvFormat.TSV)) {
+            List<Transaction> in2011 = source.stream(TransactionParser::new, false)
+                    .filter(t -> t.getYear() == 2011)
+                    .collect(Collectors.toList());
+            System.out.println("2011年的交易 : " + in2011);
+
+            TransactionColumns columns = source.load(TransactionColumns::new, true);
+            int[] years = columns.yearColumn();
+            int[] values = columns.valueColumn();
+            int sum2012 = 0;
+            for (int i = 0; i < columns.size(); i++) {
+                if (years[i] == 2012) {
+                    sum2012 += values[i];
+                }
+            }
+            System.out.println("2012年交易总额 : " + sum2012);//3360
+        }
+
+        Files.delete(menuFile);
+        Files.delete(txnFile);
+    }
+}
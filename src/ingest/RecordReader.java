@@ -0,0 +1,146 @@
+package ingest;
+
+import text.BulkStrings;
+import text.RecordFields;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * 逐条读取文件 [from, to) 中的记录
+ *
+ * 用定位读（FileChannel.read(buffer, position)）把大块数据读进一个堆内 byte[]，多个 RecordReader 可以共用同一个 channel 并行读取。
+ * 记录在缓冲区中原地切分：next() 之后 fields() 给出当前行每个字段在 buffer() 中的位置，不复制、不创建 String。
+ * 跨越缓冲区末尾的记录会被搬到缓冲区开头，超过缓冲区大小的记录会让缓冲区翻倍。
+ */
+public class RecordReader {
+
+    public static final int DEFAULT_BUFFER_SIZE = 1 << 20;
+
+    private final FileChannel channel;
+    private final byte delimiter;
+    private final RecordFields fields;
+    private byte[] buffer;
+    //buffer 的 BulkStrings.words 视图，只在缓冲区翻倍时重新包装
+    private ByteBuffer words;
+    //buffer[0] 在文件中的偏移
+    private long bufferOffset;
+    private int position;
+    private int limit;
+    private boolean eof;
+    private final long to;
+    //当前记录第一个字节在文件中的偏移
+    private long recordOffset = -1;
+
+    public RecordReader(FileChannel channel, long from, long to, byte delimiter, int bufferSize) {
+        this(channel, from, to, delimiter, StandardCharsets.UTF_8, bufferSize);
+    }
+
+    /**
+     * @param charset 文本字段的字符集，必须兼容 ASCII（见 CsvFormat）
+     */
+    public RecordReader(FileChannel channel, long from, long to, byte delimiter, Charset charset, int bufferSize) {
+        this.channel = channel;
+        this.delimiter = delimiter;
+        this.fields = new RecordFields(8, charset);
+        this.to = to;
+        this.buffer = new byte[(int) Math.max(16, Math.min(bufferSize, to - from))];
+        this.words = BulkStrings.words(buffer);
+        this.bufferOffset = from;
+    }
+
+    /**
+     * 读取下一条记录，没有更多记录时返回 false；空行会被跳过
+     */
+    public boolean next() {
+        while (true) {
+            int newline = BulkStrings.indexOf(words, buffer, position, limit, (byte) '\n');
+            int lineEnd;
+            int nextPosition;
+            if (newline >= 0) {
+                lineEnd = newline;
+                nextPosition = newline + 1;
+            } else if (!eof) {
+                fill();
+                continue;
+            } else if (position < limit) {
+                //最后一行没有换行符
+                lineEnd = limit;
+                nextPosition = limit;
+            } else {
+                return false;
+            }
+            int lineStart = position;
+            position = nextPosition;
+            if (lineEnd > lineStart && buffer[lineEnd - 1] == '\r') {
+                lineEnd--;
+            }
+            if (lineEnd > lineStart) {
+                recordOffset = bufferOffset + lineStart;
+                fields.scan(buffer, lineStart, lineEnd, delimiter);
+                return true;
+            }
+        }
+    }
+
+    private void fill() {
+        int remaining = limit - position;
+        if (position > 0) {
+            System.arraycopy(buffer, position, buffer, 0, remaining);
+            bufferOffset += position;
+            position = 0;
+            limit = remaining;
+        } else if (limit == buffer.length) {
+            buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            words = BulkStrings.words(buffer);
+        }
+        long fileLimit = Math.min(to, bufferOffset + buffer.length);
+        ByteBuffer target = ByteBuffer.wrap(buffer, limit, (int) (fileLimit - bufferOffset - limit));
+        try {
+            while (target.hasRemaining()) {
+                if (channel.read(target, bufferOffset + target.position()) < 0) {
+                    break;
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        limit = target.position();
+        eof = bufferOffset + limit >= to || target.hasRemaining();
+    }
+
+    /**
+     * 当前记录所在的缓冲区，下一次 next() 之后内容会变化
+     */
+    public byte[] buffer() {
+        return buffer;
+    }
+
+    public RecordFields fields() {
+        return fields;
+    }
+
+    /**
+     * 当前记录在整个文件中的行号（从 1 开始，表头和空行也计入）
+     *
+     * 并行分块不知道自己前面有多少行，这里从文件开头数换行符，只应在出错时调用。
+     */
+    public long lineNumber() {
+        if (recordOffset < 0) {
+            throw new IllegalStateException("no current record");
+        }
+        return ByteRanges.countLines(channel, 0, recordOffset) + 1;
+    }
+
+    /**
+     * 给当前记录的解析错误加上行号
+     */
+    IllegalArgumentException malformed(IllegalArgumentException cause) {
+        return new IllegalArgumentException("line " + lineNumber() + ": " + cause.getMessage(), cause);
+    }
+}
@@ -0,0 +1,14 @@
+package ingest;
+
+import text.RecordFields;
+
+/**
+ * 把一条已切分好字段的记录转换成对象
+ *
+ * 实现可以带有状态（例如缓存），每个并行分块各自创建一个实例，不需要线程安全。
+ */
+@FunctionalInterface
+public interface RowParser<T> {
+
+    T parse(byte[] line, RecordFields fields);
+}
@@ -0,0 +1,114 @@
+package ingest;
+
+import domain.Trader;
+import domain.TraderRegistry;
+import text.RecordFields;
+
+/**
+ * 按 (name, city) 两个字段的原始字节查找交易员
+ *
+ * 交易员的种类远少于交易笔数，命中时只比较字节，不创建 String；
+ * 未命中时才按文件的字符集解码成 String 并到 TraderRegistry 中登记（与直接 new Trader 的键一致）。每个解析分块一个实例，不需要线程安全。
+ */
+class TraderLookup {
+
+    private final TraderRegistry registry;
+    private byte[][] keys = new byte[64][];
+    private Trader[] values = new Trader[64];
+    private int size;
+
+    TraderLookup(TraderRegistry registry) {
+        this.registry = registry;
+    }
+
+    Trader lookup(byte[] line, RecordFields fields, int nameField, int cityField) {
+        int hash = hash(line, fields, nameField, cityField);
+        int mask = keys.length - 1;
+        for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+            byte[] key = keys[slot];
+            if (key == null) {
+                Trader trader = registry.intern(fields.trimmed(line, nameField), fields.trimmed(line, cityField));
+                keys[slot] = key(line, fields, nameField, cityField);
+                values[slot] = trader;
+                if (++size * 2 > keys.length) {
+                    rehash();
+                }
+                return trader;
+            }
+            if (matches(key, line, fields, nameField, cityField)) {
+                return values[slot];
+            }
+        }
+    }
+
+    /**
+     * 键的格式：name 字节 + 0 + city 字节
+     */
+    private static byte[] key(byte[] line, RecordFields fields, int nameField, int cityField) {
+        int nameLength = fields.end(nameField) - fields.start(nameField);
+        int cityLength = fields.end(cityField) - fields.start(cityField);
+        byte[] key = new byte[nameLength + 1 + cityLength];
+        System.arraycopy(line, fields.start(nameField), key, 0, nameLength);
+        System.arraycopy(line, fields.start(cityField), key, nameLength + 1, cityLength);
+        return key;
+    }
+
+    private static boolean matches(byte[] key, byte[] line, RecordFields fields, int nameField, int cityField) {
+        int nameStart = fields.start(nameField);
+        int nameLength = fields.end(nameField) - nameStart;
+        int cityStart = fields.start(cityField);
+        int cityLength = fields.end(cityField) - cityStart;
+        if (key.length != nameLength + 1 + cityLength || key[nameLength] != 0) {
+            return false;
+        }
+        for (int i = 0; i < nameLength; i++) {
+            if (key[i] != line[nameStart + i]) {
+                return false;
+            }
+        }
+        for (int i = 0; i < cityLength; i++) {
+            if (key[nameLength + 1 + i] != line[cityStart + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int hash(byte[] line, RecordFields fields, int nameField, int cityField) {
+        int h = 0;
+        for (int i = fields.start(nameField); i < fields.end(nameField); i++) {
+            h = h * 31 + line[i];
+        }
+        h = h * 31;
+        for (int i = fields.start(cityField); i < fields.end(cityField); i++) {
+            h = h * 31 + line[i];
+        }
+        return h ^ (h >>> 16);
+    }
+
+    private static int hash(byte[] key) {
+        int h = 0;
+        for (byte b : key) {
+            h = h * 31 + b;
+        }
+        return h ^ (h >>> 16);
+    }
+
+    private void rehash() {
+        byte[][] oldKeys = keys;
+        Trader[] oldValues = values;
+        keys = new byte[oldKeys.length * 2][];
+        values = new Trader[keys.length];
+        int mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != null) {
+                int slot = hash(oldKeys[i]) & mask;
+                while (keys[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package ingest;
+
+import domain.TraderRegistry;
+import domain.Transaction;
+import text.RecordFields;
+
+import java.util.Arrays;
+
+/**
+ * 交易的列式存储：交易员编号（TraderRegistry 中的编号）、年份、金额各一列
+ */
+public class TransactionColumns implements Columns<TransactionColumns> {
+
+    private final TraderRegistry registry;
+    private final TransactionParser parser;
+    private int[] traderIds = new int[64];
+    private int[] years = new int[64];
+    private int[] values = new int[64];
+    private int size;
+
+    public TransactionColumns() {
+        this(TraderRegistry.getDefault());
+    }
+
+    public TransactionColumns(TraderRegistry registry) {
+        this.registry = registry;
+        this.parser = new TransactionParser(registry);
+    }
+
+    @Override
+    public void add(byte[] line, RecordFields fields) {
+        fields.requireCount(4);
+        ensureCapacity(size + 1);
+        traderIds[size] = parser.trader(line, fields).getId();
+        years[size] = fields.intValue(line, 2);
+        values[size] = fields.intValue(line, 3);
+        size++;
+    }
+
+    @Override
+    public void addAll(TransactionColumns other) {
+        ensureCapacity(size + other.size);
+        System.arraycopy(other.traderIds, 0, traderIds, size, other.size);
+        System.arraycopy(other.years, 0, years, size, other.size);
+        System.arraycopy(other.values, 0, values, size, other.size);
+        size += other.size;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > values.length) {
+            int length = Math.max(capacity, values.length * 2);
+            traderIds = Arrays.copyOf(traderIds, length);
+            years = Arrays.copyOf(years, length);
+            values = Arrays.copyOf(values, length);
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    public int traderId(int row) {
+        return traderIds[row];
+    }
+
+    public int year(int row) {
+        return years[row];
+    }
+
+    public int value(int row) {
+        return values[row];
+    }
+
+    public Transaction toTransaction(int row) {
+        return new Transaction(registry.get(traderIds[row]), years[row], values[row]);
+    }
+
+    /**
+     * 各列的副本（长度为 size()）
+     */
+    public int[] traderIdColumn() {
+        return Arrays.copyOf(traderIds, size);
+    }
+
+    public int[] yearColumn() {
+        return Arrays.copyOf(years, size);
+    }
+
+    public int[] valueColumn() {
+        return Arrays.copyOf(values, size);
+    }
+}
@@ -0,0 +1,36 @@
+package ingest;
+
+import domain.Trader;
+import domain.TraderRegistry;
+import domain.Transaction;
+import text.RecordFields;
+
+/**
+ * 交易格式：trader,city,year,value
+ *
+ *      Raoul,Cambridge,2012,1000
+ *
+ * 交易员经过 TraderRegistry 驻留，同名同城只有一个实例。
+ */
+public class TransactionParser implements RowParser<Transaction> {
+
+    private final TraderLookup traders;
+
+    public TransactionParser() {
+        this(TraderRegistry.getDefault());
+    }
+
+    public TransactionParser(TraderRegistry registry) {
+        this.traders = new TraderLookup(registry);
+    }
+
+    @Override
+    public Transaction parse(byte[] line, RecordFields fields) {
+        fields.requireCount(4);
+        return new Transaction(trader(line, fields), fields.intValue(line, 2), fields.intValue(line, 3));
+    }
+
+    Trader trader(byte[] line, RecordFields fields) {
+        return traders.lookup(line, fields, 0, 1);
+    }
+}
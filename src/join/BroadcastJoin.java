@@ -0,0 +1,77 @@
+package join;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.ToIntFunction;
+
+/**
+ * 广播连接：维度表很小（交易员、城市），整张表被所有探测线程共享只读，探测端的大表按块并行
+ *
+ * 维度表的键通常是连续的编号（TraderRegistry 的编号从 0 开始），这时直接用键做数组下标，探测一次只是一次数组访问；
+ * 键比较稀疏时退化为 IntHashIndex。结果顺序与 HashJoin 相同。
+ *
+ *      List<String> rows = BroadcastJoin.inner(transactions, t -> t.getTrader().getId(),
+ *              traders, Trader::getId, (t, trader) -> trader.getName() + " " + t.getValue(), true);
+ */
+public class BroadcastJoin {
+
+    //键范围超过 max(DENSE_MIN, 行数 * DENSE_FACTOR) 时不用数组下标
+    private static final int DENSE_MIN = 1 << 10;
+    private static final int DENSE_FACTOR = 4;
+
+    private BroadcastJoin() {
+    }
+
+    public static JoinPairs pairs(int[] probeKeys, int[] dimensionKeys, boolean leftOuter, boolean parallel) {
+        int min = Integer.MAX_VALUE;
+        int max = Integer.MIN_VALUE;
+        for (int key : dimensionKeys) {
+            min = Math.min(min, key);
+            max = Math.max(max, key);
+        }
+        long range = (long) max - min + 1;
+        if (dimensionKeys.length == 0 || range > Math.max(DENSE_MIN, (long) dimensionKeys.length * DENSE_FACTOR)) {
+            return HashJoin.pairs(probeKeys, IntHashIndex.build(dimensionKeys, false), leftOuter, parallel);
+        }
+        //first[key - min] 是该键的第一行，next[row] 是同键的下一行；倒序插入保证链表按行号升序
+        int base = min;
+        int[] first = new int[(int) range];
+        Arrays.fill(first, -1);
+        int[] next = new int[dimensionKeys.length];
+        for (int row = dimensionKeys.length - 1; row >= 0; row--) {
+            int slot = dimensionKeys[row] - base;
+            next[row] = first[slot];
+            first[slot] = row;
+        }
+        return Keys.probe(probeKeys.length, parallel, (from, to, out) -> {
+            for (int i = from; i < to; i++) {
+                long slot = (long) probeKeys[i] - base;
+                int row = slot >= 0 && slot < first.length ? first[(int) slot] : -1;
+                if (row < 0) {
+                    if (leftOuter) {
+                        out.add(i, -1);
+                    }
+                    continue;
+                }
+                for (; row >= 0; row = next[row]) {
+                    out.add(i, row);
+                }
+            }
+        });
+    }
+
+    public static <L, R, O> List<O> inner(List<L> probe, ToIntFunction<? super L> probeKey,
+                                          List<R> dimension, ToIntFunction<? super R> dimensionKey,
+                                          BiFunction<? super L, ? super R, ? extends O> combiner, boolean parallel) {
+        return pairs(Keys.of(probe, probeKey, parallel), Keys.of(dimension, dimensionKey, false), false, parallel)
+                .map(probe, dimension, combiner, parallel);
+    }
+
+    public static <L, R, O> List<O> leftOuter(List<L> probe, ToIntFunction<? super L> probeKey,
+                                              List<R> dimension, ToIntFunction<? super R> dimensionKey,
+                                              BiFunction<? super L, ? super R, ? extends O> combiner, boolean parallel) {
+        return pairs(Keys.of(probe, probeKey, parallel), Keys.of(dimension, dimensionKey, false), true, parallel)
+                .map(probe, dimension, combiner, parallel);
+    }
+}
@@ -0,0 +1,63 @@
+package join;
+
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.ToIntFunction;
+
+/**
+ * 哈希连接：较小的一侧（构建端）建 IntHashIndex，较大的一侧（探测端）逐行查找
+ *
+ *      List<String> rows = HashJoin.inner(transactions, t -> cityIds.idOf(t.getTrader().getCity()),
+ *              cities, c -> cityIds.intern(c.getName()),
+ *              (t, c) -> t.getValue() + " " + c.getCountry(), true);
+ *
+ * 键必须是 int：数值字段直接用，字符串先驻留成编号（TraderRegistry、query.StringIds、storage.StringDictionary）。
+ * 构建时并行排序，探测时按块并行；结果按探测端的行顺序排列，同一行的多个匹配按构建端的行顺序排列。
+ */
+public class HashJoin {
+
+    private HashJoin() {
+    }
+
+    public static JoinPairs pairs(int[] probeKeys, int[] buildKeys, boolean parallel) {
+        return pairs(probeKeys, IntHashIndex.build(buildKeys, parallel), false, parallel);
+    }
+
+    /**
+     * @param leftOuter 为 true 时，没有匹配的探测行也输出一次，右下标为 -1
+     */
+    public static JoinPairs pairs(int[] probeKeys, IntHashIndex index, boolean leftOuter, boolean parallel) {
+        return Keys.probe(probeKeys.length, parallel, (from, to, out) -> {
+            for (int i = from; i < to; i++) {
+                int key = probeKeys[i];
+                int p = index.find(key);
+                if (p < 0) {
+                    if (leftOuter) {
+                        out.add(i, -1);
+                    }
+                    continue;
+                }
+                for (; p >= 0; p = index.next(p, key)) {
+                    out.add(i, index.row(p));
+                }
+            }
+        });
+    }
+
+    public static <L, R, O> List<O> inner(List<L> probe, ToIntFunction<? super L> probeKey,
+                                          List<R> build, ToIntFunction<? super R> buildKey,
+                                          BiFunction<? super L, ? super R, ? extends O> combiner, boolean parallel) {
+        IntHashIndex index = IntHashIndex.build(Keys.of(build, buildKey, parallel), parallel);
+        return pairs(Keys.of(probe, probeKey, parallel), index, false, parallel).map(probe, build, combiner, parallel);
+    }
+
+    /**
+     * 左外连接：没有匹配的探测行也输出，combiner 的第二个参数为 null
+     */
+    public static <L, R, O> List<O> leftOuter(List<L> probe, ToIntFunction<? super L> probeKey,
+                                              List<R> build, ToIntFunction<? super R> buildKey,
+                                              BiFunction<? super L, ? super R, ? extends O> combiner, boolean parallel) {
+        IntHashIndex index = IntHashIndex.build(Keys.of(build, buildKey, parallel), parallel);
+        return pairs(Keys.of(probe, probeKey, parallel), index, true, parallel).map(probe, build, combiner, parallel);
+    }
+}
@@ -0,0 +1,100 @@
+package join;
+
+import sort.PrimitiveSort;
+
+import java.util.stream.IntStream;
+
+/**
+ * int 键的哈希索引（哈希连接的构建端），可以建一次、探测多次
+ *
+ * 布局与 CSR 相同：行号按桶号稳定排序后连续存放在 rows 中，offsets[b] ~ offsets[b + 1] 是第 b 个桶的区间，
+ * bucketKeys 与 rows 一一对应，探测时只顺序读这两个数组，不追指针。
+ * 同一个键的多行按原来的行号升序排列。
+ *
+ * 探测不分配对象：
+ *      for (int p = index.find(key); p >= 0; p = index.next(p, key)) {
+ *          int row = index.row(p);
+ *      }
+ */
+public class IntHashIndex {
+
+    private final int mask;
+    private final int[] offsets;
+    private final int[] rows;
+    private final int[] bucketKeys;
+
+    private IntHashIndex(int mask, int[] offsets, int[] rows, int[] bucketKeys) {
+        this.mask = mask;
+        this.offsets = offsets;
+        this.rows = rows;
+        this.bucketKeys = bucketKeys;
+    }
+
+    /**
+     * @param keys     第 i 行的键
+     * @param parallel 是否并行排序
+     */
+    public static IntHashIndex build(int[] keys, boolean parallel) {
+        int buckets = Integer.highestOneBit(Math.max(1, keys.length - 1)) << 1;
+        int mask = buckets - 1;
+        int[] bucketOf = new int[keys.length];
+        IntStream range = IntStream.range(0, keys.length);
+        (parallel ? range.parallel() : range).forEach(i -> bucketOf[i] = bucket(keys[i], mask));
+        int[] rows = PrimitiveSort.sortIndices(bucketOf, parallel);
+        int[] offsets = new int[buckets + 1];
+        int[] bucketKeys = new int[keys.length];
+        for (int p = 0; p < rows.length; p++) {
+            offsets[bucketOf[rows[p]] + 1]++;
+            bucketKeys[p] = keys[rows[p]];
+        }
+        for (int b = 0; b < buckets; b++) {
+            offsets[b + 1] += offsets[b];
+        }
+        return new IntHashIndex(mask, offsets, rows, bucketKeys);
+    }
+
+    private static int bucket(int key, int mask) {
+        int h = key * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    /**
+     * 第一个键为 key 的位置，没有返回 -1
+     */
+    public int find(int key) {
+        int b = bucket(key, mask);
+        return scan(offsets[b], offsets[b + 1], key);
+    }
+
+    /**
+     * pos 之后下一个键为 key 的位置，没有返回 -1
+     */
+    public int next(int pos, int key) {
+        int b = bucket(key, mask);
+        return scan(pos + 1, offsets[b + 1], key);
+    }
+
+    private int scan(int from, int to, int key) {
+        for (int p = from; p < to; p++) {
+            if (bucketKeys[p] == key) {
+                return p;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 位置 pos 上的行号
+     */
+    public int row(int pos) {
+        return rows[pos];
+    }
+
+    public boolean contains(int key) {
+        return find(key) >= 0;
+    }
+
+    public int size() {
+        return rows.length;
+    }
+}
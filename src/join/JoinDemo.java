@@ -0,0 +1,55 @@
+package join;
+
+import domain.Trader;
+import domain.TraderRegistry;
+import domain.Transaction;
+import query.StringIds;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 交易与交易员、城市表之间的连接
+ */
+public class JoinDemo {
+
+    public static void main(String[] args) {
+        TraderRegistry registry = TraderRegistry.getDefault();
+        List<Transaction> transactions = Arrays.asList(
+                new Transaction(registry.intern("Brian","Cambridge"), 2011, 300),
+                new Transaction(registry.intern("Raoul", "Cambridge"), 2012, 1000),
+                new Transaction(registry.intern("Raoul", "Cambridge"), 2011, 400),
+                new Transaction(registry.intern("Mario","Milan"), 2012, 710),
+                new Transaction(registry.intern("Mario","Milan"), 2012, 700),
+                new Transaction(registry.intern("Alan","Cambridge"), 2012, 950) );
+        List<Trader> traders = Arrays.asList(registry.get(0), registry.get(1), registry.get(2), registry.get(3));
+
+        //1.广播连接：交易员表很小，按编号直接做数组下标
+        List<String> byTrader = BroadcastJoin.inner(transactions, t -> t.getTrader().getId(),
+                traders, Trader::getId, (t, trader) -> trader.getName() + ":" + t.getValue(), true);
+        System.out.println("交易员 : " + byTrader);
+
+        //2.哈希连接：外部的城市表，城市名先驻留成编号
+        StringIds cityIds = new StringIds();
+        List<City> cities = Arrays.asList(new City("Cambridge", "UK"), new City("Milan", "Italy"));
+        List<String> byCountry = HashJoin.inner(traders, t -> cityIds.idOf(t.getCity()),
+                cities, c -> cityIds.intern(c.name), (t, c) -> t.getName() + "@" + c.country, false);
+        System.out.println("国家 : " + byCountry);
+
+        //3.排序归并连接：按年份与年度目标连接，结果按年份有序
+        List<int[]> targets = Arrays.asList(new int[]{2012, 3000}, new int[]{2011, 1000});
+        List<String> vsTarget = SortMergeJoin.inner(transactions, Transaction::getYear,
+                targets, target -> target[0], (t, target) -> t.getYear() + ":" + t.getValue() + "/" + target[1], true);
+        System.out.println("年度目标 : " + vsTarget);
+    }
+
+    static class City {
+        final String name;
+        final String country;
+
+        City(String name, String country) {
+            this.name = name;
+            this.country = country;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package join;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.stream.IntStream;
+
+/**
+ * 连接结果：匹配上的 (左下标, 右下标) 对，左外连接中没有匹配的行右下标为 -1
+ *
+ * 所有连接算法都先在 int 键数组上算出下标对，需要对象时再用 map 组装，
+ * 这样同一份下标对可以用于列式数据（例如 ingest.TransactionColumns），也可以用于对象列表。
+ */
+public class JoinPairs {
+
+    private int[] left;
+    private int[] right;
+    private int size;
+
+    JoinPairs(int capacity) {
+        this.left = new int[Math.max(8, capacity)];
+        this.right = new int[left.length];
+    }
+
+    void add(int l, int r) {
+        if (size == left.length) {
+            left = Arrays.copyOf(left, size * 2);
+            right = Arrays.copyOf(right, size * 2);
+        }
+        left[size] = l;
+        right[size] = r;
+        size++;
+    }
+
+    /**
+     * 按顺序拼接各分块的结果
+     */
+    static JoinPairs concat(JoinPairs[] parts) {
+        int total = 0;
+        for (JoinPairs part : parts) {
+            total += part.size;
+        }
+        JoinPairs result = new JoinPairs(total);
+        for (JoinPairs part : parts) {
+            System.arraycopy(part.left, 0, result.left, result.size, part.size);
+            System.arraycopy(part.right, 0, result.right, result.size, part.size);
+            result.size += part.size;
+        }
+        return result;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int left(int i) {
+        return left[i];
+    }
+
+    /**
+     * 没有匹配时为 -1
+     */
+    public int right(int i) {
+        return right[i];
+    }
+
+    /**
+     * 用下标对组装结果对象，右下标为 -1 时 combiner 的第二个参数为 null
+     */
+    public <L, R, O> List<O> map(List<L> lefts, List<R> rights, BiFunction<? super L, ? super R, ? extends O> combiner, boolean parallel) {
+        Object[] ls = lefts.toArray();
+        Object[] rs = rights.toArray();
+        @SuppressWarnings("unchecked")
+        O[] out = (O[]) new Object[size];
+        IntStream range = IntStream.range(0, size);
+        (parallel ? range.parallel() : range).forEach(i -> {
+            @SuppressWarnings("unchecked")
+            L l = (L) ls[left[i]];
+            @SuppressWarnings("unchecked")
+            R r = right[i] < 0 ? null : (R) rs[right[i]];
+            out[i] = combiner.apply(l, r);
+        });
+        return new ArrayList<>(Arrays.asList(out));
+    }
+}
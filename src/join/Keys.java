@@ -0,0 +1,66 @@
+package join;
+
+import numeric.RangePartitioner;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.ToIntFunction;
+import java.util.stream.IntStream;
+
+/**
+ * 连接算法的公共部分：提取键、按块并行探测
+ */
+class Keys {
+
+    //小于该行数时不并行
+    static final int PARALLEL_THRESHOLD = 1 << 13;
+
+    private Keys() {
+    }
+
+    /**
+     * 每行只调用一次键函数，之后所有比较都在 int 上进行
+     */
+    static <T> int[] of(List<T> items, ToIntFunction<? super T> key, boolean parallel) {
+        Object[] array = items.toArray();
+        int[] keys = new int[array.length];
+        IntStream range = IntStream.range(0, array.length);
+        (parallel && array.length >= PARALLEL_THRESHOLD ? range.parallel() : range).forEach(i -> {
+            @SuppressWarnings("unchecked")
+            T t = (T) array[i];
+            keys[i] = key.applyAsInt(t);
+        });
+        return keys;
+    }
+
+    @FunctionalInterface
+    interface BlockProbe {
+        void probe(int from, int to, JoinPairs out);
+    }
+
+    /**
+     * 把 [0, n) 切块后各块独立探测，结果按块的顺序拼接，与顺序执行的结果完全相同
+     */
+    static JoinPairs probe(int n, boolean parallel, BlockProbe probe) {
+        if (!parallel || n < PARALLEL_THRESHOLD) {
+            JoinPairs out = new JoinPairs(n);
+            probe.probe(0, n, out);
+            return out;
+        }
+        return probe(RangePartitioner.even(0, n, parts()), probe);
+    }
+
+    static JoinPairs probe(int[] bounds, BlockProbe probe) {
+        JoinPairs[] parts = new JoinPairs[bounds.length - 1];
+        IntStream.range(0, parts.length).parallel().forEach(b -> {
+            JoinPairs out = new JoinPairs(bounds[b + 1] - bounds[b]);
+            probe.probe(bounds[b], bounds[b + 1], out);
+            parts[b] = out;
+        });
+        return JoinPairs.concat(parts);
+    }
+
+    static int parts() {
+        return ForkJoinPool.getCommonPoolParallelism() * 4;
+    }
+}
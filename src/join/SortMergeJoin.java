@@ -0,0 +1,102 @@
+package join;
+
+import numeric.RangePartitioner;
+import sort.PrimitiveSort;
+
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.ToIntFunction;
+
+/**
+ * 排序归并连接：两侧都按键排序，然后同时向前推进两个游标
+ *
+ * 适合两侧都很大、或者已经按键有序的情况；结果按键升序排列（键相同时按左、右两侧原来的行顺序）。
+ * 并行时把排好序的左侧切块，切分点移动到键的边界上，每块用二分查找定位右侧的起点，各块独立归并。
+ */
+public class SortMergeJoin {
+
+    private SortMergeJoin() {
+    }
+
+    public static JoinPairs pairs(int[] leftKeys, int[] rightKeys, boolean parallel) {
+        int[] leftOrder = PrimitiveSort.sortIndices(leftKeys, parallel);
+        int[] rightOrder = PrimitiveSort.sortIndices(rightKeys, parallel);
+        int[] ls = gather(leftKeys, leftOrder);
+        int[] rs = gather(rightKeys, rightOrder);
+        Keys.BlockProbe merge = (from, to, out) -> {
+            int i = from;
+            int j = lowerBound(rs, from < ls.length ? ls[from] : 0);
+            while (i < to && j < rs.length) {
+                int l = ls[i];
+                int r = rs[j];
+                if (l < r) {
+                    i++;
+                } else if (l > r) {
+                    j++;
+                } else {
+                    int iEnd = i;
+                    while (iEnd < to && ls[iEnd] == l) {
+                        iEnd++;
+                    }
+                    int jEnd = j;
+                    while (jEnd < rs.length && rs[jEnd] == l) {
+                        jEnd++;
+                    }
+                    for (int a = i; a < iEnd; a++) {
+                        for (int b = j; b < jEnd; b++) {
+                            out.add(leftOrder[a], rightOrder[b]);
+                        }
+                    }
+                    i = iEnd;
+                    j = jEnd;
+                }
+            }
+        };
+        if (!parallel || ls.length < Keys.PARALLEL_THRESHOLD) {
+            JoinPairs out = new JoinPairs(ls.length);
+            merge.probe(0, ls.length, out);
+            return out;
+        }
+        int[] bounds = RangePartitioner.even(0, ls.length, Keys.parts());
+        //相同的键必须落在同一块中
+        for (int b = 1; b < bounds.length - 1; b++) {
+            int pos = Math.max(bounds[b], bounds[b - 1]);
+            while (pos > 0 && pos < ls.length && ls[pos] == ls[pos - 1]) {
+                pos++;
+            }
+            bounds[b] = pos;
+        }
+        return Keys.probe(bounds, (from, to, out) -> merge.probe(from, Math.max(from, to), out));
+    }
+
+    private static int[] gather(int[] keys, int[] order) {
+        int[] sorted = new int[keys.length];
+        for (int i = 0; i < order.length; i++) {
+            sorted[i] = keys[order[i]];
+        }
+        return sorted;
+    }
+
+    /**
+     * 第一个 >= key 的位置
+     */
+    private static int lowerBound(int[] sorted, int key) {
+        int lo = 0;
+        int hi = sorted.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (sorted[mid] < key) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    public static <L, R, O> List<O> inner(List<L> left, ToIntFunction<? super L> leftKey,
+                                          List<R> right, ToIntFunction<? super R> rightKey,
+                                          BiFunction<? super L, ? super R, ? extends O> combiner, boolean parallel) {
+        return pairs(Keys.of(left, leftKey, parallel), Keys.of(right, rightKey, parallel), parallel).map(left, right, combiner, parallel);
+    }
+}
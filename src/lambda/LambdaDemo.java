@@ -1,8 +1,14 @@
 package lambda;
 
 import domain.Apple;
+import domain.ImmutableApple;
+import query.AppleSchema;
+import query.CompiledComparator;
+import query.QueryCompiler;
+import sort.PrimitiveSort;
 import util.LambdaUtils;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Comparator;
 import java.util.List;
@@ -67,7 +73,13 @@ public class LambdaDemo {
     }
 
     public static void comsumerApples(){
+        List<ImmutableApple> snapshot = ImmutableApple.fromAll(appleList);
         LambdaUtils.out("改变苹果重量：", LambdaUtils.consumer(appleList, apple -> apple.setHeight(50), apple -> apple.setColor("ggg")));
+
+        //不可变版本：不修改共享的苹果，而是用Function生成新对象，原来的苹果保持不变
+        List<ImmutableApple> changed = LambdaUtils.function(snapshot, apple -> apple.withHeight(50).withColor("ggg"));
+        LambdaUtils.out("不可变苹果 withHeight & withColor：", changed);
+        LambdaUtils.out("原来的不可变苹果：", snapshot);
     }
 
     public static void functiuonApples(){
@@ -141,6 +153,14 @@ public class LambdaDemo {
         //按照重量进行排序，当两个苹果重量一样时，按照颜色进行排序
         appleList.sort(Comparator.comparing(Apple::getHeight).thenComparing(Apple::getColor));
         LambdaUtils.out("比较器复合 - 重量排序 THEN Color排序 ： ", appleList);
+        //编译后的比较器：int字段直接比较，不装箱
+        List<Apple> compiledSorted = new ArrayList<>(appleList);
+        compiledSorted.sort(CompiledComparator.by(AppleSchema.HEIGHT).thenBy(AppleSchema.COLOR));
+        LambdaUtils.out("比较器复合 - CompiledComparator 重量排序 THEN Color排序 ： ", compiledSorted);
+        //重量只提取一次放进int[]，基数排序后再按颜色排重量相同的部分，见 sort.PrimitiveSort
+        List<Apple> primitiveSorted = new ArrayList<>(appleList);
+        PrimitiveSort.sortByInt(primitiveSorted, Apple::getHeight, Comparator.comparing(Apple::getColor));
+        System.out.println("PrimitiveSort.sortByInt 与 Comparator 复合的结果相同 : " + (primitiveSorted.equals(appleList) && compiledSorted.equals(appleList)));
 
         /**************************** ②.谓词复合 ***********************************/
 
@@ -160,6 +180,11 @@ public class LambdaDemo {
         //100 > 120 or color=yellow    true
         System.out.println("100 > 120 or color is yellow : " + predicate.or(a -> "yellow".equals(a.getColor())).test(apple));
 
+        //同样的组合写成查询表达式，编译成一个扁平的谓词，不再一层套一层地调用，见 query.QueryCompiler
+        Predicate<Apple> compiled = QueryCompiler.compile(AppleSchema.INSTANCE,
+                AppleSchema.HEIGHT.gt(120).negate().and(AppleSchema.COLOR.eq("yellow")));
+        System.out.println("compiled : " + compiled + " -> " + compiled.test(apple));
+
         /**************************** ③.函数复合 ***********************************/
 
         //Function接口的表达式，andThen和compose两个默认方法
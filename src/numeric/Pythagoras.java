@@ -0,0 +1,136 @@
+package numeric;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+/**
+ * 勾股数 a² + b² = c²（1 <= a <= b <= n）
+ *
+ * 书中的写法：
+ *      IntStream.rangeClosed(1, 100).boxed()
+ *          .flatMap(a -> IntStream.rangeClosed(a, 100).mapToObj(b -> new int[]{a, b, (int) Math.sqrt(a * a + b * b)}))
+ *          .filter(t -> t[2] * t[2] == t[0] * t[0] + t[1] * t[1])
+ * 每个 (a, b) 都装箱并创建一个 int[]，绝大多数数组随后又被 filter 丢掉。
+ *
+ * 这里内层用普通循环判断，只有真正的勾股数才会交给下游：
+ *      count        直接计数，不产生任何对象
+ *      forEach      复用同一个 int[3]
+ *      packed       LongStream，每个勾股数打包成一个 long（见 Tuples.triple）
+ */
+public class Pythagoras {
+
+    private Pythagoras() {
+    }
+
+    /**
+     * 勾股数个数
+     * @param n a、b 的上限（包含），0 <= n < Integer.MAX_VALUE
+     * @param parallel 是否并行。外层按三角形工作量切分
+     */
+    public static long count(int n, boolean parallel) {
+        checkLimit(n);
+        if (!parallel) {
+            return count(1, n + 1, n);
+        }
+        int[] bounds = RangePartitioner.triangular(1, n + 1, RangeKernels.parts());
+        return IntStream.range(0, bounds.length - 1).parallel()
+                .mapToLong(i -> count(bounds[i], bounds[i + 1], n))
+                .sum();
+    }
+
+    /**
+     * 顺序遍历所有勾股数。回调中拿到的数组会被复用，需要保留时请复制
+     */
+    public static void forEach(int n, Consumer<int[]> action) {
+        checkLimit(n);
+        int[] tuple = new int[3];
+        for (int a = 1; a <= n; a++) {
+            for (int b = a; b <= n; b++) {
+                int c = hypotenuse(a, b);
+                if (c > 0) {
+                    tuple[0] = a;
+                    tuple[1] = b;
+                    tuple[2] = c;
+                    action.accept(tuple);
+                }
+            }
+        }
+    }
+
+    /**
+     * 打包成 long 的勾股数流，可以并行
+     * @param n 上限，斜边不能超过 Tuples.MAX_TRIPLE_COMPONENT
+     */
+    public static LongStream packed(int n) {
+        checkPackedLimit(n);
+        return IntStream.rangeClosed(1, n).asLongStream()
+                .flatMap(a -> row((int) a, n));
+    }
+
+    private static LongStream row(int a, int n) {
+        long[] buffer = new long[4];
+        int size = 0;
+        for (int b = a; b <= n; b++) {
+            int c = hypotenuse(a, b);
+            if (c > 0) {
+                if (size == buffer.length) {
+                    buffer = Arrays.copyOf(buffer, size * 2);
+                }
+                buffer[size++] = Tuples.triple(a, b, c);
+            }
+        }
+        return size == 0 ? LongStream.empty() : Arrays.stream(buffer, 0, size);
+    }
+
+    /**
+     * 与 packed 相同，但顺序回调，不创建流
+     * @param n 上限，斜边不能超过 Tuples.MAX_TRIPLE_COMPONENT
+     */
+    public static void forEachPacked(int n, LongConsumer action) {
+        checkPackedLimit(n);
+        forEach(n, t -> action.accept(Tuples.triple(t[0], t[1], t[2])));
+    }
+
+    /**
+     * n 为负数时顺序的 count 返回 0，并行的 count 却在切分时抛出异常；n 为 Integer.MAX_VALUE 时 b <= n 的循环不会结束
+     */
+    private static void checkLimit(int n) {
+        if (n < 0 || n == Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("n must be between 0 and " + (Integer.MAX_VALUE - 1) + ": " + n);
+        }
+    }
+
+    /**
+     * 斜边 c < a + b <= 2n，n 不超过 MAX_TRIPLE_COMPONENT / 2 时打包不会溢出
+     */
+    private static void checkPackedLimit(int n) {
+        checkLimit(n);
+        if (n > Tuples.MAX_TRIPLE_COMPONENT / 2) {
+            throw new IllegalArgumentException("n too large for packed triples: " + n);
+        }
+    }
+
+    private static long count(int aFrom, int aTo, int n) {
+        long count = 0;
+        for (int a = aFrom; a < aTo; a++) {
+            for (int b = a; b <= n; b++) {
+                if (hypotenuse(a, b) > 0) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * a² + b² 是完全平方数时返回 c，否则返回 0
+     */
+    static int hypotenuse(int a, int b) {
+        long sq = (long) a * a + (long) b * b;
+        int c = (int) Math.sqrt(sq);
+        return (long) c * c == sq ? c : 0;
+    }
+}
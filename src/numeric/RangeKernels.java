@@ -0,0 +1,104 @@
+package numeric;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntPredicate;
+import java.util.function.IntUnaryOperator;
+import java.util.stream.IntStream;
+
+/**
+ * 区间上的 filter / count / sum 内核，全程使用 int，没有装箱
+ *
+ *      IntStream.range(0, n).boxed().filter(p).count()   ==>  RangeKernels.count(0, n, p, parallel)
+ *
+ * 并行版本先用 RangePartitioner 把区间切成 并行度 * 4 段，每段是一个普通的 for 循环。
+ */
+public class RangeKernels {
+
+    private RangeKernels() {
+    }
+
+    public static long count(int from, int to, IntPredicate predicate, boolean parallel) {
+        if (!parallel) {
+            return count(from, to, predicate);
+        }
+        int[] bounds = RangePartitioner.even(from, to, parts());
+        return IntStream.range(0, bounds.length - 1).parallel()
+                .mapToLong(i -> count(bounds[i], bounds[i + 1], predicate))
+                .sum();
+    }
+
+    /**
+     * 满足条件的 mapper(i) 之和
+     */
+    public static long sum(int from, int to, IntPredicate predicate, IntUnaryOperator mapper, boolean parallel) {
+        if (!parallel) {
+            return sum(from, to, predicate, mapper);
+        }
+        int[] bounds = RangePartitioner.even(from, to, parts());
+        return IntStream.range(0, bounds.length - 1).parallel()
+                .mapToLong(i -> sum(bounds[i], bounds[i + 1], predicate, mapper))
+                .sum();
+    }
+
+    /**
+     * 满足条件的元素，按升序排列
+     */
+    public static int[] filter(int from, int to, IntPredicate predicate, boolean parallel) {
+        if (!parallel) {
+            return filter(from, to, predicate);
+        }
+        int[] bounds = RangePartitioner.even(from, to, parts());
+        int[][] pieces = new int[bounds.length - 1][];
+        IntStream.range(0, pieces.length).parallel().forEach(i -> pieces[i] = filter(bounds[i], bounds[i + 1], predicate));
+        int total = 0;
+        for (int[] piece : pieces) {
+            total += piece.length;
+        }
+        int[] result = new int[total];
+        int pos = 0;
+        for (int[] piece : pieces) {
+            System.arraycopy(piece, 0, result, pos, piece.length);
+            pos += piece.length;
+        }
+        return result;
+    }
+
+    static long count(int from, int to, IntPredicate predicate) {
+        long count = 0;
+        for (int i = from; i < to; i++) {
+            if (predicate.test(i)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    static long sum(int from, int to, IntPredicate predicate, IntUnaryOperator mapper) {
+        long sum = 0;
+        for (int i = from; i < to; i++) {
+            if (predicate.test(i)) {
+                sum += mapper.applyAsInt(i);
+            }
+        }
+        return sum;
+    }
+
+    static int[] filter(int from, int to, IntPredicate predicate) {
+        int[] result = new int[Math.min(16, Math.max(0, to - from))];
+        int size = 0;
+        for (int i = from; i < to; i++) {
+            if (predicate.test(i)) {
+                if (size == result.length) {
+                    result = Arrays.copyOf(result, Math.max(16, size * 2));
+                }
+                result[size++] = i;
+            }
+        }
+        return size == result.length ? result : Arrays.copyOf(result, size);
+    }
+
+    static int parts() {
+        return ForkJoinPool.getCommonPoolParallelism() * 4;
+    }
+}
@@ -0,0 +1,53 @@
+package numeric;
+
+/**
+ * 把区间切成若干段，交给不同的线程处理
+ *
+ * even：每段元素个数相同
+ * triangular：用于 for (a = from; a < to; a++) for (b = a; b < to; b++) 这种三角形嵌套循环，
+ *      a 越小内层循环越长，按元素个数平分会让第一段的工作量远大于最后一段，所以按累计工作量平分。
+ */
+public class RangePartitioner {
+
+    private RangePartitioner() {
+    }
+
+    /**
+     * @return 长度为 parts + 1 的边界数组，第 i 段为 [bounds[i], bounds[i + 1])
+     */
+    public static int[] even(int from, int to, int parts) {
+        parts = clampParts(from, to, parts);
+        int[] bounds = new int[parts + 1];
+        long length = (long) to - from;
+        for (int i = 0; i <= parts; i++) {
+            bounds[i] = (int) (from + length * i / parts);
+        }
+        return bounds;
+    }
+
+    /**
+     * 外层 a ∈ [from, to)，内层 b ∈ [a, to)，第 a 行工作量为 to - a
+     */
+    public static int[] triangular(int from, int to, int parts) {
+        parts = clampParts(from, to, parts);
+        int[] bounds = new int[parts + 1];
+        long n = (long) to - from;
+        double total = n * (n + 1) / 2.0;
+        bounds[0] = from;
+        for (int i = 1; i < parts; i++) {
+            //前 k 行的工作量 W(k) = k * n - k * (k - 1) / 2，解 W(k) = total * i / parts
+            double target = total * i / parts;
+            double k = ((2 * n + 1) - Math.sqrt((2 * n + 1) * (2 * n + 1) - 8 * target)) / 2;
+            bounds[i] = (int) Math.max(bounds[i - 1], Math.min(to, from + Math.round(k)));
+        }
+        bounds[parts] = to;
+        return bounds;
+    }
+
+    private static int clampParts(int from, int to, int parts) {
+        if (to < from) {
+            throw new IllegalArgumentException("[" + from + ", " + to + ")");
+        }
+        return (int) Math.max(1, Math.min(parts, (long) to - from));
+    }
+}
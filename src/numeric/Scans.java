@@ -0,0 +1,309 @@
+package numeric;
+
+import java.util.function.IntBinaryOperator;
+import java.util.function.LongBinaryOperator;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+/**
+ * 前缀扫描（scan）：reduce 只给出最终结果，scan 给出每个位置上的中间结果
+ *
+ *      输入              3   1   4   1   5
+ *      包含式前缀和       3   4   8   9   14
+ *      排除式前缀和       0   3   4   8   9
+ *      累计最大值         3   3   4   4   5
+ *
+ * 在并行流里用共享的累加变量实现累计值是错误的（见 StreamDemo 第 7 章）。这里的并行版本与 Arrays.parallelPrefix 一样分两遍：
+ *      1.把数组切成 并行度 * 4 段，各段并行求出本段的合计
+ *      2.顺序地对各段合计做一次扫描，得到每段的进位（段数很少，可以忽略）
+ *      3.各段带着进位并行地扫描本段
+ * 运算必须满足结合律（加法、max、min 都满足）。
+ *
+ * 分段扫描：keys 相邻且相等的元素属于同一段，每段重新开始累计，例如按年份排好序的交易计算每年的累计金额。
+ * 结果使用 long，int 输入求和不会溢出。
+ */
+public class Scans {
+
+    //小于该长度时并行不划算
+    private static final int PARALLEL_THRESHOLD = 1 << 14;
+
+    private Scans() {
+    }
+
+    // ---------------------------------------------------------------- 前缀和
+
+    public static long[] inclusiveSum(int[] values, boolean parallel) {
+        return inclusiveScan(toLong(values), Long::sum, parallel);
+    }
+
+    public static long[] inclusiveSum(long[] values, boolean parallel) {
+        return inclusiveScan(values, Long::sum, parallel);
+    }
+
+    public static long[] exclusiveSum(int[] values, boolean parallel) {
+        return exclusiveScan(toLong(values), 0, Long::sum, parallel);
+    }
+
+    public static long[] exclusiveSum(long[] values, boolean parallel) {
+        return exclusiveScan(values, 0, Long::sum, parallel);
+    }
+
+    // ---------------------------------------------------------------- 累计最大 / 最小
+
+    public static int[] runningMax(int[] values, boolean parallel) {
+        return inclusiveScan(values, Math::max, parallel);
+    }
+
+    public static long[] runningMax(long[] values, boolean parallel) {
+        return inclusiveScan(values, Math::max, parallel);
+    }
+
+    public static int[] runningMin(int[] values, boolean parallel) {
+        return inclusiveScan(values, Math::min, parallel);
+    }
+
+    public static long[] runningMin(long[] values, boolean parallel) {
+        return inclusiveScan(values, Math::min, parallel);
+    }
+
+    // ---------------------------------------------------------------- 数值流
+
+    /**
+     * 流的累计和。scan 需要看到前面所有元素，所以先收集成数组再扫描；并行流会并行收集、并行扫描
+     */
+    public static LongStream runningTotals(IntStream stream) {
+        boolean parallel = stream.isParallel();
+        LongStream result = LongStream.of(inclusiveSum(stream.toArray(), parallel));
+        return parallel ? result.parallel() : result;
+    }
+
+    public static LongStream runningTotals(LongStream stream) {
+        boolean parallel = stream.isParallel();
+        LongStream result = LongStream.of(inclusiveSum(stream.toArray(), parallel));
+        return parallel ? result.parallel() : result;
+    }
+
+    // ---------------------------------------------------------------- 通用扫描
+
+    /**
+     * 包含式扫描：result[i] = values[0] op values[1] op ... op values[i]
+     */
+    public static long[] inclusiveScan(long[] values, LongBinaryOperator op, boolean parallel) {
+        long[] result = new long[values.length];
+        int n = values.length;
+        if (!parallel || n < PARALLEL_THRESHOLD) {
+            scanBlock(values, result, 0, n, op, false, 0, true);
+            return result;
+        }
+        int[] bounds = RangePartitioner.even(0, n, RangeKernels.parts());
+        int blocks = bounds.length - 1;
+        long[] totals = new long[blocks];
+        IntStream.range(0, blocks).parallel().forEach(b -> totals[b] = reduceBlock(values, bounds[b], bounds[b + 1], op));
+        long[] carries = carries(totals, op);
+        IntStream.range(0, blocks).parallel().forEach(b -> scanBlock(values, result, bounds[b], bounds[b + 1], op, b > 0, carries[b], true));
+        return result;
+    }
+
+    /**
+     * 排除式扫描：result[0] = identity，result[i] = identity op values[0] op ... op values[i - 1]
+     */
+    public static long[] exclusiveScan(long[] values, long identity, LongBinaryOperator op, boolean parallel) {
+        long[] result = new long[values.length];
+        int n = values.length;
+        if (!parallel || n < PARALLEL_THRESHOLD) {
+            scanBlock(values, result, 0, n, op, true, identity, false);
+            return result;
+        }
+        int[] bounds = RangePartitioner.even(0, n, RangeKernels.parts());
+        int blocks = bounds.length - 1;
+        long[] totals = new long[blocks];
+        IntStream.range(0, blocks).parallel().forEach(b -> totals[b] = reduceBlock(values, bounds[b], bounds[b + 1], op));
+        long[] carries = carries(totals, op);
+        carries[0] = identity;
+        for (int b = 1; b < blocks; b++) {
+            carries[b] = op.applyAsLong(identity, carries[b]);
+        }
+        IntStream.range(0, blocks).parallel().forEach(b -> scanBlock(values, result, bounds[b], bounds[b + 1], op, true, carries[b], false));
+        return result;
+    }
+
+    /**
+     * carries[b] 为前 b 段的合计，carries[0] 无意义
+     */
+    private static long[] carries(long[] totals, LongBinaryOperator op) {
+        long[] carries = new long[totals.length];
+        if (totals.length > 1) {
+            carries[1] = totals[0];
+        }
+        for (int b = 2; b < totals.length; b++) {
+            carries[b] = op.applyAsLong(carries[b - 1], totals[b - 1]);
+        }
+        return carries;
+    }
+
+    private static long reduceBlock(long[] values, int from, int to, LongBinaryOperator op) {
+        long acc = values[from];
+        for (int i = from + 1; i < to; i++) {
+            acc = op.applyAsLong(acc, values[i]);
+        }
+        return acc;
+    }
+
+    private static void scanBlock(long[] values, long[] result, int from, int to, LongBinaryOperator op,
+                                  boolean hasCarry, long carry, boolean inclusive) {
+        if (from >= to) {
+            return;
+        }
+        long acc = carry;
+        int i = from;
+        if (!hasCarry) {
+            //包含式扫描的第一段没有进位，从第一个元素开始
+            acc = values[i];
+            result[i++] = acc;
+        }
+        if (inclusive) {
+            for (; i < to; i++) {
+                acc = op.applyAsLong(acc, values[i]);
+                result[i] = acc;
+            }
+        } else {
+            for (; i < to; i++) {
+                result[i] = acc;
+                acc = op.applyAsLong(acc, values[i]);
+            }
+        }
+    }
+
+    /**
+     * int 版本的包含式扫描（累计最大、最小值不需要扩展成 long）
+     */
+    public static int[] inclusiveScan(int[] values, IntBinaryOperator op, boolean parallel) {
+        int[] result = new int[values.length];
+        int n = values.length;
+        if (n == 0) {
+            return result;
+        }
+        if (!parallel || n < PARALLEL_THRESHOLD) {
+            scanBlock(values, result, 0, n, op, false, 0);
+            return result;
+        }
+        int[] bounds = RangePartitioner.even(0, n, RangeKernels.parts());
+        int blocks = bounds.length - 1;
+        int[] totals = new int[blocks];
+        IntStream.range(0, blocks).parallel().forEach(b -> {
+            int acc = values[bounds[b]];
+            for (int i = bounds[b] + 1; i < bounds[b + 1]; i++) {
+                acc = op.applyAsInt(acc, values[i]);
+            }
+            totals[b] = acc;
+        });
+        int[] carries = new int[blocks];
+        for (int b = 1; b < blocks; b++) {
+            carries[b] = b == 1 ? totals[0] : op.applyAsInt(carries[b - 1], totals[b - 1]);
+        }
+        IntStream.range(0, blocks).parallel().forEach(b -> scanBlock(values, result, bounds[b], bounds[b + 1], op, b > 0, carries[b]));
+        return result;
+    }
+
+    private static void scanBlock(int[] values, int[] result, int from, int to, IntBinaryOperator op, boolean hasCarry, int carry) {
+        int i = from;
+        int acc = carry;
+        if (!hasCarry) {
+            acc = values[i];
+            result[i++] = acc;
+        }
+        for (; i < to; i++) {
+            acc = op.applyAsInt(acc, values[i]);
+            result[i] = acc;
+        }
+    }
+
+    // ---------------------------------------------------------------- 分段扫描
+
+    /**
+     * 按 key 分段的累计和：keys[i] != keys[i - 1] 时重新开始累计
+     *
+     *      keys     2011 2011 2012 2012 2012
+     *      values    300  400 1000  710  700
+     *      result    300  700 1000 1710 2410
+     */
+    public static long[] segmentedSum(int[] keys, int[] values, boolean parallel) {
+        return segmentedScan(keys, toLong(values), Long::sum, parallel);
+    }
+
+    public static long[] segmentedMax(int[] keys, long[] values, boolean parallel) {
+        return segmentedScan(keys, values, Math::max, parallel);
+    }
+
+    /**
+     * 分段包含式扫描
+     *
+     * 并行时每段除了合计外还要记录“本段内是否出现过分段边界”以及“最后一个分段边界之后的合计”，
+     * 进位只有在分段跨越了块边界（下一块第一个 key 与本块最后一个 key 相同）时才传递。
+     */
+    public static long[] segmentedScan(int[] keys, long[] values, LongBinaryOperator op, boolean parallel) {
+        if (keys.length != values.length) {
+            throw new IllegalArgumentException("keys and values differ in length: " + keys.length + " != " + values.length);
+        }
+        int n = values.length;
+        long[] result = new long[n];
+        if (!parallel || n < PARALLEL_THRESHOLD) {
+            segmentedBlock(keys, values, result, 0, n, op, false, 0);
+            return result;
+        }
+        int[] bounds = RangePartitioner.even(0, n, RangeKernels.parts());
+        int blocks = bounds.length - 1;
+        //每块最后一个分段（从最后一个边界或块开头起）的合计，以及块内是否有边界
+        long[] tails = new long[blocks];
+        boolean[] broken = new boolean[blocks];
+        IntStream.range(0, blocks).parallel().forEach(b -> {
+            int from = bounds[b];
+            long acc = values[from];
+            boolean boundary = false;
+            for (int i = from + 1; i < bounds[b + 1]; i++) {
+                if (keys[i] != keys[i - 1]) {
+                    boundary = true;
+                    acc = values[i];
+                } else {
+                    acc = op.applyAsLong(acc, values[i]);
+                }
+            }
+            tails[b] = acc;
+            broken[b] = boundary;
+        });
+        boolean[] hasCarry = new boolean[blocks];
+        long[] carries = new long[blocks];
+        for (int b = 1; b < blocks; b++) {
+            int from = bounds[b];
+            if (keys[from] != keys[from - 1]) {
+                continue;
+            }
+            hasCarry[b] = true;
+            //上一块内部没有边界时，上一块整块都属于这个分段，还要带上上一块的进位
+            carries[b] = !broken[b - 1] && hasCarry[b - 1] ? op.applyAsLong(carries[b - 1], tails[b - 1]) : tails[b - 1];
+        }
+        IntStream.range(0, blocks).parallel().forEach(b -> segmentedBlock(keys, values, result, bounds[b], bounds[b + 1], op, hasCarry[b], carries[b]));
+        return result;
+    }
+
+    private static void segmentedBlock(int[] keys, long[] values, long[] result, int from, int to, LongBinaryOperator op,
+                                       boolean hasCarry, long carry) {
+        if (from >= to) {
+            return;
+        }
+        long acc = hasCarry ? op.applyAsLong(carry, values[from]) : values[from];
+        result[from] = acc;
+        for (int i = from + 1; i < to; i++) {
+            acc = keys[i] != keys[i - 1] ? values[i] : op.applyAsLong(acc, values[i]);
+            result[i] = acc;
+        }
+    }
+
+    private static long[] toLong(int[] values) {
+        long[] result = new long[values.length];
+        for (int i = 0; i < values.length; i++) {
+            result[i] = values[i];
+        }
+        return result;
+    }
+}
@@ -0,0 +1,51 @@
+package numeric;
+
+/**
+ * 把 2 个或 3 个 int 打包进一个 long，代替 Stream<int[]> 中每个元素一个数组对象
+ *
+ *      二元组：高 32 位 a，低 32 位 b
+ *      三元组：每个分量 21 位（0 ~ 2097151），a 在最高位
+ */
+public class Tuples {
+
+    public static final int MAX_TRIPLE_COMPONENT = (1 << 21) - 1;
+    private static final long MASK21 = MAX_TRIPLE_COMPONENT;
+
+    private Tuples() {
+    }
+
+    public static long pair(int a, int b) {
+        return ((long) a << 32) | (b & 0xFFFFFFFFL);
+    }
+
+    public static int first(long pair) {
+        return (int) (pair >>> 32);
+    }
+
+    public static int second(long pair) {
+        return (int) pair;
+    }
+
+    /**
+     * 分量必须在 [0, MAX_TRIPLE_COMPONENT] 内
+     */
+    public static long triple(int a, int b, int c) {
+        return ((a & MASK21) << 42) | ((b & MASK21) << 21) | (c & MASK21);
+    }
+
+    public static int tripleA(long t) {
+        return (int) (t >>> 42);
+    }
+
+    public static int tripleB(long t) {
+        return (int) ((t >>> 21) & MASK21);
+    }
+
+    public static int tripleC(long t) {
+        return (int) (t & MASK21);
+    }
+
+    public static String tripleToString(long t) {
+        return "(" + tripleA(t) + ", " + tripleB(t) + ", " + tripleC(t) + ")";
+    }
+}
@@ -0,0 +1,115 @@
+package offheap;
+
+import domain.Apple;
+import storage.StringDictionary;
+
+import java.util.Collection;
+import java.util.Spliterator;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * 堆外苹果目录
+ *
+ * 颜色种类很少，放在堆上的字典里，记录中只保存编号。
+ *
+ * 记录格式（8 字节）：
+ *      int color   颜色在字典中的编号
+ *      int height
+ */
+public class AppleCatalog extends OffHeapTable {
+
+    private static final int RECORD_SIZE = 8;
+    private static final int COLOR = 0;
+    private static final int HEIGHT = 4;
+
+    private final StringDictionary colors = new StringDictionary();
+
+    public AppleCatalog(int initialCapacity) {
+        super(RECORD_SIZE, initialCapacity);
+    }
+
+    public static AppleCatalog of(Collection<Apple> apples) {
+        AppleCatalog catalog = new AppleCatalog(apples.size());
+        for (Apple a : apples) {
+            catalog.add(a.getColor(), a.getHeight());
+        }
+        return catalog;
+    }
+
+    public int add(String color, int height) {
+        int base = reserve();
+        records.putInt(base + COLOR, colors.intern(color));
+        records.putInt(base + HEIGHT, height);
+        return size - 1;
+    }
+
+    /**
+     * 颜色编号，不存在时返回 -1。按颜色筛选时先取编号，再比较 int
+     */
+    public int colorId(String color) {
+        return colors.idOf(color);
+    }
+
+    public IntStream heights() {
+        return IntStream.range(0, size).map(i -> records.getInt(i * RECORD_SIZE + HEIGHT));
+    }
+
+    /**
+     * 指定颜色的苹果下标
+     */
+    public IntStream indicesOfColor(String color) {
+        int id = colorId(color);
+        return id < 0 ? IntStream.empty() : IntStream.range(0, size).filter(i -> records.getInt(i * RECORD_SIZE + COLOR) == id);
+    }
+
+    public AppleCursor cursor() {
+        return new AppleCursor();
+    }
+
+    public Spliterator<AppleCursor> spliterator() {
+        return new CursorSpliterator<>(AppleCursor::new, 0, size);
+    }
+
+    public Stream<AppleCursor> stream(boolean parallel) {
+        return StreamSupport.stream(spliterator(), parallel);
+    }
+
+    public class AppleCursor extends Cursor {
+
+        @Override
+        public AppleCursor moveTo(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("index: " + index + ", size: " + size);
+            }
+            this.index = index;
+            this.base = index * RECORD_SIZE;
+            return this;
+        }
+
+        public int getColorId() {
+            return records.getInt(base + COLOR);
+        }
+
+        /**
+         * 字典中的字符串，不分配内存
+         */
+        public String getColor() {
+            return colors.get(getColorId());
+        }
+
+        public int getHeight() {
+            return records.getInt(base + HEIGHT);
+        }
+
+        public Apple toApple() {
+            return new Apple(getColor(), getHeight());
+        }
+
+        @Override
+        public String toString() {
+            return "Apple [color=" + getColor() + ", height=" + getHeight() + "]";
+        }
+    }
+}
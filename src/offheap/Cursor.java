@@ -0,0 +1,21 @@
+package offheap;
+
+/**
+ * 游标：指向表中某一条记录的享元对象，移动游标不分配内存
+ *
+ * 注意：游标是可变的，不要把它收集到集合中，需要保留时先转换成领域对象。
+ */
+public abstract class Cursor {
+
+    protected int index = -1;
+    protected int base;
+
+    /**
+     * 指向第 index 条记录
+     */
+    public abstract Cursor moveTo(int index);
+
+    public int getIndex() {
+        return index;
+    }
+}
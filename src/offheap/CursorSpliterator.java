@@ -0,0 +1,75 @@
+package offheap;
+
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * 按下标对半拆分的游标 Spliterator，每个子任务一个游标
+ * @param <C> 游标类型
+ */
+public class CursorSpliterator<C extends Cursor> implements Spliterator<C> {
+
+    private static final int MIN_SPLIT = 1024;
+
+    private final Supplier<C> cursorFactory;
+    private int from;
+    private final int to;
+    private C cursor;
+
+    public CursorSpliterator(Supplier<C> cursorFactory, int from, int to) {
+        this.cursorFactory = cursorFactory;
+        this.from = from;
+        this.to = to;
+    }
+
+    private C cursor() {
+        if (cursor == null) {
+            cursor = cursorFactory.get();
+        }
+        return cursor;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super C> action) {
+        if (from >= to) {
+            return false;
+        }
+        C c = cursor();
+        c.moveTo(from++);
+        action.accept(c);
+        return true;
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super C> action) {
+        C c = cursor();
+        for (int i = from; i < to; i++) {
+            c.moveTo(i);
+            action.accept(c);
+        }
+        from = to;
+    }
+
+    @Override
+    public Spliterator<C> trySplit() {
+        int remaining = to - from;
+        if (remaining < MIN_SPLIT * 2) {
+            return null;
+        }
+        int mid = from + (remaining >>> 1);
+        Spliterator<C> prefix = new CursorSpliterator<>(cursorFactory, from, mid);
+        from = mid;
+        return prefix;
+    }
+
+    @Override
+    public long estimateSize() {
+        return to - from;
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED | SIZED | SUBSIZED | NONNULL;
+    }
+}
@@ -0,0 +1,165 @@
+package offheap;
+
+import domain.Dish;
+
+import java.util.Collection;
+import java.util.Spliterator;
+import java.util.function.IntPredicate;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * 堆外菜单目录
+ *
+ * 记录格式（16 字节）：
+ *      int  nameOffset  菜名在 StringArena 中的偏移
+ *      int  nameLength  菜名 UTF-8 字节数
+ *      int  calories
+ *      byte type        Dish.Type 的 ordinal
+ *      byte vegetarian
+ *      byte[2]          填充
+ *
+ * 用法：
+ *      DishCatalog catalog = DishCatalog.of(menuList);
+ *      int total = catalog.calories().sum();
+ *      long veg = catalog.stream(true).filter(DishCatalog.DishCursor::isVegetarian).count();
+ */
+public class DishCatalog extends OffHeapTable {
+
+    private static final int RECORD_SIZE = 16;
+    private static final int NAME_OFFSET = 0;
+    private static final int NAME_LENGTH = 4;
+    private static final int CALORIES = 8;
+    private static final int TYPE = 12;
+    private static final int VEGETARIAN = 13;
+
+    private static final Dish.Type[] TYPES = Dish.Type.values();
+
+    private final StringArena names;
+
+    public DishCatalog(int initialCapacity) {
+        super(RECORD_SIZE, initialCapacity);
+        this.names = new StringArena((int) Math.min(Integer.MAX_VALUE, initialCapacity * 8L));
+    }
+
+    public static DishCatalog of(Collection<Dish> dishes) {
+        DishCatalog catalog = new DishCatalog(dishes.size());
+        for (Dish d : dishes) {
+            catalog.add(d.getName(), d.isVegetarian(), d.getCalories(), d.getType());
+        }
+        return catalog;
+    }
+
+    public int add(String name, boolean vegetarian, int calories, Dish.Type type) {
+        byte[] utf8 = StringArena.encode(name);
+        int nameOffset = names.add(utf8);
+        int base = reserve();
+        records.putInt(base + NAME_OFFSET, nameOffset);
+        records.putInt(base + NAME_LENGTH, utf8.length);
+        records.putInt(base + CALORIES, calories);
+        records.put(base + TYPE, (byte) type.ordinal());
+        records.put(base + VEGETARIAN, (byte) (vegetarian ? 1 : 0));
+        return size - 1;
+    }
+
+    public DishCursor cursor() {
+        return new DishCursor();
+    }
+
+    /**
+     * 单字段的 IntStream 视图，不经过游标
+     */
+    public IntStream calories() {
+        return IntStream.range(0, size).map(i -> records.getInt(i * RECORD_SIZE + CALORIES));
+    }
+
+    /**
+     * 满足条件的记录下标，例如 catalog.indices(catalog.isVegetarian())
+     */
+    public IntStream indices(IntPredicate predicate) {
+        return IntStream.range(0, size).filter(predicate);
+    }
+
+    public IntPredicate isVegetarian() {
+        return i -> records.get(i * RECORD_SIZE + VEGETARIAN) != 0;
+    }
+
+    public IntPredicate isType(Dish.Type type) {
+        byte ordinal = (byte) type.ordinal();
+        return i -> records.get(i * RECORD_SIZE + TYPE) == ordinal;
+    }
+
+    public IntPredicate caloriesGreaterThan(int calories) {
+        return i -> records.getInt(i * RECORD_SIZE + CALORIES) > calories;
+    }
+
+    public Spliterator<DishCursor> spliterator() {
+        return new CursorSpliterator<>(DishCursor::new, 0, size);
+    }
+
+    /**
+     * 流中的元素是游标，需要保留元素时先 map(DishCursor::toDish)
+     */
+    public Stream<DishCursor> stream(boolean parallel) {
+        return StreamSupport.stream(spliterator(), parallel);
+    }
+
+    @Override
+    public long offHeapBytes() {
+        return super.offHeapBytes() + names.offHeapBytes();
+    }
+
+    public class DishCursor extends Cursor {
+
+        @Override
+        public DishCursor moveTo(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("index: " + index + ", size: " + size);
+            }
+            this.index = index;
+            this.base = index * RECORD_SIZE;
+            return this;
+        }
+
+        public int getCalories() {
+            return records.getInt(base + CALORIES);
+        }
+
+        public Dish.Type getType() {
+            return TYPES[records.get(base + TYPE)];
+        }
+
+        public boolean isVegetarian() {
+            return records.get(base + VEGETARIAN) != 0;
+        }
+
+        /**
+         * 会创建 String
+         */
+        public String getName() {
+            return names.get(records.getInt(base + NAME_OFFSET), records.getInt(base + NAME_LENGTH));
+        }
+
+        public boolean nameEquals(CharSequence name) {
+            return names.equalsAscii(records.getInt(base + NAME_OFFSET), records.getInt(base + NAME_LENGTH), name);
+        }
+
+        public boolean nameStartsWith(CharSequence prefix) {
+            return names.startsWithAscii(records.getInt(base + NAME_OFFSET), records.getInt(base + NAME_LENGTH), prefix);
+        }
+
+        public StringBuilder appendName(StringBuilder sb) {
+            return names.appendTo(sb, records.getInt(base + NAME_OFFSET), records.getInt(base + NAME_LENGTH));
+        }
+
+        public Dish toDish() {
+            return new Dish(getName(), isVegetarian(), getCalories(), getType());
+        }
+
+        @Override
+        public String toString() {
+            return getName();
+        }
+    }
+}
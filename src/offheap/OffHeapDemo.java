@@ -0,0 +1,46 @@
+package offheap;
+
+import domain.Apple;
+import domain.Dish;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * 堆外目录示例：记录放在 direct ByteBuffer 中，流中的元素是复用的游标，不为每条记录创建对象
+ */
+public class OffHeapDemo {
+
+    public static void main(String[] args) {
+        List<Dish> menu = Arrays.asList(
+                new Dish("pork", false, 800, Dish.Type.MEAT),
+                new Dish("beef", false, 700, Dish.Type.MEAT),
+                new Dish("chicken", false, 400, Dish.Type.MEAT),
+                new Dish("french fries", true, 530, Dish.Type.OTHER),
+                new Dish("rice", true, 350, Dish.Type.OTHER),
+                new Dish("season fruit", true, 120, Dish.Type.OTHER),
+                new Dish("pizza", true, 550, Dish.Type.OTHER),
+                new Dish("prawns", false, 300, Dish.Type.FISH),
+                new Dish("salmon", false, 450, Dish.Type.FISH));
+        DishCatalog dishes = DishCatalog.of(menu);
+
+        //在堆外记录上过滤、求和，不创建 Dish 对象
+        DishCatalog.DishCursor cursor = dishes.cursor();
+        System.out.println("素菜总卡路里 : " + dishes.indices(dishes.isVegetarian()).map(i -> cursor.moveTo(i).getCalories()).sum());
+        //名字直接比较字节，需要保留元素时 toDish
+        List<Dish> meat = dishes.stream(false)
+                .filter(d -> d.getType() == Dish.Type.MEAT && !d.nameEquals("chicken"))
+                .map(DishCatalog.DishCursor::toDish)
+                .collect(Collectors.toList());
+        System.out.println("除 chicken 以外的肉类 : " + meat);
+        System.out.println("菜单占用堆外字节数 : " + dishes.offHeapBytes());
+
+        List<Apple> apples = Arrays.asList(new Apple("red", 80), new Apple("green", 155), new Apple("red", 120));
+        AppleCatalog catalog = AppleCatalog.of(apples);
+        //颜色只查一次字典，之后按 int 编号比较
+        AppleCatalog.AppleCursor apple = catalog.cursor();
+        System.out.println("红苹果总重量 : " + catalog.indicesOfColor("red").map(i -> apple.moveTo(i).getHeight()).sum());
+        System.out.println("黄苹果个数 : " + catalog.indicesOfColor("yellow").count());
+    }
+}
@@ -0,0 +1,61 @@
+package offheap;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * 堆外定长记录表：记录连续存放在一块 direct ByteBuffer 中，GC 只看到一个 ByteBuffer 对象
+ *
+ * 容量不足时分配一块两倍大小的新缓冲区并复制，旧缓冲区由其 Cleaner 回收。
+ * 单个 ByteBuffer 最多 2G，记录总字节数不能超过 Integer.MAX_VALUE。
+ *
+ * 非线程安全：追加记录需要由单个线程完成；追加结束后可以被多个线程并发读取。
+ */
+public abstract class OffHeapTable {
+
+    protected final int recordSize;
+    protected ByteBuffer records;
+    protected int size;
+
+    protected OffHeapTable(int recordSize, int initialCapacity) {
+        this.recordSize = recordSize;
+        //初始容量按 long 计算，超过单个 ByteBuffer 上限时截断到能放下的最多记录数
+        long bytes = Math.min(Math.max(1L, initialCapacity) * recordSize, (long) (Integer.MAX_VALUE / recordSize) * recordSize);
+        this.records = ByteBuffer.allocateDirect((int) bytes).order(ByteOrder.nativeOrder());
+    }
+
+    /**
+     * 为一条新记录预留空间
+     * @return 新记录在缓冲区中的字节偏移
+     */
+    protected int reserve() {
+        int offset = size * recordSize;
+        if (offset + recordSize > records.capacity()) {
+            long capacity = Math.max((long) records.capacity() * 2, offset + recordSize);
+            if (capacity > Integer.MAX_VALUE) {
+                capacity = (long) (Integer.MAX_VALUE / recordSize) * recordSize;
+                if (offset + recordSize > capacity) {
+                    throw new IllegalStateException("off-heap table is full: " + size + " records");
+                }
+            }
+            ByteBuffer grown = ByteBuffer.allocateDirect((int) capacity).order(ByteOrder.nativeOrder());
+            ByteBuffer old = records.duplicate();
+            old.position(0).limit(offset);
+            grown.put(old);
+            records = grown;
+        }
+        size++;
+        return offset;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 记录区占用的堆外字节数
+     */
+    public long offHeapBytes() {
+        return records.capacity();
+    }
+}
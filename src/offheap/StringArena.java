@@ -0,0 +1,104 @@
+package offheap;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 堆外字符串区：字符串以 UTF-8 字节依次追加，用 (offset, length) 引用
+ *
+ * 读取时可以不创建 String：equalsAscii 直接比较字节，appendTo 直接追加到调用方的 StringBuilder。
+ */
+public class StringArena {
+
+    private ByteBuffer bytes;
+    private int used;
+
+    public StringArena(int initialBytes) {
+        bytes = ByteBuffer.allocateDirect(Math.max(16, initialBytes)).order(ByteOrder.nativeOrder());
+    }
+
+    /**
+     * 追加字符串
+     * @return 偏移量；长度通过 byteLength 单独保存
+     */
+    public int add(byte[] utf8) {
+        if (used + utf8.length > bytes.capacity()) {
+            long capacity = Math.max((long) bytes.capacity() * 2, (long) used + utf8.length);
+            if (capacity > Integer.MAX_VALUE) {
+                throw new IllegalStateException("string arena is full: " + used + " bytes");
+            }
+            ByteBuffer grown = ByteBuffer.allocateDirect((int) capacity).order(ByteOrder.nativeOrder());
+            ByteBuffer old = bytes.duplicate();
+            old.position(0).limit(used);
+            grown.put(old);
+            bytes = grown;
+        }
+        int offset = used;
+        ByteBuffer target = bytes.duplicate();
+        target.position(offset);
+        target.put(utf8);
+        used += utf8.length;
+        return offset;
+    }
+
+    public static byte[] encode(String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+
+    public String get(int offset, int length) {
+        byte[] b = new byte[length];
+        ByteBuffer source = bytes.duplicate();
+        source.position(offset);
+        source.get(b);
+        return new String(b, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 与 ASCII 字符序列比较，不分配内存
+     */
+    public boolean equalsAscii(int offset, int length, CharSequence s) {
+        if (s.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (bytes.get(offset + i) != s.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 以 ASCII 前缀开头
+     */
+    public boolean startsWithAscii(int offset, int length, CharSequence prefix) {
+        if (prefix.length() > length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length(); i++) {
+            if (bytes.get(offset + i) != prefix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 把字符串追加到 StringBuilder（仅 ASCII 字节直接追加，其他情况解码）
+     */
+    public StringBuilder appendTo(StringBuilder sb, int offset, int length) {
+        for (int i = 0; i < length; i++) {
+            byte b = bytes.get(offset + i);
+            if (b < 0) {
+                return sb.append(get(offset + i, length - i));
+            }
+            sb.append((char) b);
+        }
+        return sb;
+    }
+
+    public long offHeapBytes() {
+        return bytes.capacity();
+    }
+}
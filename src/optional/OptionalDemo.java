@@ -2,6 +2,7 @@ package optional;
 
 import domain.Female;
 import domain.Male;
+import graph.PartnerGraph;
 
 import java.util.Optional;
 
@@ -46,6 +47,13 @@ public class OptionalDemo {
          */
         male1.filter(male2 -> male2.getGirlfriend()!=null).ifPresent(x ->System.out.println("ok"));
 
+        /**
+         * 5. 大量对象时，Optional 链每一跳都要创建对象。把关系存成 int 数组后遍历不再分配内存，见 graph.PartnerGraph、graph.GraphDemo
+         */
+        PartnerGraph graph = PartnerGraph.builder().add(male1.get()).add(female).build();
+        int rt = graph.indexOf(male1.get());
+        System.out.println(graph.partnerNameOrElse(rt, "nobody"));
+
 
 
 // get()是这些方法中最简单但又最不安全的方法。如果变量存在，它直接返回封装的变量
@@ -0,0 +1,125 @@
+package parallel;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * 并行流代价模型
+ *
+ *      顺序耗时 ≈ 元素个数 * 每元素耗时
+ *      并行耗时 ≈ 顺序耗时 / 有效并行度 + 并行调度开销
+ *
+ * 每元素耗时和调度开销随机器变化，启动时用一个很小的基准测试校准一次（几十毫秒），之后所有查询共用。
+ * 并行度取决于流水线实际在哪个池中执行：calibrated() 对应公共池，
+ * 在 ParallelExecution 的独立池中执行时用 withParallelism(pool.getParallelism())，见 PipelinePlanner.on。
+ */
+public class CostModel {
+
+    //消费基准测试的结果，防止被 JIT 当作死代码消除
+    private static volatile long sink;
+
+    private final double nanosPerElement;
+    private final double parallelOverheadNanos;
+    private final int parallelism;
+
+    public CostModel(double nanosPerElement, double parallelOverheadNanos, int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be positive: " + parallelism);
+        }
+        this.nanosPerElement = nanosPerElement;
+        this.parallelOverheadNanos = parallelOverheadNanos;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * 校准后的默认模型（公共池的并行度），首次使用时才执行基准测试
+     */
+    public static CostModel calibrated() {
+        return Holder.CALIBRATED;
+    }
+
+    private static class Holder {
+        static final CostModel CALIBRATED = calibrate(ForkJoinPool.getCommonPoolParallelism());
+    }
+
+    /**
+     * 基准测试：
+     *      1.顺序遍历一个 int 数组做简单运算，取最快一轮得到每元素耗时
+     *      2.对一个很小的数组分别顺序、并行求和，两者之差即并行调度开销
+     */
+    static CostModel calibrate(int parallelism) {
+        int[] data = new int[1 << 16];
+        Arrays.setAll(data, i -> i);
+        int[] tiny = Arrays.copyOf(data, 1 << 10);
+        long s = 0;
+
+        long bestSeq = Long.MAX_VALUE;
+        for (int round = 0; round < 30; round++) {
+            long start = System.nanoTime();
+            s += Arrays.stream(data).filter(i -> (i & 1) == 0).map(i -> i * 31).sum();
+            bestSeq = Math.min(bestSeq, System.nanoTime() - start);
+        }
+
+        long bestOverhead = Long.MAX_VALUE;
+        for (int round = 0; round < 30; round++) {
+            long start = System.nanoTime();
+            s += IntStream.of(tiny).parallel().filter(i -> (i & 1) == 0).sum();
+            long parallel = System.nanoTime() - start;
+            start = System.nanoTime();
+            s += IntStream.of(tiny).filter(i -> (i & 1) == 0).sum();
+            long sequential = System.nanoTime() - start;
+            bestOverhead = Math.min(bestOverhead, Math.max(0, parallel - sequential));
+        }
+        sink += s;
+        return new CostModel(Math.max(0.1, (double) bestSeq / data.length), Math.max(1_000, bestOverhead), parallelism);
+    }
+
+    /**
+     * 同样的校准结果，换成目标池的并行度
+     */
+    public CostModel withParallelism(int parallelism) {
+        return parallelism == this.parallelism ? this : new CostModel(nanosPerElement, parallelOverheadNanos, parallelism);
+    }
+
+    public double sequentialNanos(long size, double weight) {
+        return size * nanosPerElement * weight;
+    }
+
+    /**
+     * @param splitEfficiency 数据源可分解性 (0, 1]
+     */
+    public double parallelNanos(long size, double weight, double splitEfficiency) {
+        return sequentialNanos(size, weight) / effectiveParallelism(splitEfficiency) + parallelOverheadNanos;
+    }
+
+    double effectiveParallelism(double splitEfficiency) {
+        return Math.max(1.0, parallelism * splitEfficiency);
+    }
+
+    /**
+     * parallelNanos 的逆运算：由并行实测耗时反推每元素相对代价
+     */
+    double weightFromParallel(long size, long nanos, double splitEfficiency) {
+        return Math.max(0, nanos - parallelOverheadNanos) * effectiveParallelism(splitEfficiency) / (size * nanosPerElement);
+    }
+
+    public double getNanosPerElement() {
+        return nanosPerElement;
+    }
+
+    public double getParallelOverheadNanos() {
+        return parallelOverheadNanos;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    @Override
+    public String toString() {
+        return "CostModel [nanosPerElement=" + String.format("%.2f", nanosPerElement)
+                + ", parallelOverheadNanos=" + String.format("%.0f", parallelOverheadNanos)
+                + ", parallelism=" + parallelism + "]";
+    }
+}
@@ -0,0 +1,230 @@
+package parallel;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 在指定的 ForkJoinPool 中执行并行流
+ *
+ * 并行流默认使用公共 ForkJoinPool，大小只能通过全局属性 java.util.concurrent.ForkJoinPool.common.parallelism 修改，
+ * 一个很重的 parallelStream() 会占满公共池，拖慢 JVM 中所有其他并行流和不指定线程池的 supplyAsync。
+ *
+ * 并行流的终端操作如果是在某个 ForkJoinPool 的工作线程中调用的，拆分出来的子任务就会提交到这个池中，
+ * 所以只要把整条流水线包装成一个任务提交到独立的池，就能让批量分析和延迟敏感的请求互不干扰：
+ *
+ *      ParallelExecution batch = ParallelExecution.named("batch", 4);
+ *      long count = batch.invoke(() -> bigList.parallelStream().filter(...).count());
+ */
+public class ParallelExecution {
+
+    private static final Map<String, ParallelExecution> NAMED = new ConcurrentHashMap<>();
+
+    private final String name;
+    private final ForkJoinPool pool;
+    private final boolean owned;
+
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder busyNanos = new LongAdder();
+
+    private ParallelExecution(String name, ForkJoinPool pool, boolean owned) {
+        this.name = name;
+        this.pool = pool;
+        this.owned = owned;
+    }
+
+    /**
+     * 获取（不存在时创建）一个命名池，同名池在 JVM 内只有一个
+     * @param name 池名称，也是工作线程名前缀
+     * @param parallelism 并行度
+     */
+    public static ParallelExecution named(String name, int parallelism) {
+        ParallelExecution execution = NAMED.computeIfAbsent(name, n -> new ParallelExecution(n, newPool(n, parallelism), true));
+        if (execution.pool.getParallelism() != parallelism) {
+            throw new IllegalStateException("pool '" + name + "' already exists with parallelism " + execution.pool.getParallelism());
+        }
+        return execution;
+    }
+
+    /**
+     * 包装调用方自己的池，shutdown 时不会关闭它
+     */
+    public static ParallelExecution of(String name, ForkJoinPool pool) {
+        return new ParallelExecution(name, pool, false);
+    }
+
+    /**
+     * 创建一个工作线程为守护线程、线程名为 name-worker-N 的池
+     */
+    public static ForkJoinPool newPool(String name, int parallelism) {
+        AtomicInteger counter = new AtomicInteger();
+        return new ForkJoinPool(parallelism, p -> {
+            ForkJoinWorkerThread t = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+            t.setName(name + "-worker-" + counter.incrementAndGet());
+            t.setDaemon(true);//使用守护线程——这种方式不会阻止程序的关停
+            return t;
+        }, null, false);
+    }
+
+    /**
+     * 在本池中执行流水线并等待结果。流水线抛出的运行时异常会以同类型异常重新抛出
+     * @param pipeline 包含终端操作的流水线，例如 () -> list.parallelStream().map(...).collect(...)
+     */
+    public <T> T invoke(Supplier<T> pipeline) {
+        return pool.invoke(task(pipeline));
+    }
+
+    public void run(Runnable pipeline) {
+        invoke(() -> {
+            pipeline.run();
+            return null;
+        });
+    }
+
+    /**
+     * 异步执行流水线
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> pipeline) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        pool.execute(ForkJoinTask.adapt(() -> {
+            try {
+                future.complete(task(pipeline).invoke());
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            }
+        }));
+        return future;
+    }
+
+    private <T> ForkJoinTask<T> task(Supplier<T> pipeline) {
+        submitted.increment();
+        return ForkJoinTask.adapt(() -> {
+            long start = System.nanoTime();
+            try {
+                T result = pipeline.get();
+                completed.increment();
+                return result;
+            } catch (RuntimeException | Error e) {
+                failed.increment();
+                throw e;
+            } finally {
+                busyNanos.add(System.nanoTime() - start);
+            }
+        });
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public ForkJoinPool getPool() {
+        return pool;
+    }
+
+    public Metrics metrics() {
+        return new Metrics(name, pool.getParallelism(), pool.getPoolSize(), pool.getActiveThreadCount(),
+                pool.getQueuedTaskCount(), pool.getStealCount(),
+                submitted.sum(), completed.sum(), failed.sum(), busyNanos.sum());
+    }
+
+    /**
+     * 关闭本类创建的池并从命名表中移除；调用方提供的池不受影响
+     */
+    public void shutdown() {
+        if (owned) {
+            NAMED.remove(name, this);
+            pool.shutdown();
+        }
+    }
+
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return pool.awaitTermination(timeout, unit);
+    }
+
+    /**
+     * 池的运行指标快照
+     */
+    public static class Metrics {
+        private final String name;
+        private final int parallelism;
+        private final int poolSize;
+        private final int activeThreads;
+        private final long queuedTasks;
+        private final long steals;
+        private final long submitted;
+        private final long completed;
+        private final long failed;
+        private final long busyNanos;
+
+        Metrics(String name, int parallelism, int poolSize, int activeThreads, long queuedTasks, long steals,
+                long submitted, long completed, long failed, long busyNanos) {
+            this.name = name;
+            this.parallelism = parallelism;
+            this.poolSize = poolSize;
+            this.activeThreads = activeThreads;
+            this.queuedTasks = queuedTasks;
+            this.steals = steals;
+            this.submitted = submitted;
+            this.completed = completed;
+            this.failed = failed;
+            this.busyNanos = busyNanos;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getParallelism() {
+            return parallelism;
+        }
+
+        public int getPoolSize() {
+            return poolSize;
+        }
+
+        public int getActiveThreads() {
+            return activeThreads;
+        }
+
+        public long getQueuedTasks() {
+            return queuedTasks;
+        }
+
+        public long getSteals() {
+            return steals;
+        }
+
+        public long getSubmitted() {
+            return submitted;
+        }
+
+        public long getCompleted() {
+            return completed;
+        }
+
+        public long getFailed() {
+            return failed;
+        }
+
+        public long getBusyNanos() {
+            return busyNanos;
+        }
+
+        @Override
+        public String toString() {
+            return "Metrics [name=" + name + ", parallelism=" + parallelism + ", poolSize=" + poolSize
+                    + ", activeThreads=" + activeThreads + ", queuedTasks=" + queuedTasks + ", steals=" + steals
+                    + ", submitted=" + submitted + ", completed=" + completed + ", failed=" + failed
+                    + ", busyMillis=" + TimeUnit.NANOSECONDS.toMillis(busyNanos) + "]";
+        }
+    }
+}
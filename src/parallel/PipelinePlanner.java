@@ -0,0 +1,322 @@
+package parallel;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Collector;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * 流水线执行计划：对每个查询自动选择顺序还是并行执行
+ *
+ * 第 7 章的经验总结成规则：
+ *      1.数据量小：并行调度的开销抵不过并行带来的好处 -> 顺序
+ *      2.数据源可分解性差（未知大小、LinkedList、Stream.iterate）-> 有效并行度打折
+ *      3.findFirst、有序 reduce 等依赖顺序的短路操作在并行下代价很大 -> 有效并行度打折
+ *      4.终端操作不关心顺序时（count、anyMatch、UNORDERED 收集器、无序数据源上的 findFirst）-> 加上 unordered()，findFirst 改写成 findAny
+ *
+ * 用法：
+ *      PipelinePlanner planner = PipelinePlanner.getDefault();
+ *      Optional<Dish> d = planner.from(menuList).pipeline(s -> s.filter(Dish::isVegetarian)).findFirst();
+ *      Map<Dish.Type, List<Dish>> g = planner.from("group-by-type", menuList).collect(Collectors.groupingBy(Dish::getType));
+ *
+ * 默认规划器按公共池的并行度估算，并行时也在公共池中执行；
+ * PipelinePlanner.on(ParallelExecution.named("batch", 4)) 按该池的并行度估算，并行执行时把流水线提交到该池。
+ */
+public class PipelinePlanner {
+
+    //低于该元素个数永远顺序执行
+    private static final long MIN_PARALLEL_SIZE = 1 << 12;
+    //依赖顺序的短路操作在并行下的效率折扣
+    private static final double ORDERED_SHORT_CIRCUIT_PENALTY = 0.5;
+    //命名流水线代价的平滑系数
+    private static final double EWMA_ALPHA = 0.3;
+
+    private final CostModel costModel;
+    //并行执行所在的池，null 表示公共池
+    private final ParallelExecution execution;
+    //命名流水线实测的每元素相对代价
+    private final Map<String, Double> observedWeights = new ConcurrentHashMap<>();
+
+    public PipelinePlanner(CostModel costModel) {
+        this(costModel, null);
+    }
+
+    /**
+     * @param costModel 代价模型，其并行度应与 execution 的池一致
+     * @param execution 并行执行所在的池，null 表示公共池
+     */
+    public PipelinePlanner(CostModel costModel, ParallelExecution execution) {
+        this.costModel = costModel;
+        this.execution = execution;
+    }
+
+    /**
+     * 在指定池中并行执行的规划器：校准结果与默认规划器相同，并行度换成该池的并行度
+     */
+    public static PipelinePlanner on(ParallelExecution execution) {
+        return new PipelinePlanner(CostModel.calibrated().withParallelism(execution.getPool().getParallelism()), execution);
+    }
+
+    /**
+     * 使用启动时校准的代价模型
+     */
+    public static PipelinePlanner getDefault() {
+        return Holder.DEFAULT;
+    }
+
+    private static class Holder {
+        static final PipelinePlanner DEFAULT = new PipelinePlanner(CostModel.calibrated());
+    }
+
+    public CostModel getCostModel() {
+        return costModel;
+    }
+
+    public <T> Query<T, T> from(Collection<T> source) {
+        return from(null, source);
+    }
+
+    /**
+     * @param name 流水线名称。命名流水线每次执行后记录实测代价（并行执行时按代价模型折算），下次规划时使用；
+     *             短路终端操作（match、find）提前结束，耗时与元素个数无关，不记录
+     */
+    public <T> Query<T, T> from(String name, Collection<T> source) {
+        return new Query<>(this, name, source::spliterator, Function.identity(), 1.0);
+    }
+
+    public <T> Query<T, T> from(String name, Supplier<Spliterator<T>> source) {
+        return new Query<>(this, name, source, Function.identity(), 1.0);
+    }
+
+    /**
+     * 终端操作的性质
+     */
+    public enum Terminal {
+        COLLECT(true, false),
+        COLLECT_UNORDERED(false, false),
+        COUNT(false, false),
+        REDUCE(true, false),
+        MATCH(false, true),
+        FIND_ANY(false, true),
+        FIND_FIRST(true, true);
+
+        private final boolean orderSensitive;
+        private final boolean shortCircuit;
+
+        Terminal(boolean orderSensitive, boolean shortCircuit) {
+            this.orderSensitive = orderSensitive;
+            this.shortCircuit = shortCircuit;
+        }
+    }
+
+    /**
+     * 执行计划
+     */
+    public static class Plan {
+        private final boolean parallel;
+        private final boolean unordered;
+        private final boolean findAny;
+        private final String reason;
+        //并行执行时数据源的可分解性，用于把实测耗时折算回每元素代价
+        private final double splitEfficiency;
+
+        Plan(boolean parallel, boolean unordered, boolean findAny, String reason) {
+            this(parallel, unordered, findAny, reason, 1.0);
+        }
+
+        Plan(boolean parallel, boolean unordered, boolean findAny, String reason, double splitEfficiency) {
+            this.parallel = parallel;
+            this.unordered = unordered;
+            this.findAny = findAny;
+            this.reason = reason;
+            this.splitEfficiency = splitEfficiency;
+        }
+
+        public boolean isParallel() {
+            return parallel;
+        }
+
+        public boolean isUnordered() {
+            return unordered;
+        }
+
+        /**
+         * findFirst 是否被改写成 findAny
+         */
+        public boolean isFindAny() {
+            return findAny;
+        }
+
+        public String getReason() {
+            return reason;
+        }
+
+        @Override
+        public String toString() {
+            return "Plan [" + (parallel ? "parallel" : "sequential") + (unordered ? ", unordered" : "")
+                    + (findAny ? ", findFirst->findAny" : "") + ", " + reason + "]";
+        }
+    }
+
+    /**
+     * 规划：纯函数，不执行任何流操作
+     * @param characteristics 数据源 Spliterator 特征值
+     * @param size 数据源元素个数，未知时为 Long.MAX_VALUE
+     * @param weight 每元素相对代价（1.0 相当于一次简单的 filter + map）
+     * @param terminal 终端操作
+     */
+    public Plan plan(int characteristics, long size, double weight, Terminal terminal) {
+        boolean ordered = (characteristics & Spliterator.ORDERED) != 0;
+        boolean sized = (characteristics & Spliterator.SIZED) != 0 && size != Long.MAX_VALUE;
+        //无序数据源上 findFirst 和 findAny 语义相同
+        boolean findAny = terminal == Terminal.FIND_ANY || (terminal == Terminal.FIND_FIRST && !ordered);
+        boolean unordered = ordered && (!terminal.orderSensitive || findAny);
+        boolean orderedShortCircuit = ordered && terminal.orderSensitive && terminal.shortCircuit && !findAny;
+
+        if (!sized) {
+            //大小未知，只能保守估计
+            return new Plan(false, unordered, findAny, "unknown source size");
+        }
+        if (costModel.getParallelism() <= 1) {
+            return new Plan(false, unordered, findAny, "single worker");
+        }
+        if (size < MIN_PARALLEL_SIZE) {
+            return new Plan(false, unordered, findAny, "small source (" + size + ")");
+        }
+        double splitEfficiency = (characteristics & Spliterator.SUBSIZED) != 0 ? 1.0 : 0.6;
+        if (orderedShortCircuit) {
+            splitEfficiency *= ORDERED_SHORT_CIRCUIT_PENALTY;
+        }
+        double seq = costModel.sequentialNanos(size, weight);
+        double par = costModel.parallelNanos(size, weight, splitEfficiency);
+        String estimate = String.format("seq=%.0fus, par=%.0fus", seq / 1000, par / 1000);
+        return new Plan(par < seq, unordered, findAny, estimate, splitEfficiency);
+    }
+
+    double weightOf(String name, double declared) {
+        if (name == null) {
+            return declared;
+        }
+        Double observed = observedWeights.get(name);
+        return observed == null ? declared : observed;
+    }
+
+    void observe(String name, long size, long nanos, Plan plan) {
+        if (name == null || size < MIN_PARALLEL_SIZE / 4) {
+            return;
+        }
+        //并行执行同样记录，否则一旦按偏低的代价选择了并行，就再也没有机会修正
+        double weight = plan.isParallel()
+                ? costModel.weightFromParallel(size, nanos, plan.splitEfficiency)
+                : nanos / (size * costModel.getNanosPerElement());
+        observedWeights.merge(name, weight, (old, now) -> old * (1 - EWMA_ALPHA) + now * EWMA_ALPHA);
+    }
+
+    /**
+     * 一次查询：数据源 + 中间操作，由终端操作触发规划和执行
+     * @param <T> 数据源元素类型
+     * @param <R> 中间操作之后的元素类型
+     */
+    public static class Query<T, R> {
+        private final PipelinePlanner planner;
+        private final String name;
+        private final Supplier<Spliterator<T>> source;
+        private final Function<Stream<T>, Stream<R>> pipeline;
+        private final double weight;
+
+        Query(PipelinePlanner planner, String name, Supplier<Spliterator<T>> source,
+              Function<Stream<T>, Stream<R>> pipeline, double weight) {
+            this.planner = planner;
+            this.name = name;
+            this.source = source;
+            this.pipeline = pipeline;
+            this.weight = weight;
+        }
+
+        /**
+         * 追加中间操作
+         */
+        public <U> Query<T, U> pipeline(Function<Stream<R>, Stream<U>> stages) {
+            return new Query<>(planner, name, source, pipeline.andThen(stages), weight);
+        }
+
+        /**
+         * 声明每元素相对代价，例如中间操作里有正则匹配、远程调用等较重的逻辑
+         */
+        public Query<T, R> weight(double weight) {
+            return new Query<>(planner, name, source, pipeline, weight);
+        }
+
+        public Plan explain(Terminal terminal) {
+            Spliterator<T> s = source.get();
+            return planner.plan(s.characteristics(), s.getExactSizeIfKnown() < 0 ? Long.MAX_VALUE : s.estimateSize(),
+                    planner.weightOf(name, weight), terminal);
+        }
+
+        private <X> X execute(Terminal terminal, BiFunction<Stream<R>, Plan, X> op) {
+            Spliterator<T> s = source.get();
+            long size = s.getExactSizeIfKnown();
+            Plan plan = planner.plan(s.characteristics(), size < 0 ? Long.MAX_VALUE : size, planner.weightOf(name, weight), terminal);
+            Stream<R> stream = pipeline.apply(StreamSupport.stream(s, plan.isParallel()));
+            if (plan.isUnordered()) {
+                stream = stream.unordered();
+            }
+            Stream<R> planned = stream;
+            long start = System.nanoTime();
+            //并行流的终端操作在哪个池的工作线程中调用，子任务就提交到哪个池（见 ParallelExecution）
+            X result = plan.isParallel() && planner.execution != null
+                    ? planner.execution.invoke(() -> op.apply(planned, plan))
+                    : op.apply(stream, plan);
+            if (!terminal.shortCircuit && size > 0) {
+                planner.observe(name, size, System.nanoTime() - start, plan);
+            }
+            return result;
+        }
+
+        public <A, C> C collect(Collector<? super R, A, C> collector) {
+            Terminal terminal = collector.characteristics().contains(Collector.Characteristics.UNORDERED)
+                    ? Terminal.COLLECT_UNORDERED : Terminal.COLLECT;
+            return execute(terminal, (s, plan) -> s.collect(collector));
+        }
+
+        public long count() {
+            return execute(Terminal.COUNT, (s, plan) -> s.count());
+        }
+
+        public R reduce(R identity, BinaryOperator<R> accumulator) {
+            return execute(Terminal.REDUCE, (s, plan) -> s.reduce(identity, accumulator));
+        }
+
+        public boolean anyMatch(Predicate<? super R> predicate) {
+            return execute(Terminal.MATCH, (s, plan) -> s.anyMatch(predicate));
+        }
+
+        public boolean allMatch(Predicate<? super R> predicate) {
+            return execute(Terminal.MATCH, (s, plan) -> s.allMatch(predicate));
+        }
+
+        public boolean noneMatch(Predicate<? super R> predicate) {
+            return execute(Terminal.MATCH, (s, plan) -> s.noneMatch(predicate));
+        }
+
+        public Optional<R> findAny() {
+            return execute(Terminal.FIND_ANY, (s, plan) -> s.findAny());
+        }
+
+        /**
+         * 数据源无序时自动改写成 findAny
+         */
+        public Optional<R> findFirst() {
+            return execute(Terminal.FIND_FIRST, (s, plan) -> plan.isFindAny() ? s.findAny() : s.findFirst());
+        }
+    }
+}
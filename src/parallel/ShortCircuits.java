@@ -0,0 +1,222 @@
+package parallel;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.OptionalInt;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+import java.util.function.IntPredicate;
+import java.util.stream.IntStream;
+
+/**
+ * 并行短路操作：结果一确定就让所有子任务尽快退出，直接作用于 int，不需要 boxed()
+ *
+ *      IntStream.rangeClosed(0, 1_000_000).parallel().filter(v -> v % 2 == 0).boxed().findFirst()
+ * 为了保证遇到顺序，并行 findFirst 要等左边所有子任务都结束才能确定结果，右边的子任务即使早就没用了也会跑完。
+ *
+ * findFirst：记录目前找到的最小下标，起始位置在它右边的子任务直接放弃，遍历中越过它的也立即停止
+ * findAny：任意子任务命中后，其余子任务全部停止
+ * limitAny(n)：收集任意 n 个匹配元素（不是前 n 个），凑够 n 个后全部停止
+ *
+ * findFirst 需要知道每个子任务在原序列中的起始下标，所以要求数据源是 SUBSIZED 的（range、数组等）。
+ */
+public class ShortCircuits {
+
+    //叶子任务每处理多少个元素检查一次是否可以停止
+    private static final int CHECK_INTERVAL = 256;
+
+    private ShortCircuits() {
+    }
+
+    public static OptionalInt findFirst(int fromInclusive, int toExclusive, IntPredicate predicate) {
+        return findFirst(IntStream.range(fromInclusive, toExclusive).spliterator(), predicate, ForkJoinPool.commonPool());
+    }
+
+    public static OptionalInt findFirst(int[] data, IntPredicate predicate) {
+        return findFirst(Arrays.spliterator(data), predicate, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param source SUBSIZED 的数据源，例如 IntStream.range(...).spliterator()、Arrays.spliterator(int[])
+     * @param predicate 条件
+     * @param pool 执行的线程池
+     */
+    public static OptionalInt findFirst(Spliterator.OfInt source, IntPredicate predicate, ForkJoinPool pool) {
+        if (!source.hasCharacteristics(Spliterator.SUBSIZED)) {
+            throw new IllegalArgumentException("findFirst requires a SUBSIZED source");
+        }
+        FirstHit hit = new FirstHit();
+        pool.invoke(new FindFirstTask(source, 0, predicate, hit, threshold(source, pool)));
+        return hit.index == Long.MAX_VALUE ? OptionalInt.empty() : OptionalInt.of(hit.value);
+    }
+
+    public static OptionalInt findAny(int fromInclusive, int toExclusive, IntPredicate predicate) {
+        return findAny(IntStream.range(fromInclusive, toExclusive).spliterator(), predicate, ForkJoinPool.commonPool());
+    }
+
+    public static OptionalInt findAny(Spliterator.OfInt source, IntPredicate predicate, ForkJoinPool pool) {
+        int[] found = limitAny(source, predicate, 1, pool);
+        return found.length == 0 ? OptionalInt.empty() : OptionalInt.of(found[0]);
+    }
+
+    public static int[] limitAny(int fromInclusive, int toExclusive, IntPredicate predicate, int n) {
+        return limitAny(IntStream.range(fromInclusive, toExclusive).spliterator(), predicate, n, ForkJoinPool.commonPool());
+    }
+
+    public static int[] limitAny(int[] data, IntPredicate predicate, int n) {
+        return limitAny(Arrays.spliterator(data), predicate, n, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * 收集任意 n 个满足条件的元素，顺序不确定
+     * @return 长度不超过 n 的数组
+     */
+    public static int[] limitAny(Spliterator.OfInt source, IntPredicate predicate, int n, ForkJoinPool pool) {
+        if (n < 0) {
+            throw new IllegalArgumentException("n: " + n);
+        }
+        if (n == 0) {
+            return new int[0];
+        }
+        Bucket bucket = new Bucket(n);
+        pool.invoke(new LimitAnyTask(source, predicate, bucket, threshold(source, pool)));
+        return Arrays.copyOf(bucket.values, Math.min(n, bucket.taken.get()));
+    }
+
+    private static long threshold(Spliterator<?> source, ForkJoinPool pool) {
+        long size = source.estimateSize();
+        return Math.max(1024, size == Long.MAX_VALUE ? 1 << 16 : size / (pool.getParallelism() * 8L));
+    }
+
+    /**
+     * 目前找到的最靠左的匹配
+     */
+    private static class FirstHit {
+        volatile long index = Long.MAX_VALUE;
+        int value;
+
+        synchronized void offer(long i, int v) {
+            if (i < index) {
+                value = v;
+                index = i;
+            }
+        }
+    }
+
+    private static class FindFirstTask extends RecursiveAction implements IntConsumer {
+        private static final long serialVersionUID = 1L;
+
+        private final Spliterator.OfInt spliterator;
+        private final long offset;
+        private final IntPredicate predicate;
+        private final FirstHit hit;
+        private final long threshold;
+        private boolean matched;
+        private int current;
+
+        FindFirstTask(Spliterator.OfInt spliterator, long offset, IntPredicate predicate, FirstHit hit, long threshold) {
+            this.spliterator = spliterator;
+            this.offset = offset;
+            this.predicate = predicate;
+            this.hit = hit;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected void compute() {
+            Spliterator.OfInt s = spliterator;
+            List<FindFirstTask> forked = new ArrayList<>();
+            Spliterator.OfInt prefix;
+            //左半部分留给自己，右半部分交给其他线程
+            while (s.estimateSize() > threshold && (prefix = s.trySplit()) != null) {
+                FindFirstTask right = new FindFirstTask(s, offset + prefix.estimateSize(), predicate, hit, threshold);
+                right.fork();
+                forked.add(right);
+                s = prefix;
+            }
+            long i = offset;
+            while (i < hit.index && s.tryAdvance((IntConsumer) this)) {
+                if (matched) {
+                    hit.offer(i, current);
+                    break;
+                }
+                i++;
+            }
+            for (int k = forked.size() - 1; k >= 0; k--) {
+                forked.get(k).join();
+            }
+        }
+
+        @Override
+        public void accept(int value) {
+            current = value;
+            matched = predicate.test(value);
+        }
+    }
+
+    private static class Bucket {
+        final int[] values;
+        final AtomicInteger taken = new AtomicInteger();
+
+        Bucket(int n) {
+            values = new int[n];
+        }
+
+        boolean full() {
+            return taken.get() >= values.length;
+        }
+
+        void offer(int v) {
+            int slot = taken.getAndIncrement();
+            if (slot < values.length) {
+                values[slot] = v;
+            }
+        }
+    }
+
+    private static class LimitAnyTask extends RecursiveAction implements IntConsumer {
+        private static final long serialVersionUID = 1L;
+
+        private final Spliterator.OfInt spliterator;
+        private final IntPredicate predicate;
+        private final Bucket bucket;
+        private final long threshold;
+
+        LimitAnyTask(Spliterator.OfInt spliterator, IntPredicate predicate, Bucket bucket, long threshold) {
+            this.spliterator = spliterator;
+            this.predicate = predicate;
+            this.bucket = bucket;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected void compute() {
+            Spliterator.OfInt s = spliterator;
+            List<LimitAnyTask> forked = new ArrayList<>();
+            Spliterator.OfInt prefix;
+            while (s.estimateSize() > threshold && (prefix = s.trySplit()) != null) {
+                LimitAnyTask task = new LimitAnyTask(prefix, predicate, bucket, threshold);
+                task.fork();
+                forked.add(task);
+            }
+            int n = 0;
+            while (!(n++ % CHECK_INTERVAL == 0 && bucket.full()) && s.tryAdvance((IntConsumer) this)) {
+                //accept 中完成过滤和收集
+            }
+            for (LimitAnyTask task : forked) {
+                task.join();
+            }
+        }
+
+        @Override
+        public void accept(int value) {
+            if (predicate.test(value) && !bucket.full()) {
+                bucket.offer(value);
+            }
+        }
+    }
+}
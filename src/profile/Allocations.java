@@ -0,0 +1,34 @@
+package profile;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * 当前线程累计分配的字节数（HotSpot 的 com.sun.management.ThreadMXBean），不支持时返回 -1
+ */
+class Allocations {
+
+    private static final com.sun.management.ThreadMXBean BEAN = bean();
+
+    private Allocations() {
+    }
+
+    private static com.sun.management.ThreadMXBean bean() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean hotspot = (com.sun.management.ThreadMXBean) bean;
+            if (hotspot.isThreadAllocatedMemorySupported() && hotspot.isThreadAllocatedMemoryEnabled()) {
+                return hotspot;
+            }
+        }
+        return null;
+    }
+
+    static boolean supported() {
+        return BEAN != null;
+    }
+
+    static long currentThread() {
+        return BEAN == null ? -1 : BEAN.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+}
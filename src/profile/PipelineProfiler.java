@@ -0,0 +1,247 @@
+package profile;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+import java.util.function.DoubleConsumer;
+import java.util.function.IntConsumer;
+import java.util.function.LongConsumer;
+import java.util.function.Supplier;
+
+/**
+ * 流水线剖析器：代替 peek(System.out::println) 和 System.currentTimeMillis() 差值
+ *
+ *      PipelineProfiler profiler = new PipelineProfiler("menu");
+ *      List<String> names = profiler.run(() -> menuList.parallelStream()
+ *              .peek(profiler.stage("source"))
+ *              .filter(d -> d.getCalories() > 300)
+ *              .peek(profiler.stage("filter calories > 300"))
+ *              .map(Dish::getName)
+ *              .peek(profiler.stage("map name"))
+ *              .collect(Collectors.toList()));
+ *      System.out.println(profiler.report());
+ *
+ * 探针（stage）按创建顺序编号，放在每个阶段之后，同样可以用于 IntStream / LongStream / DoubleStream 的 peek。
+ * 报告包括：
+ *      每个阶段通过的元素个数、相对上一阶段的选择率
+ *      每个元素在该阶段的平均耗时（抽样：每个线程每 sampleEvery 个元素计一次时）
+ *      每个元素在该阶段的平均分配字节数（HotSpot 的线程分配计数器，随计时一起抽样）
+ *      并行时每个线程处理了多少元素
+ *
+ * 计时原理：同一个线程上，一个元素依次经过探针 i - 1、i 时，两次时间戳之差就是阶段 i 的耗时。
+ * 第一个探针只计数（数据源本身的耗时无法与上一个元素的终止操作区分）；
+ * 被过滤掉的元素不会到达下一个探针，它的耗时不计入任何阶段。
+ *
+ * 屏障：探针 i - 1 与 i 之间是 sorted / distinct 等有状态操作，或者 flatMap 把一个元素展开成多个时，
+ * 到达探针 i 的元素不再是刚经过探针 i - 1 的那个：第一个元素的时间差包含了整个屏障（例如排序）的耗时，
+ * 之后的元素前面根本没有经过探针 i - 1。同一线程上探针 i 的上一个探针不是 i - 1 时，就认为 i 前面有屏障：
+ * 报告中该阶段标记为 barrier，不给出耗时和分配（只有计数和选择率），其后的元素从探针 i 开始重新抽样，
+ * 下游各阶段照常计时。屏障在某个线程上只输出一个元素时无法识别，这个元素的耗时仍会包含屏障本身。
+ *
+ * 计数不加锁：每个线程写自己的计数数组（同 sink.ShardedBuffer），report() 必须在流水线结束后调用。
+ */
+public class PipelineProfiler {
+
+    private final String name;
+    private final int sampleEvery;
+    private final List<Probe> probes = new ArrayList<>();
+    //reset 时整体替换，旧线程上残留的状态不会再被读到
+    private volatile ThreadLocal<ThreadState> local = ThreadLocal.withInitial(this::newState);
+    private final Queue<ThreadState> states = new ConcurrentLinkedQueue<>();
+    private volatile long wallNanos = -1;
+
+    public PipelineProfiler(String name) {
+        this(name, 16);
+    }
+
+    /**
+     * @param sampleEvery 每个线程每隔多少个元素计一次时，1 表示每个元素都计时
+     */
+    public PipelineProfiler(String name, int sampleEvery) {
+        if (sampleEvery <= 0) {
+            throw new IllegalArgumentException("sampleEvery must be positive: " + sampleEvery);
+        }
+        this.name = name;
+        this.sampleEvery = sampleEvery;
+    }
+
+    private ThreadState newState() {
+        ThreadState state = new ThreadState(Thread.currentThread().getName());
+        states.add(state);
+        return state;
+    }
+
+    /**
+     * 新建一个探针，必须在流水线开始执行之前创建
+     */
+    public synchronized Probe stage(String stageName) {
+        Probe probe = new Probe(probes.size(), stageName);
+        probes.add(probe);
+        return probe;
+    }
+
+    /**
+     * 执行流水线并记录总耗时
+     */
+    public <R> R run(Supplier<R> pipeline) {
+        long start = System.nanoTime();
+        try {
+            return pipeline.get();
+        } finally {
+            wallNanos = System.nanoTime() - start;
+        }
+    }
+
+    public void run(Runnable pipeline) {
+        run(() -> {
+            pipeline.run();
+            return null;
+        });
+    }
+
+    /**
+     * 汇总所有线程的数据
+     */
+    public synchronized ProfileReport report() {
+        int n = probes.size();
+        long[] counts = new long[n];
+        long[] sampled = new long[n];
+        long[] nanos = new long[n];
+        long[] bytes = new long[n];
+        boolean[] barrier = new boolean[n];
+        //部分 JDK 的公共池线程会在任务之间清空 ThreadLocal，同一线程可能有多份状态，按线程名合并
+        Map<String, Long> perThread = new LinkedHashMap<>();
+        for (ThreadState state : states) {
+            for (int i = 0; i < n && i < state.counts.length; i++) {
+                counts[i] += state.counts[i];
+                sampled[i] += state.sampled[i];
+                nanos[i] += state.nanos[i];
+                bytes[i] += state.bytes[i];
+                barrier[i] |= state.barrier[i];
+            }
+            perThread.merge(state.threadName, state.counts.length > 0 ? state.counts[0] : 0L, Long::sum);
+        }
+        List<ProfileReport.ThreadShare> threads = new ArrayList<>();
+        perThread.forEach((thread, count) -> threads.add(new ProfileReport.ThreadShare(thread, count)));
+        List<ProfileReport.Stage> stages = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            double selectivity = i == 0 || counts[i - 1] == 0 ? 1.0 : (double) counts[i] / counts[i - 1];
+            //屏障之后的阶段：时间差里混有屏障本身的耗时，不给出
+            long timed = barrier[i] ? 0 : sampled[i];
+            double avgNanos = timed == 0 ? Double.NaN : (double) nanos[i] / timed;
+            double avgBytes = timed == 0 || !Allocations.supported() ? Double.NaN : (double) bytes[i] / timed;
+            stages.add(new ProfileReport.Stage(probes.get(i).name, counts[i], selectivity, timed, avgNanos, avgBytes, barrier[i]));
+        }
+        return new ProfileReport(name, wallNanos, sampleEvery, stages, threads);
+    }
+
+    /**
+     * 清空计数，可以重复剖析同一条流水线
+     */
+    public synchronized void reset() {
+        local = ThreadLocal.withInitial(this::newState);
+        states.clear();
+        wallNanos = -1;
+    }
+
+    /**
+     * 每个线程一份，只被该线程写
+     */
+    private static final class ThreadState {
+        private final String threadName;
+        private long[] counts = new long[0];
+        private long[] sampled = new long[0];
+        private long[] nanos = new long[0];
+        private long[] bytes = new long[0];
+        //探针 i 的前面有屏障
+        private boolean[] barrier = new boolean[0];
+        //上一次经过的探针以及当时的时间戳、分配字节数
+        private int lastProbe = -1;
+        private long lastNanos;
+        private long lastBytes;
+        private int sinceSample;
+        private boolean sampling;
+
+        ThreadState(String threadName) {
+            this.threadName = threadName;
+        }
+
+        void ensure(int n) {
+            if (counts.length < n) {
+                counts = Arrays.copyOf(counts, n);
+                sampled = Arrays.copyOf(sampled, n);
+                nanos = Arrays.copyOf(nanos, n);
+                bytes = Arrays.copyOf(bytes, n);
+                barrier = Arrays.copyOf(barrier, n);
+            }
+        }
+    }
+
+    /**
+     * 探针：可以作为任意类型流的 peek 参数
+     */
+    public final class Probe implements Consumer<Object>, IntConsumer, LongConsumer, DoubleConsumer {
+        private final int index;
+        private final String name;
+
+        Probe(int index, String name) {
+            this.index = index;
+            this.name = name;
+        }
+
+        @Override
+        public void accept(Object o) {
+            hit();
+        }
+
+        @Override
+        public void accept(int value) {
+            hit();
+        }
+
+        @Override
+        public void accept(long value) {
+            hit();
+        }
+
+        @Override
+        public void accept(double value) {
+            hit();
+        }
+
+        private void hit() {
+            ThreadState state = local.get();
+            state.ensure(index + 1);
+            state.counts[index]++;
+            boolean fromUpstream = index > 0 && state.lastProbe == index - 1;
+            if (!fromUpstream) {
+                if (index > 0) {
+                    //不是从探针 i - 1 直接过来的：i - 1 与 i 之间有屏障
+                    state.barrier[index] = true;
+                }
+                //新元素从数据源（或屏障）进入：决定这个元素是否抽样
+                state.sampling = ++state.sinceSample >= sampleEvery;
+                if (state.sampling) {
+                    state.sinceSample = 0;
+                }
+            } else if (state.sampling) {
+                long now = System.nanoTime();
+                long allocated = Allocations.currentThread();
+                state.sampled[index]++;
+                state.nanos[index] += now - state.lastNanos;
+                state.bytes[index] += allocated - state.lastBytes;
+            }
+            state.lastProbe = index;
+            if (state.sampling) {
+                //重新读取时间戳，排除计数本身的开销
+                state.lastBytes = Allocations.currentThread();
+                state.lastNanos = System.nanoTime();
+            }
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package profile;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 剖析结果：toString 输出表格，toJson 输出结构化数据
+ */
+public class ProfileReport {
+
+    private final String pipeline;
+    private final long wallNanos;
+    private final int sampleEvery;
+    private final List<Stage> stages;
+    private final List<ThreadShare> threads;
+
+    ProfileReport(String pipeline, long wallNanos, int sampleEvery, List<Stage> stages, List<ThreadShare> threads) {
+        this.pipeline = pipeline;
+        this.wallNanos = wallNanos;
+        this.sampleEvery = sampleEvery;
+        this.stages = Collections.unmodifiableList(stages);
+        this.threads = Collections.unmodifiableList(threads);
+    }
+
+    public String getPipeline() {
+        return pipeline;
+    }
+
+    /**
+     * 流水线总耗时，没有通过 PipelineProfiler.run 执行时为 -1
+     */
+    public long getWallNanos() {
+        return wallNanos;
+    }
+
+    public List<Stage> getStages() {
+        return stages;
+    }
+
+    public List<ThreadShare> getThreads() {
+        return threads;
+    }
+
+    /**
+     * 估算总耗时最多的阶段（平均耗时 * 元素个数）
+     */
+    public Stage hottest() {
+        Stage hottest = null;
+        for (Stage stage : stages) {
+            if (!Double.isNaN(stage.avgNanos) && (hottest == null || stage.estimatedNanos() > hottest.estimatedNanos())) {
+                hottest = stage;
+            }
+        }
+        return hottest;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(pipeline).append(" ========START========\n");
+        if (wallNanos >= 0) {
+            sb.append(String.format(Locale.ROOT, "total %.3f ms, sampled 1/%d%n", wallNanos / 1e6, sampleEvery));
+        }
+        sb.append(String.format(Locale.ROOT, "%-28s %12s %10s %12s %14s %12s%n", "stage", "count", "select", "ns/elem", "est. ms", "bytes/elem"));
+        for (Stage s : stages) {
+            sb.append(String.format(Locale.ROOT, "%-28s %12d %9.1f%% %12s %14s %12s%n", s.name, s.count, s.selectivity * 100,
+                    s.barrier ? "barrier" : Double.isNaN(s.avgNanos) ? "-" : String.format(Locale.ROOT, "%.1f", s.avgNanos),
+                    Double.isNaN(s.avgNanos) ? "-" : String.format(Locale.ROOT, "%.3f", s.estimatedNanos() / 1e6),
+                    Double.isNaN(s.avgBytes) ? "-" : String.format(Locale.ROOT, "%.1f", s.avgBytes)));
+        }
+        if (threads.size() > 1) {
+            long total = 0;
+            for (ThreadShare t : threads) {
+                total += t.count;
+            }
+            sb.append("threads:\n");
+            for (ThreadShare t : threads) {
+                sb.append(String.format(Locale.ROOT, "  %-40s %12d %6.1f%%%n", t.threadName, t.count, total == 0 ? 0 : 100.0 * t.count / total));
+            }
+        }
+        sb.append(pipeline).append(" ========END========");
+        return sb.toString();
+    }
+
+    public String toJson() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("{\"pipeline\":").append(quote(pipeline))
+                .append(",\"wallNanos\":").append(wallNanos)
+                .append(",\"sampleEvery\":").append(sampleEvery)
+                .append(",\"stages\":[");
+        for (int i = 0; i < stages.size(); i++) {
+            Stage s = stages.get(i);
+            sb.append(i == 0 ? "" : ",")
+                    .append("{\"name\":").append(quote(s.name))
+                    .append(",\"count\":").append(s.count)
+                    .append(",\"selectivity\":").append(number(s.selectivity))
+                    .append(",\"sampled\":").append(s.sampled)
+                    .append(",\"avgNanos\":").append(number(s.avgNanos))
+                    .append(",\"avgBytes\":").append(number(s.avgBytes))
+                    .append(",\"barrier\":").append(s.barrier)
+                    .append('}');
+        }
+        sb.append("],\"threads\":[");
+        for (int i = 0; i < threads.size(); i++) {
+            ThreadShare t = threads.get(i);
+            sb.append(i == 0 ? "" : ",")
+                    .append("{\"name\":").append(quote(t.threadName))
+                    .append(",\"count\":").append(t.count)
+                    .append('}');
+        }
+        return sb.append("]}").toString();
+    }
+
+    private static String number(double d) {
+        return Double.isNaN(d) ? "null" : String.format(Locale.ROOT, "%.3f", d);
+    }
+
+    private static String quote(String s) {
+        StringBuilder sb = new StringBuilder("\"");
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '"' || c == '\\') {
+                sb.append('\\').append(c);
+            } else if (c < 0x20) {
+                sb.append(String.format("\\u%04x", (int) c));
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.append('"').toString();
+    }
+
+    public static class Stage {
+        private final String name;
+        private final long count;
+        private final double selectivity;
+        private final long sampled;
+        private final double avgNanos;
+        private final double avgBytes;
+        private final boolean barrier;
+
+        Stage(String name, long count, double selectivity, long sampled, double avgNanos, double avgBytes, boolean barrier) {
+            this.name = name;
+            this.count = count;
+            this.selectivity = selectivity;
+            this.sampled = sampled;
+            this.avgNanos = avgNanos;
+            this.avgBytes = avgBytes;
+            this.barrier = barrier;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        /**
+         * 通过本阶段的元素个数 / 通过上一阶段的元素个数
+         */
+        public double getSelectivity() {
+            return selectivity;
+        }
+
+        public long getSampled() {
+            return sampled;
+        }
+
+        /**
+         * 与上一个探针之间有 sorted / distinct 等屏障，或者 flatMap 展开成多个元素（见 PipelineProfiler），此时没有耗时数据
+         */
+        public boolean isBarrier() {
+            return barrier;
+        }
+
+        /**
+         * 没有抽样数据或 isBarrier() 时为 NaN
+         */
+        public double getAvgNanos() {
+            return avgNanos;
+        }
+
+        /**
+         * 不支持线程分配计数或没有抽样数据时为 NaN
+         */
+        public double getAvgBytes() {
+            return avgBytes;
+        }
+
+        public double estimatedNanos() {
+            return avgNanos * count;
+        }
+    }
+
+    public static class ThreadShare {
+        private final String threadName;
+        private final long count;
+
+        ThreadShare(String threadName, long count) {
+            this.threadName = threadName;
+            this.count = count;
+        }
+
+        public String getThreadName() {
+            return threadName;
+        }
+
+        /**
+         * 该线程从数据源取出的元素个数
+         */
+        public long getCount() {
+            return count;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package query;
+
+import domain.Apple;
+import domain.AppleColor;
+
+/**
+ * Apple 的查询字段：color、height
+ *
+ * color 的字典在读取数据时登记（StringIds.intern），常用颜色（AppleColor 中的常量）预先登记，
+ * 所以查询常用颜色时不必先读过数据。
+ */
+public class AppleSchema implements Schema<Apple> {
+
+    public static final AppleSchema INSTANCE = new AppleSchema();
+
+    static final int F_COLOR = 0;
+    static final int F_HEIGHT = 1;
+    private static final String[] NAMES = {"color", "height"};
+
+    private final StringIds colors = new StringIds();
+
+    public static final Field.StringField<Apple> COLOR = new Field.StringField<>(INSTANCE, F_COLOR, INSTANCE.colors);
+    public static final Field<Apple> HEIGHT = new Field<>(INSTANCE, F_HEIGHT);
+
+    private AppleSchema() {
+        for (AppleColor color : new AppleColor[]{AppleColor.RED, AppleColor.YELLOW, AppleColor.GREEN, AppleColor.BLUE}) {
+            colors.intern(color.getName());
+        }
+    }
+
+    @Override
+    public int fieldCount() {
+        return NAMES.length;
+    }
+
+    @Override
+    public String fieldName(int field) {
+        return NAMES[field];
+    }
+
+    @Override
+    public int value(Apple a, int field) {
+        switch (field) {
+            case F_COLOR:
+                return colors.intern(a.getColor());
+            case F_HEIGHT:
+                return a.getHeight();
+            default:
+                throw new IllegalArgumentException("field: " + field);
+        }
+    }
+
+    @Override
+    public int compare(Apple a, Apple b, int field) {
+        if (field == F_COLOR) {
+            return a.getColor().compareTo(b.getColor());
+        }
+        return Integer.compare(value(a, field), value(b, field));
+    }
+}
@@ -0,0 +1,88 @@
+package query;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * 编译后的多字段比较器
+ *
+ * Comparator.comparing(Apple::getHeight).thenComparing(Apple::getColor) 每多一层 thenComparing
+ * 就多一层 Comparator 包装，并且 comparing 会把 int 装箱成 Integer。
+ * 这里把排序键放在数组里循环比较，int 字段直接比较，不装箱：
+ *      CompiledComparator.by(AppleSchema.HEIGHT).thenBy(AppleSchema.COLOR)
+ * @param <T>
+ */
+public final class CompiledComparator<T> implements Comparator<T> {
+
+    private final Schema<T> schema;
+    private final int[] fields;
+    private final boolean[] descending;
+
+    private CompiledComparator(Schema<T> schema, int[] fields, boolean[] descending) {
+        this.schema = schema;
+        this.fields = fields;
+        this.descending = descending;
+    }
+
+    public static <T> CompiledComparator<T> by(Field<T> field) {
+        return new CompiledComparator<>(field.schema, new int[]{field.index}, new boolean[]{false});
+    }
+
+    public static <T> CompiledComparator<T> byDescending(Field<T> field) {
+        return new CompiledComparator<>(field.schema, new int[]{field.index}, new boolean[]{true});
+    }
+
+    public CompiledComparator<T> thenBy(Field<T> field) {
+        return then(field, false);
+    }
+
+    public CompiledComparator<T> thenByDescending(Field<T> field) {
+        return then(field, true);
+    }
+
+    private CompiledComparator<T> then(Field<T> field, boolean desc) {
+        if (field.schema != schema) {
+            throw new IllegalArgumentException("field " + field + " belongs to another schema");
+        }
+        int[] f = Arrays.copyOf(fields, fields.length + 1);
+        boolean[] d = Arrays.copyOf(descending, descending.length + 1);
+        f[fields.length] = field.index;
+        d[fields.length] = desc;
+        return new CompiledComparator<>(schema, f, d);
+    }
+
+    /**
+     * 所有排序键整体反转，与 Comparator.reversed() 语义相同
+     */
+    @Override
+    public CompiledComparator<T> reversed() {
+        boolean[] d = new boolean[descending.length];
+        for (int i = 0; i < d.length; i++) {
+            d[i] = !descending[i];
+        }
+        return new CompiledComparator<>(schema, fields, d);
+    }
+
+    @Override
+    public int compare(T a, T b) {
+        for (int k = 0; k < fields.length; k++) {
+            int c = schema.compare(a, b, fields[k]);
+            if (c != 0) {
+                return descending[k] ? -c : c;
+            }
+        }
+        return 0;
+    }
+
+    int[] fields() {
+        return fields;
+    }
+
+    boolean[] descending() {
+        return descending;
+    }
+
+    Schema<T> schema() {
+        return schema;
+    }
+}
@@ -0,0 +1,93 @@
+package query;
+
+import java.util.function.Predicate;
+
+/**
+ * 编译后的谓词：析取范式的扁平数组表示
+ *
+ *      子句 c 的条件为 [clauseStart[c], clauseStart[c + 1])
+ *      条件 k 为 lo[k] <= value(t, field[k]) <= hi[k]
+ *
+ * 执行时只有数组访问和 int 比较，字段通过 schema.value 读取（单态调用），
+ * 无论原表达式组合了多少层，都不会产生 Predicate 之间的层层调用。
+ * @param <T>
+ */
+public final class CompiledPredicate<T> implements Predicate<T> {
+
+    private final Schema<T> schema;
+    private final int[] clauseStart;
+    private final int[] field;
+    private final int[] lo;
+    private final int[] hi;
+    //无法展开时退化为解释执行
+    private final Expr fallback;
+    //编译前的表达式，toString 用
+    private final Expr source;
+
+    CompiledPredicate(Schema<T> schema, int[] clauseStart, int[] field, int[] lo, int[] hi, Expr fallback, Expr source) {
+        this.schema = schema;
+        this.clauseStart = clauseStart;
+        this.field = field;
+        this.lo = lo;
+        this.hi = hi;
+        this.fallback = fallback;
+        this.source = source;
+    }
+
+    @Override
+    public boolean test(T t) {
+        if (fallback != null) {
+            return fallback.test(schema, t);
+        }
+        int clauses = clauseStart.length - 1;
+        for (int c = 0; c < clauses; c++) {
+            int k = clauseStart[c];
+            int end = clauseStart[c + 1];
+            for (; k < end; k++) {
+                int v = schema.value(t, field[k]);
+                if (v < lo[k] || v > hi[k]) {
+                    break;
+                }
+            }
+            if (k == end) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 恒为 true
+     */
+    public boolean isAlwaysTrue() {
+        return fallback == null && clauseStart.length == 2 && clauseStart[1] == 0;
+    }
+
+    /**
+     * 恒为 false
+     */
+    public boolean isAlwaysFalse() {
+        return fallback == null && clauseStart.length == 1;
+    }
+
+    /**
+     * 原来的表达式，常量显示为查询中写的值（而不是字典编号）；恒真、恒假时附上化简结果，例如
+     *
+     *      (not(height >= 121) and color = yellow)
+     *      color = purple => false
+     */
+    @Override
+    public String toString() {
+        String expr = source.describe(schema);
+        if (fallback != null) {
+            return "interpreted " + expr;
+        }
+        if (isAlwaysTrue()) {
+            return expr + " => true";
+        }
+        if (isAlwaysFalse()) {
+            return expr + " => false";
+        }
+        return expr;
+    }
+}
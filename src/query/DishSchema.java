@@ -0,0 +1,47 @@
+package query;
+
+import domain.Dish;
+
+/**
+ * Dish 的查询字段：calories、type、vegetarian
+ */
+public class DishSchema implements Schema<Dish> {
+
+    public static final DishSchema INSTANCE = new DishSchema();
+
+    static final int F_CALORIES = 0;
+    static final int F_TYPE = 1;
+    static final int F_VEGETARIAN = 2;
+    private static final String[] NAMES = {"calories", "type", "vegetarian"};
+
+    public static final Field<Dish> CALORIES = new Field<>(INSTANCE, F_CALORIES);
+    public static final Field.EnumField<Dish, Dish.Type> TYPE = new Field.EnumField<>(INSTANCE, F_TYPE);
+    public static final Field.BooleanField<Dish> VEGETARIAN = new Field.BooleanField<>(INSTANCE, F_VEGETARIAN);
+
+    private DishSchema() {
+    }
+
+    @Override
+    public int fieldCount() {
+        return NAMES.length;
+    }
+
+    @Override
+    public String fieldName(int field) {
+        return NAMES[field];
+    }
+
+    @Override
+    public int value(Dish d, int field) {
+        switch (field) {
+            case F_CALORIES:
+                return d.getCalories();
+            case F_TYPE:
+                return d.getType().ordinal();
+            case F_VEGETARIAN:
+                return d.isVegetarian() ? 1 : 0;
+            default:
+                throw new IllegalArgumentException("field: " + field);
+        }
+    }
+}
@@ -0,0 +1,266 @@
+package query;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 查询表达式树：叶子是 "字段值 ∈ [lo, hi]"，内部节点是 and / or / not
+ *
+ * 对应 LambdaDemo 中的 predicate.negate().and(...).or(...)，区别是这里的组合只构建表达式，
+ * 由 compile 统一化简、展开成扁平结构后再执行，而不是每一层组合都包一层 Predicate。
+ */
+public abstract class Expr {
+
+    public static final Expr TRUE = new Const(true);
+    public static final Expr FALSE = new Const(false);
+
+    public static Expr range(int field, int lo, int hi) {
+        return lo > hi ? FALSE : new Range(field, lo, hi, null);
+    }
+
+    /**
+     * 字段等于某个常量，常量映射成了编号 id（字典编号、ordinal）；显示时用常量本身，而不是编号
+     */
+    static Expr eq(int field, int id, Object constant) {
+        return new Range(field, id, id, constant);
+    }
+
+    /**
+     * 恒为 false，但显示为原来的条件（例如字典中没有的常量）
+     */
+    static Expr never(String description) {
+        return new Const(false, description);
+    }
+
+    public Expr and(Expr other) {
+        return new Node(Kind.AND, Arrays.asList(this, other));
+    }
+
+    public Expr or(Expr other) {
+        return new Node(Kind.OR, Arrays.asList(this, other));
+    }
+
+    public Expr negate() {
+        return new Node(Kind.NOT, Collections.singletonList(this));
+    }
+
+    enum Kind { AND, OR, NOT }
+
+    /**
+     * 逐层解释执行，表达式过于复杂无法展开时使用
+     */
+    abstract <T> boolean test(Schema<T> schema, T t);
+
+    /**
+     * 展开成析取范式：返回若干个合取子句，每个子句是若干个区间条件
+     * @param negated 是否处于奇数个 not 之下
+     */
+    abstract List<List<Range>> dnf(boolean negated);
+
+    /**
+     * 用字段名和原来的常量显示，例如 not(height >= 121) and color = yellow
+     */
+    abstract String describe(Schema<?> schema);
+
+    static final class Const extends Expr {
+        final boolean value;
+        //显示用，可以为 null
+        final String description;
+
+        Const(boolean value) {
+            this(value, null);
+        }
+
+        Const(boolean value, String description) {
+            this.value = value;
+            this.description = description;
+        }
+
+        @Override
+        <T> boolean test(Schema<T> schema, T t) {
+            return value;
+        }
+
+        @Override
+        List<List<Range>> dnf(boolean negated) {
+            //true：一个空子句；false：没有子句
+            return value != negated ? Collections.singletonList(Collections.<Range>emptyList()) : Collections.<List<Range>>emptyList();
+        }
+
+        @Override
+        String describe(Schema<?> schema) {
+            return description != null ? description : String.valueOf(value);
+        }
+
+        @Override
+        public String toString() {
+            return description != null ? description : String.valueOf(value);
+        }
+    }
+
+    static final class Range extends Expr {
+        final int field;
+        final int lo;
+        final int hi;
+        //lo == hi 时对应的原始常量，显示用，可以为 null
+        final Object constant;
+
+        Range(int field, int lo, int hi, Object constant) {
+            this.field = field;
+            this.lo = lo;
+            this.hi = hi;
+            this.constant = constant;
+        }
+
+        @Override
+        <T> boolean test(Schema<T> schema, T t) {
+            int v = schema.value(t, field);
+            return v >= lo && v <= hi;
+        }
+
+        @Override
+        List<List<Range>> dnf(boolean negated) {
+            if (!negated) {
+                return Collections.singletonList(Collections.singletonList(this));
+            }
+            //not (lo <= v <= hi)  ==>  v < lo or v > hi
+            List<List<Range>> clauses = new ArrayList<>(2);
+            if (lo > Integer.MIN_VALUE) {
+                clauses.add(Collections.singletonList(new Range(field, Integer.MIN_VALUE, lo - 1, null)));
+            }
+            if (hi < Integer.MAX_VALUE) {
+                clauses.add(Collections.singletonList(new Range(field, hi + 1, Integer.MAX_VALUE, null)));
+            }
+            return clauses;
+        }
+
+        @Override
+        String describe(Schema<?> schema) {
+            String name = schema.fieldName(field);
+            if (constant != null) {
+                return name + " = " + constant;
+            }
+            if (lo == hi) {
+                return name + " = " + lo;
+            }
+            if (lo == Integer.MIN_VALUE) {
+                return name + " <= " + hi;
+            }
+            if (hi == Integer.MAX_VALUE) {
+                return name + " >= " + lo;
+            }
+            return name + " in [" + lo + ", " + hi + "]";
+        }
+
+        @Override
+        public String toString() {
+            return "f" + field + "∈[" + lo + "," + hi + "]";
+        }
+    }
+
+    static final class Node extends Expr {
+        final Kind kind;
+        final List<Expr> children;
+
+        Node(Kind kind, List<Expr> children) {
+            this.kind = kind;
+            this.children = children;
+        }
+
+        @Override
+        <T> boolean test(Schema<T> schema, T t) {
+            switch (kind) {
+                case NOT:
+                    return !children.get(0).test(schema, t);
+                case AND:
+                    for (Expr child : children) {
+                        if (!child.test(schema, t)) {
+                            return false;
+                        }
+                    }
+                    return true;
+                default:
+                    for (Expr child : children) {
+                        if (child.test(schema, t)) {
+                            return true;
+                        }
+                    }
+                    return false;
+            }
+        }
+
+        @Override
+        List<List<Range>> dnf(boolean negated) {
+            if (kind == Kind.NOT) {
+                return children.get(0).dnf(!negated);
+            }
+            //德摩根：not and == or not，not or == and not
+            boolean conjunction = (kind == Kind.AND) != negated;
+            if (!conjunction) {
+                List<List<Range>> clauses = new ArrayList<>();
+                for (Expr child : children) {
+                    clauses.addAll(child.dnf(negated));
+                }
+                return clauses;
+            }
+            List<List<Range>> clauses = Collections.singletonList(Collections.<Range>emptyList());
+            for (Expr child : children) {
+                List<List<Range>> right = child.dnf(negated);
+                List<List<Range>> product = new ArrayList<>(clauses.size() * right.size());
+                for (List<Range> l : clauses) {
+                    for (List<Range> r : right) {
+                        List<Range> merged = new ArrayList<>(l.size() + r.size());
+                        merged.addAll(l);
+                        merged.addAll(r);
+                        product.add(merged);
+                    }
+                }
+                if (product.size() > QueryCompiler.MAX_CLAUSES) {
+                    throw new TooComplexException();
+                }
+                clauses = product;
+            }
+            return clauses;
+        }
+
+        @Override
+        String describe(Schema<?> schema) {
+            if (kind == Kind.NOT) {
+                return "not(" + children.get(0).describe(schema) + ")";
+            }
+            StringBuilder sb = new StringBuilder("(");
+            for (int i = 0; i < children.size(); i++) {
+                if (i > 0) {
+                    sb.append(kind == Kind.AND ? " and " : " or ");
+                }
+                sb.append(children.get(i).describe(schema));
+            }
+            return sb.append(')').toString();
+        }
+
+        @Override
+        public String toString() {
+            if (kind == Kind.NOT) {
+                return "not(" + children.get(0) + ")";
+            }
+            StringBuilder sb = new StringBuilder("(");
+            for (int i = 0; i < children.size(); i++) {
+                if (i > 0) {
+                    sb.append(kind == Kind.AND ? " and " : " or ");
+                }
+                sb.append(children.get(i));
+            }
+            return sb.append(')').toString();
+        }
+    }
+
+    static class TooComplexException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        TooComplexException() {
+            super(null, null, false, false);
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package query;
+
+/**
+ * 可参与查询的字段，用来构建表达式
+ *
+ *      AppleSchema.HEIGHT.gt(120).negate().and(AppleSchema.COLOR.eq("yellow"))
+ * @param <T> 领域对象
+ */
+public class Field<T> {
+
+    final Schema<T> schema;
+    final int index;
+
+    public Field(Schema<T> schema, int index) {
+        this.schema = schema;
+        this.index = index;
+    }
+
+    public Schema<T> getSchema() {
+        return schema;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public Expr between(int lo, int hi) {
+        return Expr.range(index, lo, hi);
+    }
+
+    public Expr eq(int value) {
+        return between(value, value);
+    }
+
+    public Expr ne(int value) {
+        return eq(value).negate();
+    }
+
+    public Expr gt(int value) {
+        return value == Integer.MAX_VALUE ? Expr.FALSE : between(value + 1, Integer.MAX_VALUE);
+    }
+
+    public Expr ge(int value) {
+        return between(value, Integer.MAX_VALUE);
+    }
+
+    public Expr lt(int value) {
+        return value == Integer.MIN_VALUE ? Expr.FALSE : between(Integer.MIN_VALUE, value - 1);
+    }
+
+    public Expr le(int value) {
+        return between(Integer.MIN_VALUE, value);
+    }
+
+    public Expr in(int... values) {
+        Expr expr = Expr.FALSE;
+        for (int v : values) {
+            expr = expr.or(eq(v));
+        }
+        return expr;
+    }
+
+    @Override
+    public String toString() {
+        return schema.fieldName(index);
+    }
+
+    /**
+     * 字符串字段：值通过字典映射成编号
+     *
+     * 常量只在字典中查找，不登记（见 StringIds）：不在字典中的常量不等于任何已经出现过的值，eq 为 false，ne 为 true
+     */
+    public static class StringField<T> extends Field<T> {
+        private final StringIds ids;
+
+        public StringField(Schema<T> schema, int index, StringIds ids) {
+            super(schema, index);
+            this.ids = ids;
+        }
+
+        public Expr eq(String value) {
+            int id = ids.idOf(value);
+            return id < 0 ? Expr.never(this + " = " + value) : Expr.eq(index, id, value);
+        }
+
+        public Expr ne(String value) {
+            return eq(value).negate();
+        }
+
+        public Expr in(String... values) {
+            Expr expr = Expr.FALSE;
+            for (String v : values) {
+                expr = expr.or(eq(v));
+            }
+            return expr;
+        }
+    }
+
+    /**
+     * 枚举字段：值为 ordinal
+     */
+    public static class EnumField<T, E extends Enum<E>> extends Field<T> {
+
+        public EnumField(Schema<T> schema, int index) {
+            super(schema, index);
+        }
+
+        public Expr eq(E value) {
+            return Expr.eq(index, value.ordinal(), value);
+        }
+
+        public Expr ne(E value) {
+            return eq(value).negate();
+        }
+    }
+
+    /**
+     * boolean 字段：true 为 1，false 为 0
+     */
+    public static class BooleanField<T> extends Field<T> {
+
+        public BooleanField(Schema<T> schema, int index) {
+            super(schema, index);
+        }
+
+        public Expr isTrue() {
+            return eq(1);
+        }
+
+        public Expr isFalse() {
+            return eq(0);
+        }
+    }
+}
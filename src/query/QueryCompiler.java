@@ -0,0 +1,164 @@
+package query;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 把表达式编译成扁平的 CompiledPredicate
+ *
+ * 1.下推 not 并展开成析取范式（若干个 and 子句 or 在一起）
+ * 2.常量折叠：同一子句中同一字段的多个区间求交集，交集为空的子句直接删除；
+ *   覆盖整个 int 范围的条件删除；出现空子句（恒真）时整个谓词恒真；重复子句合并；
+ *   单条件子句在同一字段上的区间求并集
+ * 3.短路顺序：有统计信息时，子句内按选择率从低到高排列（and 尽早失败），
+ *   子句之间按选择率从高到低排列（or 尽早成功）
+ */
+public class QueryCompiler {
+
+    //展开后子句数上限，超过则退化为解释执行
+    static final int MAX_CLAUSES = 256;
+
+    private QueryCompiler() {
+    }
+
+    public static <T> CompiledPredicate<T> compile(Schema<T> schema, Expr expr) {
+        return compile(schema, expr, null);
+    }
+
+    /**
+     * @param statistics 字段统计，可以为 null
+     */
+    public static <T> CompiledPredicate<T> compile(Schema<T> schema, Expr expr, Statistics<T> statistics) {
+        List<List<Expr.Range>> dnf;
+        try {
+            dnf = expr.dnf(false);
+        } catch (Expr.TooComplexException e) {
+            return new CompiledPredicate<>(schema, null, null, null, null, expr, expr);
+        }
+
+        List<int[][]> clauses = new ArrayList<>();
+        Set<String> seen = new LinkedHashSet<>();
+        for (List<Expr.Range> clause : dnf) {
+            int[][] folded = fold(schema.fieldCount(), clause);
+            if (folded == null) {
+                continue;
+            }
+            if (folded.length == 0) {
+                //恒真
+                return build(schema, expr, Collections.singletonList(new int[0][]));
+            }
+            if (statistics != null) {
+                Arrays.sort(folded, Comparator.comparingDouble(c -> statistics.selectivity(c[0], c[1], c[2])));
+            }
+            if (seen.add(Arrays.deepToString(folded))) {
+                clauses.add(folded);
+            }
+        }
+        clauses = mergeSingleTermClauses(clauses);
+        if (clauses.size() == 1 && clauses.get(0).length == 0) {
+            return build(schema, expr, clauses);
+        }
+        if (statistics != null) {
+            clauses.sort(Comparator.comparingDouble((int[][] c) -> selectivity(statistics, c)).reversed());
+        }
+        return build(schema, expr, clauses);
+    }
+
+    /**
+     * 同一字段求交集
+     * @return 每个条件为 {field, lo, hi}；交集为空返回 null
+     */
+    private static int[][] fold(int fieldCount, List<Expr.Range> clause) {
+        long[] lo = new long[fieldCount];
+        long[] hi = new long[fieldCount];
+        Arrays.fill(lo, Integer.MIN_VALUE);
+        Arrays.fill(hi, Integer.MAX_VALUE);
+        for (Expr.Range r : clause) {
+            lo[r.field] = Math.max(lo[r.field], r.lo);
+            hi[r.field] = Math.min(hi[r.field], r.hi);
+        }
+        List<int[]> terms = new ArrayList<>();
+        for (int f = 0; f < fieldCount; f++) {
+            if (lo[f] > hi[f]) {
+                return null;
+            }
+            if (lo[f] != Integer.MIN_VALUE || hi[f] != Integer.MAX_VALUE) {
+                terms.add(new int[]{f, (int) lo[f], (int) hi[f]});
+            }
+        }
+        return terms.toArray(new int[0][]);
+    }
+
+    /**
+     * 只有一个条件的子句如果作用于同一字段，合并重叠或相邻的区间，
+     * 例如 height > 10 or height <= 10 合并后覆盖整个 int 范围，整个谓词恒真
+     */
+    private static List<int[][]> mergeSingleTermClauses(List<int[][]> clauses) {
+        List<int[][]> result = new ArrayList<>();
+        List<int[]> singles = new ArrayList<>();
+        for (int[][] c : clauses) {
+            if (c.length == 1) {
+                singles.add(c[0]);
+            } else {
+                result.add(c);
+            }
+        }
+        singles.sort(Comparator.<int[]>comparingInt(t -> t[0]).thenComparingInt(t -> t[1]));
+        int[] current = null;
+        for (int[] term : singles) {
+            if (current != null && current[0] == term[0] && (long) term[1] <= (long) current[2] + 1) {
+                current[2] = Math.max(current[2], term[2]);
+                continue;
+            }
+            if (current != null) {
+                result.add(new int[][]{current});
+            }
+            current = term.clone();
+        }
+        if (current != null) {
+            result.add(new int[][]{current});
+        }
+        for (int[][] c : result) {
+            if (c.length == 1 && c[0][1] == Integer.MIN_VALUE && c[0][2] == Integer.MAX_VALUE) {
+                return Collections.singletonList(new int[0][]);
+            }
+        }
+        return result;
+    }
+
+    private static <T> double selectivity(Statistics<T> statistics, int[][] clause) {
+        double s = 1;
+        for (int[] term : clause) {
+            s *= statistics.selectivity(term[0], term[1], term[2]);
+        }
+        return s;
+    }
+
+    private static <T> CompiledPredicate<T> build(Schema<T> schema, Expr source, List<int[][]> clauses) {
+        int terms = 0;
+        for (int[][] c : clauses) {
+            terms += c.length;
+        }
+        int[] clauseStart = new int[clauses.size() + 1];
+        int[] field = new int[terms];
+        int[] lo = new int[terms];
+        int[] hi = new int[terms];
+        int k = 0;
+        for (int c = 0; c < clauses.size(); c++) {
+            clauseStart[c] = k;
+            for (int[] term : clauses.get(c)) {
+                field[k] = term[0];
+                lo[k] = term[1];
+                hi[k] = term[2];
+                k++;
+            }
+        }
+        clauseStart[clauses.size()] = k;
+        return new CompiledPredicate<>(schema, clauseStart, field, lo, hi, null, source);
+    }
+}
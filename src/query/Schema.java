@@ -0,0 +1,27 @@
+package query;
+
+/**
+ * 查询模式：把领域对象的字段统一看作 int 列
+ *
+ * 字符串、枚举、boolean 字段都映射成 int（字典编号、ordinal、0/1），
+ * 这样编译后的谓词只需要比较 int 区间，所有字段都通过同一个 value 方法读取，调用点是单态的。
+ * @param <T> 领域对象
+ */
+public interface Schema<T> {
+
+    int fieldCount();
+
+    String fieldName(int field);
+
+    /**
+     * 读取字段的 int 值
+     */
+    int value(T t, int field);
+
+    /**
+     * 排序用的字段比较。字符串字段需要按字符串本身比较，而不是按字典编号
+     */
+    default int compare(T a, T b, int field) {
+        return Integer.compare(value(a, field), value(b, field));
+    }
+}
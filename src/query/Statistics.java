@@ -0,0 +1,65 @@
+package query;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 字段统计：对数据抽样，用排序后的样本估算区间条件的选择率（满足条件的比例）
+ * @param <T>
+ */
+public class Statistics<T> {
+
+    private final int[][] samples;
+
+    private Statistics(int[][] samples) {
+        this.samples = samples;
+    }
+
+    /**
+     * 等间隔抽样
+     * @param data 数据
+     * @param sampleSize 样本数上限
+     */
+    public static <T> Statistics<T> sample(Schema<T> schema, List<T> data, int sampleSize) {
+        int n = Math.min(sampleSize, data.size());
+        int[][] samples = new int[schema.fieldCount()][n];
+        for (int i = 0; i < n; i++) {
+            T t = data.get((int) ((long) i * data.size() / n));
+            for (int f = 0; f < samples.length; f++) {
+                samples[f][i] = schema.value(t, f);
+            }
+        }
+        for (int[] column : samples) {
+            Arrays.sort(column);
+        }
+        return new Statistics<>(samples);
+    }
+
+    /**
+     * 字段值落在 [lo, hi] 的比例。没有样本时返回 0.5
+     */
+    public double selectivity(int field, int lo, int hi) {
+        int[] column = samples[field];
+        if (column.length == 0) {
+            return 0.5;
+        }
+        int from = lowerBound(column, lo);
+        int to = hi == Integer.MAX_VALUE ? column.length : lowerBound(column, hi + 1);
+        //加一平滑，避免样本中没出现过的区间被估成 0
+        return (to - from + 1.0) / (column.length + 2.0);
+    }
+
+    private static int lowerBound(int[] a, int key) {
+        int lo = 0;
+        int hi = a.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (a[mid] < key) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+}
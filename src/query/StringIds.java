@@ -0,0 +1,64 @@
+package query;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 字符串编号表（字段的字典）：读取数据时登记取值，构建查询时只查不登记
+ *
+ * 字典只随数据中不同取值的个数增长，查询里出现的常量（可能来自任意输入）不会被登记。
+ * 常量不在字典中说明数据里还没有出现过这个值，eq 直接为 false（ne 为 true），见 Field.StringField。
+ * 因此谓词按构建时的字典确定：构建之后数据中才第一次出现的值，不会与构建时不在字典中的常量相等。
+ * null 的编号为 -1，它不等于任何常量，也能正确满足 ne 条件。
+ */
+public class StringIds {
+
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+    //编号 -> 字符串，只在登记和 nameOf 时访问
+    private String[] names = new String[16];
+    private int size;
+
+    /**
+     * 登记数据中的取值（已经登记过时只是一次查找）
+     */
+    public int intern(String s) {
+        if (s == null) {
+            return -1;
+        }
+        Integer id = ids.get(s);
+        if (id != null) {
+            return id;
+        }
+        synchronized (this) {
+            id = ids.get(s);
+            if (id == null) {
+                if (size == names.length) {
+                    names = Arrays.copyOf(names, size * 2);
+                }
+                names[size] = s;
+                id = size++;
+                ids.put(s, id);
+            }
+            return id;
+        }
+    }
+
+    /**
+     * 只查不登记，不在字典中返回 -1
+     */
+    public int idOf(String s) {
+        if (s == null) {
+            return -1;
+        }
+        Integer id = ids.get(s);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * 编号对应的字符串，不是已登记的编号时返回 null
+     */
+    public synchronized String nameOf(int id) {
+        return id >= 0 && id < size ? names[id] : null;
+    }
+}
@@ -0,0 +1,127 @@
+package sink;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * 有界的多生产者、单消费者环形队列，无锁
+ *
+ * 每个槽位有一个序号（sequence）：
+ *      生产者：CAS 推进 tail 领取位置 p，等槽位序号 == p 时写入元素，再把序号设为 p + 1 表示“可读”
+ *      消费者：槽位序号 == head + 1 时取出元素，把序号设为 head + 容量 表示“下一圈可写”
+ * 生产者之间只在 tail 上竞争一次 CAS，生产者与消费者之间不竞争。
+ *
+ * 满时 offer 返回 false，put 自旋等待（先 Thread.yield，再短暂 park）。
+ */
+public class MpscRingBuffer<T> {
+
+    private final int mask;
+    private final AtomicReferenceArray<T> slots;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+    //只有消费者线程写
+    private volatile long head;
+
+    /**
+     * @param capacity 容量，向上取整为 2 的幂，至少为 2（容量为 1 时“可读”的序号 p + 1 与“下一圈可写”的 p + 容量相同，无法区分）
+     */
+    public MpscRingBuffer(int capacity) {
+        if (capacity <= 0 || capacity > (1 << 30)) {
+            throw new IllegalArgumentException("capacity out of range: " + capacity);
+        }
+        int size = capacity <= 2 ? 2 : Integer.highestOneBit(capacity - 1) << 1;
+        this.mask = size - 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * 队列满时立即返回 false
+     */
+    public boolean offer(T item) {
+        if (item == null) {
+            throw new NullPointerException("null elements are not supported");
+        }
+        while (true) {
+            long p = tail.get();
+            int slot = (int) p & mask;
+            long sequence = sequences.get(slot);
+            if (sequence == p) {
+                if (tail.compareAndSet(p, p + 1)) {
+                    slots.lazySet(slot, item);
+                    sequences.set(slot, p + 1);
+                    return true;
+                }
+            } else if (sequence < p) {
+                //上一圈的元素还没有被消费
+                return false;
+            }
+            //sequence > p：其他生产者已经领取了这个位置，重读 tail
+        }
+    }
+
+    /**
+     * 队列满时等待消费者腾出空间
+     */
+    public void put(T item) {
+        int spins = 0;
+        while (!offer(item)) {
+            if (++spins < 100) {
+                Thread.yield();
+            } else {
+                LockSupport.parkNanos(10_000);
+            }
+        }
+    }
+
+    /**
+     * 只能由消费者线程调用；队列空时返回 null
+     */
+    public T poll() {
+        long h = head;
+        int slot = (int) h & mask;
+        if (sequences.get(slot) != h + 1) {
+            return null;
+        }
+        T item = slots.get(slot);
+        slots.lazySet(slot, null);
+        sequences.set(slot, h + mask + 1);
+        head = h + 1;
+        return item;
+    }
+
+    /**
+     * 只能由消费者线程调用；最多取出 max 个元素交给 consumer，返回实际个数
+     */
+    public int drain(Consumer<? super T> consumer, int max) {
+        int n = 0;
+        T item;
+        while (n < max && (item = poll()) != null) {
+            consumer.accept(item);
+            n++;
+        }
+        return n;
+    }
+
+    /**
+     * 近似的元素个数
+     */
+    public int size() {
+        long size = tail.get() - head;
+        return (int) Math.max(0, Math.min(size, mask + 1));
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+}
@@ -0,0 +1,176 @@
+package sink;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+import java.util.stream.Collector;
+
+/**
+ * 多线程追加缓冲区：每个线程写自己的分片，写入时没有锁也没有 CAS
+ *
+ *      ShardedBuffer<Dish> buffer = new ShardedBuffer<>();
+ *      menu.parallelStream().filter(...).forEach(buffer);       多个线程同时追加
+ *      List<Dish> result = buffer.drain();                      流结束后一次性拼接，并丢弃各线程的分片
+ *
+ * 分片：第一次追加时为当前线程创建一个分片（ThreadLocal），并登记到无锁队列中；
+ * 分片内部是一组定长数组块，写满一块再分配下一块，不需要扩容复制。
+ *
+ * 可见性：toList / size / forEach 必须在所有生产者结束之后调用。并行流的终止操作返回时，
+ * 所有工作线程的写入对调用线程都是可见的（fork/join 的 join 建立了 happens-before 关系）。
+ *
+ * 元素顺序：同一个线程写入的元素保持顺序，不同线程之间没有顺序。
+ *
+ * 分片挂在写入线程的 ThreadLocalMap 上，缓冲区本身被回收后也要等到该线程的 ThreadLocalMap 清理过期项时才释放；
+ * 并行流的工作线程（ForkJoinPool.commonPool）一直存活，所以用完的缓冲区应调用 drain()，
+ * 它拼接结果后丢弃所有分片，工作线程上留下的只是空的分片对象。toConcurrentList() 的 finisher 就是 drain()。
+ */
+public class ShardedBuffer<T> implements Consumer<T> {
+
+    private static final int CHUNK_SIZE = 1024;
+
+    //drain() 之后换成新的 ThreadLocal，旧的分片不会再被写入
+    private ThreadLocal<Shard> local = ThreadLocal.withInitial(this::newShard);
+    private final Queue<Shard> shards = new ConcurrentLinkedQueue<>();
+
+    private Shard newShard() {
+        Shard shard = new Shard();
+        shards.add(shard);
+        return shard;
+    }
+
+    @Override
+    public void accept(T item) {
+        local.get().add(item);
+    }
+
+    public void add(T item) {
+        local.get().add(item);
+    }
+
+    /**
+     * 并行流的收集器：所有线程共用一个缓冲区（CONCURRENT），不需要合并中间结果
+     */
+    public static <T> Collector<T, ?, List<T>> toConcurrentList() {
+        return Collector.<T, ShardedBuffer<T>, List<T>>of(ShardedBuffer::new, ShardedBuffer::add, (a, b) -> {
+            b.forEach(a::add);
+            return a;
+        }, ShardedBuffer::drain, Collector.Characteristics.CONCURRENT, Collector.Characteristics.UNORDERED);
+    }
+
+    public long size() {
+        long size = 0;
+        for (Shard shard : shards) {
+            size += shard.size();
+        }
+        return size;
+    }
+
+    /**
+     * 拼接所有分片
+     */
+    @SuppressWarnings("unchecked")
+    public List<T> toList() {
+        long size = size();
+        if (size > Integer.MAX_VALUE - 8) {
+            throw new IllegalStateException("too many elements for a list: " + size);
+        }
+        Object[] all = new Object[(int) size];
+        int pos = 0;
+        for (Shard shard : shards) {
+            pos = shard.copyTo(all, pos);
+        }
+        return (List<T>) new ArrayList<>(Arrays.asList(all));
+    }
+
+    /**
+     * 拼接所有分片，然后丢弃它们（包括各个线程 ThreadLocal 中的引用所指向的数组块），缓冲区回到新建时的状态。
+     * 同样只能在没有生产者时调用
+     */
+    public List<T> drain() {
+        List<T> result = toList();
+        for (Shard shard : shards) {
+            shard.release();
+        }
+        shards.clear();
+        local = ThreadLocal.withInitial(this::newShard);
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    public void forEach(Consumer<? super T> action) {
+        for (Shard shard : shards) {
+            for (int c = 0; c <= shard.current; c++) {
+                Object[] chunk = shard.chunks[c];
+                int length = c == shard.current ? shard.position : chunk.length;
+                for (int i = 0; i < length; i++) {
+                    action.accept((T) chunk[i]);
+                }
+            }
+        }
+    }
+
+    /**
+     * 清空所有分片，同样只能在没有生产者时调用
+     */
+    public void clear() {
+        for (Shard shard : shards) {
+            shard.reset();
+        }
+    }
+
+    /**
+     * 只被一个线程写入
+     */
+    private static final class Shard {
+        private Object[][] chunks = {new Object[CHUNK_SIZE]};
+        private int current;
+        private int position;
+
+        void add(Object item) {
+            if (position == CHUNK_SIZE) {
+                current++;
+                if (current == chunks.length) {
+                    chunks = Arrays.copyOf(chunks, chunks.length * 2);
+                }
+                if (chunks[current] == null) {
+                    chunks[current] = new Object[CHUNK_SIZE];
+                }
+                position = 0;
+            }
+            chunks[current][position++] = item;
+        }
+
+        long size() {
+            return (long) current * CHUNK_SIZE + position;
+        }
+
+        int copyTo(Object[] target, int pos) {
+            for (int c = 0; c < current; c++) {
+                System.arraycopy(chunks[c], 0, target, pos, CHUNK_SIZE);
+                pos += CHUNK_SIZE;
+            }
+            System.arraycopy(chunks[current], 0, target, pos, position);
+            return pos + position;
+        }
+
+        /**
+         * 不再使用：只保留一个空的分片对象，不引用任何元素
+         */
+        void release() {
+            chunks = null;
+            current = 0;
+            position = 0;
+        }
+
+        void reset() {
+            for (int c = 0; c <= current; c++) {
+                Arrays.fill(chunks[c], null);
+            }
+            current = 0;
+            position = 0;
+        }
+    }
+}
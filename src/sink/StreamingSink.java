@@ -0,0 +1,104 @@
+package sink;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * 流式消费：并行流的多个线程把元素放进 MpscRingBuffer，一个后台线程按到达顺序交给 consumer
+ *
+ *      try (StreamingSink<Transaction> sink = StreamingSink.start("audit", 4096, writer::write)) {
+ *          transactions.parallelStream().filter(...).forEach(sink);
+ *      }                                                   close() 等待队列中剩余元素处理完
+ *
+ * consumer 只在后台线程中调用，不需要线程安全（例如写文件、更新一个普通的 HashMap）。
+ * consumer 抛出的异常（包括 Error，例如 OutOfMemoryError）会结束后台线程，并在 close() 时重新抛出；
+ * 此后生产者在队列满时不再等待，直接抛出 IllegalStateException。
+ * 队列满时生产者的等待与 MpscRingBuffer.put 相同：先 Thread.yield，自旋一段时间后改为短暂 park。
+ */
+public class StreamingSink<T> implements Consumer<T>, AutoCloseable {
+
+    private static final int DRAIN_BATCH = 256;
+
+    private final MpscRingBuffer<T> queue;
+    private final Consumer<? super T> consumer;
+    private final Thread worker;
+    private volatile boolean closed;
+    private volatile Throwable failure;
+
+    private StreamingSink(String name, int capacity, Consumer<? super T> consumer) {
+        this.queue = new MpscRingBuffer<>(capacity);
+        this.consumer = consumer;
+        this.worker = new Thread(this::run, name + "-sink");
+        this.worker.setDaemon(true);//使用守护线程——这种方式不会阻止程序的关停
+    }
+
+    public static <T> StreamingSink<T> start(String name, int capacity, Consumer<? super T> consumer) {
+        StreamingSink<T> sink = new StreamingSink<>(name, capacity, consumer);
+        sink.worker.start();
+        return sink;
+    }
+
+    private void run() {
+        try {
+            while (true) {
+                int n = queue.drain(consumer, DRAIN_BATCH);
+                if (n == 0) {
+                    if (closed && queue.isEmpty()) {
+                        return;
+                    }
+                    LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(50));
+                }
+            }
+        } catch (Throwable e) {
+            failure = e;
+        }
+    }
+
+    /**
+     * 生产者调用；队列满时等待，后台线程已经失败时抛出异常
+     */
+    @Override
+    public void accept(T item) {
+        if (closed) {
+            throw new IllegalStateException("sink is closed");
+        }
+        int spins = 0;
+        while (!queue.offer(item)) {
+            Throwable e = failure;
+            if (e != null) {
+                throw new IllegalStateException("sink consumer failed", e);
+            }
+            if (++spins < 100) {
+                Thread.yield();
+            } else {
+                LockSupport.parkNanos(10_000);
+            }
+        }
+    }
+
+    /**
+     * 不再接受新元素，等待剩余元素处理完
+     */
+    @Override
+    public void close() {
+        closed = true;
+        LockSupport.unpark(worker);
+        try {
+            worker.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while draining sink", e);
+        }
+        Throwable e = failure;
+        if (e instanceof RuntimeException) {
+            throw (RuntimeException) e;
+        }
+        if (e instanceof Error) {
+            throw (Error) e;
+        }
+        if (e != null) {
+            throw new IllegalStateException("sink consumer failed", e);
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package sort;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * (键, 下标) 数组的稳定排序内核
+ *
+ * 顺序：LSD 基数排序，每趟 8 位，int 键 4 趟、long 键 8 趟。基数排序天然稳定，下标相同键保持原顺序。
+ * 并行：分块后每块基数排序，再两两稳定归并。
+ *
+ * 有符号数的处理：最高位取反后按无符号排序，结果与有符号比较一致。
+ */
+class KeySort {
+
+    //小于该长度时不值得做基数排序的计数开销
+    private static final int RADIX_THRESHOLD = 256;
+    private static final int PARALLEL_CHUNK = 1 << 16;
+
+    private KeySort() {
+    }
+
+    /**
+     * 按 keys 稳定排序 idx；keys 与 idx 同步移动
+     */
+    static void sort(int[] keys, int[] idx) {
+        if (keys.length < RADIX_THRESHOLD) {
+            insertion(keys, idx, 0, keys.length);
+            return;
+        }
+        int[] k2 = new int[keys.length];
+        int[] i2 = new int[keys.length];
+        int[] srcK = keys;
+        int[] srcI = idx;
+        int[] dstK = k2;
+        int[] dstI = i2;
+        int[] count = new int[257];
+        for (int shift = 0; shift < 32; shift += 8) {
+            Arrays.fill(count, 0);
+            for (int k : srcK) {
+                count[(((k ^ Integer.MIN_VALUE) >>> shift) & 0xFF) + 1]++;
+            }
+            //所有键在这 8 位上相同时跳过这一趟
+            if (count[(((srcK[0] ^ Integer.MIN_VALUE) >>> shift) & 0xFF) + 1] == srcK.length) {
+                continue;
+            }
+            for (int b = 0; b < 256; b++) {
+                count[b + 1] += count[b];
+            }
+            for (int i = 0; i < srcK.length; i++) {
+                int pos = count[((srcK[i] ^ Integer.MIN_VALUE) >>> shift) & 0xFF]++;
+                dstK[pos] = srcK[i];
+                dstI[pos] = srcI[i];
+            }
+            int[] t = srcK;
+            srcK = dstK;
+            dstK = t;
+            t = srcI;
+            srcI = dstI;
+            dstI = t;
+        }
+        if (srcK != keys) {
+            System.arraycopy(srcK, 0, keys, 0, keys.length);
+            System.arraycopy(srcI, 0, idx, 0, idx.length);
+        }
+    }
+
+    static void sort(long[] keys, int[] idx, int from, int to) {
+        int n = to - from;
+        if (n < RADIX_THRESHOLD) {
+            insertion(keys, idx, from, to);
+            return;
+        }
+        long[] srcK = Arrays.copyOfRange(keys, from, to);
+        int[] srcI = Arrays.copyOfRange(idx, from, to);
+        long[] dstK = new long[n];
+        int[] dstI = new int[n];
+        int[] count = new int[257];
+        for (int shift = 0; shift < 64; shift += 8) {
+            Arrays.fill(count, 0);
+            for (long k : srcK) {
+                count[(int) (((k ^ Long.MIN_VALUE) >>> shift) & 0xFF) + 1]++;
+            }
+            if (count[(int) (((srcK[0] ^ Long.MIN_VALUE) >>> shift) & 0xFF) + 1] == n) {
+                continue;
+            }
+            for (int b = 0; b < 256; b++) {
+                count[b + 1] += count[b];
+            }
+            for (int i = 0; i < n; i++) {
+                int pos = count[(int) (((srcK[i] ^ Long.MIN_VALUE) >>> shift) & 0xFF)]++;
+                dstK[pos] = srcK[i];
+                dstI[pos] = srcI[i];
+            }
+            long[] tk = srcK;
+            srcK = dstK;
+            dstK = tk;
+            int[] ti = srcI;
+            srcI = dstI;
+            dstI = ti;
+        }
+        System.arraycopy(srcK, 0, keys, from, n);
+        System.arraycopy(srcI, 0, idx, from, n);
+    }
+
+    /**
+     * 并行稳定排序：分块基数排序，然后逐层两两归并（左块在前，保证稳定）
+     */
+    static void parallelSort(long[] keys, int[] idx, ForkJoinPool pool) {
+        int chunk = Math.max(PARALLEL_CHUNK, (keys.length + pool.getParallelism() * 4 - 1) / Math.max(1, pool.getParallelism() * 4));
+        pool.invoke(new SortTask(keys, idx, new long[keys.length], new int[keys.length], 0, keys.length, chunk));
+    }
+
+    private static class SortTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final long[] keys;
+        private final int[] idx;
+        private final long[] tmpK;
+        private final int[] tmpI;
+        private final int from;
+        private final int to;
+        private final int chunk;
+
+        SortTask(long[] keys, int[] idx, long[] tmpK, int[] tmpI, int from, int to, int chunk) {
+            this.keys = keys;
+            this.idx = idx;
+            this.tmpK = tmpK;
+            this.tmpI = tmpI;
+            this.from = from;
+            this.to = to;
+            this.chunk = chunk;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= chunk) {
+                sort(keys, idx, from, to);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new SortTask(keys, idx, tmpK, tmpI, from, mid, chunk),
+                    new SortTask(keys, idx, tmpK, tmpI, mid, to, chunk));
+            merge(mid);
+        }
+
+        private void merge(int mid) {
+            if (keys[mid - 1] <= keys[mid]) {
+                return;
+            }
+            System.arraycopy(keys, from, tmpK, from, to - from);
+            System.arraycopy(idx, from, tmpI, from, to - from);
+            int i = from;
+            int j = mid;
+            int k = from;
+            while (i < mid && j < to) {
+                //相等时取左边，保证稳定
+                if (tmpK[j] < tmpK[i]) {
+                    keys[k] = tmpK[j];
+                    idx[k++] = tmpI[j++];
+                } else {
+                    keys[k] = tmpK[i];
+                    idx[k++] = tmpI[i++];
+                }
+            }
+            while (i < mid) {
+                keys[k] = tmpK[i];
+                idx[k++] = tmpI[i++];
+            }
+            while (j < to) {
+                keys[k] = tmpK[j];
+                idx[k++] = tmpI[j++];
+            }
+        }
+    }
+
+    private static void insertion(int[] keys, int[] idx, int from, int to) {
+        for (int i = from + 1; i < to; i++) {
+            int k = keys[i];
+            int x = idx[i];
+            int j = i - 1;
+            while (j >= from && keys[j] > k) {
+                keys[j + 1] = keys[j];
+                idx[j + 1] = idx[j];
+                j--;
+            }
+            keys[j + 1] = k;
+            idx[j + 1] = x;
+        }
+    }
+
+    private static void insertion(long[] keys, int[] idx, int from, int to) {
+        for (int i = from + 1; i < to; i++) {
+            long k = keys[i];
+            int x = idx[i];
+            int j = i - 1;
+            while (j >= from && keys[j] > k) {
+                keys[j + 1] = keys[j];
+                idx[j + 1] = idx[j];
+                j--;
+            }
+            keys[j + 1] = k;
+            idx[j + 1] = x;
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package sort;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+import java.util.stream.IntStream;
+
+/**
+ * 基本类型键排序
+ *
+ *      appleList.sort(Comparator.comparing(Apple::getHeight).thenComparing(Apple::getColor));
+ * 每次比较都要调用两次 getHeight 并装箱成 Integer，n log n 次比较就是 n log n 次装箱。
+ *
+ *      PrimitiveSort.sortByInt(appleList, Apple::getHeight, Comparator.comparing(Apple::getColor));
+ * 每个元素只取一次键放进 int[]，按键对下标做基数排序，主键相同的元素再用次级比较器排序。
+ *
+ * 所有方法都是稳定排序，结果与对应的 Comparator 链完全一致。
+ */
+public class PrimitiveSort {
+
+    //小于该元素个数时并行版本退化为顺序版本
+    private static final int PARALLEL_THRESHOLD = 1 << 15;
+
+    private PrimitiveSort() {
+    }
+
+    public static <T> void sortByInt(List<T> list, ToIntFunction<? super T> key) {
+        sortByInt(list, key, false, null);
+    }
+
+    public static <T> void sortByInt(List<T> list, ToIntFunction<? super T> key, Comparator<? super T> thenComparing) {
+        sortByInt(list, key, false, thenComparing);
+    }
+
+    /**
+     * @param list 待排序列表，原地修改
+     * @param key 主键
+     * @param descending 主键是否降序（相当于 Comparator.comparing(key).reversed() 只作用于主键）
+     * @param thenComparing 主键相同时的次级比较器，可以为 null
+     */
+    public static <T> void sortByInt(List<T> list, ToIntFunction<? super T> key, boolean descending, Comparator<? super T> thenComparing) {
+        Object[] items = list.toArray();
+        int[] keys = new int[items.length];
+        int[] idx = new int[items.length];
+        for (int i = 0; i < items.length; i++) {
+            @SuppressWarnings("unchecked")
+            T t = (T) items[i];
+            int k = key.applyAsInt(t);
+            //按位取反可以反转顺序且不会溢出
+            keys[i] = descending ? ~k : k;
+            idx[i] = i;
+        }
+        KeySort.sort(keys, idx);
+        writeBack(list, items, idx, runs(keys), thenComparing, false);
+    }
+
+    public static <T> void sortByLong(List<T> list, ToLongFunction<? super T> key, boolean descending, Comparator<? super T> thenComparing) {
+        Object[] items = list.toArray();
+        long[] keys = longKeys(items, key, descending);
+        int[] idx = identity(items.length);
+        KeySort.sort(keys, idx, 0, keys.length);
+        writeBack(list, items, idx, runs(keys), thenComparing, false);
+    }
+
+    public static <T> void parallelSortByInt(List<T> list, ToIntFunction<? super T> key, boolean descending, Comparator<? super T> thenComparing) {
+        parallelSortByLong(list, t -> key.applyAsInt(t), descending, thenComparing);
+    }
+
+    /**
+     * 并行版本：分块排序后归并，主键相同的区间并行排序
+     */
+    public static <T> void parallelSortByLong(List<T> list, ToLongFunction<? super T> key, boolean descending, Comparator<? super T> thenComparing) {
+        if (list.size() < PARALLEL_THRESHOLD) {
+            sortByLong(list, key, descending, thenComparing);
+            return;
+        }
+        Object[] items = list.toArray();
+        long[] keys = longKeys(items, key, descending);
+        int[] idx = identity(items.length);
+        KeySort.parallelSort(keys, idx, ForkJoinPool.commonPool());
+        writeBack(list, items, idx, runs(keys), thenComparing, true);
+    }
+
+    /**
+     * 返回排序后的新列表，原集合不变。用于替代 stream().sorted(Comparator.comparing(Transaction::getValue))
+     */
+    public static <T> List<T> sortedByInt(Collection<T> items, ToIntFunction<? super T> key) {
+        List<T> copy = new ArrayList<>(items);
+        sortByInt(copy, key);
+        return copy;
+    }
+
+    /**
+     * 只排序下标：返回按 keys 升序（稳定）排列的下标，keys 本身不变
+     *
+     *      int[] order = PrimitiveSort.sortIndices(keys, false);
+     *      keys[order[0]] <= keys[order[1]] <= ...
+     */
+    public static int[] sortIndices(int[] keys, boolean parallel) {
+        int[] idx = identity(keys.length);
+        if (parallel && keys.length >= PARALLEL_THRESHOLD) {
+            long[] wide = new long[keys.length];
+            for (int i = 0; i < keys.length; i++) {
+                wide[i] = keys[i];
+            }
+            KeySort.parallelSort(wide, idx, ForkJoinPool.commonPool());
+        } else {
+            KeySort.sort(keys.clone(), idx);
+        }
+        return idx;
+    }
+
+    private static <T> long[] longKeys(Object[] items, ToLongFunction<? super T> key, boolean descending) {
+        long[] keys = new long[items.length];
+        for (int i = 0; i < items.length; i++) {
+            @SuppressWarnings("unchecked")
+            T t = (T) items[i];
+            long k = key.applyAsLong(t);
+            keys[i] = descending ? ~k : k;
+        }
+        return keys;
+    }
+
+    private static int[] identity(int n) {
+        int[] idx = new int[n];
+        for (int i = 0; i < n; i++) {
+            idx[i] = i;
+        }
+        return idx;
+    }
+
+    private static int[] runs(int[] keys) {
+        return runs(keys.length, (i, j) -> keys[i] == keys[j]);
+    }
+
+    private static int[] runs(long[] keys) {
+        return runs(keys.length, (i, j) -> keys[i] == keys[j]);
+    }
+
+    /**
+     * 下标 i、j 处的键是否相等
+     */
+    @FunctionalInterface
+    private interface SameKey {
+        boolean test(int i, int j);
+    }
+
+    /**
+     * 已排序键中长度大于 1 的相等区间，依次为 [from, to) 对
+     */
+    private static int[] runs(int length, SameKey same) {
+        int[] runs = new int[8];
+        int n = 0;
+        for (int i = 0; i < length; ) {
+            int j = i + 1;
+            while (j < length && same.test(j, i)) {
+                j++;
+            }
+            if (j - i > 1) {
+                if (n + 2 > runs.length) {
+                    runs = Arrays.copyOf(runs, runs.length * 2);
+                }
+                runs[n++] = i;
+                runs[n++] = j;
+            }
+            i = j;
+        }
+        return Arrays.copyOf(runs, n);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> void writeBack(List<T> list, Object[] items, int[] idx, int[] runs, Comparator<? super T> thenComparing, boolean parallel) {
+        Object[] sorted = new Object[items.length];
+        for (int i = 0; i < idx.length; i++) {
+            sorted[i] = items[idx[i]];
+        }
+        if (thenComparing != null && runs.length > 0) {
+            Comparator<Object> c = (Comparator<Object>) thenComparing;
+            //Arrays.sort(Object[]) 是稳定的 TimSort
+            IntStream r = IntStream.range(0, runs.length / 2);
+            (parallel ? r.parallel() : r).forEach(i -> Arrays.sort(sorted, runs[2 * i], runs[2 * i + 1], c));
+        }
+        ListIterator<T> it = list.listIterator();
+        for (Object o : sorted) {
+            it.next();
+            it.set((T) o);
+        }
+    }
+}
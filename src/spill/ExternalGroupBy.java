@@ -0,0 +1,196 @@
+package spill;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collector;
+
+/**
+ * 可溢写的 groupingBy：原始记录超出内存预算时按分组键的哈希值分区写到临时文件
+ *
+ *      1.accumulator 把记录放入内存缓冲区，超过预算时按 hash(key) 分成 PARTITIONS 个分区追加写出
+ *      2.finisher 逐个分区读回，每条记录直接交给 downstream 的 accumulator（Map<K, A>），不把分区整个读进内存；
+ *        一个分区读完后对其中的每个键调用 downstream 的 finisher，再读下一个分区
+ *      3.同一个键的记录一定在同一个分区，各分区的结果直接放进同一个 Map
+ *
+ * 任意时刻内存中只有 downstream 的中间结果：已完成分区的最终结果，加上当前分区各个键的累加容器
+ * （分组数通常远小于记录数，例如 年份 * 交易员）。单个键的记录再多，也只是流过它的累加容器，
+ * 除非 downstream 本身要保存所有元素（例如 toList）。
+ * 分区写缓冲区也计入预算：最多同时有 PARTITIONS 个 Writer，一共占预算的 1/4（每个至少 MIN_WRITE_BUFFER），
+ * 其余留给内存中的记录，所以预算不能小于 MIN_BUDGET。
+ * 同一分组内元素的顺序与输入顺序相同。没有超出预算时不产生任何文件，等价于 Collectors.groupingBy。
+ *
+ *      Map<Integer, Map<Trader, Integer>> byYear = transactions.stream().collect(
+ *              ExternalGroupBy.groupingBy(Transaction::getYear,
+ *                      Collectors.groupingBy(Transaction::getTrader, Collectors.summingInt(Transaction::getValue)),
+ *                      new TransactionCodec(), 256 << 20));
+ */
+public class ExternalGroupBy {
+
+    static final int PARTITIONS = 16;
+    static final int MIN_WRITE_BUFFER = 4 * 1024;
+    //写缓冲区最少占 PARTITIONS * MIN_WRITE_BUFFER，至少再留同样多给内存中的记录
+    static final long MIN_BUDGET = 2L * PARTITIONS * MIN_WRITE_BUFFER;
+
+    private ExternalGroupBy() {
+    }
+
+    public static <T, K, A, D> Collector<T, ?, Map<K, D>> groupingBy(Function<? super T, ? extends K> classifier,
+                                                                     Collector<? super T, A, D> downstream,
+                                                                     RecordCodec<T> codec, long memoryBudget) {
+        return groupingBy(classifier, downstream, codec, memoryBudget, null);
+    }
+
+    public static <T, K, A, D> Collector<T, ?, Map<K, D>> groupingBy(Function<? super T, ? extends K> classifier,
+                                                                     Collector<? super T, A, D> downstream,
+                                                                     RecordCodec<T> codec, long memoryBudget, Path tempDir) {
+        if (memoryBudget < MIN_BUDGET) {
+            throw new IllegalArgumentException("memoryBudget must be at least " + MIN_BUDGET + " bytes: " + memoryBudget);
+        }
+        int writeBuffer = writeBuffer(memoryBudget);
+        long recordBudget = memoryBudget - (long) writeBuffer * PARTITIONS;
+        int maxInMemory = (int) Math.max(1, Math.min(Integer.MAX_VALUE - 8, recordBudget / codec.heapBytes()));
+        return Collector.of(
+                () -> new Grouper<T, K, A, D>(classifier, downstream, codec, maxInMemory, writeBuffer, tempDir),
+                Grouper::add,
+                Grouper::merge,
+                Grouper::finish);
+    }
+
+    /**
+     * 每个分区 Writer 的缓冲区大小：所有 Writer 合计占预算的 1/4
+     */
+    static int writeBuffer(long memoryBudget) {
+        long share = memoryBudget / 4 / PARTITIONS;
+        return (int) Math.max(MIN_WRITE_BUFFER, Math.min(SpillFile.WRITE_BUFFER, share));
+    }
+
+    private static class Grouper<T, K, A, D> {
+        private final Function<? super T, ? extends K> classifier;
+        private final Supplier<A> supplier;
+        private final BiConsumer<A, ? super T> accumulator;
+        private final Function<A, D> finisher;
+        private final RecordCodec<T> codec;
+        private final int maxInMemory;
+        private final int writeBuffer;
+        private final Path tempDir;
+        private List<T> buffer = new ArrayList<>();
+        //每个分区已经写完的文件（按写出顺序）和正在追加的文件
+        private final List<List<SpillFile>> files = new ArrayList<>();
+        private final List<SpillFile.Writer<T>> writers = new ArrayList<>();
+        private boolean spilled;
+
+        Grouper(Function<? super T, ? extends K> classifier, Collector<? super T, A, D> downstream,
+                RecordCodec<T> codec, int maxInMemory, int writeBuffer, Path tempDir) {
+            this.classifier = classifier;
+            this.supplier = downstream.supplier();
+            this.accumulator = downstream.accumulator();
+            this.finisher = downstream.finisher();
+            this.codec = codec;
+            this.maxInMemory = maxInMemory;
+            this.writeBuffer = writeBuffer;
+            this.tempDir = tempDir;
+            for (int p = 0; p < PARTITIONS; p++) {
+                files.add(new ArrayList<>());
+                writers.add(null);
+            }
+        }
+
+        void add(T item) {
+            buffer.add(item);
+            if (buffer.size() >= maxInMemory) {
+                spill();
+            }
+        }
+
+        private void spill() {
+            spilled = true;
+            for (T item : buffer) {
+                int p = partition(key(item));
+                SpillFile.Writer<T> writer = writers.get(p);
+                if (writer == null) {
+                    writer = SpillFile.Writer.create(tempDir, codec, writeBuffer);
+                    writers.set(p, writer);
+                }
+                writer.write(item);
+            }
+            buffer = new ArrayList<>();
+        }
+
+        private void closeWriters() {
+            for (int p = 0; p < PARTITIONS; p++) {
+                SpillFile.Writer<T> writer = writers.get(p);
+                if (writer != null) {
+                    files.get(p).add(writer.close());
+                    writers.set(p, null);
+                }
+            }
+        }
+
+        /**
+         * other 的元素排在后面：自己的缓冲区先写出，再接上 other 的文件和缓冲区
+         */
+        Grouper<T, K, A, D> merge(Grouper<T, K, A, D> other) {
+            if (other.spilled) {
+                spill();
+                closeWriters();
+                other.closeWriters();
+                for (int p = 0; p < PARTITIONS; p++) {
+                    files.get(p).addAll(other.files.get(p));
+                }
+            }
+            for (T item : other.buffer) {
+                add(item);
+            }
+            return this;
+        }
+
+        Map<K, D> finish() {
+            Map<K, D> result = new HashMap<>();
+            if (!spilled) {
+                Map<K, A> groups = new HashMap<>();
+                for (T item : buffer) {
+                    accumulate(groups, item);
+                }
+                complete(groups, result);
+                return result;
+            }
+            spill();
+            closeWriters();
+            for (List<SpillFile> partition : files) {
+                Map<K, A> groups = new HashMap<>();
+                for (SpillFile file : partition) {
+                    SpillFile.Reader<T> reader = file.open(codec);
+                    while (reader.hasNext()) {
+                        accumulate(groups, reader.next());
+                    }
+                }
+                complete(groups, result);
+            }
+            return result;
+        }
+
+        private K key(T item) {
+            return Objects.requireNonNull(classifier.apply(item), "element cannot be mapped to a null key");
+        }
+
+        private void accumulate(Map<K, A> groups, T item) {
+            accumulator.accept(groups.computeIfAbsent(key(item), k -> supplier.get()), item);
+        }
+
+        private void complete(Map<K, A> groups, Map<K, D> result) {
+            groups.forEach((key, container) -> result.put(key, finisher.apply(container)));
+        }
+
+        private static int partition(Object key) {
+            int h = key.hashCode() * 0x9E3779B9;
+            return (h ^ (h >>> 16)) & (PARTITIONS - 1);
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package spill;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Collector;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * 外部排序：超出内存预算的数据分批排序后溢写到临时文件（有序段），最后多路归并
+ *
+ *      1.add 把元素放入内存缓冲区，元素个数 * codec.heapBytes() 超过预算时，稳定排序缓冲区并整块写成一个有序段
+ *      2.sorted() 把最后一批留在内存中排序，与所有有序段一起用优先队列做 k 路归并（有序段超过 64 个时先分组归并）
+ *      3.键相等时按有序段的先后顺序输出，整个排序是稳定的，结果与 stream.sorted(comparator) 相同
+ *
+ * 数据全部放得下时不产生任何文件。sorted() 返回的流读完或 close() 后删除临时文件。
+ *
+ *      try (Stream<Transaction> s = ExternalSorter.sort(transactions.stream(), new TransactionCodec(),
+ *              Comparator.comparing(Transaction::getValue), 64 << 20)) { ... }
+ */
+public class ExternalSorter<T> {
+
+    //一次归并最多同时打开的有序段个数
+    static final int MAX_FAN_IN = 64;
+
+    private final RecordCodec<T> codec;
+    private final Comparator<? super T> comparator;
+    private final int maxInMemory;
+    private final Path tempDir;
+    private List<T> buffer = new ArrayList<>();
+    private final List<SpillFile> runs = new ArrayList<>();
+
+    /**
+     * @param memoryBudget 内存缓冲区允许占用的字节数
+     * @param tempDir      临时文件目录，null 表示系统默认目录
+     */
+    public ExternalSorter(RecordCodec<T> codec, Comparator<? super T> comparator, long memoryBudget, Path tempDir) {
+        if (memoryBudget <= 0) {
+            throw new IllegalArgumentException("memoryBudget must be positive: " + memoryBudget);
+        }
+        this.codec = codec;
+        this.comparator = comparator;
+        this.maxInMemory = (int) Math.max(1, Math.min(Integer.MAX_VALUE - 8, memoryBudget / codec.heapBytes()));
+        this.tempDir = tempDir;
+    }
+
+    /**
+     * 外部排序操作符
+     */
+    public static <T> Stream<T> sort(Stream<T> stream, RecordCodec<T> codec, Comparator<? super T> comparator, long memoryBudget) {
+        ExternalSorter<T> sorter = new ExternalSorter<>(codec, comparator, memoryBudget, null);
+        stream.sequential().forEach(sorter::add);
+        return sorter.sorted();
+    }
+
+    /**
+     * 收集器形式：stream.collect(ExternalSorter.toSorted(...)) 得到有序流
+     *
+     * 并行收集时每个分块各自溢写，合并时只是把有序段合在一起（内存缓冲区按顺序拼接，不超预算不溢写）。
+     */
+    public static <T> Collector<T, ?, Stream<T>> toSorted(RecordCodec<T> codec, Comparator<? super T> comparator, long memoryBudget) {
+        return Collector.of(
+                () -> new ExternalSorter<T>(codec, comparator, memoryBudget, null),
+                ExternalSorter::add,
+                ExternalSorter::merge,
+                ExternalSorter::sorted);
+    }
+
+    public void add(T item) {
+        buffer.add(item);
+        if (buffer.size() >= maxInMemory) {
+            spill();
+        }
+    }
+
+    private void spill() {
+        buffer.sort(comparator);
+        runs.add(SpillFile.write(tempDir, codec, buffer));
+        buffer = new ArrayList<>();
+    }
+
+    /**
+     * 合并另一个排序器（other 的元素排在后面，保证稳定）
+     */
+    ExternalSorter<T> merge(ExternalSorter<T> other) {
+        //有序段的先后顺序决定了相等元素的先后：先写出自己的缓冲区，再接上 other 的有序段
+        if (!other.runs.isEmpty() && !buffer.isEmpty()) {
+            spill();
+        }
+        runs.addAll(other.runs);
+        for (T item : other.buffer) {
+            add(item);
+        }
+        return this;
+    }
+
+    /**
+     * 溢写过的有序段个数
+     */
+    public int runCount() {
+        return runs.size();
+    }
+
+    /**
+     * 排序结果，只能调用一次
+     */
+    public Stream<T> sorted() {
+        buffer.sort(comparator);
+        if (runs.isEmpty()) {
+            return buffer.stream();
+        }
+        //有序段太多时先分组归并成较少的有序段，避免同时打开过多文件；相邻的段合并，保持稳定
+        while (runs.size() + 1 > MAX_FAN_IN) {
+            List<SpillFile> merged = new ArrayList<>();
+            for (int from = 0; from < runs.size(); from += MAX_FAN_IN) {
+                List<SpillFile> group = runs.subList(from, Math.min(runs.size(), from + MAX_FAN_IN));
+                if (group.size() == 1) {
+                    merged.add(group.get(0));
+                    continue;
+                }
+                MergeIterator<T> merge = new MergeIterator<>(comparator);
+                for (SpillFile run : group) {
+                    merge.add(run.open(codec));
+                }
+                SpillFile.Writer<T> writer = SpillFile.Writer.create(tempDir, codec);
+                while (merge.hasNext()) {
+                    writer.write(merge.next());
+                }
+                merged.add(writer.close());
+            }
+            runs.clear();
+            runs.addAll(merged);
+        }
+        MergeIterator<T> merge = new MergeIterator<>(comparator);
+        for (SpillFile run : runs) {
+            merge.add(run.open(codec));
+        }
+        merge.add(buffer.iterator());
+        runs.clear();
+        buffer = new ArrayList<>();
+        Spliterator<T> spliterator = Spliterators.spliteratorUnknownSize(merge, Spliterator.ORDERED | Spliterator.NONNULL);
+        return StreamSupport.stream(spliterator, false).onClose(merge::close);
+    }
+
+    /**
+     * k 路归并：优先队列中每个有序段只放当前的第一个元素，相等时按有序段的编号排序
+     */
+    static class MergeIterator<T> implements Iterator<T> {
+        private final Comparator<? super T> comparator;
+        private final PriorityQueue<Head<T>> heads;
+        private final List<Iterator<T>> sources = new ArrayList<>();
+
+        MergeIterator(Comparator<? super T> comparator) {
+            this.comparator = comparator;
+            this.heads = new PriorityQueue<>((a, b) -> {
+                int c = this.comparator.compare(a.item, b.item);
+                return c != 0 ? c : Integer.compare(a.source, b.source);
+            });
+        }
+
+        void add(Iterator<T> source) {
+            sources.add(source);
+            if (source.hasNext()) {
+                heads.add(new Head<>(source.next(), sources.size() - 1));
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !heads.isEmpty();
+        }
+
+        @Override
+        public T next() {
+            Head<T> head = heads.poll();
+            if (head == null) {
+                throw new NoSuchElementException();
+            }
+            T item = head.item;
+            Iterator<T> source = sources.get(head.source);
+            if (source.hasNext()) {
+                head.item = source.next();
+                heads.add(head);
+            }
+            return item;
+        }
+
+        void close() {
+            for (Iterator<T> source : sources) {
+                if (source instanceof SpillFile.Reader) {
+                    ((SpillFile.Reader<T>) source).close();
+                }
+            }
+        }
+    }
+
+    private static class Head<T> {
+        private T item;
+        private final int source;
+
+        Head(T item, int source) {
+            this.item = item;
+            this.source = source;
+        }
+    }
+}
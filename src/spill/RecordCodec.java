@@ -0,0 +1,25 @@
+package spill;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 定长二进制记录的编解码（溢写文件就是这些记录首尾相接，没有额外的头部）
+ */
+public interface RecordCodec<T> {
+
+    /**
+     * 每条记录的字节数
+     */
+    int recordSize();
+
+    void encode(T item, ByteBuffer out);
+
+    T decode(ByteBuffer in);
+
+    /**
+     * 一个对象在堆上大约占用的字节数，用来换算内存预算
+     */
+    default int heapBytes() {
+        return 64;
+    }
+}
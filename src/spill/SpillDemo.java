@@ -0,0 +1,46 @@
+package spill;
+
+import domain.Trader;
+import domain.TraderRegistry;
+import domain.Transaction;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * 内存预算很小时的排序和分组：数据超出预算的部分写到临时文件
+ */
+public class SpillDemo {
+
+    public static void main(String[] args) {
+        TraderRegistry registry = TraderRegistry.getDefault();
+        String[] names = {"Brian", "Raoul", "Mario", "Alan"};
+        String[] cities = {"Cambridge", "Cambridge", "Milan", "Cambridge"};
+        Random random = new Random(42);
+        List<Transaction> history = new ArrayList<>();
+        for (int i = 0; i < 1_000_000; i++) {
+            int t = random.nextInt(names.length);
+            history.add(new Transaction(registry.intern(names[t], cities[t]), 2000 + random.nextInt(20), random.nextInt(1000)));
+        }
+        //预算 4MB：分组时 1MB 给分区写缓冲区，其余约 8 万条交易；排序时约 10 万条
+        long budget = 4 << 20;
+
+        //1.按年份、交易员汇总交易额
+        Map<Integer, Map<Trader, Integer>> byYear = history.stream().collect(
+                ExternalGroupBy.groupingBy(Transaction::getYear,
+                        Collectors.groupingBy(Transaction::getTrader, Collectors.summingInt(Transaction::getValue)),
+                        new TransactionCodec(), budget));
+        System.out.println("2011年 : " + byYear.get(2011));
+
+        //2.按金额降序排序，取前 3 笔；流需要关闭以删除临时文件
+        try (Stream<Transaction> sorted = ExternalSorter.sort(history.stream(), new TransactionCodec(),
+                Comparator.comparing(Transaction::getValue).reversed(), budget)) {
+            System.out.println("金额最大的交易 : " + sorted.limit(3).collect(Collectors.toList()));
+        }
+    }
+}
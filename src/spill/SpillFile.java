@@ -0,0 +1,204 @@
+package spill;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * 溢写文件：定长记录首尾相接
+ *
+ * 写：编码到一个缓冲区（默认 1MB，可以按内存预算调小），满了整块写出。
+ * 读：Reader 每次读入 64KB，逐条解码，读完后删除文件。
+ */
+class SpillFile {
+
+    static final int WRITE_BUFFER = 1 << 20;
+    static final int READ_BUFFER = 64 * 1024;
+
+    private final Path path;
+    private final long count;
+
+    private SpillFile(Path path, long count) {
+        this.path = path;
+        this.count = count;
+    }
+
+    static <T> SpillFile write(Path dir, RecordCodec<T> codec, Iterable<? extends T> items) {
+        return Writer.create(dir, codec).writeAll(items).close();
+    }
+
+    long count() {
+        return count;
+    }
+
+    <T> Reader<T> open(RecordCodec<T> codec) {
+        return new Reader<>(this, codec);
+    }
+
+    void delete() {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 可以分多次追加（用于哈希分区：每个分区一个 Writer，多次溢写都追加到同一个文件）
+     */
+    static class Writer<T> {
+        private final Path path;
+        private final RecordCodec<T> codec;
+        private final FileChannel channel;
+        private final ByteBuffer buffer;
+        private long count;
+
+        Writer(Path path, RecordCodec<T> codec, int bufferBytes) throws IOException {
+            this.path = path;
+            this.codec = codec;
+            this.channel = FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            this.buffer = ByteBuffer.allocate(Math.max(codec.recordSize(), bufferBytes / codec.recordSize() * codec.recordSize()));
+        }
+
+        static <T> Writer<T> create(Path dir, RecordCodec<T> codec) {
+            return create(dir, codec, WRITE_BUFFER);
+        }
+
+        /**
+         * @param bufferBytes 写缓冲区大小，会向下取整到记录长度的倍数（至少一条记录）
+         */
+        static <T> Writer<T> create(Path dir, RecordCodec<T> codec, int bufferBytes) {
+            try {
+                return new Writer<>(dir == null ? Files.createTempFile("spill", ".bin") : Files.createTempFile(dir, "spill", ".bin"), codec, bufferBytes);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        Writer<T> writeAll(Iterable<? extends T> items) {
+            for (T item : items) {
+                write(item);
+            }
+            return this;
+        }
+
+        void write(T item) {
+            if (buffer.remaining() < codec.recordSize()) {
+                flush();
+            }
+            int start = buffer.position();
+            codec.encode(item, buffer);
+            if (buffer.position() - start != codec.recordSize()) {
+                throw new IllegalStateException("codec wrote " + (buffer.position() - start) + " bytes, expected " + codec.recordSize());
+            }
+            count++;
+        }
+
+        void flush() {
+            buffer.flip();
+            try {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            buffer.clear();
+        }
+
+        long count() {
+            return count;
+        }
+
+        SpillFile close() {
+            flush();
+            try {
+                channel.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return new SpillFile(path, count);
+        }
+    }
+
+    static class Reader<T> implements Iterator<T>, Closeable {
+        private final SpillFile file;
+        private final RecordCodec<T> codec;
+        private final FileChannel channel;
+        private final ByteBuffer buffer;
+        private long remaining;
+
+        Reader(SpillFile file, RecordCodec<T> codec) {
+            this.file = file;
+            this.codec = codec;
+            this.remaining = file.count;
+            this.buffer = ByteBuffer.allocate(Math.max(codec.recordSize(), READ_BUFFER / codec.recordSize() * codec.recordSize()));
+            this.buffer.limit(0);
+            try {
+                this.channel = FileChannel.open(file.path, StandardOpenOption.READ);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            if (remaining == 0) {
+                close();
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return remaining > 0;
+        }
+
+        @Override
+        public T next() {
+            if (remaining == 0) {
+                throw new NoSuchElementException();
+            }
+            if (buffer.remaining() < codec.recordSize()) {
+                fill();
+            }
+            remaining--;
+            T item = codec.decode(buffer);
+            if (remaining == 0) {
+                close();
+            }
+            return item;
+        }
+
+        private void fill() {
+            buffer.compact();
+            try {
+                while (buffer.position() < codec.recordSize()) {
+                    if (channel.read(buffer) < 0) {
+                        throw new IllegalStateException("spill file truncated: " + file.path);
+                    }
+                }
+                //尽量读满缓冲区，减少系统调用次数
+                channel.read(buffer);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            buffer.flip();
+        }
+
+        /**
+         * 关闭并删除文件
+         */
+        @Override
+        public void close() {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            file.delete();
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package spill;
+
+import domain.TraderRegistry;
+import domain.Transaction;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 交易记录：交易员编号 + 年份 + 金额，共 12 字节
+ *
+ * 交易员只写编号：encode 时通过 TraderRegistry.intern 登记（未登记的会被登记），读回时按编号取回同一个实例。
+ * 因此编码和解码必须使用同一个 TraderRegistry。
+ */
+public class TransactionCodec implements RecordCodec<Transaction> {
+
+    private final TraderRegistry registry;
+
+    public TransactionCodec() {
+        this(TraderRegistry.getDefault());
+    }
+
+    public TransactionCodec(TraderRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public int recordSize() {
+        return 12;
+    }
+
+    @Override
+    public void encode(Transaction item, ByteBuffer out) {
+        out.putInt(registry.intern(item.getTrader()).getId());
+        out.putInt(item.getYear());
+        out.putInt(item.getValue());
+    }
+
+    @Override
+    public Transaction decode(ByteBuffer in) {
+        return new Transaction(registry.get(in.getInt()), in.getInt(), in.getInt());
+    }
+
+    @Override
+    public int heapBytes() {
+        //Transaction 对象头 + 三个字段，再加上 ArrayList 中的一个引用
+        return 40;
+    }
+}
@@ -0,0 +1,161 @@
+package spliterator;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.RandomAccess;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * 分块数组表：元素存放在定长数组块中，追加时不需要像 ArrayList 那样整体复制扩容
+ *
+ * 适合存放大量 Dish、Transaction，它的 Spliterator 按块边界对半拆分，报告 SIZED | SUBSIZED，
+ * 拆分和 ArrayList 一样不需要遍历，并且每个子任务处理的都是完整的块，缓存友好。
+ * @param <T>
+ */
+public class ChunkedTable<T> extends AbstractList<T> implements RandomAccess {
+
+    private static final int DEFAULT_CHUNK_SHIFT = 12;
+
+    private final int chunkShift;
+    private final int chunkMask;
+    private Object[][] chunks = new Object[8][];
+    private int size;
+
+    public ChunkedTable() {
+        this(DEFAULT_CHUNK_SHIFT);
+    }
+
+    /**
+     * @param chunkShift 每块 2^chunkShift 个元素
+     */
+    public ChunkedTable(int chunkShift) {
+        if (chunkShift < 1 || chunkShift > 24) {
+            throw new IllegalArgumentException("chunkShift: " + chunkShift);
+        }
+        this.chunkShift = chunkShift;
+        this.chunkMask = (1 << chunkShift) - 1;
+    }
+
+    public static <T> ChunkedTable<T> of(Collection<? extends T> items) {
+        ChunkedTable<T> table = new ChunkedTable<>();
+        table.addAll(items);
+        return table;
+    }
+
+    @Override
+    public boolean add(T t) {
+        int chunk = size >>> chunkShift;
+        if (chunk == chunks.length) {
+            chunks = Arrays.copyOf(chunks, chunks.length * 2);
+        }
+        if (chunks[chunk] == null) {
+            chunks[chunk] = new Object[1 << chunkShift];
+        }
+        chunks[chunk][size & chunkMask] = t;
+        size++;
+        modCount++;
+        return true;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public T get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("index: " + index + ", size: " + size);
+        }
+        return (T) chunks[index >>> chunkShift][index & chunkMask];
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public T set(int index, T element) {
+        T old = get(index);
+        chunks[index >>> chunkShift][index & chunkMask] = element;
+        return old;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Spliterator<T> spliterator() {
+        return new ChunkSpliterator(0, size);
+    }
+
+    @Override
+    public Stream<T> parallelStream() {
+        return StreamSupport.stream(spliterator(), true);
+    }
+
+    private class ChunkSpliterator implements Spliterator<T> {
+        private int from;
+        private final int to;
+
+        ChunkSpliterator(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            if (from >= to) {
+                return false;
+            }
+            action.accept((T) chunks[from >>> chunkShift][from & chunkMask]);
+            from++;
+            return true;
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public void forEachRemaining(Consumer<? super T> action) {
+            //逐块遍历，块内是普通数组循环
+            int i = from;
+            while (i < to) {
+                Object[] chunk = chunks[i >>> chunkShift];
+                int end = Math.min(to, ((i >>> chunkShift) + 1) << chunkShift);
+                for (int j = i & chunkMask, n = j + (end - i); j < n; j++) {
+                    action.accept((T) chunk[j]);
+                }
+                i = end;
+            }
+            from = to;
+        }
+
+        @Override
+        public Spliterator<T> trySplit() {
+            int remaining = to - from;
+            if (remaining < 2) {
+                return null;
+            }
+            int mid = from + (remaining >>> 1);
+            //区间跨越多个块时，拆分点对齐到块边界
+            if (remaining > (1 << chunkShift)) {
+                mid = (mid + (chunkMask >>> 1)) & ~chunkMask;
+                if (mid <= from || mid >= to) {
+                    mid = from + (remaining >>> 1);
+                }
+            }
+            Spliterator<T> prefix = new ChunkSpliterator(from, mid);
+            from = mid;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return to - from;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | SIZED | SUBSIZED;
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package spliterator;
+
+import java.util.Spliterator;
+import java.util.function.IntConsumer;
+import java.util.function.IntUnaryOperator;
+import java.util.function.LongConsumer;
+import java.util.function.LongFunction;
+import java.util.function.LongUnaryOperator;
+import java.util.function.Consumer;
+
+/**
+ * 基于计数器的生成器 Spliterator，用来替代 Stream.iterate
+ *
+ * Stream.iterate(seed, f) 的第 i 个元素依赖第 i-1 个元素，本质上是顺序的，无法拆分。
+ * 如果第 i 个元素能直接由 i 算出来（例如 Stream.iterate(1, i -> i + 2) 等价于 i -> 1 + 2 * i），
+ * 就可以像 IntStream.range 一样按下标区间对半拆分。
+ */
+public class CounterSpliterators {
+
+    private CounterSpliterators() {
+    }
+
+    /**
+     * 第 i 个元素为 generator(i) 的 int 序列，i ∈ [from, to)
+     */
+    public static class IntCounter implements Spliterator.OfInt {
+        private long from;
+        private final long to;
+        private final IntUnaryOperator generator;
+
+        public IntCounter(long from, long to, IntUnaryOperator generator) {
+            if (to < from || from < 0 || to > Integer.MAX_VALUE + 1L) {
+                throw new IllegalArgumentException("range [" + from + ", " + to + ") out of int index range");
+            }
+            this.from = from;
+            this.to = to;
+            this.generator = generator;
+        }
+
+        @Override
+        public boolean tryAdvance(IntConsumer action) {
+            if (from >= to) {
+                return false;
+            }
+            action.accept(generator.applyAsInt((int) from++));
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(IntConsumer action) {
+            for (long i = from; i < to; i++) {
+                action.accept(generator.applyAsInt((int) i));
+            }
+            from = to;
+        }
+
+        @Override
+        public Spliterator.OfInt trySplit() {
+            long mid = (from + to) >>> 1;
+            if (mid <= from) {
+                return null;
+            }
+            Spliterator.OfInt prefix = new IntCounter(from, mid, generator);
+            from = mid;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return to - from;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | SIZED | SUBSIZED | NONNULL | IMMUTABLE;
+        }
+    }
+
+    /**
+     * 第 i 个元素为 generator(i) 的 long 序列，i ∈ [from, to)
+     */
+    public static class LongCounter implements Spliterator.OfLong {
+        private long from;
+        private final long to;
+        private final LongUnaryOperator generator;
+
+        public LongCounter(long from, long to, LongUnaryOperator generator) {
+            if (to < from) {
+                throw new IllegalArgumentException("invalid range [" + from + ", " + to + ")");
+            }
+            this.from = from;
+            this.to = to;
+            this.generator = generator;
+        }
+
+        @Override
+        public boolean tryAdvance(LongConsumer action) {
+            if (from >= to) {
+                return false;
+            }
+            action.accept(generator.applyAsLong(from++));
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(LongConsumer action) {
+            for (long i = from; i < to; i++) {
+                action.accept(generator.applyAsLong(i));
+            }
+            from = to;
+        }
+
+        @Override
+        public Spliterator.OfLong trySplit() {
+            long mid = from + ((to - from) >>> 1);
+            if (mid <= from) {
+                return null;
+            }
+            Spliterator.OfLong prefix = new LongCounter(from, mid, generator);
+            from = mid;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return to - from;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | SIZED | SUBSIZED | NONNULL | IMMUTABLE;
+        }
+    }
+
+    /**
+     * 第 i 个元素为 generator(i) 的对象序列，i ∈ [from, to)。可用来生成测试用的 Dish、Transaction
+     */
+    public static class ObjectCounter<T> implements Spliterator<T> {
+        private long from;
+        private final long to;
+        private final LongFunction<? extends T> generator;
+
+        public ObjectCounter(long from, long to, LongFunction<? extends T> generator) {
+            if (to < from) {
+                throw new IllegalArgumentException("invalid range [" + from + ", " + to + ")");
+            }
+            this.from = from;
+            this.to = to;
+            this.generator = generator;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            if (from >= to) {
+                return false;
+            }
+            action.accept(generator.apply(from++));
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super T> action) {
+            for (long i = from; i < to; i++) {
+                action.accept(generator.apply(i));
+            }
+            from = to;
+        }
+
+        @Override
+        public Spliterator<T> trySplit() {
+            long mid = from + ((to - from) >>> 1);
+            if (mid <= from) {
+                return null;
+            }
+            Spliterator<T> prefix = new ObjectCounter<>(from, mid, generator);
+            from = mid;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return to - from;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | SIZED | SUBSIZED | IMMUTABLE;
+        }
+    }
+}
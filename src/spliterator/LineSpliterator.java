@@ -0,0 +1,168 @@
+package spliterator;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * 按字节偏移拆分的文本行 Spliterator
+ *
+ * BufferedReader.lines() 的 Spliterator 基于迭代器，只能一批一批地拆，和 LinkedList 一样可分解性差。
+ * 这里直接按文件字节区间对半拆分，拆分点向后对齐到下一个换行符之后，保证每一行只属于一个子区间。
+ *
+ * 区间约定：from 总是某一行的开头；to 是文件末尾或者某个 '\n' 的下一个字节。
+ * 行数事先未知，所以不报告 SIZED，estimateSize 按平均行长估算。
+ *
+ * 按字节 '\n' 切分只对兼容 ASCII 的字符集成立；UTF-16、UTF-32 中换行符占多个字节，
+ * 其他字符的编码里也会出现 0x0A，这类字符集直接拒绝。
+ *
+ * to 在创建时就确定了；遍历期间文件被截断、读不到 to 之前的字节时抛出 UncheckedIOException。
+ */
+public class LineSpliterator implements Spliterator<String> {
+
+    //小于该字节数不再拆分
+    private static final long MIN_SPLIT_BYTES = 64 * 1024;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    //估算行数时假设的平均行长
+    private static final int AVERAGE_LINE_BYTES = 64;
+
+    private final FileChannel channel;
+    private final Charset charset;
+    private long from;
+    private final long to;
+
+    //遍历状态
+    private ByteBuffer buffer;
+    private long bufferStart;
+    private byte[] line = new byte[128];
+
+    public LineSpliterator(FileChannel channel, Charset charset, long from, long to) {
+        if (!asciiCompatible(charset)) {
+            throw new IllegalArgumentException("charset not supported, '\\n' must be a single byte: " + charset);
+        }
+        this.channel = channel;
+        this.charset = charset;
+        this.from = from;
+        this.to = to;
+    }
+
+    private static boolean asciiCompatible(Charset charset) {
+        return charset.canEncode() && Arrays.equals("\n\r0aZ".getBytes(charset), "\n\r0aZ".getBytes(StandardCharsets.US_ASCII));
+    }
+
+    public static LineSpliterator of(FileChannel channel, Charset charset) {
+        try {
+            return new LineSpliterator(channel, charset, 0, channel.size());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public Spliterator<String> trySplit() {
+        if (buffer != null || to - from < MIN_SPLIT_BYTES * 2) {
+            return null;
+        }
+        long split = nextLineStart(from + (to - from) / 2);
+        if (split <= from || split >= to) {
+            return null;
+        }
+        LineSpliterator prefix = new LineSpliterator(channel, charset, from, split);
+        from = split;
+        return prefix;
+    }
+
+    /**
+     * 从 pos 开始向后找第一个 '\n'，返回它的下一个字节；找不到返回 to
+     */
+    private long nextLineStart(long pos) {
+        ByteBuffer probe = ByteBuffer.allocate(4096);
+        try {
+            while (pos < to) {
+                probe.clear();
+                probe.limit((int) Math.min(probe.capacity(), to - pos));
+                int n = channel.read(probe, pos);
+                if (n <= 0) {
+                    return to;
+                }
+                for (int i = 0; i < n; i++) {
+                    if (probe.get(i) == '\n') {
+                        return pos + i + 1;
+                    }
+                }
+                pos += n;
+            }
+            return to;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super String> action) {
+        if (from >= to) {
+            return false;
+        }
+        if (buffer == null) {
+            buffer = ByteBuffer.allocate((int) Math.min(BUFFER_SIZE, to - from));
+            buffer.limit(0);
+            bufferStart = from;
+        }
+        int length = 0;
+        while (from < to) {
+            if (!buffer.hasRemaining() && !fill()) {
+                long end = from;
+                from = to;
+                throw new UncheckedIOException(new EOFException("file truncated at byte " + end + ", expected " + to));
+            }
+            byte b = buffer.get();
+            from++;
+            if (b == '\n') {
+                break;
+            }
+            if (length == line.length) {
+                line = Arrays.copyOf(line, length * 2);
+            }
+            line[length++] = b;
+        }
+        if (length > 0 && line[length - 1] == '\r') {
+            length--;
+        }
+        action.accept(new String(line, 0, length, charset));
+        return true;
+    }
+
+    private boolean fill() {
+        bufferStart = from;
+        buffer.clear();
+        buffer.limit((int) Math.min(buffer.capacity(), to - from));
+        try {
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, bufferStart + buffer.position()) < 0) {
+                    break;
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        buffer.flip();
+        return buffer.hasRemaining();
+    }
+
+    @Override
+    public long estimateSize() {
+        return Math.max(1, (to - from) / AVERAGE_LINE_BYTES);
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED | NONNULL | IMMUTABLE;
+    }
+}
@@ -0,0 +1,106 @@
+package spliterator;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.Spliterator;
+import java.util.function.IntUnaryOperator;
+import java.util.function.LongFunction;
+import java.util.function.LongUnaryOperator;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * 可分解性好的流数据源
+ *
+ * 对照第 7 章的总结：
+ *      源                      可分解性
+ *      Files.lines             差（基于迭代器分批拆分）
+ *      Sources.lines           极佳（按字节偏移对半拆分）
+ *      Stream.iterate          差
+ *      Sources.ints/longs      极佳（按下标对半拆分）
+ *      LinkedList              差
+ *      ChunkedTable            极佳（按块对半拆分）
+ */
+public class Sources {
+
+    private Sources() {
+    }
+
+    /**
+     * 按行读取文件，流关闭时关闭文件。使用 try-with-resources 包裹
+     * 只支持换行符编码为单字节 '\n' 的字符集（UTF-8、GBK、ISO-8859-1 等），UTF-16 / UTF-32 会抛出 IllegalArgumentException
+     * @param path 文件
+     * @param parallel 是否并行
+     */
+    public static Stream<String> lines(Path path, boolean parallel) {
+        return lines(path, StandardCharsets.UTF_8, parallel);
+    }
+
+    public static Stream<String> lines(Path path, Charset charset, boolean parallel) {
+        try {
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+            LineSpliterator spliterator;
+            try {
+                spliterator = LineSpliterator.of(channel, charset);
+            } catch (RuntimeException e) {
+                channel.close();
+                throw e;
+            }
+            return StreamSupport.stream(spliterator, parallel)
+                    .onClose(() -> {
+                        try {
+                            channel.close();
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    });
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 分块数组表上的流，适用于 Dish、Transaction 等大表
+     *
+     * items 本身是 ChunkedTable 时直接在其上拆分；否则每次调用都会把整个集合复制到新的 ChunkedTable，
+     * 需要反复生成流时先用 ChunkedTable.of 复制一次再复用。
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> Stream<T> table(Collection<? extends T> items, boolean parallel) {
+        ChunkedTable<? extends T> table = items instanceof ChunkedTable ? (ChunkedTable<? extends T>) items : ChunkedTable.of(items);
+        return StreamSupport.stream((Spliterator<T>) table.spliterator(), parallel);
+    }
+
+    /**
+     * 替代 Stream.iterate(seed, f).limit(n)：第 i 个元素为 generator(i)
+     *      Stream.iterate(0, i -> i + 2).limit(n)  ==>  Sources.ints(n, i -> i * 2)
+     */
+    public static IntStream ints(int n, IntUnaryOperator generator) {
+        checkCount(n);
+        return StreamSupport.intStream(new CounterSpliterators.IntCounter(0, n, generator), false);
+    }
+
+    public static LongStream longs(long n, LongUnaryOperator generator) {
+        checkCount(n);
+        return StreamSupport.longStream(new CounterSpliterators.LongCounter(0, n, generator), false);
+    }
+
+    public static <T> Stream<T> generate(long n, LongFunction<? extends T> generator) {
+        checkCount(n);
+        return StreamSupport.stream(new CounterSpliterators.ObjectCounter<T>(0, n, generator), false);
+    }
+
+    private static void checkCount(long n) {
+        if (n < 0) {
+            throw new IllegalArgumentException("n must not be negative: " + n);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package storage;
+
+import domain.Dish;
+
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Spliterator;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * 菜单二进制表
+ */
+public class DishTable {
+
+    //"DSH1"
+    public static final int MAGIC = 0x44534831;
+
+    private final MappedTable table;
+
+    private DishTable(MappedTable table) {
+        this.table = table;
+    }
+
+    public static void write(Path path, Collection<Dish> dishes) {
+        StringDictionary dictionary = new StringDictionary();
+        for (Dish d : dishes) {
+            dictionary.intern(d.getName());
+        }
+        MappedTable.write(path, MAGIC, DishView.RECORD_SIZE, dictionary, dishes, (d, dict, out) ->
+                out.putInt(dict.intern(d.getName()))
+                        .putInt(d.getCalories())
+                        .put((byte) d.getType().ordinal())
+                        .put((byte) (d.isVegetarian() ? 1 : 0))
+                        .putShort((short) 0));
+    }
+
+    public static DishTable open(Path path) {
+        return new DishTable(MappedTable.open(path, MAGIC));
+    }
+
+    public long size() {
+        return table.size();
+    }
+
+    public DishView get(long index) {
+        if (index < 0 || index >= table.size()) {
+            throw new IndexOutOfBoundsException("index: " + index + ", size: " + table.size());
+        }
+        return (DishView) new DishView(table).moveTo(index);
+    }
+
+    public Spliterator<DishView> spliterator() {
+        return new ViewSpliterator<>(table, DishView::new, 0, table.size());
+    }
+
+    /**
+     * 流中的元素是享元视图，需要保留元素时先 map(DishView::toDish)
+     * @param parallel 是否并行
+     */
+    public Stream<DishView> stream(boolean parallel) {
+        return StreamSupport.stream(spliterator(), parallel);
+    }
+
+    public Stream<DishView> stream() {
+        return stream(false);
+    }
+}
@@ -0,0 +1,56 @@
+package storage;
+
+import domain.Dish;
+
+/**
+ * 菜记录视图
+ *
+ * 记录格式（12 字节）：
+ *      int  name        菜名在字典中的编号
+ *      int  calories    卡路里
+ *      byte type        Dish.Type 的 ordinal
+ *      byte vegetarian  1 素菜，0 荤菜
+ *      byte[2]          填充
+ */
+public class DishView extends RecordView {
+
+    static final int RECORD_SIZE = 12;
+    static final int NAME = 0;
+    static final int CALORIES = 4;
+    static final int TYPE = 8;
+    static final int VEGETARIAN = 9;
+
+    private static final Dish.Type[] TYPES = Dish.Type.values();
+
+    public DishView(MappedTable table) {
+        super(table);
+    }
+
+    public String getName() {
+        return string(NAME);
+    }
+
+    public int getCalories() {
+        return buffer.getInt(base + CALORIES);
+    }
+
+    public Dish.Type getType() {
+        return TYPES[buffer.get(base + TYPE)];
+    }
+
+    public boolean isVegetarian() {
+        return buffer.get(base + VEGETARIAN) != 0;
+    }
+
+    /**
+     * 转换成堆上的菜对象（会分配内存）
+     */
+    public Dish toDish() {
+        return new Dish(getName(), isVegetarian(), getCalories(), getType());
+    }
+
+    @Override
+    public String toString() {
+        return getName();
+    }
+}
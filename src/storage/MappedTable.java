@@ -0,0 +1,190 @@
+package storage;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+
+/**
+ * 定长记录二进制表：通过 MappedByteBuffer 映射到内存，直接从页缓存读取，不在堆上重建对象
+ *
+ * 文件格式（小端）：
+ *      int      magic      文件类型
+ *      int      version    格式版本
+ *      int      recordSize 每条记录字节数
+ *      long     count      记录条数
+ *      int      dictBytes  字典字节数
+ *      byte[]   字典       见 StringDictionary
+ *      byte[]   填充       记录区按 8 字节对齐
+ *      byte[]   记录区     count * recordSize
+ *
+ * 单个 MappedByteBuffer 最多 2G，所以记录区按 2 的幂条记录分段映射，index -> (段号, 段内偏移) 只需移位运算
+ */
+public class MappedTable {
+
+    public static final int VERSION = 1;
+    static final int HEADER_SIZE = 24;
+    //单段最大字节数
+    private static final int MAX_SEGMENT_BYTES = 1 << 30;
+
+    /**
+     * 记录编码器：把一个对象写成定长记录
+     */
+    public interface RecordEncoder<T> {
+        void encode(T item, StringDictionary dictionary, ByteBuffer out);
+    }
+
+    private final StringDictionary dictionary;
+    private final int recordSize;
+    private final long count;
+    private final int segmentShift;
+    private final int segmentMask;
+    private final MappedByteBuffer[] segments;
+
+    private MappedTable(StringDictionary dictionary, int recordSize, long count, MappedByteBuffer[] segments, int segmentShift) {
+        this.dictionary = dictionary;
+        this.recordSize = recordSize;
+        this.count = count;
+        this.segments = segments;
+        this.segmentShift = segmentShift;
+        this.segmentMask = (1 << segmentShift) - 1;
+    }
+
+    /**
+     * 写入文件。调用前 dictionary 中必须已经包含记录要用到的全部字符串
+     * @param path 文件路径
+     * @param magic 文件类型
+     * @param recordSize 每条记录字节数
+     * @param dictionary 字符串字典
+     * @param items 记录
+     * @param encoder 编码器，每次必须恰好写入 recordSize 个字节
+     * @param <T>
+     */
+    public static <T> void write(Path path, int magic, int recordSize, StringDictionary dictionary,
+                                 Collection<? extends T> items, RecordEncoder<? super T> encoder) {
+        int dictBytes = dictionary.byteSize();
+        ByteBuffer head = ByteBuffer.allocate(align(HEADER_SIZE + dictBytes)).order(ByteOrder.LITTLE_ENDIAN);
+        head.putInt(magic).putInt(VERSION).putInt(recordSize).putLong(items.size()).putInt(dictBytes);
+        dictionary.writeTo(head);
+        head.position(0);
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            writeFully(channel, head);
+            ByteBuffer out = ByteBuffer.allocate(Math.max(recordSize, 64 * 1024 / recordSize * recordSize))
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            for (T item : items) {
+                if (out.remaining() < recordSize) {
+                    out.flip();
+                    writeFully(channel, out);
+                    out.clear();
+                }
+                int before = out.position();
+                encoder.encode(item, dictionary, out);
+                if (out.position() - before != recordSize) {
+                    throw new IllegalStateException("encoder wrote " + (out.position() - before) + " bytes, expected " + recordSize);
+                }
+            }
+            out.flip();
+            writeFully(channel, out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 以只读方式映射文件。文件头中的 recordSize、count、dictBytes 先与文件大小核对，
+     * 损坏或被截断的文件抛出 IllegalArgumentException，而不是映射越界或在读取时失败
+     * @param path 文件路径
+     * @param magic 期望的文件类型
+     * @return 表
+     */
+    public static MappedTable open(Path path, int magic) {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer head = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(channel.size(), HEADER_SIZE));
+            head.order(ByteOrder.LITTLE_ENDIAN);
+            if (head.remaining() < HEADER_SIZE || head.getInt() != magic) {
+                throw new IllegalArgumentException(path + " is not a table of type 0x" + Integer.toHexString(magic));
+            }
+            int version = head.getInt();
+            if (version != VERSION) {
+                throw new IllegalArgumentException("unsupported version " + version + " in " + path);
+            }
+            int recordSize = head.getInt();
+            long count = head.getLong();
+            int dictBytes = head.getInt();
+            long fileSize = channel.size();
+            if (recordSize <= 0 || count < 0 || dictBytes < 0) {
+                throw new IllegalArgumentException("corrupt header in " + path + ": recordSize " + recordSize
+                        + ", count " + count + ", dictBytes " + dictBytes);
+            }
+            //long 运算，dictBytes、count 很大时也不会溢出
+            long dataStart = align((long) HEADER_SIZE + dictBytes);
+            if (dataStart > fileSize || count > (fileSize - dataStart) / recordSize) {
+                throw new IllegalArgumentException(path + " is truncated: header needs " + dictBytes + " dictionary bytes and "
+                        + count + " records of " + recordSize + " bytes, file has " + fileSize + " bytes");
+            }
+
+            ByteBuffer dict = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE, dictBytes).order(ByteOrder.LITTLE_ENDIAN);
+            StringDictionary dictionary = StringDictionary.readFrom(dict);
+
+            int shift = 31 - Integer.numberOfLeadingZeros(Math.max(1, MAX_SEGMENT_BYTES / recordSize));
+            long perSegment = 1L << shift;
+            MappedByteBuffer[] segments = new MappedByteBuffer[(int) ((count + perSegment - 1) / perSegment)];
+            for (int i = 0; i < segments.length; i++) {
+                long records = Math.min(perSegment, count - i * perSegment);
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, dataStart + i * perSegment * recordSize, records * recordSize);
+                segments[i].order(ByteOrder.LITTLE_ENDIAN);
+            }
+            //映射建立后即使关闭通道依然有效
+            return new MappedTable(dictionary, recordSize, count, segments, shift);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public StringDictionary getDictionary() {
+        return dictionary;
+    }
+
+    public int getRecordSize() {
+        return recordSize;
+    }
+
+    public long size() {
+        return count;
+    }
+
+    /**
+     * 记录所在的段
+     */
+    ByteBuffer segment(long index) {
+        return segments[(int) (index >>> segmentShift)];
+    }
+
+    /**
+     * 记录在段内的字节偏移
+     */
+    int offset(long index) {
+        return (int) (index & segmentMask) * recordSize;
+    }
+
+    private static int align(int n) {
+        return (n + 7) & ~7;
+    }
+
+    private static long align(long n) {
+        return (n + 7) & ~7L;
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package storage;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 享元视图：一个视图对象在遍历过程中反复指向不同的记录，读取字段时直接访问映射缓冲区
+ *
+ * 注意：视图是可变的，不要把它收集到集合里（收集到的会是同一个对象）。需要保留时先转换成领域对象。
+ */
+public abstract class RecordView {
+
+    protected final MappedTable table;
+    protected ByteBuffer buffer;
+    protected int base;
+    private long index = -1;
+
+    protected RecordView(MappedTable table) {
+        this.table = table;
+    }
+
+    /**
+     * 指向第 index 条记录
+     * @param index 记录下标
+     * @return this
+     */
+    public RecordView moveTo(long index) {
+        this.buffer = table.segment(index);
+        this.base = table.offset(index);
+        this.index = index;
+        return this;
+    }
+
+    public long getIndex() {
+        return index;
+    }
+
+    protected String string(int offset) {
+        return table.getDictionary().get(buffer.getInt(base + offset));
+    }
+}
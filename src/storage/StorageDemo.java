@@ -0,0 +1,67 @@
+package storage;
+
+import domain.Dish;
+import domain.Trader;
+import domain.Transaction;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * 二进制持久化示例：写一次文件，以后启动直接映射，不再在静态块里重建对象
+ */
+public class StorageDemo {
+
+    public static void main(String[] args) throws IOException {
+        List<Transaction> transactions = Arrays.asList(
+                new Transaction(new Trader("Brian","Cambridge"), 2011, 300),
+                new Transaction(new Trader("Raoul", "Cambridge"), 2012, 1000),
+                new Transaction(new Trader("Raoul", "Cambridge"), 2011, 400),
+                new Transaction(new Trader("Mario","Milan"), 2012, 710),
+                new Transaction(new Trader("Mario","Milan"), 2012, 700),
+                new Transaction(new Trader("Alan","Cambridge"), 2012, 950) );
+
+        Path txnFile = Files.createTempFile("transactions", ".bin");
+        TransactionTable.write(txnFile, transactions);
+        TransactionTable txnTable = TransactionTable.open(txnFile);
+
+        //直接在映射区上过滤、求和，不创建 Transaction 对象
+        int sum2011 = txnTable.stream().filter(t -> t.getYear() == 2011).mapToInt(TransactionView::getValue).sum();
+        System.out.println("2011年交易总额 : " + sum2011);//700
+        //需要保留元素时先转换成领域对象
+        List<Transaction> milan = txnTable.stream()
+                .filter(t -> "Milan".equals(t.getTraderCity()))
+                .map(TransactionView::toTransaction)
+                .collect(Collectors.toList());
+        System.out.println("米兰的交易 : " + milan);
+
+        List<Dish> menu = Arrays.asList(
+                new Dish("pork", false, 800, Dish.Type.MEAT),
+                new Dish("rice", true, 350, Dish.Type.OTHER),
+                new Dish("salmon", false, 450, Dish.Type.FISH));
+        Path dishFile = Files.createTempFile("menu", ".bin");
+        DishTable.write(dishFile, menu);
+        DishTable dishTable = DishTable.open(dishFile);
+        System.out.println("素菜 : " + dishTable.stream().filter(DishView::isVegetarian).map(DishView::getName).collect(Collectors.toList()));
+
+        delete(txnFile);
+        delete(dishFile);
+    }
+
+    /**
+     * 表仍然映射着文件：Linux / macOS 上可以直接删除（映射在回收前依然有效），
+     * Windows 上映射中的文件不能删除，而 Java 8 没有解除映射的公开 API（映射随 MappedByteBuffer 被回收才释放），
+     * 这时改为退出时再删
+     */
+    private static void delete(Path file) {
+        try {
+            Files.delete(file);
+        } catch (IOException e) {
+            file.toFile().deleteOnExit();
+        }
+    }
+}
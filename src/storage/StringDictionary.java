@@ -0,0 +1,109 @@
+package storage;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 字符串字典：二进制文件中交易员姓名、城市、菜名等重复字符串只存一份，记录里只存 int 编号
+ *
+ * 文件格式：
+ *      int      字符串个数
+ *      重复以下结构：
+ *          int      UTF-8 字节长度
+ *          byte[]   UTF-8 内容
+ */
+public class StringDictionary {
+
+    private final Map<String, Integer> ids = new HashMap<>();
+    private final List<String> strings = new ArrayList<>();
+
+    public StringDictionary() {
+    }
+
+    private StringDictionary(String[] values) {
+        for (String s : values) {
+            ids.put(s, strings.size());
+            strings.add(s);
+        }
+    }
+
+    /**
+     * 获取字符串编号，不存在时追加到字典末尾
+     * @param s 字符串
+     * @return 编号
+     */
+    public int intern(String s) {
+        Integer id = ids.get(s);
+        if (id == null) {
+            id = strings.size();
+            ids.put(s, id);
+            strings.add(s);
+        }
+        return id;
+    }
+
+    /**
+     * 字符串编号，不存在时返回 -1，不修改字典
+     */
+    public int idOf(String s) {
+        Integer id = ids.get(s);
+        return id == null ? -1 : id;
+    }
+
+    public String get(int id) {
+        return strings.get(id);
+    }
+
+    public int size() {
+        return strings.size();
+    }
+
+    /**
+     * 序列化后的字节数
+     */
+    public int byteSize() {
+        int size = 4;
+        for (String s : strings) {
+            size += 4 + s.getBytes(StandardCharsets.UTF_8).length;
+        }
+        return size;
+    }
+
+    public void writeTo(ByteBuffer buffer) {
+        buffer.putInt(strings.size());
+        for (String s : strings) {
+            byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+            buffer.putInt(bytes.length);
+            buffer.put(bytes);
+        }
+    }
+
+    /**
+     * 从当前 position 读取字典，读取完毕后 position 位于字典末尾
+     * @param buffer 缓冲区
+     * @return 字典
+     */
+    public static StringDictionary readFrom(ByteBuffer buffer) {
+        //先核对长度再分配数组，损坏的文件不会导致巨大的分配
+        int count = buffer.remaining() < 4 ? -1 : buffer.getInt();
+        if (count < 0 || count > buffer.remaining() / 4) {
+            throw new IllegalArgumentException("corrupt dictionary: " + count + " strings in " + buffer.remaining() + " bytes");
+        }
+        String[] values = new String[count];
+        for (int i = 0; i < count; i++) {
+            int length = buffer.remaining() < 4 ? -1 : buffer.getInt();
+            if (length < 0 || length > buffer.remaining()) {
+                throw new IllegalArgumentException("corrupt dictionary: string " + i + " has length " + length
+                        + " but " + buffer.remaining() + " bytes remain");
+            }
+            byte[] bytes = new byte[length];
+            buffer.get(bytes);
+            values[i] = new String(bytes, StandardCharsets.UTF_8);
+        }
+        return new StringDictionary(values);
+    }
+}
@@ -0,0 +1,80 @@
+package storage;
+
+import domain.Transaction;
+
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Spliterator;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * 交易二进制表
+ *
+ * 用法：
+ *      TransactionTable.write(path, transactions);
+ *      TransactionTable table = TransactionTable.open(path);
+ *      int sum = table.stream().filter(t -> t.getYear() == 2011).mapToInt(TransactionView::getValue).sum();
+ */
+public class TransactionTable {
+
+    //"TXN1"
+    public static final int MAGIC = 0x54584E31;
+
+    private final MappedTable table;
+
+    private TransactionTable(MappedTable table) {
+        this.table = table;
+    }
+
+    public static void write(Path path, Collection<Transaction> transactions) {
+        StringDictionary dictionary = new StringDictionary();
+        for (Transaction t : transactions) {
+            dictionary.intern(t.getTrader().getName());
+            dictionary.intern(t.getTrader().getCity());
+        }
+        MappedTable.write(path, MAGIC, TransactionView.RECORD_SIZE, dictionary, transactions, (t, dict, out) ->
+                out.putInt(dict.intern(t.getTrader().getName()))
+                        .putInt(dict.intern(t.getTrader().getCity()))
+                        .putInt(t.getYear())
+                        .putInt(t.getValue()));
+    }
+
+    public static TransactionTable open(Path path) {
+        return new TransactionTable(MappedTable.open(path, MAGIC));
+    }
+
+    public long size() {
+        return table.size();
+    }
+
+    public StringDictionary getDictionary() {
+        return table.getDictionary();
+    }
+
+    /**
+     * 随机访问：返回一个新视图指向第 index 条记录
+     */
+    public TransactionView get(long index) {
+        if (index < 0 || index >= table.size()) {
+            throw new IndexOutOfBoundsException("index: " + index + ", size: " + table.size());
+        }
+        return (TransactionView) new TransactionView(table).moveTo(index);
+    }
+
+    public Spliterator<TransactionView> spliterator() {
+        return new ViewSpliterator<>(table, TransactionView::new, 0, table.size());
+    }
+
+    /**
+     * 流中的元素是享元视图，需要保留元素时先 map(TransactionView::toTransaction)
+     * @param parallel 是否并行
+     */
+    public Stream<TransactionView> stream(boolean parallel) {
+        return StreamSupport.stream(spliterator(), parallel);
+    }
+
+    public Stream<TransactionView> stream() {
+        return stream(false);
+    }
+}
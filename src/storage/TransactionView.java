@@ -0,0 +1,62 @@
+package storage;
+
+import domain.TraderRegistry;
+import domain.Transaction;
+
+/**
+ * 交易记录视图
+ *
+ * 记录格式（16 字节）：
+ *      int traderName  交易员姓名在字典中的编号
+ *      int traderCity  交易员城市在字典中的编号
+ *      int year
+ *      int value
+ */
+public class TransactionView extends RecordView {
+
+    static final int RECORD_SIZE = 16;
+    static final int TRADER_NAME = 0;
+    static final int TRADER_CITY = 4;
+    static final int YEAR = 8;
+    static final int VALUE = 12;
+
+    public TransactionView(MappedTable table) {
+        super(table);
+    }
+
+    public int getTraderNameId() {
+        return buffer.getInt(base + TRADER_NAME);
+    }
+
+    public int getTraderCityId() {
+        return buffer.getInt(base + TRADER_CITY);
+    }
+
+    public String getTraderName() {
+        return string(TRADER_NAME);
+    }
+
+    public String getTraderCity() {
+        return string(TRADER_CITY);
+    }
+
+    public int getYear() {
+        return buffer.getInt(base + YEAR);
+    }
+
+    public int getValue() {
+        return buffer.getInt(base + VALUE);
+    }
+
+    /**
+     * 转换成堆上的交易对象（会分配内存），交易员使用登记后的唯一实例
+     */
+    public Transaction toTransaction() {
+        return new Transaction(TraderRegistry.getDefault().intern(getTraderName(), getTraderCity()), getYear(), getValue());
+    }
+
+    @Override
+    public String toString() {
+        return "{Trader:" + getTraderName() + " in " + getTraderCity() + ", year: " + getYear() + ", value:" + getValue() + "}";
+    }
+}
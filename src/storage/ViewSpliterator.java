@@ -0,0 +1,78 @@
+package storage;
+
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * 零拷贝 Spliterator：按下标区间对半拆分，每个子任务持有一个自己的享元视图
+ * @param <V> 视图类型
+ */
+public class ViewSpliterator<V extends RecordView> implements Spliterator<V> {
+
+    //小于该条数不再拆分
+    private static final long MIN_SPLIT = 1024;
+
+    private final MappedTable table;
+    private final Function<MappedTable, V> viewFactory;
+    private long from;
+    private final long to;
+    private V view;
+
+    public ViewSpliterator(MappedTable table, Function<MappedTable, V> viewFactory, long from, long to) {
+        this.table = table;
+        this.viewFactory = viewFactory;
+        this.from = from;
+        this.to = to;
+    }
+
+    private V view() {
+        if (view == null) {
+            view = viewFactory.apply(table);
+        }
+        return view;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super V> action) {
+        if (from >= to) {
+            return false;
+        }
+        V v = view();
+        v.moveTo(from++);
+        action.accept(v);
+        return true;
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super V> action) {
+        V v = view();
+        for (long i = from; i < to; i++) {
+            v.moveTo(i);
+            action.accept(v);
+        }
+        from = to;
+    }
+
+    @Override
+    public Spliterator<V> trySplit() {
+        long remaining = to - from;
+        if (remaining < MIN_SPLIT * 2) {
+            return null;
+        }
+        long mid = from + (remaining >>> 1);
+        Spliterator<V> prefix = new ViewSpliterator<>(table, viewFactory, from, mid);
+        from = mid;
+        return prefix;
+    }
+
+    @Override
+    public long estimateSize() {
+        return to - from;
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED | SIZED | SUBSIZED | NONNULL | IMMUTABLE;
+    }
+}
@@ -3,7 +3,12 @@ package stream;
 import domain.Apple;
 import domain.Dish;
 import domain.Trader;
+import domain.TraderRegistry;
 import domain.Transaction;
+import numeric.Scans;
+import profile.PipelineProfiler;
+import parallel.ShortCircuits;
+import sink.ShardedBuffer;
 import util.LambdaUtils;
 
 import java.util.*;
@@ -126,6 +131,9 @@ public class StreamDemo {
          *      distinct：元素去重
          *      limit(n)：截短流，获取前n个元素，注意并不会排序
          *      skip(n)：跳过前n个元素，即扔掉前n个元素返回剩下的元素。如果流中的数据不足n个，则返回一个空流。
+         *
+         *      filter 对每个对象调用一次谓词。同一份菜单反复按类型、素菜、卡路里组合筛选或计数时，
+         *      可以先建立位图索引，组合条件变成位图的 and/or/andNot，见 bitmap.DishIndex
          */
         menuList.stream()
                 .filter(Dish::isVegetarian)//筛选所有素食菜
@@ -263,13 +271,15 @@ public class StreamDemo {
          * 10. 几个问题强化理解
          */
         //Transaction：交易，Trader：交易员
+        //同一个交易员只登记一个实例，见 domain.TraderRegistry
+        TraderRegistry registry = TraderRegistry.getDefault();
         List<Transaction> transactions = Arrays.asList(
-                new Transaction(new Trader("Brian","Cambridge"), 2011, 300),
-                new Transaction(new Trader("Raoul", "Cambridge"), 2012, 1000),
-                new Transaction(new Trader("Raoul", "Cambridge"), 2011, 400),
-                new Transaction(new Trader("Mario","Milan"), 2012, 710),
-                new Transaction(new Trader("Mario","Milan"), 2012, 700),
-                new Transaction(new Trader("Alan","Cambridge"), 2012, 950) );
+                new Transaction(registry.intern("Brian","Cambridge"), 2011, 300),
+                new Transaction(registry.intern("Raoul", "Cambridge"), 2012, 1000),
+                new Transaction(registry.intern("Raoul", "Cambridge"), 2011, 400),
+                new Transaction(registry.intern("Mario","Milan"), 2012, 710),
+                new Transaction(registry.intern("Mario","Milan"), 2012, 700),
+                new Transaction(registry.intern("Alan","Cambridge"), 2012, 950) );
 
         //1.找出2011年的所有交易并按交易额排序（从低到高）
         List<Transaction> tr2011 = transactions.stream()
@@ -317,6 +327,7 @@ public class StreamDemo {
         //1.使用特化流计算总热量
         //a.通过mapToInt方法将流转为特化流。而不是Stream<Integer>
         IntStream intStream = menuList.stream().mapToInt(Dish::getCalories);
+        //菜单很大时，连 Dish 对象本身都可以不放在堆上：记录存进 direct ByteBuffer，流里是复用的游标，见 offheap.DishCatalog、offheap.OffHeapDemo
         //b.通过特化流intStream的方法进行求和
         int sum2 = intStream.sum();
         //c.intStream还支持其他方法max,min,average等
@@ -324,6 +335,16 @@ public class StreamDemo {
         //2.将特化流转为正常流 - boxed()
 //        Stream<Integer> boxed = intStream.boxed();
 
+        //d.reduce只得到最终结果。需要每一步的累计值时不要在forEach里累加共享变量（并行时是错的），使用扫描，见 numeric.Scans
+        long[] cumulativeCalories = Scans.inclusiveSum(menuList.stream().mapToInt(Dish::getCalories).toArray(), false);
+        out("累计热量", Arrays.toString(cumulativeCalories));//[800, 1500, 1900, 2430, 2780, 2900, 3450, 3750, 4200]
+        //按年份排序后分段累计：每年重新开始累计交易额
+        List<Transaction> byYear = transactions.stream().sorted(Comparator.comparing(Transaction::getYear)).collect(Collectors.toList());
+        long[] runningByYear = Scans.segmentedSum(
+                byYear.stream().mapToInt(Transaction::getYear).toArray(),
+                byYear.stream().mapToInt(Transaction::getValue).toArray(), false);
+        out("每年累计交易额", Arrays.toString(runningByYear));//[300, 700, 1000, 1710, 2410, 3360]
+
         /**
          * 3. 生成数值范围
          *      IntStream和LongStream：（start,end）
@@ -442,6 +463,11 @@ public class StreamDemo {
 
 //        对交易员按照国家进行分组
         Map<Trader, List<Transaction>> groupingBymap = transactions.stream().collect(Collectors.groupingBy(Transaction::getTrader));
+        //交易员已登记为唯一实例，可以用IdentityHashMap分组
+        Map<Trader, List<Transaction>> groupingByIdentity = transactions.stream().collect(registry.groupingByTrader());
+        //IdentityHashMap.equals 按引用比较 value，所以由 HashMap 一侧发起比较
+        out("交易员已登记时按引用分组，结果与 groupingBy 相同", groupingBymap.equals(groupingByIdentity));
+        //groupingBy 和 sorted 会把所有元素放在堆上，数据量超过内存时使用可溢写到磁盘的版本，见 spill.ExternalGroupBy、spill.ExternalSorter
 
         //菜单中的菜按照类型进行分类，鱼类放在一起，肉类放在一起等。。
         Map<Dish.Type, List<Dish>> groupingBy = menuList.stream().collect(Collectors.groupingBy(Dish::getType));
@@ -622,6 +648,8 @@ public class StreamDemo {
          * 但它是一个全局的设置，也就是说，它将影响代码中所有的并行流。反过来说，目前无法为某个特定的并行流指定这个值。
          * 【不建议修改这个值】让ForkJoinPool的大小等于处理器数量是个不错的默认值。
          *
+         * 如果确实需要给某条流水线单独的线程池，可以把整条流水线提交到独立的ForkJoinPool中执行，见 parallel.ParallelExecution
+         *      ParallelExecution.named("batch", 4).invoke(() -> menuList.parallelStream().mapToInt(Dish::getCalories).sum());
          */
         out("处理器数量值",Runtime.getRuntime().availableProcessors());
 //        System.setProperty("java.util.concurrent.ForkJoinPool.common.parallelism", "12");
@@ -639,6 +667,10 @@ public class StreamDemo {
 
         //2. 正确的使用并行流：确保结果正确
 //        错误使用并行流的一个常用场景就是：就是改变了共享变量。因为并行过程会分段，每段独立一个线程。这样就会产生线程安全的问题。不要尝试使用同步解决这类问题，那完全失去了并行的意义。
+        //确实需要在并行流中产生副作用时，让每个线程写自己的分片，结束后再拼接，见 sink.ShardedBuffer；需要边产生边消费时见 sink.StreamingSink
+        ShardedBuffer<Dish> highCalories = new ShardedBuffer<>();
+        menuList.parallelStream().filter(d -> d.getCalories() > 500).forEach(highCalories);
+        out("并行写入共享缓冲区", highCalories.drain().size());//4
 
         /**
          * 总结：如何高效的利用并行流
@@ -651,6 +683,9 @@ public class StreamDemo {
          * 4.考虑流背后的数据结构是否易于分解。因为并行流需要将数据分段。例如ArrayLIst的拆分效率比LinkedList高的多。因为前者不需要遍历就可以平均拆分。而后者则必须遍历。
          * 5.【不准确】使用filter的流不建议使用并行流。例如：本来List大小是确定的，并行流可以拆分成多段数据处理。但是筛选操作可能丢弃的元素个数是不确定的，导致流本身的大小也是未知的。
          * 6.考虑收集器Collectors收集过程的代价大小。如果收集代价很大，那么组合每个子流所付出的代价很可能超过并行流带来的性能提升。
+         *
+         * 以上结论在 1e3 ~ 1e8 个元素上的 JMH 实测（顺序/并行、每次分配字节数、GC）见 jmh/bench/IdiomBenchmark（mvn package 后 java -jar target/benchmarks.jar），
+         * 下面用 currentTimeMillis 在单次运行上得到的差值没有预热，只能作为演示。
          */
 //        流数据源是否适用于并行总结。
 
@@ -670,6 +705,11 @@ public class StreamDemo {
         IntStream.rangeClosed(0, 1000000).parallel().filter(value -> value%2==0).boxed().findFirst();
         out("并行时间", System.currentTimeMillis()-start4);
 
+        //不需要 boxed()，找到结果后右边的子任务立即停止，见 parallel.ShortCircuits
+        long start5 = System.currentTimeMillis();
+        ShortCircuits.findFirst(0, 1000001, value -> value%2==0);
+        out("ShortCircuits.findFirst并行时间", System.currentTimeMillis()-start5);
+
 //        上面这段代码使用并行流效率非常高
         //上面说法也不一定准确！！！！！！！！！！！！！所以要看具体场景吧
 //        但是并行流具有一定的不稳定性，不要一遇到流就使用并行流。它可能给你带来灾难。
@@ -689,6 +729,19 @@ public class StreamDemo {
                 .peek(integer -> System.out.println("after map"+integer))
                 .collect(Collectors.toList());
 
+        //peek 打日志只能看出元素有没有经过，看不出每个阶段过滤掉多少、耗时多少，并行时日志还会交错；
+        //同样的位置换成 profile.PipelineProfiler 的探针，结束后输出各阶段的计数、选择率、抽样耗时和分配
+        PipelineProfiler profiler = new PipelineProfiler("menu", 1); //元素很少，每个元素都计时
+        List<Integer> profiledCalories = profiler.run(() -> menuList.parallelStream()
+                .peek(profiler.stage("source"))
+                .filter(Dish::isVegetarian)
+                .peek(profiler.stage("filter vegetarian"))
+                .map(Dish::getCalories)
+                .peek(profiler.stage("map calories"))
+                .collect(Collectors.toList()));
+        System.out.println(profiledCalories);
+        System.out.println(profiler.report());
+
 
 
 /************************************************* 第 9 章 默认方法 ************************************************************/
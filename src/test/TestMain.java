@@ -1,5 +1,7 @@
 package test;
 
+import validation.DecimalRange;
+
 import java.util.Arrays;
 import java.util.regex.Pattern;
 
@@ -12,6 +14,8 @@ public class TestMain {
         boolean matches = Pattern.matches("^([0-9]|[1-9][0-9])(\\.\\d{1,2})|[0-9]|[1-9][0-9]|100|100.00|0|0.00?$", "66.00");
 //        boolean matches = Pattern.matches("^(\\d|[1-9]\\d|100)(\\.\\d{1,2})?$", "0.00");
         System.out.println(matches);
+        //上面的写法每次都编译正则，批量校验时用手写的扫描器，见 jmh/validation/ValidationBenchmark
+        System.out.println(DecimalRange.PERCENT.test("66.00"));
 
 
         System.out.println(Arrays.asList(0,1,2).stream().filter(a -> a>0).findAny().orElse(9));
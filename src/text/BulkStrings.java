@@ -0,0 +1,301 @@
+package text;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 批量字符串工具：isBlank / trim / indexOfAny
+ *
+ * 两条路径：
+ *      CharSequence               逐字符 Character.isWhitespace（JIT 内联后已经很快，手工跳过 ASCII 反而更慢）
+ *      byte[]（Latin-1 / ASCII / UTF-8）  SWAR：一次读 8 个字节到 long 中，用位运算同时判断 8 个字节
+ *
+ * SWAR 用到的两个掩码（结果中每个字节的最高位表示该字节是否满足条件，字节之间不会产生进位）：
+ *      大于 n：  (((x & 0x7F..) + (0x7F - n)..) | x) & 0x80..
+ *      等于 0：  ~(((x & 0x7F..) + 0x7F..) | x | 0x7F..)
+ *
+ * 空白的定义与 Character.isWhitespace 一致（Latin-1 范围内只有 \t \n \u000B \f \r \u001C ~ \u001F 和空格），
+ * trim 的定义与 String.trim 一致（去掉两端 <= ' ' 的字符）。
+ *
+ * byte[] 版本只比较单个字节，>= 0x80 的字节一律不是空白、也不等于任何 ASCII 目标，
+ * 所以同样适用于 UTF-8 这类兼容 ASCII 的多字节编码：不会从多字节字符的中间切开，只是只认 ASCII 空白。
+ */
+public class BulkStrings {
+
+    private static final long ONES = 0x0101010101010101L;
+    private static final long LOW7 = 0x7F7F7F7F7F7F7F7FL;
+    private static final long HIGH = 0x8080808080808080L;
+    private static final long SPACES = ONES * ' ';
+    /**
+     * 加上它之后，字节 > ' ' 的最高位为 1
+     */
+    private static final long ABOVE_SPACE = ONES * (0x7F - ' ');
+
+    private BulkStrings() {
+    }
+
+    // ---------------------------------------------------------------- CharSequence
+
+    /**
+     * 与 TestMain.isBlank 相同，放在这里是为了和 byte[] 版本保持同一套 API
+     */
+    public static boolean isBlank(CharSequence cs) {
+        int length;
+        if (cs == null || (length = cs.length()) == 0) {
+            return true;
+        }
+        for (int i = 0; i < length; i++) {
+            if (!Character.isWhitespace(cs.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public static boolean isNotBlank(CharSequence cs) {
+        return !isBlank(cs);
+    }
+
+    // ---------------------------------------------------------------- byte[]
+
+    /**
+     * 按小端序读取 long 的视图（getLong 是 JIT 内建的一次 8 字节读取，比手工移位拼接快得多）
+     *
+     * 下面每个 byte[] 方法都有一个多带 words 参数的重载：逐行处理时对同一个数组只包装一次，
+     * 之后一直传同一个 words，不会每次调用都创建 ByteBuffer（RecordFields、ingest.RecordReader 就是这样做的）。
+     * 不带 words 的版本每次调用包装一个临时对象，被内联时通常会被逃逸分析消除，但不能保证。
+     */
+    public static ByteBuffer words(byte[] bytes) {
+        return ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    public static boolean isBlank(byte[] bytes) {
+        return bytes == null || isBlank(bytes, 0, bytes.length);
+    }
+
+    /**
+     * bytes[from, to) 是否全是空白（空区间也算空白）
+     */
+    public static boolean isBlank(byte[] bytes, int from, int to) {
+        if (to - from < 16) {
+            //短字段逐字节判断更快
+            for (int i = from; i < to; i++) {
+                if (!isWhitespace(bytes[i])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return isBlank(words(bytes), bytes, from, to);
+    }
+
+    /**
+     * @param words words(bytes) 的结果，可以在多次调用之间复用
+     */
+    public static boolean isBlank(ByteBuffer words, byte[] bytes, int from, int to) {
+        int i = from;
+        for (; i + 8 <= to; i += 8) {
+            long x = words.getLong(i);
+            if (x == SPACES) {
+                continue;
+            }
+            if (aboveSpace(x) != 0) {
+                return false;
+            }
+            //8 个字节都 <= ' '，逐个确认是否都是空白控制字符
+            for (int j = i; j < i + 8; j++) {
+                if (!isWhitespace(bytes[j])) {
+                    return false;
+                }
+            }
+        }
+        for (; i < to; i++) {
+            if (!isWhitespace(bytes[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static boolean isWhitespace(byte b) {
+        return b == ' ' || (b >= '\t' && b <= '\r') || (b >= 0x1C && b <= 0x1F);
+    }
+
+    /**
+     * 每个 > ' '（包括 >= 0x80）的字节最高位为 1
+     */
+    private static long aboveSpace(long x) {
+        return (((x & LOW7) + ABOVE_SPACE) | x) & HIGH;
+    }
+
+    /**
+     * 每个等于 0 的字节最高位为 1
+     */
+    private static long zeroBytes(long x) {
+        return ~(((x & LOW7) + LOW7) | x | LOW7);
+    }
+
+    /**
+     * bytes[from, to) 是否全是 ASCII（< 0x80）；是的话按 ISO_8859_1 和 UTF-8 解码的结果相同
+     */
+    public static boolean isAscii(byte[] bytes, int from, int to) {
+        return isAscii(words(bytes), bytes, from, to);
+    }
+
+    /**
+     * @param words words(bytes) 的结果，可以在多次调用之间复用
+     */
+    public static boolean isAscii(ByteBuffer words, byte[] bytes, int from, int to) {
+        int i = from;
+        for (; i + 8 <= to; i += 8) {
+            if ((words.getLong(i) & HIGH) != 0) {
+                return false;
+            }
+        }
+        for (; i < to; i++) {
+            if (bytes[i] < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 第一个 > ' ' 的字节下标，没有则返回 to
+     */
+    public static int trimStart(byte[] bytes, int from, int to) {
+        return trimStart(words(bytes), bytes, from, to);
+    }
+
+    /**
+     * @param words words(bytes) 的结果，可以在多次调用之间复用
+     */
+    public static int trimStart(ByteBuffer words, byte[] bytes, int from, int to) {
+        int i = from;
+        for (; i + 8 <= to; i += 8) {
+            long mask = aboveSpace(words.getLong(i));
+            if (mask != 0) {
+                return i + (Long.numberOfTrailingZeros(mask) >>> 3);
+            }
+        }
+        for (; i < to; i++) {
+            if ((bytes[i] & 0xFF) > ' ') {
+                return i;
+            }
+        }
+        return to;
+    }
+
+    /**
+     * 最后一个 > ' ' 的字节下标 + 1，没有则返回 from
+     */
+    public static int trimEnd(byte[] bytes, int from, int to) {
+        return trimEnd(words(bytes), bytes, from, to);
+    }
+
+    /**
+     * @param words words(bytes) 的结果，可以在多次调用之间复用
+     */
+    public static int trimEnd(ByteBuffer words, byte[] bytes, int from, int to) {
+        int i = to;
+        for (; i - 8 >= from; i -= 8) {
+            long mask = aboveSpace(words.getLong(i - 8));
+            if (mask != 0) {
+                return i - 8 + ((63 - Long.numberOfLeadingZeros(mask)) >>> 3) + 1;
+            }
+        }
+        for (; i > from; i--) {
+            if ((bytes[i - 1] & 0xFF) > ' ') {
+                return i;
+            }
+        }
+        return from;
+    }
+
+    /**
+     * 与 new String(bytes, from, to - from, ISO_8859_1).trim() 相同，只在需要时分配
+     */
+    public static String trim(byte[] bytes, int from, int to) {
+        int start = trimStart(bytes, from, to);
+        int end = trimEnd(bytes, start, to);
+        return new String(bytes, start, end - start, StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * 第一个等于 targets 中任意一个字节的下标，没有则返回 -1
+     *
+     * 目标不超过 4 个时用 SWAR（每个目标一次异或 + 零字节检测），否则查 256 项的表。
+     */
+    public static int indexOfAny(byte[] bytes, int from, int to, byte... targets) {
+        return indexOfAny(words(bytes), bytes, from, to, targets);
+    }
+
+    /**
+     * @param words words(bytes) 的结果，可以在多次调用之间复用
+     */
+    public static int indexOfAny(ByteBuffer words, byte[] bytes, int from, int to, byte[] targets) {
+        if (targets.length == 0) {
+            return -1;
+        }
+        if (targets.length > 4) {
+            boolean[] table = new boolean[256];
+            for (byte t : targets) {
+                table[t & 0xFF] = true;
+            }
+            for (int i = from; i < to; i++) {
+                if (table[bytes[i] & 0xFF]) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+        long[] patterns = new long[targets.length];
+        for (int t = 0; t < targets.length; t++) {
+            patterns[t] = ONES * (targets[t] & 0xFF);
+        }
+        int i = from;
+        for (; i + 8 <= to; i += 8) {
+            long x = words.getLong(i);
+            long mask = 0;
+            for (long pattern : patterns) {
+                mask |= zeroBytes(x ^ pattern);
+            }
+            if (mask != 0) {
+                return i + (Long.numberOfTrailingZeros(mask) >>> 3);
+            }
+        }
+        for (; i < to; i++) {
+            for (byte t : targets) {
+                if (bytes[i] == t) {
+                    return i;
+                }
+            }
+        }
+        return -1;
+    }
+
+    public static int indexOf(byte[] bytes, int from, int to, byte target) {
+        return indexOf(words(bytes), bytes, from, to, target);
+    }
+
+    /**
+     * @param words words(bytes) 的结果，可以在多次调用之间复用
+     */
+    public static int indexOf(ByteBuffer words, byte[] bytes, int from, int to, byte target) {
+        long pattern = ONES * (target & 0xFF);
+        int i = from;
+        for (; i + 8 <= to; i += 8) {
+            long mask = zeroBytes(words.getLong(i) ^ pattern);
+            if (mask != 0) {
+                return i + (Long.numberOfTrailingZeros(mask) >>> 3);
+            }
+        }
+        for (; i < to; i++) {
+            if (bytes[i] == target) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,84 @@
+package text;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * 码点位图：覆盖全部 Unicode 码点（0 ~ 0x10FFFF），共 136KB，add / contains 都是一次位运算
+ *
+ * 替代 words.stream().map(s -> s.split("")).flatMap(Arrays::stream).distinct()：
+ *      CodePointSet.distinct(text.codePoints())
+ * 不会为每个字符创建 String，也不需要 HashSet 装箱。
+ */
+public class CodePointSet {
+
+    private static final int WORDS = (Character.MAX_CODE_POINT + 1) >>> 6;
+
+    private final long[] bits = new long[WORDS];
+
+    public void add(int codePoint) {
+        bits[codePoint >>> 6] |= 1L << codePoint;
+    }
+
+    public boolean contains(int codePoint) {
+        return (bits[codePoint >>> 6] & (1L << codePoint)) != 0;
+    }
+
+    public void addAll(CodePointSet other) {
+        for (int i = 0; i < WORDS; i++) {
+            bits[i] |= other.bits[i];
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (long word : bits) {
+            size += Long.bitCount(word);
+        }
+        return size;
+    }
+
+    /**
+     * 按码点升序遍历
+     */
+    public void forEach(IntConsumer action) {
+        for (int i = 0; i < WORDS; i++) {
+            long word = bits[i];
+            while (word != 0) {
+                action.accept((i << 6) + Long.numberOfTrailingZeros(word));
+                word &= word - 1;
+            }
+        }
+    }
+
+    public int[] toArray() {
+        int[] result = new int[size()];
+        int[] pos = {0};
+        forEach(cp -> result[pos[0]++] = cp);
+        return result;
+    }
+
+    public IntStream stream() {
+        return Arrays.stream(toArray());
+    }
+
+    /**
+     * 收集流中出现过的码点，可以并行（每个子任务一个位图，最后按位或合并）
+     */
+    public static CodePointSet distinct(IntStream codePoints) {
+        return codePoints.collect(CodePointSet::new, CodePointSet::add, CodePointSet::addAll);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("[");
+        forEach(cp -> {
+            if (sb.length() > 1) {
+                sb.append(", ");
+            }
+            sb.appendCodePoint(cp);
+        });
+        return sb.append(']').toString();
+    }
+}
@@ -0,0 +1,88 @@
+package text;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+
+/**
+ * 内存映射的文本文件（不超过 2G）
+ *
+ * codePoints()：按 UTF-8 解码成码点流，可并行
+ * asLatin1()：把每个字节当作一个 char 的 CharSequence，不复制、不解码，
+ *      适合 ASCII / Latin-1 语料上的单词统计（UTF-8 文本中的多字节字符会变成若干个 >= 0x80 的 char）
+ */
+public class MappedText {
+
+    private final ByteBuffer buffer;
+
+    private MappedText(ByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    public static MappedText open(Path path) {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException(path + " is larger than 2G");
+            }
+            return new MappedText(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public int byteSize() {
+        return buffer.limit();
+    }
+
+    public IntStream codePoints(boolean parallel) {
+        return StreamSupport.intStream(new Utf8CodePointSpliterator(buffer, 0, buffer.limit()), parallel);
+    }
+
+    public CharSequence asLatin1() {
+        return new Latin1Sequence(buffer, 0, buffer.limit());
+    }
+
+    private static class Latin1Sequence implements CharSequence {
+        private final ByteBuffer buffer;
+        private final int offset;
+        private final int length;
+
+        Latin1Sequence(ByteBuffer buffer, int offset, int length) {
+            this.buffer = buffer;
+            this.offset = offset;
+            this.length = length;
+        }
+
+        @Override
+        public int length() {
+            return length;
+        }
+
+        @Override
+        public char charAt(int index) {
+            return (char) (buffer.get(offset + index) & 0xFF);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            if (start < 0 || end > length || start > end) {
+                throw new IndexOutOfBoundsException("[" + start + ", " + end + ") of " + length);
+            }
+            return new Latin1Sequence(buffer, offset + start, end - start);
+        }
+
+        @Override
+        public String toString() {
+            char[] chars = new char[length];
+            for (int i = 0; i < length; i++) {
+                chars[i] = charAt(i);
+            }
+            return new String(chars);
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package text;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * 一条分隔符记录（CSV / TSV 的一行，不处理引号）的批量字段检查，一次扫描完成：
+ *      1.用 SWAR 查找分隔符，切出每个字段
+ *      2.计算每个字段 trim 之后的区间
+ *      3.记录哪些字段是空白的（最多 64 个字段用一个 long 位图表示）
+ *
+ * 可重复使用：同一个 RecordFields 对象逐行调用 scan，不会为每一行分配对象
+ * （各行在同一个数组中时，例如 ingest.RecordReader 的读缓冲区，只在数组换了之后才重新包装 BulkStrings.words）。
+ *
+ *      RecordFields fields = new RecordFields(16);
+ *      int n = fields.scan(line, 0, line.length, (byte) ',');
+ *      fields.requireCount(4);
+ *      if (fields.blankMask() != 0) { ... 有空字段 ... }
+ *      String name = fields.trimmed(line, 0);
+ *
+ * 分隔符、空白和数字都是单字节的 ASCII，只有 trimmed 需要知道字符集（默认 UTF-8，必须兼容 ASCII，见 BulkStrings）。
+ * 字段全是 ASCII 时走快速路径，按 ISO_8859_1 逐字节复制，不经过字符集解码器。
+ */
+public class RecordFields {
+
+    private int[] starts;
+    private int[] ends;
+    private int count;
+    private long blankMask;
+    private final Charset charset;
+    //上一次 scan 的数组及其 BulkStrings.words 视图
+    private byte[] wrapped;
+    private ByteBuffer words;
+
+    public RecordFields(int expectedFields) {
+        this(expectedFields, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @param charset trimmed 解码非 ASCII 字段时使用的字符集
+     */
+    public RecordFields(int expectedFields, Charset charset) {
+        this.starts = new int[Math.max(1, expectedFields)];
+        this.ends = new int[starts.length];
+        this.charset = charset;
+    }
+
+    /**
+     * 扫描 line[from, to)
+     *
+     * @return 字段个数
+     */
+    public int scan(byte[] line, int from, int to, byte delimiter) {
+        if (line != wrapped) {
+            words = BulkStrings.words(line);
+            wrapped = line;
+        }
+        count = 0;
+        blankMask = 0;
+        int start = from;
+        while (true) {
+            int end = BulkStrings.indexOf(words, line, start, to, delimiter);
+            if (end < 0) {
+                end = to;
+            }
+            add(line, start, end);
+            if (end == to) {
+                return count;
+            }
+            start = end + 1;
+        }
+    }
+
+    private void add(byte[] line, int start, int end) {
+        if (count == starts.length) {
+            starts = Arrays.copyOf(starts, count * 2);
+            ends = Arrays.copyOf(ends, count * 2);
+        }
+        int s = BulkStrings.trimStart(words, line, start, end);
+        int e = BulkStrings.trimEnd(words, line, s, end);
+        starts[count] = s;
+        ends[count] = e;
+        //trim 后还有内容说明存在 > ' ' 的字节，一定不是空白，不必再扫一遍
+        if (count < 64 && s == e && BulkStrings.isBlank(words, line, start, end)) {
+            blankMask |= 1L << count;
+        }
+        count++;
+    }
+
+    public int count() {
+        return count;
+    }
+
+    /**
+     * 字段个数必须正好是 expected：缺列时后面的下标会读到上一行残留的位置，多列则会被悄悄忽略
+     */
+    public void requireCount(int expected) {
+        if (count != expected) {
+            throw new IllegalArgumentException("expected " + expected + " fields but found " + count);
+        }
+    }
+
+    private int check(int field) {
+        if (field < 0 || field >= count) {
+            throw new IndexOutOfBoundsException("field " + field + " of " + count);
+        }
+        return field;
+    }
+
+    /**
+     * 第 i 位为 1 表示第 i 个字段是空白（只记录前 64 个字段）
+     */
+    public long blankMask() {
+        return blankMask;
+    }
+
+    public boolean isBlank(int field) {
+        return (blankMask & (1L << check(field))) != 0;
+    }
+
+    /**
+     * 第 field 个字段 trim 之后的起止位置
+     */
+    public int start(int field) {
+        return starts[check(field)];
+    }
+
+    public int end(int field) {
+        return ends[check(field)];
+    }
+
+    public String trimmed(byte[] line, int field) {
+        int start = starts[check(field)];
+        int length = ends[field] - start;
+        boolean ascii = line == wrapped ? BulkStrings.isAscii(words, line, start, ends[field]) : BulkStrings.isAscii(line, start, ends[field]);
+        return new String(line, start, length, ascii ? StandardCharsets.ISO_8859_1 : charset);
+    }
+
+    /**
+     * 在原字节上解析十进制整数（可带 + / - 号），不创建 String
+     */
+    public long longValue(byte[] line, int field) {
+        int i = starts[check(field)];
+        int end = ends[field];
+        boolean negative = false;
+        if (i < end && (line[i] == '-' || line[i] == '+')) {
+            negative = line[i] == '-';
+            i++;
+        }
+        if (i == end || end - i > 18) {
+            throw new IllegalArgumentException("not a number: \"" + trimmed(line, field) + "\"");
+        }
+        long value = 0;
+        for (; i < end; i++) {
+            int digit = line[i] - '0';
+            if (digit < 0 || digit > 9) {
+                throw new IllegalArgumentException("not a number: \"" + trimmed(line, field) + "\"");
+            }
+            value = value * 10 + digit;
+        }
+        return negative ? -value : value;
+    }
+
+    public int intValue(byte[] line, int field) {
+        long value = longValue(line, field);
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("int overflow: " + value);
+        }
+        return (int) value;
+    }
+
+    /**
+     * true / false（不区分大小写）或 1 / 0
+     */
+    public boolean booleanValue(byte[] line, int field) {
+        if (equalsIgnoreCase(line, field, "true") || equalsIgnoreCase(line, field, "1")) {
+            return true;
+        }
+        if (equalsIgnoreCase(line, field, "false") || equalsIgnoreCase(line, field, "0")) {
+            return false;
+        }
+        throw new IllegalArgumentException("not a boolean: \"" + trimmed(line, field) + "\"");
+    }
+
+    /**
+     * 字段内容是否等于 ASCII 字符串 value（不区分大小写），不创建 String
+     */
+    public boolean equalsIgnoreCase(byte[] line, int field, String value) {
+        int start = starts[check(field)];
+        if (ends[field] - start != value.length()) {
+            return false;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            int a = line[start + i];
+            int b = value.charAt(i);
+            if (a == b) {
+                continue;
+            }
+            int lower = a | 0x20;
+            if (lower != (b | 0x20) || lower < 'a' || lower > 'z') {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,31 @@
+package text;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * 对照 StreamDemo 中 flatMap 求不重复字符的例子
+ */
+public class TextDemo {
+
+    public static void main(String[] args) {
+        List<String> words = Arrays.asList("hello", "world");
+
+        //书中的写法：每个字符一个 String，每个单词一个 String[]
+        List<String> chars = words.stream()
+                .map(s -> s.split(""))
+                .flatMap(Arrays::stream)
+                .distinct()
+                .collect(Collectors.toList());
+        System.out.println("flatMap + distinct : " + chars);
+
+        //码点流 + 位图去重：没有装箱，也没有中间字符串（结果按码点排序）
+        CodePointSet set = CodePointSet.distinct(words.stream().flatMapToInt(String::codePoints));
+        System.out.println("CodePointSet.distinct : " + set);
+
+        String text = "the quick brown fox jumps over the lazy dog, the end";
+        System.out.println("单词数 : " + WordStats.countWords(text, true));
+        System.out.println("Top 2 : " + WordStats.topWords(text, 2, true));
+    }
+}
@@ -0,0 +1,98 @@
+package text;
+
+import java.nio.ByteBuffer;
+import java.util.Spliterator;
+import java.util.function.IntConsumer;
+
+/**
+ * 直接在 UTF-8 字节（例如内存映射文件）上解码码点，不先转换成 String
+ *
+ * 拆分时从中点向后跳过 10xxxxxx 续字节，保证每个多字节字符只属于一个子区间。
+ * 非法字节序列解码为 U+FFFD。
+ */
+public class Utf8CodePointSpliterator implements Spliterator.OfInt {
+
+    private static final int MIN_SPLIT_BYTES = 16 * 1024;
+    private static final int REPLACEMENT = 0xFFFD;
+
+    private final ByteBuffer buffer;
+    private int from;
+    private final int to;
+
+    public Utf8CodePointSpliterator(ByteBuffer buffer, int from, int to) {
+        this.buffer = buffer;
+        this.from = from;
+        this.to = to;
+    }
+
+    @Override
+    public OfInt trySplit() {
+        if (to - from < MIN_SPLIT_BYTES * 2) {
+            return null;
+        }
+        int mid = from + ((to - from) >>> 1);
+        while (mid < to && (buffer.get(mid) & 0xC0) == 0x80) {
+            mid++;
+        }
+        if (mid >= to) {
+            return null;
+        }
+        Utf8CodePointSpliterator prefix = new Utf8CodePointSpliterator(buffer, from, mid);
+        from = mid;
+        return prefix;
+    }
+
+    @Override
+    public boolean tryAdvance(IntConsumer action) {
+        if (from >= to) {
+            return false;
+        }
+        action.accept(decode());
+        return true;
+    }
+
+    @Override
+    public void forEachRemaining(IntConsumer action) {
+        while (from < to) {
+            action.accept(decode());
+        }
+    }
+
+    private int decode() {
+        int b0 = buffer.get(from++) & 0xFF;
+        if (b0 < 0x80) {
+            return b0;
+        }
+        int extra;
+        int cp;
+        if ((b0 & 0xE0) == 0xC0) {
+            extra = 1;
+            cp = b0 & 0x1F;
+        } else if ((b0 & 0xF0) == 0xE0) {
+            extra = 2;
+            cp = b0 & 0x0F;
+        } else if ((b0 & 0xF8) == 0xF0) {
+            extra = 3;
+            cp = b0 & 0x07;
+        } else {
+            return REPLACEMENT;
+        }
+        for (int i = 0; i < extra; i++) {
+            if (from >= to || (buffer.get(from) & 0xC0) != 0x80) {
+                return REPLACEMENT;
+            }
+            cp = (cp << 6) | (buffer.get(from++) & 0x3F);
+        }
+        return cp > Character.MAX_CODE_POINT ? REPLACEMENT : cp;
+    }
+
+    @Override
+    public long estimateSize() {
+        return to - from;
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED | NONNULL | IMMUTABLE;
+    }
+}
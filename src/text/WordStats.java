@@ -0,0 +1,133 @@
+package text;
+
+import numeric.RangePartitioner;
+
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * 大文本的单词统计
+ *
+ * 单词：连续的字母或数字（代理对视为字母，不会被拆开）。
+ *
+ * 并行计数：把文本按字符数平均切块，每块统计 单词数 + 是否以单词开头 + 是否以单词结尾，
+ * 合并相邻两块时如果左块以单词结尾、右块以单词开头，说明有一个单词被切成了两半，总数减一。
+ *
+ * 并行词频：切块边界向后移动到单词之外，每块一张 WordTable，最后合并。
+ */
+public class WordStats {
+
+    private WordStats() {
+    }
+
+    static boolean isWordChar(char c) {
+        return Character.isLetterOrDigit(c) || Character.isSurrogate(c);
+    }
+
+    public static long countWords(CharSequence text, boolean parallel) {
+        if (!parallel || text.length() < 64 * 1024) {
+            return Chunk.of(text, 0, text.length()).words;
+        }
+        int[] bounds = RangePartitioner.even(0, text.length(), parts());
+        return IntStream.range(0, bounds.length - 1).parallel()
+                .mapToObj(i -> Chunk.of(text, bounds[i], bounds[i + 1]))
+                .reduce(Chunk::combine)
+                .map(c -> c.words)
+                .orElse(0L);
+    }
+
+    /**
+     * 词频表
+     */
+    public static WordTable frequencies(CharSequence text, boolean parallel) {
+        if (!parallel || text.length() < 64 * 1024) {
+            WordTable table = new WordTable();
+            scan(text, 0, text.length(), table);
+            return table;
+        }
+        int[] bounds = RangePartitioner.even(0, text.length(), parts());
+        for (int i = 1; i < bounds.length - 1; i++) {
+            int pos = Math.max(bounds[i], bounds[i - 1]);
+            while (pos < text.length() && isWordChar(text.charAt(pos)) && isWordChar(text.charAt(pos - 1))) {
+                pos++;
+            }
+            bounds[i] = pos;
+        }
+        return IntStream.range(0, bounds.length - 1).parallel()
+                .mapToObj(i -> {
+                    WordTable table = new WordTable();
+                    scan(text, bounds[i], Math.max(bounds[i], bounds[i + 1]), table);
+                    return table;
+                })
+                .reduce((a, b) -> {
+                    a.addAll(b);
+                    return a;
+                })
+                .orElseGet(WordTable::new);
+    }
+
+    /**
+     * 出现次数最多的 n 个单词（小写），按次数降序
+     */
+    public static Map<String, Integer> topWords(CharSequence text, int n, boolean parallel) {
+        return frequencies(text, parallel).top(n);
+    }
+
+    private static void scan(CharSequence text, int from, int to, WordTable table) {
+        int start = -1;
+        for (int i = from; i < to; i++) {
+            if (isWordChar(text.charAt(i))) {
+                if (start < 0) {
+                    start = i;
+                }
+            } else if (start >= 0) {
+                table.add(text, start, i);
+                start = -1;
+            }
+        }
+        if (start >= 0) {
+            table.add(text, start, to);
+        }
+    }
+
+    private static int parts() {
+        return ForkJoinPool.getCommonPoolParallelism() * 4;
+    }
+
+    /**
+     * 一个文本块的统计结果
+     */
+    private static class Chunk {
+        final long words;
+        final boolean startsInWord;
+        final boolean endsInWord;
+
+        Chunk(long words, boolean startsInWord, boolean endsInWord) {
+            this.words = words;
+            this.startsInWord = startsInWord;
+            this.endsInWord = endsInWord;
+        }
+
+        static Chunk of(CharSequence text, int from, int to) {
+            long words = 0;
+            boolean inWord = false;
+            for (int i = from; i < to; i++) {
+                boolean word = isWordChar(text.charAt(i));
+                if (word && !inWord) {
+                    words++;
+                }
+                inWord = word;
+            }
+            return new Chunk(words, from < to && isWordChar(text.charAt(from)), inWord);
+        }
+
+        /**
+         * 左右两块相邻，且块非空（RangePartitioner 保证）
+         */
+        Chunk combine(Chunk right) {
+            long stitched = endsInWord && right.startsInWord ? 1 : 0;
+            return new Chunk(words + right.words - stitched, startsInWord, right.endsInWord);
+        }
+    }
+}
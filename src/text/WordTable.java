@@ -0,0 +1,178 @@
+package text;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * 单词计数表（开放寻址）
+ *
+ * 查找时直接拿原文中的 [start, end) 区间计算哈希、逐字符比较，只有第一次出现的单词才会创建 String，
+ * 重复出现的单词不产生任何对象。单词统一按小写处理：逐字符 Character.toLowerCase，与默认 Locale 无关
+ * （String.toLowerCase 在土耳其语等 Locale 下会把 'I' 转成其他字符，与逐字符转换的结果不一致）。
+ */
+public class WordTable {
+
+    private String[] keys;
+    private int[] hashes;
+    private int[] counts;
+    private int size;
+
+    public WordTable() {
+        this(64);
+    }
+
+    public WordTable(int expected) {
+        int capacity = Integer.highestOneBit(Math.max(16, expected * 2 - 1)) << 1;
+        keys = new String[capacity];
+        hashes = new int[capacity];
+        counts = new int[capacity];
+    }
+
+    /**
+     * 单词 text[start, end) 计数加一
+     */
+    public void add(CharSequence text, int start, int end) {
+        int hash = hash(text, start, end);
+        int mask = keys.length - 1;
+        int slot = mix(hash) & mask;
+        while (keys[slot] != null) {
+            if (hashes[slot] == hash && matches(keys[slot], text, start, end)) {
+                counts[slot]++;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        StringBuilder sb = new StringBuilder(end - start);
+        for (int i = start; i < end; i++) {
+            sb.append(Character.toLowerCase(text.charAt(i)));
+        }
+        insert(sb.toString(), hash, 1);
+    }
+
+    /**
+     * 合并另一张表的计数
+     */
+    public void addAll(WordTable other) {
+        for (int i = 0; i < other.keys.length; i++) {
+            String key = other.keys[i];
+            if (key != null) {
+                add(key, other.hashes[i], other.counts[i]);
+            }
+        }
+    }
+
+    private void add(String key, int hash, int count) {
+        int mask = keys.length - 1;
+        int slot = mix(hash) & mask;
+        while (keys[slot] != null) {
+            if (hashes[slot] == hash && keys[slot].equals(key)) {
+                counts[slot] += count;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        insert(key, hash, count);
+    }
+
+    private void insert(String key, int hash, int count) {
+        if ((size + 1) * 2 > keys.length) {
+            resize();
+        }
+        int mask = keys.length - 1;
+        int slot = mix(hash) & mask;
+        while (keys[slot] != null) {
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        hashes[slot] = hash;
+        counts[slot] = count;
+        size++;
+    }
+
+    private void resize() {
+        String[] oldKeys = keys;
+        int[] oldHashes = hashes;
+        int[] oldCounts = counts;
+        keys = new String[oldKeys.length * 2];
+        hashes = new int[oldKeys.length * 2];
+        counts = new int[oldKeys.length * 2];
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != null) {
+                insert(oldKeys[i], oldHashes[i], oldCounts[i]);
+            }
+        }
+    }
+
+    private static int hash(CharSequence text, int start, int end) {
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + Character.toLowerCase(text.charAt(i));
+        }
+        return hash;
+    }
+
+    private static boolean matches(String key, CharSequence text, int start, int end) {
+        if (key.length() != end - start) {
+            return false;
+        }
+        for (int i = start, j = 0; i < end; i++, j++) {
+            if (Character.toLowerCase(text.charAt(i)) != key.charAt(j)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int mix(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int count(CharSequence word) {
+        int hash = hash(word, 0, word.length());
+        int mask = keys.length - 1;
+        int slot = mix(hash) & mask;
+        while (keys[slot] != null) {
+            if (hashes[slot] == hash && matches(keys[slot], word, 0, word.length())) {
+                return counts[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return 0;
+    }
+
+    /**
+     * 出现次数最多的 n 个单词，按次数降序；次数相同按字母序
+     */
+    public Map<String, Integer> top(int n) {
+        Comparator<Integer> bySlot = Comparator.<Integer>comparingInt(slot -> counts[slot])
+                .thenComparing(slot -> keys[slot], Comparator.reverseOrder());
+        //小顶堆，堆顶是当前第 n 名
+        PriorityQueue<Integer> heap = new PriorityQueue<>(Math.max(1, n), bySlot);
+        for (int slot = 0; slot < keys.length && n > 0; slot++) {
+            if (keys[slot] == null) {
+                continue;
+            }
+            if (heap.size() < n) {
+                heap.add(slot);
+            } else if (bySlot.compare(slot, heap.peek()) > 0) {
+                heap.poll();
+                heap.add(slot);
+            }
+        }
+        Integer[] slots = heap.toArray(new Integer[0]);
+        Arrays.sort(slots, bySlot.reversed());
+        Map<String, Integer> result = new LinkedHashMap<>();
+        for (Integer slot : slots) {
+            result.put(keys[slot], counts[slot]);
+        }
+        return result;
+    }
+}
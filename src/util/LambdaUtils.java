@@ -43,6 +43,7 @@ public class LambdaUtils {
 
     /**
      * 改变集合中元素
+     * 注：consumer 会修改共享的元素，只能顺序执行；并行流中收集结果请使用 sink.ShardedBuffer
      * @param list
      * @param consumers
      * @param <T>
@@ -0,0 +1,118 @@
+package validation;
+
+import java.util.function.Predicate;
+
+/**
+ * 手写的数值范围校验器：一次从左到右扫描 CharSequence，不分配任何对象
+ *
+ * 接受的格式（与正则 ^(\d|[1-9]\d*)(\.\d{1,n})?$ 相同，再加上范围限制）：
+ *      整数部分：0 或不以 0 开头的数字
+ *      小数部分：可选，小数点后 1 ~ maxDecimals 位
+ *      数值范围：0 ~ max（等于 max 时小数部分只能全为 0，例如 100.00）
+ *
+ *      DecimalRange.PERCENT.test("66.00")   true
+ *      DecimalRange.PERCENT.test("100.5")   false
+ *      DecimalRange.PERCENT.test("07")      false
+ */
+public class DecimalRange implements Predicate<CharSequence> {
+
+    /**
+     * 0 ~ 100，最多两位小数（TestMain 中成绩校验的格式）
+     */
+    public static final DecimalRange PERCENT = of(100, 2);
+
+    private final long max;
+    private final int maxDecimals;
+
+    private DecimalRange(long max, int maxDecimals) {
+        this.max = max;
+        this.maxDecimals = maxDecimals;
+    }
+
+    /**
+     * @param max         上限（包含），必须 >= 0 且不超过 10^17，保证累加不溢出
+     * @param maxDecimals 最多几位小数，0 表示只能是整数
+     */
+    public static DecimalRange of(long max, int maxDecimals) {
+        if (max < 0 || max > 100_000_000_000_000_000L) {
+            throw new IllegalArgumentException("max out of range: " + max);
+        }
+        if (maxDecimals < 0) {
+            throw new IllegalArgumentException("maxDecimals must not be negative: " + maxDecimals);
+        }
+        return new DecimalRange(max, maxDecimals);
+    }
+
+    @Override
+    public boolean test(CharSequence cs) {
+        return cs != null && test(cs, 0, cs.length());
+    }
+
+    /**
+     * 校验 cs[start, end)，可以直接校验一行记录中的某个字段而不必先截取子串
+     */
+    public boolean test(CharSequence cs, int start, int end) {
+        if (start >= end) {
+            return false;
+        }
+        int i = start;
+        char c = cs.charAt(i);
+        if (c < '0' || c > '9') {
+            return false;
+        }
+        long value = c - '0';
+        i++;
+        if (value == 0 && i < end && isDigit(cs.charAt(i))) {
+            //不允许前导 0
+            return false;
+        }
+        while (i < end && isDigit(c = cs.charAt(i))) {
+            value = value * 10 + (c - '0');
+            if (value > max) {
+                return false;
+            }
+            i++;
+        }
+        if (value > max) {
+            return false;
+        }
+        if (i == end) {
+            return true;
+        }
+        if (cs.charAt(i) != '.' || maxDecimals == 0) {
+            return false;
+        }
+        i++;
+        int decimals = end - i;
+        if (decimals < 1 || decimals > maxDecimals) {
+            return false;
+        }
+        boolean zero = true;
+        for (; i < end; i++) {
+            c = cs.charAt(i);
+            if (!isDigit(c)) {
+                return false;
+            }
+            zero &= c == '0';
+        }
+        //等于上限时不能再有非零小数
+        return value < max || zero;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    public int getMaxDecimals() {
+        return maxDecimals;
+    }
+
+    @Override
+    public String toString() {
+        return "DecimalRange[0, " + max + "], decimals <= " + maxDecimals;
+    }
+}
@@ -0,0 +1,89 @@
+package validation;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * 正则缓存
+ *
+ * Pattern.matches(regex, input) 每次调用都会重新编译正则，编译比匹配本身贵得多。
+ * Pattern 是线程安全的（Matcher 不是），编译一次后可以被所有线程共用。
+ *
+ * 缓存有上限，超过后整体清空，防止把用户输入当作正则传进来导致内存无限增长。
+ */
+public class PatternCache {
+
+    private static final PatternCache DEFAULT = new PatternCache(256);
+
+    private final int maxSize;
+    private final ConcurrentHashMap<Key, Pattern> patterns = new ConcurrentHashMap<>();
+
+    public PatternCache(int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize must be positive: " + maxSize);
+        }
+        this.maxSize = maxSize;
+    }
+
+    public static PatternCache getDefault() {
+        return DEFAULT;
+    }
+
+    public Pattern get(String regex) {
+        return get(regex, 0);
+    }
+
+    public Pattern get(String regex, int flags) {
+        Key key = new Key(regex, flags);
+        Pattern pattern = patterns.get(key);
+        if (pattern != null) {
+            return pattern;
+        }
+        if (patterns.size() >= maxSize) {
+            patterns.clear();
+        }
+        return patterns.computeIfAbsent(key, k -> Pattern.compile(k.regex, k.flags));
+    }
+
+    /**
+     * 与 Pattern.matches(regex, input) 等价，但正则只编译一次
+     */
+    public boolean matches(String regex, CharSequence input) {
+        return get(regex).matcher(input).matches();
+    }
+
+    public static boolean matchesCached(String regex, CharSequence input) {
+        return DEFAULT.matches(regex, input);
+    }
+
+    public int size() {
+        return patterns.size();
+    }
+
+    private static final class Key {
+        private final String regex;
+        private final int flags;
+
+        Key(String regex, int flags) {
+            this.regex = regex;
+            this.flags = flags;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return flags == other.flags && regex.equals(other.regex);
+        }
+
+        @Override
+        public int hashCode() {
+            return regex.hashCode() * 31 + flags;
+        }
+    }
+}
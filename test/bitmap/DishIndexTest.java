@@ -0,0 +1,46 @@
+package bitmap;
+
+import bench.Datasets;
+import domain.Dish;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DishIndexTest {
+
+    @Test
+    void calorieRangesMatchFilter() {
+        List<Dish> dishes = Datasets.dishes(20_000, 42);
+        assertRangesMatch(dishes, DishIndex.of(dishes), new Random(1));
+        assertRangesMatch(dishes, DishIndex.of(dishes, 37), new Random(2));
+    }
+
+    @Test
+    void outliersDoNotBlowUpTheIndex() {
+        List<Dish> dishes = new ArrayList<>(Datasets.dishes(20_000, 42));
+        dishes.add(new Dish("outlier", false, 50_000_000, Dish.Type.MEAT));
+        dishes.add(new Dish("max", false, Integer.MAX_VALUE, Dish.Type.MEAT));
+        dishes.add(new Dish("min", true, Integer.MIN_VALUE, Dish.Type.FISH));
+        DishIndex index = DishIndex.of(dishes);
+        //最多 MAX_BUCKETS 个桶，每个桶一张范围编码的位图；行号都在第一个 65536 块内，每张位图最多 8KB
+        assertTrue(index.sizeInBytes() < DishIndex.MAX_BUCKETS * 9 * 1024L,
+                "index size " + index.sizeInBytes());
+        assertRangesMatch(dishes, index, new Random(3));
+        assertEquals(2, index.caloriesAbove(10_000_000).cardinality());
+        assertEquals(1, index.caloriesBelow(0).cardinality());
+    }
+
+    private static void assertRangesMatch(List<Dish> dishes, DishIndex index, Random random) {
+        for (int i = 0; i < 200; i++) {
+            int from = random.nextInt(8) == 0 ? Integer.MIN_VALUE : random.nextInt(1500) - 100;
+            int to = random.nextInt(8) == 0 ? Integer.MAX_VALUE : from + random.nextInt(600);
+            long expected = dishes.stream().filter(d -> d.getCalories() >= from && d.getCalories() <= to).count();
+            assertEquals(expected, index.caloriesBetween(from, to).cardinality(), "[" + from + ", " + to + "]");
+        }
+    }
+}
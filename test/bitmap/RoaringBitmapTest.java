@@ -0,0 +1,119 @@
+package bitmap;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 与 BitSet 对照：每个位图由稀疏块（数组容器）和稠密块（位图容器）混合组成，运算的两边和结果都会跨越 4096 的分界
+ */
+class RoaringBitmapTest {
+
+    @Test
+    void setOperationsMatchBitSet() {
+        Random random = new Random(1);
+        for (int trial = 0; trial < 20; trial++) {
+            BitSet a = randomSet(random);
+            BitSet b = randomSet(random);
+            RoaringBitmap x = toBitmap(a);
+            RoaringBitmap y = toBitmap(b);
+            assertContent(a, x);
+
+            BitSet and = (BitSet) a.clone();
+            and.and(b);
+            assertContent(and, x.and(y));
+            assertEquals(and.cardinality(), x.andCardinality(y));
+
+            BitSet or = (BitSet) a.clone();
+            or.or(b);
+            assertContent(or, x.or(y));
+
+            BitSet andNot = (BitSet) a.clone();
+            andNot.andNot(b);
+            assertContent(andNot, x.andNot(y));
+        }
+    }
+
+    @Test
+    void unionOfOverlappingArraysStaysAnArray() {
+        //两边各 3000 个元素，合计超过 4096，但并集只有 4000 个
+        RoaringBitmap.Builder a = new RoaringBitmap.Builder();
+        RoaringBitmap.Builder b = new RoaringBitmap.Builder();
+        for (int i = 0; i < 3000; i++) {
+            a.add(i * 2);
+            b.add(i * 2 + (i < 2000 ? 0 : 1));
+        }
+        RoaringBitmap union = a.build().or(b.build());
+        assertEquals(4000, union.cardinality());
+        //数组容器 2 字节一个元素，位图容器固定 8KB
+        assertTrue(union.sizeInBytes() < 8192, "size " + union.sizeInBytes());
+    }
+
+    @Test
+    void rangeAndOf() {
+        RoaringBitmap range = RoaringBitmap.range(65_000, 140_000);
+        assertEquals(75_000, range.cardinality());
+        assertTrue(range.contains(65_000));
+        assertTrue(range.contains(139_999));
+        assertFalse(range.contains(140_000));
+        assertEquals(RoaringBitmap.of(5, 3, 3, 70_000), RoaringBitmap.of(3, 5, 70_000));
+        assertArrayEquals(new int[]{3, 5, 70_000}, RoaringBitmap.of(70_000, 5, 3).toArray());
+        assertTrue(RoaringBitmap.empty().isEmpty());
+        assertEquals(0, range.andNot(range).cardinality());
+    }
+
+    @Test
+    void builderRejectsNegativeAndDescendingValues() {
+        assertThrows(IllegalArgumentException.class, () -> new RoaringBitmap.Builder().add(-1));
+        assertThrows(IllegalArgumentException.class, () -> new RoaringBitmap.Builder().add(5).add(4));
+        assertThrows(IllegalArgumentException.class, () -> RoaringBitmap.range(5, 4));
+    }
+
+    /**
+     * 每个 65536 的块随机选择：空、稀疏（几百个）、接近 4096、稠密
+     */
+    private static BitSet randomSet(Random random) {
+        BitSet set = new BitSet();
+        for (int chunk = 0; chunk < 6; chunk++) {
+            int base = chunk << 16;
+            int n;
+            switch (random.nextInt(4)) {
+                case 0:
+                    n = 0;
+                    break;
+                case 1:
+                    n = random.nextInt(500);
+                    break;
+                case 2:
+                    n = 3500 + random.nextInt(1200);
+                    break;
+                default:
+                    n = 20_000 + random.nextInt(40_000);
+                    break;
+            }
+            for (int i = 0; i < n; i++) {
+                set.set(base + random.nextInt(1 << 16));
+            }
+        }
+        return set;
+    }
+
+    private static RoaringBitmap toBitmap(BitSet set) {
+        RoaringBitmap.Builder builder = new RoaringBitmap.Builder();
+        set.stream().forEach(builder::add);
+        return builder.build();
+    }
+
+    private static void assertContent(BitSet expected, RoaringBitmap actual) {
+        assertEquals(expected.cardinality(), actual.cardinality());
+        assertArrayEquals(expected.stream().toArray(), actual.toArray());
+        assertEquals(toBitmap(expected), actual);
+    }
+}
@@ -0,0 +1,127 @@
+package cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class QueryCacheTest {
+
+    @Test
+    void computesOncePerDatasetVersion() {
+        QueryCache cache = new QueryCache(16);
+        Dataset<Integer> numbers = cache.register(Dataset.of("numbers", Arrays.asList(1, 2, 3)));
+        AtomicInteger computed = new AtomicInteger();
+        Query<Integer, Integer> sum = Query.of("sum", items -> {
+            computed.incrementAndGet();
+            return items.stream().mapToInt(Integer::intValue).sum();
+        });
+
+        assertEquals(6, cache.get(numbers, sum));
+        assertEquals(6, cache.get(numbers, sum));
+        assertEquals(1, computed.get());
+        assertEquals(1, cache.hits());
+        assertEquals(1, cache.misses());
+
+        numbers.replace(Arrays.asList(10, 20));
+        //旧版本的结果在 replace 时就被删除
+        assertEquals(0, cache.size());
+        assertEquals(30, cache.get(numbers, sum));
+        assertEquals(2, computed.get());
+    }
+
+    @Test
+    void queriesWithDifferentParamsAreDifferentKeys() {
+        QueryCache cache = new QueryCache(16);
+        Dataset<Integer> numbers = cache.register(Dataset.of("numbers", Arrays.asList(1, 2, 3, 4)));
+        assertEquals(2L, (long) cache.get(numbers, above(2)));
+        assertEquals(1L, (long) cache.get(numbers, above(3)));
+        assertEquals(2L, (long) cache.get(numbers, above(2)));
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.hits());
+    }
+
+    @Test
+    void failedComputationIsNotCached() {
+        QueryCache cache = new QueryCache(16);
+        Dataset<Integer> numbers = cache.register(Dataset.of("numbers", Arrays.asList(1, 2)));
+        AtomicInteger calls = new AtomicInteger();
+        Query<Integer, Integer> flaky = Query.of("flaky", items -> {
+            if (calls.incrementAndGet() == 1) {
+                throw new IllegalStateException("first call fails");
+            }
+            return items.size();
+        });
+        assertThrows(IllegalStateException.class, () -> cache.get(numbers, flaky));
+        assertEquals(0, cache.size());
+        assertEquals(2, cache.get(numbers, flaky));
+    }
+
+    @Test
+    void leastRecentlyUsedEntryIsEvicted() {
+        QueryCache cache = new QueryCache(2);
+        Dataset<Integer> numbers = cache.register(Dataset.of("numbers", Arrays.asList(1, 2, 3, 4)));
+        cache.get(numbers, above(0));
+        cache.get(numbers, above(1));
+        cache.get(numbers, above(0));
+        cache.get(numbers, above(2));
+        assertEquals(2, cache.size());
+        long misses = cache.misses();
+        cache.get(numbers, above(0));
+        assertEquals(misses, cache.misses());
+        cache.get(numbers, above(1));
+        assertEquals(misses + 1, cache.misses());
+    }
+
+    @Test
+    void concurrentCallersShareOneComputation() throws Exception {
+        QueryCache cache = new QueryCache(16);
+        Dataset<Integer> numbers = cache.register(Dataset.of("numbers", Arrays.asList(1, 2, 3)));
+        AtomicInteger computed = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        Query<Integer, Integer> slow = Query.of("slow", items -> {
+            computed.incrementAndGet();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return items.size();
+        });
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(() -> cache.get(numbers, slow)));
+            }
+            //等所有调用者都拿到同一个条目后再放行
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (cache.hits() + cache.misses() < 8 && System.nanoTime() < deadline) {
+                Thread.sleep(1);
+            }
+            release.countDown();
+            for (Future<Integer> result : results) {
+                assertEquals(3, result.get(10, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, computed.get());
+        assertTrue(cache.hits() >= 7);
+    }
+
+    private static Query<Integer, Long> above(int threshold) {
+        return Query.of("above", new Object[]{threshold}, items -> items.stream().filter(i -> i > threshold).count());
+    }
+}
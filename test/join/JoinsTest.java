@@ -0,0 +1,107 @@
+package join;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 三种连接算法的下标对与嵌套循环连接相同
+ */
+class JoinsTest {
+
+    //超过并行探测的分块阈值，键有重复、也有两侧各自独有的键
+    private static final int[] LEFT = randomKeys(50_000, 20_000, 1);
+    private static final int[] RIGHT = randomKeys(5_000, 25_000, 2);
+
+    @Test
+    void hashJoinPreservesProbeOrder() {
+        for (boolean parallel : new boolean[]{false, true}) {
+            assertEquals(nestedLoop(LEFT, RIGHT, false), toList(HashJoin.pairs(LEFT, RIGHT, parallel)));
+        }
+    }
+
+    @Test
+    void hashJoinLeftOuter() {
+        IntHashIndex index = IntHashIndex.build(RIGHT, false);
+        assertEquals(nestedLoop(LEFT, RIGHT, true), toList(HashJoin.pairs(LEFT, index, true, true)));
+    }
+
+    @Test
+    void sortMergeJoinMatchesSameSet() {
+        List<String> expected = nestedLoop(LEFT, RIGHT, false);
+        Collections.sort(expected);
+        for (boolean parallel : new boolean[]{false, true}) {
+            JoinPairs pairs = SortMergeJoin.pairs(LEFT, RIGHT, parallel);
+            for (int i = 1; i < pairs.size(); i++) {
+                assertTrue(LEFT[pairs.left(i - 1)] <= LEFT[pairs.left(i)], "not sorted by key at " + i);
+            }
+            List<String> actual = toList(pairs);
+            Collections.sort(actual);
+            assertEquals(expected, actual);
+        }
+    }
+
+    @Test
+    void broadcastJoinDenseAndSparseKeys() {
+        //编号连续的维度表走数组下标，稀疏的走 IntHashIndex
+        int[] dense = new int[1000];
+        for (int i = 0; i < dense.length; i++) {
+            dense[i] = dense.length - 1 - i;
+        }
+        int[] probe = randomKeys(50_000, 1200, 3);
+        int[] sparse = Arrays.stream(dense).map(k -> k * 100_003).toArray();
+        int[] sparseProbe = Arrays.stream(probe).map(k -> k * 100_003).toArray();
+        for (boolean parallel : new boolean[]{false, true}) {
+            for (boolean leftOuter : new boolean[]{false, true}) {
+                assertEquals(nestedLoop(probe, dense, leftOuter), toList(BroadcastJoin.pairs(probe, dense, leftOuter, parallel)));
+                assertEquals(nestedLoop(sparseProbe, sparse, leftOuter), toList(BroadcastJoin.pairs(sparseProbe, sparse, leftOuter, parallel)));
+            }
+        }
+    }
+
+    @Test
+    void emptySides() {
+        assertEquals(0, HashJoin.pairs(new int[0], RIGHT, true).size());
+        assertEquals(0, SortMergeJoin.pairs(LEFT, new int[0], true).size());
+        assertEquals(LEFT.length, BroadcastJoin.pairs(LEFT, new int[0], true, true).size());
+    }
+
+    /**
+     * 按左侧行顺序、同一行内按右侧行顺序
+     */
+    private static List<String> nestedLoop(int[] left, int[] right, boolean leftOuter) {
+        List<String> pairs = new ArrayList<>();
+        for (int i = 0; i < left.length; i++) {
+            boolean matched = false;
+            for (int j = 0; j < right.length; j++) {
+                if (left[i] == right[j]) {
+                    pairs.add(i + "," + j);
+                    matched = true;
+                }
+            }
+            if (!matched && leftOuter) {
+                pairs.add(i + ",-1");
+            }
+        }
+        return pairs;
+    }
+
+    private static List<String> toList(JoinPairs pairs) {
+        List<String> list = new ArrayList<>(pairs.size());
+        for (int i = 0; i < pairs.size(); i++) {
+            list.add(pairs.left(i) + "," + pairs.right(i));
+        }
+        return list;
+    }
+
+    private static int[] randomKeys(int n, int bound, long seed) {
+        return new Random(seed).ints(n, 0, bound).toArray();
+    }
+}
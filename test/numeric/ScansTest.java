@@ -0,0 +1,85 @@
+package numeric;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * 并行版本与逐个累加的结果一致；长度取 100000，超过并行阈值并且不能被段数整除
+ */
+class ScansTest {
+
+    private static final int N = 100_000;
+
+    @Test
+    void exampleFromClassDoc() {
+        int[] values = {3, 1, 4, 1, 5};
+        assertArrayEquals(new long[]{3, 4, 8, 9, 14}, Scans.inclusiveSum(values, false));
+        assertArrayEquals(new long[]{0, 3, 4, 8, 9}, Scans.exclusiveSum(values, false));
+        assertArrayEquals(new int[]{3, 3, 4, 4, 5}, Scans.runningMax(values, false));
+    }
+
+    @Test
+    void sumsMatchSequentialLoop() {
+        int[] values = randomInts(N, 1);
+        long[] inclusive = new long[N];
+        long[] exclusive = new long[N];
+        long sum = 0;
+        for (int i = 0; i < N; i++) {
+            exclusive[i] = sum;
+            sum += values[i];
+            inclusive[i] = sum;
+        }
+        for (boolean parallel : new boolean[]{false, true}) {
+            assertArrayEquals(inclusive, Scans.inclusiveSum(values, parallel));
+            assertArrayEquals(exclusive, Scans.exclusiveSum(values, parallel));
+        }
+    }
+
+    @Test
+    void runningMaxAndMinMatchSequentialLoop() {
+        int[] values = randomInts(N, 2);
+        int[] max = new int[N];
+        int[] min = new int[N];
+        for (int i = 0; i < N; i++) {
+            max[i] = i == 0 ? values[i] : Math.max(max[i - 1], values[i]);
+            min[i] = i == 0 ? values[i] : Math.min(min[i - 1], values[i]);
+        }
+        for (boolean parallel : new boolean[]{false, true}) {
+            assertArrayEquals(max, Scans.runningMax(values, parallel));
+            assertArrayEquals(min, Scans.runningMin(values, parallel));
+        }
+    }
+
+    @Test
+    void segmentedSumRestartsAtEachKey() {
+        assertArrayEquals(new long[]{300, 700, 1000, 1710, 2410},
+                Scans.segmentedSum(new int[]{2011, 2011, 2012, 2012, 2012}, new int[]{300, 400, 1000, 710, 700}, false));
+
+        //段很长时会跨越并行的块边界
+        Random random = new Random(3);
+        int[] keys = new int[N];
+        int[] values = randomInts(N, 4);
+        for (int i = 1; i < N; i++) {
+            keys[i] = random.nextInt(2000) == 0 ? keys[i - 1] + 1 : keys[i - 1];
+        }
+        long[] expected = new long[N];
+        for (int i = 0; i < N; i++) {
+            expected[i] = i > 0 && keys[i] == keys[i - 1] ? expected[i - 1] + values[i] : values[i];
+        }
+        assertArrayEquals(expected, Scans.segmentedSum(keys, values, false));
+        assertArrayEquals(expected, Scans.segmentedSum(keys, values, true));
+    }
+
+    @Test
+    void segmentedScanRejectsMismatchedLengths() {
+        assertThrows(IllegalArgumentException.class, () -> Scans.segmentedSum(new int[2], new int[3], false));
+    }
+
+    private static int[] randomInts(int n, long seed) {
+        return new Random(seed).ints(n, -1_000_000, 1_000_000).toArray();
+    }
+}
@@ -0,0 +1,97 @@
+package sink;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MpscRingBufferTest {
+
+    @Test
+    void capacityIsRoundedUpToAPowerOfTwoOfAtLeastTwo() {
+        assertEquals(2, new MpscRingBuffer<>(1).capacity());
+        assertEquals(2, new MpscRingBuffer<>(2).capacity());
+        assertEquals(8, new MpscRingBuffer<>(5).capacity());
+        assertEquals(1024, new MpscRingBuffer<>(1024).capacity());
+        assertThrows(IllegalArgumentException.class, () -> new MpscRingBuffer<>(0));
+        assertThrows(IllegalArgumentException.class, () -> new MpscRingBuffer<>((1 << 30) + 1));
+    }
+
+    @Test
+    void fifoUntilFullAcrossLaps() {
+        MpscRingBuffer<Integer> buffer = new MpscRingBuffer<>(4);
+        int next = 0;
+        int expected = 0;
+        for (int lap = 0; lap < 10; lap++) {
+            while (buffer.offer(next)) {
+                next++;
+            }
+            assertEquals(4, buffer.size());
+            assertEquals(expected++, buffer.poll());
+            assertEquals(expected++, buffer.poll());
+        }
+        while (!buffer.isEmpty()) {
+            assertEquals(expected++, buffer.poll());
+        }
+        assertEquals(next, expected);
+        assertNull(buffer.poll());
+        assertThrows(NullPointerException.class, () -> buffer.offer(null));
+    }
+
+    @Test
+    void singleSlotPairDoesNotConfuseReadableAndWritable() {
+        MpscRingBuffer<String> buffer = new MpscRingBuffer<>(1);
+        assertTrue(buffer.offer("a"));
+        assertTrue(buffer.offer("b"));
+        assertFalse(buffer.offer("c"));
+        assertEquals("a", buffer.poll());
+        assertTrue(buffer.offer("c"));
+        assertEquals("b", buffer.poll());
+        assertEquals("c", buffer.poll());
+        assertNull(buffer.poll());
+    }
+
+    @Test
+    void everyElementFromEveryProducerArrivesOnceInProducerOrder() throws InterruptedException {
+        int producers = 4;
+        int perProducer = 50_000;
+        MpscRingBuffer<long[]> buffer = new MpscRingBuffer<>(64);
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            long id = p;
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    buffer.put(new long[]{id, i});
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        int[] nextOf = new int[producers];
+        int received = 0;
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+        while (received < producers * perProducer) {
+            long[] item = buffer.poll();
+            if (item == null) {
+                assertTrue(System.nanoTime() < deadline, "timed out after " + received + " elements");
+                //单核机器上让出 CPU，生产者才能继续
+                Thread.yield();
+                continue;
+            }
+            assertEquals(nextOf[(int) item[0]]++, item[1], "producer " + item[0]);
+            received++;
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertTrue(buffer.isEmpty());
+        assertNull(buffer.poll());
+    }
+}
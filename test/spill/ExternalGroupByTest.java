@@ -0,0 +1,74 @@
+package spill;
+
+import bench.Datasets;
+import domain.Transaction;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collector;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ExternalGroupByTest {
+
+    private static final List<Transaction> TRANSACTIONS = Datasets.transactions(50_000, 42);
+    //分区写缓冲区之外约能放 3000 条记录，50000 条一定会溢写
+    private static final long BUDGET = 256 * 1024;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void nestedAggregationMatchesGroupingBy() throws IOException {
+        Collector<Transaction, ?, Map<String, Integer>> byTrader =
+                Collectors.groupingBy(t -> t.getTrader().getName(), Collectors.summingInt(Transaction::getValue));
+        Map<Integer, Map<String, Integer>> expected = TRANSACTIONS.stream().collect(Collectors.groupingBy(Transaction::getYear, byTrader));
+        for (boolean parallel : new boolean[]{false, true}) {
+            Stream<Transaction> stream = parallel ? TRANSACTIONS.parallelStream() : TRANSACTIONS.stream();
+            assertEquals(expected, stream.collect(ExternalGroupBy.groupingBy(Transaction::getYear, byTrader, new TransactionCodec(), BUDGET, dir)));
+            assertNoFilesLeft();
+        }
+    }
+
+    @Test
+    void keepsInputOrderWithinGroups() throws IOException {
+        Collector<Transaction, ?, List<Integer>> values = Collectors.mapping(Transaction::getValue, Collectors.toList());
+        Map<Integer, List<Integer>> expected = TRANSACTIONS.stream().collect(Collectors.groupingBy(Transaction::getYear, values));
+        assertEquals(expected, TRANSACTIONS.parallelStream().collect(
+                ExternalGroupBy.groupingBy(Transaction::getYear, values, new TransactionCodec(), BUDGET, dir)));
+        assertNoFilesLeft();
+    }
+
+    @Test
+    void skewedKeyStreamsThroughItsAccumulator() throws IOException {
+        //九成记录属于同一个键，整个分区远超预算，逐条交给 counting 的累加容器
+        Function<Transaction, Integer> skewed = t -> t.getValue() % 10 == 0 ? t.getValue() : 0;
+        Map<Integer, Long> expected = TRANSACTIONS.stream().collect(Collectors.groupingBy(skewed, Collectors.counting()));
+        assertEquals(expected, TRANSACTIONS.stream().collect(
+                ExternalGroupBy.groupingBy(skewed, Collectors.counting(), new TransactionCodec(), BUDGET, dir)));
+        assertNoFilesLeft();
+    }
+
+    @Test
+    void rejectsBudgetBelowWriteBuffers() {
+        assertThrows(IllegalArgumentException.class, () -> ExternalGroupBy.groupingBy(Transaction::getYear, Collectors.counting(),
+                new TransactionCodec(), ExternalGroupBy.MIN_BUDGET - 1));
+        assertThrows(NullPointerException.class, () -> TRANSACTIONS.stream().collect(
+                ExternalGroupBy.groupingBy(t -> null, Collectors.counting(), new TransactionCodec(), BUDGET, dir)));
+    }
+
+    private void assertNoFilesLeft() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            assertEquals(0, files.count());
+        }
+    }
+}
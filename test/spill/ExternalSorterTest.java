@@ -0,0 +1,72 @@
+package spill;
+
+import bench.Datasets;
+import domain.Transaction;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ExternalSorterTest {
+
+    private static final List<Transaction> TRANSACTIONS = Datasets.transactions(20_000, 42);
+    //金额只有 1000 种，大量相等的键用来检查稳定性
+    private static final Comparator<Transaction> BY_VALUE = Comparator.comparingInt(Transaction::getValue);
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void fitsInMemoryWithoutFiles() throws IOException {
+        assertSortedLikeStream(1 << 30, 0);
+    }
+
+    @Test
+    void spillsRunsAndMergesStably() throws IOException {
+        //每段约 1000 条，约 20 个有序段
+        assertSortedLikeStream(40 * 1000, 2);
+    }
+
+    @Test
+    void mergesMoreRunsThanFanIn() throws IOException {
+        //每段 100 条，200 个有序段，超过 MAX_FAN_IN 需要先分组归并
+        assertSortedLikeStream(40 * 100, ExternalSorter.MAX_FAN_IN + 1);
+    }
+
+    private void assertSortedLikeStream(long budget, int minRuns) throws IOException {
+        ExternalSorter<Transaction> sorter = new ExternalSorter<>(new TransactionCodec(), BY_VALUE, budget, dir);
+        TRANSACTIONS.forEach(sorter::add);
+        assertTrue(sorter.runCount() >= minRuns, "runs " + sorter.runCount());
+        List<String> actual;
+        try (Stream<Transaction> sorted = sorter.sorted()) {
+            actual = sorted.map(Transaction::toString).collect(Collectors.toList());
+        }
+        List<String> expected = TRANSACTIONS.stream().sorted(BY_VALUE).map(Transaction::toString).collect(Collectors.toList());
+        assertEquals(expected, actual);
+        assertNoFilesLeft();
+    }
+
+    @Test
+    void sortOperatorOnParallelStream() {
+        List<String> actual;
+        try (Stream<Transaction> sorted = ExternalSorter.sort(TRANSACTIONS.parallelStream(), new TransactionCodec(), BY_VALUE, 40 * 1000)) {
+            actual = sorted.map(Transaction::toString).collect(Collectors.toList());
+        }
+        assertEquals(TRANSACTIONS.stream().sorted(BY_VALUE).map(Transaction::toString).collect(Collectors.toList()), actual);
+    }
+
+    private void assertNoFilesLeft() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            assertEquals(0, files.count());
+        }
+    }
+}